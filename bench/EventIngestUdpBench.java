@@ -0,0 +1,78 @@
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.Map;
+
+/**
+ * End-to-end UDP ingestion into a running EventLogger: N events sent as one
+ * datagram each (the old producer path), then N events through an
+ * EventBatcher. Reports how many arrived, the send rate, and the logger's
+ * per-source loss counters for the batched run.
+ *
+ * Run from a scratch directory (the logger writes log.txt and log.bin.* there):
+ *
+ *   java -cp out:bench EventIngestUdpBench [events]
+ */
+public class EventIngestUdpBench {
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        InetAddress local = InetAddress.getLoopbackAddress();
+
+        EventLogger logger = new EventLogger();
+        Thread loggerThread = new Thread(logger, "EventLogger");
+        loggerThread.start();
+        Thread.sleep(300);
+
+        // ---- one datagram per event ----
+        long before = logger.getEventsLogged();
+        long start  = System.nanoTime();
+        try (DatagramSocket socket = new DatagramSocket()) {
+            for (int i = 0; i < events; i++) {
+                byte[] data = (i + ",Drone " + (i % 50 + 1) + ",STATE_CHANGE,ONROUTE,ZONE " + (i % 9 + 1)).getBytes();
+                socket.send(new DatagramPacket(data, data.length, local, EventLogger.DEFAULT_PORT));
+            }
+        }
+        double legacySend = (System.nanoTime() - start) / 1e9;
+        long legacyReceived = waitForQuiet(logger) - before;
+
+        // ---- batched ----
+        before = logger.getEventsLogged();
+        start  = System.nanoTime();
+        long datagrams;
+        try (EventBatcher batcher = new EventBatcher("Bench", local, EventLogger.DEFAULT_PORT)) {
+            for (int i = 0; i < events; i++) {
+                batcher.add(i, "Drone " + (i % 50 + 1) + ",STATE_CHANGE,ONROUTE,ZONE " + (i % 9 + 1));
+            }
+            batcher.flush();
+            datagrams = batcher.sentCount();
+        }
+        double batchedSend = (System.nanoTime() - start) / 1e9;
+        long batchedReceived = waitForQuiet(logger) - before;
+
+        System.out.printf("per-event datagrams: sent %,d in %.2f s (%,.0f ev/s), logged %,d (%.1f%% lost)%n",
+                events, legacySend, events / legacySend, legacyReceived,
+                100.0 * (events - legacyReceived) / events);
+        System.out.printf("batched            : sent %,d in %,d datagrams in %.2f s (%,.0f ev/s), logged %,d (%.1f%% lost)%n",
+                events, datagrams, batchedSend, events / batchedSend, batchedReceived,
+                100.0 * (events - batchedReceived) / events);
+        for (Map.Entry<String, EventLogger.SourceStats> e : logger.getSourceStats().entrySet()) {
+            System.out.printf("  source %s: %d batches, %d lost, %d reordered%n", e.getKey(),
+                    e.getValue().getBatches(), e.getValue().getLost(), e.getValue().getReordered());
+        }
+        logger.close();
+        loggerThread.join(10_000);
+        System.exit(0);
+    }
+
+    /** Waits until the logger has taken no new events for half a second. */
+    private static long waitForQuiet(EventLogger logger) throws InterruptedException {
+        long last = -1, now = logger.getEventsLogged();
+        while (now != last) {
+            Thread.sleep(500);
+            last = now;
+            now  = logger.getEventsLogged();
+        }
+        return now;
+    }
+}
@@ -0,0 +1,63 @@
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Measures how fast the EventLogger receive path can take events in, before
+ * and after the batched writer.
+ *
+ *   sync   — parse + writeLog (open, write one line, close) on the caller
+ *   async  — parse + enqueue to the AsyncLogWriter ring buffer
+ *
+ * Packets are fed straight to EventLogger.parse so the socket does not limit
+ * the numbers. Run from a scratch directory (it writes log.txt there):
+ *
+ *   java -cp out:bench EventLoggerIngestBench [events]
+ */
+public class EventLoggerIngestBench {
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        byte[][] packets = new byte[1024][];
+        for (int i = 0; i < packets.length; i++) {
+            String msg = (i * 7) + ",Drone " + (i % 20 + 1) + ",STATE_CHANGE,ONROUTE,ZONE " + (i % 16 + 1);
+            packets[i] = msg.getBytes();
+        }
+
+        EventLogger logger = new EventLogger();
+
+        // Warm-up so both paths run compiled code
+        run(logger, packets, 20_000, false);
+        run(logger, packets, 20_000, true);
+
+        double sync  = run(logger, packets, Math.min(events, 50_000), false);
+        double async = run(logger, packets, events, true);
+
+        System.out.printf("sync  writeLog : %,12.0f events/s%n", sync);
+        System.out.printf("async enqueue  : %,12.0f events/s (%.1fx)%n", async, async / sync);
+        System.exit(0);
+    }
+
+    /** Returns events/s taken in by the calling thread; async also includes the final drain. */
+    private static double run(EventLogger logger, byte[][] packets, int events, boolean async) throws Exception {
+        logger.clearLogFile();
+        if (async) logger.startWriter();
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            byte[] p = packets[i & (packets.length - 1)];
+            if (async) logger.enqueue(logger.parse(p, p.length));
+            else       logger.writeLog(String.valueOf(logger.parse(p, p.length)));
+        }
+        long ingested = System.nanoTime();
+        if (async) logger.stopWriter();
+        long drained = System.nanoTime();
+
+        long lines = Files.lines(Paths.get(EventLogger.LOG_FILE)).count();
+        if (lines != events) throw new IllegalStateException("Expected " + events + " lines, found " + lines);
+        if (async) {
+            System.out.printf("  async: %d events, ingest %.1f ms, drain %.1f ms%n",
+                    events, (ingested - start) / 1e6, (drained - ingested) / 1e6);
+        }
+        return events / ((ingested - start) / 1e9);
+    }
+}
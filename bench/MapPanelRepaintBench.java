@@ -0,0 +1,124 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures MapPanel frame time and EDT utilisation with 1,000 drones on an
+ * 80x80-cell map (64 zones, 10 burning), at the GUI's 100 ms refresh rate.
+ *
+ *   full    — every update repaints the whole panel (the old behaviour)
+ *   union   — the changed cells merged into one repaint, as Swing's
+ *             RepaintManager would merge them
+ *   regions — the changed cells painted one by one (MapPanel's path on the
+ *             EDT while the regions are few and scattered)
+ *
+ * A frame is updateDronesAndFires plus the paint of the requested regions,
+ * which is the EDT work per map timer tick. Runs headless, painting into an
+ * off-screen image:
+ *
+ *   java -Djava.awt.headless=true -cp out:bench MapPanelRepaintBench [drones] [ticks]
+ */
+public class MapPanelRepaintBench {
+
+    private static final int TICK_MS = 100;
+    private static final int CELLS   = 80;
+
+    private enum Mode { FULL, UNION, REGIONS }
+
+    /** MapPanel that paints its repaint requests straight into an off-screen image. */
+    private static class Panel extends MapPanel {
+        Mode       mode = Mode.FULL;
+        Graphics2D screen;
+        long       paintedPx;
+
+        @Override
+        boolean paintsSeparately() {
+            return mode == Mode.REGIONS;
+        }
+
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {
+            if (mode != Mode.FULL) paintImmediately(x, y, width, height);  // FULL paints every tick itself
+        }
+
+        @Override
+        public void paintImmediately(int x, int y, int width, int height) {
+            if (screen == null) return;
+            screen.setClip(x, y, width, height);
+            paint(screen);
+            paintedPx += (long) width * height;
+        }
+    }
+
+    public static void main(String[] args) {
+        int drones = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int ticks  = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+        System.out.printf("%d drones, %dx%d cells, %d ticks per run%n", drones, CELLS, CELLS, ticks);
+        System.out.printf("%-8s %-8s %12s %12s %10s %16s%n",
+                "moving", "mode", "avg frame", "max frame", "EDT busy", "avg painted px");
+        for (double moving : new double[]{0, 0.002, 0.02, 0.2, 1.0}) {
+            for (Mode mode : Mode.values()) {
+                run(drones, moving, mode, ticks / 5, false);       // warm-up
+                run(drones, moving, mode, ticks, true);
+            }
+        }
+    }
+
+    private static void run(int droneCount, double moving, Mode mode, int ticks, boolean report) {
+        Panel p = new Panel();
+        Map<Integer, Zone> zones = new HashMap<>();
+        int id = 1;
+        for (int zx = 0; zx < CELLS / 10; zx++) {
+            for (int zy = 0; zy < CELLS / 10; zy++) {
+                zones.put(id, new Zone(id, zx * 10, zx * 10 + 9, zy * 10, zy * 10 + 9));
+                id++;
+            }
+        }
+        p.setZones(zones);
+        p.setSize(p.getPreferredSize());
+
+        Random rnd = new Random(1);
+        Map<Integer, DroneInfo> drones = new HashMap<>();
+        for (int i = 1; i <= droneCount; i++) {
+            DroneInfo d = new DroneInfo(i, rnd.nextInt(CELLS), rnd.nextInt(CELLS), 15, null, 0, 100);
+            d.state = i % 3 == 0 ? "ONROUTE" : "IDLE";
+            drones.put(i, d);
+        }
+        Map<Integer, Integer> fires = new HashMap<>();
+        for (int z = 1; z <= 10; z++) fires.put(z * 6, 12);
+
+        BufferedImage screen = new BufferedImage(p.getWidth(), p.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        p.updateDronesAndFires(drones, fires);
+        p.paint(g);
+        p.screen = g;
+        p.mode   = mode;
+
+        int movers = (int) Math.round(droneCount * moving);
+        long total = 0, max = 0;
+        for (int t = 0; t < ticks; t++) {
+            for (int i = 0; i < movers; i++) {
+                DroneInfo d = drones.get(1 + rnd.nextInt(droneCount));
+                d.x = Math.max(0, Math.min(CELLS - 1, d.x + rnd.nextInt(3) - 1));
+                d.y = Math.max(0, Math.min(CELLS - 1, d.y + rnd.nextInt(3) - 1));
+            }
+
+            long start = System.nanoTime();
+            p.updateDronesAndFires(new HashMap<>(drones), new HashMap<>(fires));
+            if (mode == Mode.FULL) p.paintImmediately(0, 0, p.getWidth(), p.getHeight());
+            long took = System.nanoTime() - start;
+            total += took;
+            max = Math.max(max, took);
+        }
+        g.dispose();
+
+        if (!report) return;
+        double avgMs = total / 1e6 / ticks;
+        System.out.printf("%-8s %-8s %9.2f ms %9.2f ms %9.1f%% %,16d%n",
+                moving * 100 + "%", mode.name().toLowerCase(),
+                avgMs, max / 1e6, 100 * avgMs / TICK_MS, p.paintedPx / ticks);
+    }
+}
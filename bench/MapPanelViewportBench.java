@@ -0,0 +1,89 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the time MapPanel takes to paint one 1280x800 viewport as the
+ * map and the fleet grow, zoomed in (25 px per cell, drones drawn one by
+ * one) and zoomed out (2 px per cell, drones clustered, fires as heat tiles).
+ * Zones are 10x10 cells, one in eight burning. The viewport sits in the
+ * middle of the map, and a paint is what Swing does when the view is
+ * scrolled: the whole visible area, through the layer cache when the map is
+ * small enough for one.
+ *
+ *   java -Djava.awt.headless=true -cp out:bench MapPanelViewportBench [paints]
+ */
+public class MapPanelViewportBench {
+
+    private static final int VIEW_W = 1280;
+    private static final int VIEW_H = 800;
+
+    public static void main(String[] args) {
+        int paints = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+
+        System.out.printf("%dx%d viewport, %d paints per run%n", VIEW_W, VIEW_H, paints);
+        System.out.printf("%-12s %8s %8s %8s %12s %12s%n",
+                "map cells", "zones", "drones", "zoom", "avg paint", "max paint");
+        for (int cells : new int[]{100, 500, 2000}) {
+            for (int drones : new int[]{1_000, 10_000, 100_000}) {
+                MapPanel p = panel(cells, drones);
+                for (double zoom : new double[]{1.0, 0.08}) {
+                    p.setZoom(zoom);
+                    p.setSize(p.getPreferredSize());
+                    run(p, paints / 5 + 1);                    // warm-up, builds the cache
+                    long[] t = run(p, paints);
+                    System.out.printf("%-12s %,8d %,8d %7.0f%% %9.2f ms %9.2f ms%n",
+                            cells + "x" + cells, (cells / 10) * (cells / 10), drones, zoom * 100,
+                            t[0] / 1e6 / paints, t[1] / 1e6);
+                }
+            }
+        }
+    }
+
+    private static MapPanel panel(int cells, int droneCount) {
+        MapPanel p = new MapPanel();
+        Map<Integer, Zone> zones = new HashMap<>();
+        Map<Integer, Integer> fires = new HashMap<>();
+        int id = 1;
+        for (int zx = 0; zx < cells / 10; zx++) {
+            for (int zy = 0; zy < cells / 10; zy++) {
+                zones.put(id, new Zone(id, zx * 10, zx * 10 + 9, zy * 10, zy * 10 + 9));
+                if (id % 8 == 0) fires.put(id, 5 + id % 30);
+                id++;
+            }
+        }
+        p.setZones(zones);
+
+        Random rnd = new Random(1);
+        Map<Integer, DroneInfo> drones = new HashMap<>();
+        for (int i = 1; i <= droneCount; i++) {
+            DroneInfo d = new DroneInfo(i, rnd.nextInt(cells), rnd.nextInt(cells), 15, null, 0, 100);
+            d.state = i % 3 == 0 ? "ONROUTE" : "IDLE";
+            drones.put(i, d);
+        }
+        p.updateDronesAndFires(drones, fires);
+        return p;
+    }
+
+    /** Paints the middle viewport {@code n} times; returns the total and the slowest, in ns. */
+    private static long[] run(MapPanel p, int n) {
+        BufferedImage screen = new BufferedImage(VIEW_W, VIEW_H, BufferedImage.TYPE_INT_RGB);
+        int x = Math.max(0, (p.getWidth() - VIEW_W) / 2);
+        int y = Math.max(0, (p.getHeight() - VIEW_H) / 2);
+        long total = 0, max = 0;
+        for (int i = 0; i < n; i++) {
+            Graphics2D g = screen.createGraphics();
+            g.translate(-x, -y);
+            g.setClip(x, y, VIEW_W, VIEW_H);
+            long start = System.nanoTime();
+            p.paint(g);
+            long took = System.nanoTime() - start;
+            g.dispose();
+            total += took;
+            max = Math.max(max, took);
+        }
+        return new long[]{total, max};
+    }
+}
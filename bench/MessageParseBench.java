@@ -0,0 +1,101 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cost of turning a received datagram into handler arguments, for the
+ * messages the receive loops see most: the old way (a {@code String} from
+ * the bytes, {@code trim()}, {@code split("\\|")}, {@code Integer.parseInt}
+ * per field) against {@link MessageReader} scanning the bytes in place.
+ *
+ * Reports time and bytes allocated per message, from the thread's allocation
+ * counter, and the collections that ran.
+ *
+ *   java -cp out:bench MessageParseBench [messages]
+ */
+public class MessageParseBench {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final String[] OPCODES = {
+            "locationUpdate", "batteryUpdate", "getTime", "missionCompleted", "ASSIGN_MISSION"
+    };
+    private static final String[] WORDS = {"IDLE", "ONROUTE", "FIRE", "HIGH", "MODERATE", "LOW"};
+
+    private static final String[] MESSAGES = {
+            "locationUpdate|17|120|33|ONROUTE|#48213",
+            "missionCompleted|17|904|15|#48214",
+            "ASSIGN_MISSION|17|904|FIRE|HIGH|15|3600|120|33",
+    };
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        System.out.printf("%,d messages per run%n%n", n);
+        System.out.printf("%-48s %-14s %10s %10s %6s%n", "message", "parser", "ns/msg", "bytes/msg", "GCs");
+        for (String msg : MESSAGES) {
+            byte[] datagram = new byte[1024];
+            byte[] bytes = msg.getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(bytes, 0, datagram, 0, bytes.length);
+            for (int pass = 0; pass < 2; pass++) {    // the first pass warms up
+                run(msg, "split", pass == 1, n, () -> split(datagram, bytes.length));
+                MessageReader reader = new MessageReader();
+                run(msg, "MessageReader", pass == 1, n, () -> read(reader, datagram, bytes.length));
+            }
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    /** The old receive path. */
+    private static long split(byte[] datagram, int length) {
+        String msg = new String(datagram, 0, length).trim();
+        int cut = msg.lastIndexOf("|#");
+        if (cut >= 0) msg = msg.substring(0, cut);
+        String[] parts = msg.split("\\|");
+        long sum = parts[0].length();
+        for (int i = 1; i < parts.length; i++) {
+            char c = parts[i].charAt(0);
+            sum += c >= '0' && c <= '9' ? Integer.parseInt(parts[i]) : parts[i].length();
+        }
+        return sum;
+    }
+
+    private static long read(MessageReader m, byte[] datagram, int length) {
+        m.reset(datagram, 0, length);
+        m.stripTag();
+        long sum = m.opcode(OPCODES).length();
+        for (int i = 1; i < m.fieldCount(); i++) {
+            sum += m.startsWithDigit(i) ? m.intField(i) : m.word(i, WORDS).length();
+        }
+        return sum;
+    }
+
+    private interface Parse {
+        long parse();
+    }
+
+    private static void run(String msg, String parser, boolean print, int n, Parse p) {
+        long gcs = gcCount();
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < n; i++) sum += p.parse();
+        long nanos = System.nanoTime() - start;
+        bytes = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+        gcs = gcCount() - gcs;
+        sink += sum;
+        if (print) {
+            System.out.printf("%-48s %-14s %10.1f %10.1f %6d%n",
+                    msg, parser, (double) nanos / n, (double) bytes / n, gcs);
+        }
+    }
+
+    private static long gcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) n += gc.getCollectionCount();
+        return n;
+    }
+}
@@ -0,0 +1,82 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Cost of encoding and sending one message, for the sends the subsystems
+ * make most: the old way (string concatenation, {@code getBytes()} and a new
+ * {@code DatagramPacket} per send on a {@code DatagramSocket}) against
+ * {@link MessageWriter} encoding into its reused buffer and sending on a
+ * {@code DatagramChannel}. Datagrams go to a loopback port nobody reads.
+ *
+ * Reports time and bytes allocated per send, from the thread's allocation
+ * counter, and the collections that ran.
+ *
+ *   java -cp out:bench MessageSendBench [sends]
+ */
+public class MessageSendBench {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+
+        try (DatagramChannel sink = DatagramChannel.open().bind(new InetSocketAddress(loopback, 0));
+             DatagramSocket socket = new DatagramSocket();
+             DatagramChannel channel = MessageWriter.openChannel(0)) {
+            int port = ((InetSocketAddress) sink.getLocalAddress()).getPort();
+            MessageWriter w = new MessageWriter();
+
+            System.out.printf("%,d sends per run%n%n", n);
+            System.out.printf("%-16s %-14s %10s %10s %6s%n", "message", "sender", "ns/send", "bytes/send", "GCs");
+            for (int pass = 0; pass < 2; pass++) {    // the first pass warms up
+                boolean print = pass == 1;
+                run("locationUpdate", "String", print, n, i -> {
+                    byte[] data = ("locationUpdate|" + 17 + "|" + i + "|" + 33 + "|" + "ONROUTE").getBytes();
+                    socket.send(new DatagramPacket(data, data.length, loopback, port));
+                });
+                run("locationUpdate", "MessageWriter", print, n, i ->
+                        w.begin("locationUpdate").field(17).field(i).field(33).field("ONROUTE")
+                                .send(channel, loopback, port));
+                run("ASSIGN_MISSION", "String", print, n, i -> {
+                    byte[] data = ("ASSIGN_MISSION|" + 17 + "|" + 904 + "|" + "FIRE" + "|" + "HIGH" + "|"
+                            + 15 + "|" + i + "|" + 120 + "|" + 33).getBytes();
+                    socket.send(new DatagramPacket(data, data.length, loopback, port));
+                });
+                run("ASSIGN_MISSION", "MessageWriter", print, n, i ->
+                        w.begin("ASSIGN_MISSION").field(17).field(904).field("FIRE").field("HIGH")
+                                .field(15).field(i).field(120).field(33).send(channel, loopback, port));
+            }
+        }
+    }
+
+    private interface Send {
+        void send(int i) throws Exception;
+    }
+
+    private static void run(String msg, String sender, boolean print, int n, Send s) throws Exception {
+        long gcs = gcCount();
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) s.send(i);
+        long nanos = System.nanoTime() - start;
+        bytes = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+        gcs = gcCount() - gcs;
+        if (print) {
+            System.out.printf("%-16s %-14s %10.1f %10.1f %6d%n",
+                    msg, sender, (double) nanos / n, (double) bytes / n, gcs);
+        }
+    }
+
+    private static long gcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) n += gc.getCollectionCount();
+        return n;
+    }
+}
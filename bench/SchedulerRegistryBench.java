@@ -0,0 +1,189 @@
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Allocation and GC cost of the Scheduler's drone and water registries
+ * during a dispatch storm: every one of N drones (default 10,000) is sent to
+ * a fire in its own zone, then completes it, round after round.
+ *
+ * The first part replays just the registry operations of one mission (look
+ * the drone up, commit water to the zone, record the active mission, then
+ * release both on completion) against boxed {@code HashMap<Integer, ...>}
+ * registries, as the Scheduler used to keep them, and against
+ * {@link IntMap}/{@link IntIntMap}. The second drives a real Scheduler
+ * through the same storm, UDP pushes and all, so the registries' share can
+ * be seen against the whole dispatch path.
+ *
+ *   java -XX:+UseParallelGC -cp out:bench SchedulerRegistryBench [drones] [rounds]
+ */
+public class SchedulerRegistryBench {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int drones = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        System.out.printf("%,d drones, one fire each per round%n%n", drones);
+        System.out.printf("%-28s %8s %14s %12s %10s %10s%n",
+                "registries", "rounds", "missions/s", "bytes/msn", "GCs", "GC ms");
+        for (int pass = 0; pass < 2; pass++) {        // the first pass warms up
+            report("HashMap<Integer, ...>", rounds, drones, boxed(drones, rounds), pass == 1);
+            report("IntMap / IntIntMap", rounds, drones, primitive(drones, rounds), pass == 1);
+        }
+
+        int storms = Math.max(1, rounds / 40);
+        System.out.println();
+        report("Scheduler, full dispatch", storms, drones, scheduler(drones, storms), true);
+    }
+
+    // ==== Registry operations only ====
+
+    private static Sample boxed(int drones, int rounds) {
+        Map<Integer, DroneInfo> registry = new HashMap<>();
+        Map<Integer, Integer>   assigned = new HashMap<>();
+        Map<Integer, FireEvent> active   = new HashMap<>();
+        FireEvent[] fires = fires(drones);
+        for (int id = 1; id <= drones; id++) registry.put(id, new DroneInfo(id, 0, 0, 15, null, 0, 100));
+
+        Sample s = Sample.start();
+        for (int r = 0; r < rounds; r++) {
+            for (int id = 1; id <= drones; id++) {
+                FireEvent f = fires[id - 1];
+                DroneInfo d = registry.get(id);
+                assigned.merge(f.getZoneId(), d.waterRemaining, Integer::sum);
+                active.put(id, f);
+            }
+            for (int id = 1; id <= drones; id++) {
+                FireEvent f = active.remove(id);
+                int used = registry.get(id).waterRemaining;
+                assigned.computeIfPresent(f.getZoneId(), (k, v) -> v - used <= 0 ? null : v - used);
+            }
+        }
+        return s.stop((long) rounds * drones);
+    }
+
+    private static Sample primitive(int drones, int rounds) {
+        IntMap<DroneInfo> registry = new IntMap<>();
+        IntIntMap         assigned = new IntIntMap();
+        IntMap<FireEvent> active   = new IntMap<>();
+        FireEvent[] fires = fires(drones);
+        for (int id = 1; id <= drones; id++) registry.put(id, new DroneInfo(id, 0, 0, 15, null, 0, 100));
+
+        Sample s = Sample.start();
+        for (int r = 0; r < rounds; r++) {
+            for (int id = 1; id <= drones; id++) {
+                FireEvent f = fires[id - 1];
+                DroneInfo d = registry.get(id);
+                assigned.add(f.getZoneId(), d.waterRemaining);
+                active.put(id, f);
+            }
+            for (int id = 1; id <= drones; id++) {
+                FireEvent f = active.remove(id);
+                assigned.subtract(f.getZoneId(), registry.get(id).waterRemaining);
+            }
+        }
+        return s.stop((long) rounds * drones);
+    }
+
+    private static FireEvent[] fires(int n) {
+        FireEvent[] fires = new FireEvent[n];
+        for (int i = 0; i < n; i++) fires[i] = new FireEvent(i + 1, "FIRE", "LOW", 0);
+        return fires;
+    }
+
+    // ==== Whole Scheduler ====
+
+    private static Sample scheduler(int drones, int storms) throws Exception {
+        int side = (int) Math.ceil(Math.sqrt(drones));
+        File zones = File.createTempFile("storm-zones", ".csv");
+        zones.deleteOnExit();
+        int metres = 3 * Scheduler.METERS_PER_CELL;
+        try (PrintWriter pw = new PrintWriter(zones)) {
+            pw.println("ZoneID, ZoneStart, ZoneEnd");
+            for (int i = 0; i < side * side; i++) {
+                int x = i % side, y = i / side;
+                pw.printf("%d, (%d, %d), (%d, %d)%n", i + 1, x * metres, y * metres, (x + 1) * metres, (y + 1) * metres);
+            }
+        }
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Scheduler scheduler = new Scheduler();
+        try {
+            scheduler.setConsoleLog(false);
+            scheduler.loadZonesFromFile(zones.getAbsolutePath());
+            for (int id = 1; id <= drones; id++) {
+                scheduler.registerDroneForTest(id, 1_000_000);
+                scheduler.getDroneInfo(id).port = 9;      // discard
+            }
+            List<FireEvent> storm = new ArrayList<>(drones);
+            for (FireEvent f : fires(drones)) storm.add(f);
+
+            scheduler.receiveFireEventBatch(storm);             // warm-up storm
+            for (int id = 1; id <= drones; id++) scheduler.missionCompleted(id, id, 5);
+
+            Sample s = Sample.start();
+            for (int r = 0; r < storms; r++) {
+                scheduler.receiveFireEventBatch(storm);
+                for (int id = 1; id <= drones; id++) scheduler.missionCompleted(id, id, 5);
+            }
+            return s.stop((long) storms * drones);
+        } finally {
+            scheduler.stop();
+            System.setOut(console);
+        }
+    }
+
+    // ==== Measurement ====
+
+    private static void report(String name, int rounds, int drones, Sample s, boolean print) {
+        if (!print) return;
+        System.out.printf("%-28s %8d %,14.0f %,12.1f %10d %10d%n", name, rounds,
+                s.missions / (s.nanos / 1e9), (double) s.bytes / s.missions, s.gcs, s.gcMillis);
+    }
+
+    private static final class Sample {
+        long nanos, bytes, gcs, gcMillis, missions;
+
+        static Sample start() {
+            System.gc();
+            Sample s = new Sample();
+            s.nanos    = -System.nanoTime();
+            s.bytes    = -THREADS.getCurrentThreadAllocatedBytes();
+            s.gcs      = -gcCount();
+            s.gcMillis = -gcMillis();
+            return s;
+        }
+
+        Sample stop(long missions) {
+            nanos    += System.nanoTime();
+            bytes    += THREADS.getCurrentThreadAllocatedBytes();
+            gcs      += gcCount();
+            gcMillis += gcMillis();
+            this.missions = missions;
+            return this;
+        }
+
+        private static long gcCount() {
+            long n = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) n += gc.getCollectionCount();
+            return n;
+        }
+
+        private static long gcMillis() {
+            long n = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) n += gc.getCollectionTime();
+            return n;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Appends log records to a file from a dedicated writer thread.
+ *
+ * Callers only place records in a {@link LogRingBuffer}; the writer thread
+ * formats them (String.valueOf), packs them into one direct buffer and writes
+ * whole batches to a FileChannel. A record waits at most flushIntervalMs in
+ * the batch (0 writes after every drain of the ring), a full batch or a
+ * sync() writes at once, and the file is forced to disk according to the
+ * FsyncPolicy.
+ *
+ * An optional sink also sees every record on the writer thread, before it
+ * is formatted, so other storage (the binary event log) is kept off the
+ * producer's thread too. Without a file the writer only feeds the sink.
+ */
+public class AsyncLogWriter implements AutoCloseable {
+
+    /** When written batches are forced to the storage device. */
+    public enum FsyncPolicy {
+        /** Leave it to the OS; the file is still forced once on close. */
+        NEVER,
+        /** At most once every fsyncIntervalMs. */
+        INTERVAL,
+        /** After every batch written (slowest, loses nothing on a crash). */
+        EVERY_BATCH
+    }
+
+    public static final int  DEFAULT_CAPACITY          = 1 << 16;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 50;
+    public static final long DEFAULT_FSYNC_INTERVAL_MS = 1000;
+
+    private static final int  BATCH_BYTES   = 64 * 1024;
+    private static final long IDLE_PARK_NS  = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long FULL_PARK_NS  = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final LogRingBuffer<Object> ring;
+    private final FileChannel           channel;   // null: no text file
+    private final Consumer<Object>      sink;      // null: none
+    private final ByteBuffer            batch = ByteBuffer.allocateDirect(BATCH_BYTES);
+    private final long                  flushIntervalNs;
+    private final FsyncPolicy           fsyncPolicy;
+    private final long                  fsyncIntervalNs;
+    private final Thread                writer;
+
+    private volatile boolean running = true;
+    /** Records that have reached the channel; read by sync(). */
+    private volatile long    written = 0;
+    /** Highest record count a sync() caller is waiting for. */
+    private volatile long    syncRequested = 0;
+    /** Times append() found the ring full and had to wait for the writer. */
+    private final LongAdder  fullWaits = new LongAdder();
+
+    // Writer thread only
+    private long    lastForce = System.nanoTime();
+    private boolean unforced  = false;
+
+    public AsyncLogWriter(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MS, FsyncPolicy.NEVER, DEFAULT_FSYNC_INTERVAL_MS);
+    }
+
+    /**
+     * @param file            file to append to (created if missing)
+     * @param capacity        ring buffer slots
+     * @param flushIntervalMs longest time a record may wait in the batch while records keep arriving
+     * @param fsyncPolicy     when to force written data to disk
+     * @param fsyncIntervalMs spacing of forces under {@link FsyncPolicy#INTERVAL}
+     */
+    public AsyncLogWriter(Path file, int capacity, long flushIntervalMs,
+                          FsyncPolicy fsyncPolicy, long fsyncIntervalMs) throws IOException {
+        this(file, null, capacity, flushIntervalMs, fsyncPolicy, fsyncIntervalMs);
+    }
+
+    /**
+     * @param file            file to append to (created if missing), or null to only feed {@code sink}
+     * @param sink            called with every record on the writer thread, or null
+     * @param capacity        ring buffer slots
+     * @param flushIntervalMs longest time a record may wait in the batch while records keep arriving
+     * @param fsyncPolicy     when to force written data to disk
+     * @param fsyncIntervalMs spacing of forces under {@link FsyncPolicy#INTERVAL}
+     */
+    public AsyncLogWriter(Path file, Consumer<Object> sink, int capacity, long flushIntervalMs,
+                          FsyncPolicy fsyncPolicy, long fsyncIntervalMs) throws IOException {
+        this.ring            = new LogRingBuffer<>(capacity);
+        this.channel         = file == null ? null : FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.sink            = sink;
+        this.flushIntervalNs = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.fsyncPolicy     = fsyncPolicy;
+        this.fsyncIntervalNs = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.writer          = new Thread(this::writeLoop, "EventLogger-Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a record for writing. Returns immediately unless the ring is
+     * full, in which case it waits for the writer to free a slot rather than
+     * drop the record.
+     */
+    public void append(Object record) {
+        if (!running) throw new IllegalStateException("Writer is closed");
+        if (ring.offer(record)) return;
+        fullWaits.increment();
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NS);
+        } while (!ring.offer(record));
+    }
+
+    /**
+     * Waits until every record appended before this call has been written to
+     * the file channel and passed to the sink, so a reader of either sees it.
+     */
+    public void sync() {
+        long target = ring.producedCount();
+        if (syncRequested < target) syncRequested = target;
+        while (written < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(IDLE_PARK_NS);
+        }
+    }
+
+    /** Records written to the file (or, without one, passed to the sink) so far. */
+    public long writtenCount() {
+        return written;
+    }
+
+    /** Number of appends that found the ring buffer full. */
+    public long fullWaitCount() {
+        return fullWaits.sum();
+    }
+
+    // ==== Writer thread ====
+
+    private void writeLoop() {
+        long batched   = 0;
+        long lastFlush = System.nanoTime();
+        try {
+            while (true) {
+                boolean stopping = !running;       // read before draining so no record is missed
+                Object record;
+                int drained = 0;
+                while ((record = ring.poll()) != null) {
+                    drained++;
+                    if (sink != null) sink.accept(record);
+                    if (channel == null) {
+                        written++;
+                        continue;
+                    }
+                    byte[] line = (record + "\n").getBytes(StandardCharsets.UTF_8);
+                    if (line.length > batch.remaining()) {
+                        writeBatch();
+                        written += batched;
+                        batched = 0;
+                    }
+                    if (line.length > batch.capacity()) {
+                        writeFully(ByteBuffer.wrap(line));
+                        wrote();
+                        written++;
+                    } else {
+                        batch.put(line);
+                        batched++;
+                    }
+                }
+
+                long now = System.nanoTime();
+                // Write out once records have waited long enough, or when someone
+                // is waiting in sync()/close()
+                boolean flushDue = now - lastFlush >= flushIntervalNs
+                        || syncRequested > written || stopping;
+                if (batched > 0 && flushDue) {
+                    writeBatch();
+                    lastFlush = now;
+                    written += batched;
+                    batched = 0;
+                }
+                if (unforced && fsyncPolicy == FsyncPolicy.INTERVAL && now - lastForce >= fsyncIntervalNs) {
+                    channel.force(false);
+                    lastForce = now;
+                    unforced  = false;
+                }
+
+                if (stopping) break;
+                if (drained == 0) LockSupport.parkNanos(IDLE_PARK_NS);
+            }
+            if (channel != null) channel.force(false);
+        } catch (IOException e) {
+            System.err.println("EventLogger writer error: " + e.getMessage());
+        } finally {
+            try {
+                if (channel != null) channel.close();
+            } catch (IOException ignored) { }
+        }
+    }
+
+    /** Writes the batch, whether it filled up mid-drain or is being flushed, and applies the FsyncPolicy. */
+    private void writeBatch() throws IOException {
+        batch.flip();
+        writeFully(batch);
+        batch.clear();
+        wrote();
+    }
+
+    /** Notes data written to the channel; forces it now under {@link FsyncPolicy#EVERY_BATCH}. */
+    private void wrote() throws IOException {
+        unforced = true;
+        if (fsyncPolicy == FsyncPolicy.EVERY_BATCH) {
+            channel.force(false);
+            unforced = false;
+        }
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) channel.write(data);
+    }
+
+    /** Writes everything still queued, forces the file and stops the writer thread. */
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
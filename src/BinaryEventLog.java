@@ -0,0 +1,684 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compact, indexed, append-only event log written alongside (or instead of)
+ * the text log.txt.
+ *
+ * <p>Every event is one fixed-width record. Entity names are interned into
+ * a shared dictionary and stored as int IDs. A typed {@link Event} keeps its
+ * code as the enum ordinal and its zone, drone state and severity as plain
+ * ints; events appended as text have every field interned instead, so
+ * "Drone 4", "STATE_CHANGE" and "ZONE 2" each cost four bytes:</p>
+ * <pre>
+ *   int   time      simulation seconds
+ *   int   entity    dictionary ID
+ *   int   code      -2 - EventCode ordinal (typed), or dictionary ID (text)
+ *   int   data0     typed payload or dictionary ID, or -1
+ *   int   data1     typed payload or dictionary ID, or -1
+ * </pre>
+ * <p>The typed payload follows {@link Event}: a state change holds the state
+ * ordinal and the zone, a fire detection the zone and the severity ordinal,
+ * an extinguished fire the zone; a fault's drone and free text are
+ * dictionary IDs. Queries name fields as text either way.</p>
+ *
+ * <p>Records go into numbered segment files of {@link #SEGMENT_RECORDS}
+ * records ({@code base.0000}, {@code base.0001}, ...); the dictionary is
+ * {@code base.dict}. Each segment keeps a sparse index: the min/max time of
+ * every block of {@link #BLOCK_RECORDS} records plus the sets of entity,
+ * code and data IDs that occur in it. A query skips segments that cannot
+ * match and reads only the blocks whose time span overlaps the range, so
+ * "Drone 17 between 01:00:00 and 02:00:00" or "FIRE_DETECTED in ZONE 3"
+ * touch a small part of a long log. Indexes are saved as {@code .idx} files
+ * on close and rebuilt from the segment if one is missing or stale.</p>
+ *
+ * <p>One thread appends. Queries may run on other threads at the same time:
+ * they take a snapshot of the index and of the records not yet written out
+ * while briefly holding the append lock, then read and filter without it,
+ * so a long scan never stalls appends.</p>
+ */
+public class BinaryEventLog implements Closeable {
+
+    public static final int RECORD_BYTES    = 20;
+    public static final int BLOCK_RECORDS   = 256;
+    public static final int SEGMENT_RECORDS = 1 << 18;
+    /** Extra fields beyond this are not stored. */
+    public static final int MAX_DATA_FIELDS = 2;
+
+    private static final int NONE        = -1;
+    /** Filter value that matches no stored value. */
+    private static final int ABSENT      = Integer.MIN_VALUE;
+    /** First int of an {@code .idx} file; older index files start with a record count and are rebuilt. */
+    private static final int INDEX_FORMAT = -2;
+
+    private static final EventCode[]               CODES      = EventCode.values();
+    private static final DroneMachine.DroneState[] STATES     = DroneMachine.DroneState.values();
+    private static final FireEvent.FireSeverity[]  SEVERITIES = FireEvent.FireSeverity.values();
+
+    /** Kinds of typed data field, and of keys in a segment's typed-value set. */
+    private static final int ZONE = 0, STATE = 1, SEVERITY = 2, CODE = 3, DICTIONARY = -1;
+    private static final int BLOCKS      = SEGMENT_RECORDS / BLOCK_RECORDS;
+    private static final int WRITE_BATCH = 64 * 1024 / RECORD_BYTES * RECORD_BYTES;
+
+    /** One decoded event. {@link #toString()} renders the log.txt form. */
+    public static class Record {
+        public final long     time;
+        public final String   entity;
+        public final String   code;
+        public final String[] data;
+
+        Record(long time, String entity, String code, String[] data) {
+            this.time   = time;
+            this.entity = entity;
+            this.code   = code;
+            this.data   = data;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(64).append("Event log: [")
+                    .append(SimulationClock.formatTime(time)).append(", ").append(entity).append(", ").append(code);
+            for (String d : data) sb.append(", ").append(d);
+            return sb.append(']').toString();
+        }
+    }
+
+    /** Sparse index of one segment file. */
+    private static class Segment {
+        final Path        file;
+        final FileChannel channel;
+        int               records;
+        final int[]       blockMin = new int[BLOCKS];
+        final int[]       blockMax = new int[BLOCKS];
+        final BitSet      entities = new BitSet();
+        final BitSet      codes    = new BitSet();
+        final BitSet      data     = new BitSet();
+        /** Typed codes and data values, as {@link #key} keys. */
+        final BitSet      typed    = new BitSet();
+
+        Segment(Path file, FileChannel channel) {
+            this.file    = file;
+            this.channel = channel;
+        }
+
+        void index(int recordNo, int time, int entity, int code, int d0, int d1) {
+            int block = recordNo / BLOCK_RECORDS;
+            if (recordNo % BLOCK_RECORDS == 0) {
+                blockMin[block] = time;
+                blockMax[block] = time;
+            } else {
+                blockMin[block] = Math.min(blockMin[block], time);
+                blockMax[block] = Math.max(blockMax[block], time);
+            }
+            entities.set(entity);
+            if (code >= 0) {
+                codes.set(code);
+                if (d0 != NONE) data.set(d0);
+                if (d1 != NONE) data.set(d1);
+                return;
+            }
+            int ordinal = ordinalOf(code);
+            typed.set(key(CODE, ordinal));
+            indexTyped(ordinal, 0, d0);
+            indexTyped(ordinal, 1, d1);
+        }
+
+        private void indexTyped(int ordinal, int field, int value) {
+            if (value < 0) return;
+            int kind = kindOf(ordinal, field);
+            if (kind == DICTIONARY) data.set(value);
+            else typed.set(key(kind, value));
+        }
+
+        int blockCount() {
+            return (records + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        }
+
+        /** This segment as a query sees it; a copy of the index while it is still being appended to. */
+        View view(boolean live, int flushed, byte[] pending) {
+            if (!live) return new View(this, records, blockMin, blockMax, entities, codes, data, typed, records, null);
+            int blocks = blockCount();
+            return new View(this, records, Arrays.copyOf(blockMin, blocks), Arrays.copyOf(blockMax, blocks),
+                    (BitSet) entities.clone(), (BitSet) codes.clone(), (BitSet) data.clone(),
+                    (BitSet) typed.clone(), flushed, pending);
+        }
+
+        Path indexFile() {
+            return Paths.get(file + ".idx");
+        }
+    }
+
+    /** A consistent, unchanging picture of one segment for a query. */
+    private static class View {
+        final Segment seg;
+        final int     records;
+        final int[]   blockMin, blockMax;
+        final BitSet  entities, codes, data, typed;
+        /** Records before this are in the file; the rest are in {@link #pending}. */
+        final int     flushed;
+        final byte[]  pending;
+
+        View(Segment seg, int records, int[] blockMin, int[] blockMax,
+             BitSet entities, BitSet codes, BitSet data, BitSet typed, int flushed, byte[] pending) {
+            this.seg      = seg;
+            this.records  = records;
+            this.blockMin = blockMin;
+            this.blockMax = blockMax;
+            this.entities = entities;
+            this.codes    = codes;
+            this.data     = data;
+            this.typed    = typed;
+            this.flushed  = flushed;
+            this.pending  = pending;
+        }
+
+        int blockCount() {
+            return (records + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        }
+    }
+
+    /** A query's filters resolved to stored values: dictionary IDs and typed values. */
+    private static final class Filter {
+        final boolean anyEntity, anyCode, anyData;
+        final int     entity;
+        final int     code, typedCode;
+        final int     data, zone, state, severity;
+
+        Filter(Map<String, Integer> ids, String entity, String code, String dataField) {
+            anyEntity = entity    == null;
+            anyCode   = code      == null;
+            anyData   = dataField == null;
+            this.entity = anyEntity ? ABSENT : ids.getOrDefault(entity, ABSENT);
+            this.code   = anyCode   ? ABSENT : ids.getOrDefault(code, ABSENT);
+            this.data   = anyData   ? ABSENT : ids.getOrDefault(dataField, ABSENT);
+            byte[] codeName = anyCode ? null : ascii(code);
+            EventCode typed = anyCode ? null : EventCode.match(codeName, 0, codeName.length);
+            typedCode = typed == null ? ABSENT : typedCode(typed.ordinal());
+            zone     = anyData ? ABSENT : zoneOf(dataField);
+            state    = anyData ? ABSENT : nameOrdinal(STATES, dataField);
+            severity = anyData ? ABSENT : nameOrdinal(SEVERITIES, dataField);
+        }
+
+        /** Whether no record at all can match. */
+        boolean matchesNothing() {
+            return (!anyEntity && entity == ABSENT)
+                || (!anyCode && code == ABSENT && typedCode == ABSENT)
+                || (!anyData && data == ABSENT && zone == ABSENT && state == ABSENT && severity == ABSENT);
+        }
+
+        /** Whether a segment's index allows a match. */
+        boolean mayMatch(View seg) {
+            return (anyEntity || seg.entities.get(entity))
+                && (anyCode || (code != ABSENT && seg.codes.get(code))
+                            || (typedCode != ABSENT && seg.typed.get(key(CODE, ordinalOf(typedCode)))))
+                && (anyData || (data != ABSENT && seg.data.get(data))
+                            || (zone != ABSENT && seg.typed.get(key(ZONE, zone)))
+                            || (state != ABSENT && seg.typed.get(key(STATE, state)))
+                            || (severity != ABSENT && seg.typed.get(key(SEVERITY, severity))));
+        }
+
+        boolean matches(int e, int c, int d0, int d1) {
+            if (!anyEntity && e != entity) return false;
+            if (!anyCode && c != code && c != typedCode) return false;
+            if (anyData) return true;
+            if (c >= 0) return d0 == data || d1 == data;
+            int ordinal = ordinalOf(c);
+            return fieldMatches(kindOf(ordinal, 0), d0) || fieldMatches(kindOf(ordinal, 1), d1);
+        }
+
+        private boolean fieldMatches(int kind, int value) {
+            switch (kind) {
+                case ZONE:     return value == zone;
+                case STATE:    return value == state;
+                case SEVERITY: return value == severity;
+                default:       return value == data;
+            }
+        }
+
+        private static int zoneOf(String field) {
+            if (!field.startsWith("ZONE ")) return ABSENT;
+            byte[] name = ascii(field);
+            int zone = Event.parseInt(name, 5, name.length - 5);
+            return zone < 0 ? ABSENT : zone;
+        }
+
+        private static int nameOrdinal(Enum<?>[] values, String name) {
+            for (Enum<?> v : values) if (v.name().equals(name)) return v.ordinal();
+            return ABSENT;
+        }
+
+        private static byte[] ascii(String s) {
+            return s.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        }
+    }
+
+    private final Path                 base;
+    private final List<Segment>        segments = new ArrayList<>();
+    private final Map<String, Integer> ids      = new HashMap<>();
+    /**
+     * Dictionary names by ID. Only slots past {@link #nameCount} are ever
+     * written, and a full array is replaced rather than changed, so a query
+     * can keep reading the array it saw in its snapshot.
+     */
+    private String[]                   names    = new String[256];
+    private int                        nameCount;
+    /** Dictionary IDs of entities already interned, so typed appends need no lookup by name. */
+    private final int[]                subsystemIds = {NONE, NONE, NONE, NONE};
+    private final IntIntMap            droneIds     = new IntIntMap();
+    private final DataOutputStream     dictOut;
+    private final ByteBuffer           pending  = ByteBuffer.allocateDirect(WRITE_BATCH);
+    /** Records of the last segment that are still in {@link #pending}. */
+    private int                        pendingRecords;
+    private boolean                    closed;
+
+    private BinaryEventLog(Path base, boolean truncate) throws IOException {
+        this.base = base;
+        Path dict = dictFile();
+        if (truncate) deleteFiles(base);
+        if (Files.exists(dict)) loadDictionary(dict);
+        this.dictOut = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(dict.toFile(), true)));
+        for (int n = 0; Files.exists(segmentFile(n)); n++) openSegment(n);
+        if (segments.isEmpty()) openSegment(0);
+    }
+
+    /** Starts an empty log at {@code base}, deleting any previous one. */
+    public static BinaryEventLog create(Path base) throws IOException {
+        return new BinaryEventLog(base, true);
+    }
+
+    /** Opens an existing log at {@code base} to query it or append to it. */
+    public static BinaryEventLog open(Path base) throws IOException {
+        return new BinaryEventLog(base, false);
+    }
+
+    // ==== Writing ====
+
+    /**
+     * Appends one event. Records are batched in memory and written in large
+     * chunks; {@link #flush()} writes the rest. Queries see them either way.
+     */
+    public synchronized void append(long time, String entity, String code, String... data) throws IOException {
+        if (closed) throw new IOException("Event log is closed");
+        int e  = intern(entity);
+        int c  = intern(code);
+        int d0 = data.length > 0 ? intern(data[0]) : NONE;
+        int d1 = data.length > 1 ? intern(data[1]) : NONE;
+        put((int) time, e, c, d0, d1);
+    }
+
+    /**
+     * Appends one typed event, stamped with its own time. The code, zone,
+     * state and severity are stored as ints; only names not seen before are
+     * interned.
+     */
+    public synchronized void append(Event event) throws IOException {
+        if (closed) throw new IOException("Event log is closed");
+        int e  = intern(event.getEntity());
+        int d0 = NONE, d1 = NONE;
+        switch (event.getCode()) {
+            case STATE_CHANGE:
+                d0 = event.getState().ordinal();
+                d1 = event.getZone();
+                break;
+            case FIRE_DETECTED:
+                d0 = event.getZone();
+                if (event.getSeverity() != null) d1 = event.getSeverity().ordinal();
+                break;
+            case FIRE_EXTINGUISHED:
+                d0 = event.getZone();
+                break;
+            case DRONE_FAULT:
+                d0 = intern(event.getSubject());
+                break;
+            default:
+                if (event.getText() != null) d0 = intern(event.getText());
+                break;
+        }
+        put((int) event.getTime(), e, typedCode(event.getCode().ordinal()), d0, d1);
+    }
+
+    private void put(int t, int e, int c, int d0, int d1) throws IOException {
+        Segment seg = segments.get(segments.size() - 1);
+        if (seg.records == SEGMENT_RECORDS) {
+            flush();
+            seal(seg);
+            seg = openSegment(segments.size());
+        }
+        if (!pending.hasRemaining()) flush();
+        pending.putInt(t).putInt(e).putInt(c).putInt(d0).putInt(d1);
+        pendingRecords++;
+        seg.index(seg.records++, t, e, c, d0, d1);
+    }
+
+    /** Writes batched records and new dictionary entries to disk. */
+    public synchronized void flush() throws IOException {
+        dictOut.flush();
+        if (pendingRecords == 0) return;
+        Segment seg = segments.get(segments.size() - 1);
+        pending.flip();
+        long pos = (long) (seg.records - pendingRecords) * RECORD_BYTES;
+        while (pending.hasRemaining()) pos += seg.channel.write(pending, pos);
+        pending.clear();
+        pendingRecords = 0;
+    }
+
+    public synchronized long size() {
+        long total = 0;
+        for (Segment s : segments) total += s.records;
+        return total;
+    }
+
+    // ==== Queries ====
+
+    /**
+     * Returns events in {@code [fromSeconds, toSeconds]} that match every
+     * non-null filter, in log order.
+     *
+     * @param fromSeconds earliest simulation time, inclusive
+     * @param toSeconds   latest simulation time, inclusive
+     * @param entity      entity name such as "Drone 17", or null for any
+     * @param code        event code such as "FIRE_DETECTED", or null for any
+     * @param dataField   a data field such as "ZONE 3", or null for any
+     */
+    public List<Record> query(long fromSeconds, long toSeconds,
+                              String entity, String code, String dataField) throws IOException {
+        List<Record> result = new ArrayList<>();
+        Filter   filter;
+        View[]   views;
+        String[] dict;
+        synchronized (this) {
+            if (closed) throw new IOException("Event log is closed");
+            filter = new Filter(ids, entity, code, dataField);
+            if (filter.matchesNothing()) return result;
+            views = snapshot();
+            dict  = names;
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_BYTES);
+        for (View seg : views) {
+            if (!filter.mayMatch(seg)) continue;
+
+            for (int b = 0; b < seg.blockCount(); b++) {
+                if (seg.blockMax[b] < fromSeconds || seg.blockMin[b] > toSeconds) continue;
+                int count = Math.min(BLOCK_RECORDS, seg.records - b * BLOCK_RECORDS);
+                readRecords(seg, b * BLOCK_RECORDS, count, block);
+                for (int i = 0; i < count; i++) {
+                    int t  = block.getInt();
+                    int re = block.getInt();
+                    int rc = block.getInt();
+                    int d0 = block.getInt();
+                    int d1 = block.getInt();
+                    if (t < fromSeconds || t > toSeconds || !filter.matches(re, rc, d0, d1)) continue;
+                    result.add(decode(dict, t, re, rc, d0, d1));
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Views of every segment; the caller holds the append lock. */
+    private View[] snapshot() {
+        View[] views = new View[segments.size()];
+        int last = views.length - 1;
+        for (int n = 0; n < last; n++) views[n] = segments.get(n).view(false, 0, null);
+        Segment live = segments.get(last);
+        byte[] unwritten = new byte[pendingRecords * RECORD_BYTES];
+        ByteBuffer written = pending.duplicate();
+        written.flip();
+        written.get(unwritten);
+        views[last] = live.view(true, live.records - pendingRecords, unwritten);
+        return views;
+    }
+
+    /** Reads {@code count} records from {@code from} into {@code block}, from the file or the snapshot. */
+    private static void readRecords(View seg, int from, int count, ByteBuffer block) throws IOException {
+        int fromFile = Math.max(0, Math.min(count, seg.flushed - from));
+        block.clear().limit(fromFile * RECORD_BYTES);
+        long position = (long) from * RECORD_BYTES;
+        while (block.hasRemaining()) {
+            if (seg.seg.channel.read(block, position + block.position()) < 0) {
+                throw new EOFException("Truncated segment");
+            }
+        }
+        if (fromFile < count) {
+            block.limit(count * RECORD_BYTES);
+            block.put(seg.pending, (from + fromFile - seg.flushed) * RECORD_BYTES, (count - fromFile) * RECORD_BYTES);
+        }
+        block.flip();
+    }
+
+    /** All events in {@code [fromSeconds, toSeconds]} from one entity. */
+    public List<Record> eventsFor(String entity, long fromSeconds, long toSeconds) throws IOException {
+        return query(fromSeconds, toSeconds, entity, null, null);
+    }
+
+    /** All events with this code and data field, e.g. ("FIRE_DETECTED", "ZONE 3"). */
+    public List<Record> eventsWith(String code, String dataField) throws IOException {
+        return query(Long.MIN_VALUE, Long.MAX_VALUE, null, code, dataField);
+    }
+
+    /** Writes every event in the text form of log.txt. */
+    public void renderText(Writer out) throws IOException {
+        for (Record r : query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null)) {
+            out.write(r.toString());
+            out.write('\n');
+        }
+    }
+
+    private static Record decode(String[] names, int t, int e, int c, int d0, int d1) {
+        if (c < 0) return decodeTyped(names, t, e, ordinalOf(c), d0, d1);
+        String[] data = d0 == NONE ? new String[0]
+                      : d1 == NONE ? new String[]{names[d0]}
+                      : new String[]{names[d0], names[d1]};
+        return new Record(t, names[e], names[c], data);
+    }
+
+    /** A typed record, with its fields rendered as {@link Event#dataFields()} renders them. */
+    private static Record decodeTyped(String[] names, int t, int e, int ordinal, int d0, int d1) {
+        EventCode code = CODES[ordinal];
+        String[] data;
+        switch (code) {
+            case STATE_CHANGE:
+                data = d1 == NONE ? new String[]{STATES[d0].name()}
+                                  : new String[]{STATES[d0].name(), Event.zoneName(d1)};
+                break;
+            case FIRE_DETECTED:
+                data = d1 == NONE ? new String[]{Event.zoneName(d0)}
+                                  : new String[]{Event.zoneName(d0), SEVERITIES[d1].name()};
+                break;
+            case FIRE_EXTINGUISHED:
+                data = new String[]{Event.zoneName(d0)};
+                break;
+            default:
+                data = d0 == NONE ? new String[0] : new String[]{names[d0]};
+                break;
+        }
+        return new Record(t, names[e], code.name(), data);
+    }
+
+    // ==== Typed fields ====
+
+    private static int typedCode(int ordinal) {
+        return -2 - ordinal;
+    }
+
+    private static int ordinalOf(int typedCode) {
+        return -2 - typedCode;
+    }
+
+    /** What data field {@code field} (0 or 1) of a typed record with this code holds. */
+    private static int kindOf(int ordinal, int field) {
+        switch (CODES[ordinal]) {
+            case STATE_CHANGE:      return field == 0 ? STATE : ZONE;
+            case FIRE_DETECTED:     return field == 0 ? ZONE : SEVERITY;
+            case FIRE_EXTINGUISHED: return field == 0 ? ZONE : DICTIONARY;
+            default:                return DICTIONARY;
+        }
+    }
+
+    /** Key of a typed value in a segment's typed-value set. */
+    private static int key(int kind, int value) {
+        return value * 4 + kind;
+    }
+
+    // ==== Dictionary ====
+
+    private int intern(EventEntity entity) throws IOException {
+        if (entity.isDrone()) {
+            int id = droneIds.get(entity.getId(), NONE);
+            if (id == NONE) {
+                id = intern(entity.toString());
+                droneIds.put(entity.getId(), id);
+            }
+            return id;
+        }
+        int type = entity.getType().ordinal();
+        if (subsystemIds[type] == NONE) subsystemIds[type] = intern(entity.toString());
+        return subsystemIds[type];
+    }
+
+    private int intern(String s) throws IOException {
+        Integer id = ids.get(s);
+        if (id != null) return id;
+        int newId = addName(s);
+        ids.put(s, newId);
+        dictOut.writeUTF(s);
+        return newId;
+    }
+
+    private int addName(String s) {
+        if (nameCount == names.length) names = Arrays.copyOf(names, nameCount * 2);
+        names[nameCount] = s;
+        return nameCount++;
+    }
+
+    private void loadDictionary(Path dict) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dict)))) {
+            while (true) {
+                String s;
+                try {
+                    s = in.readUTF();
+                } catch (EOFException end) {
+                    break;
+                }
+                ids.put(s, addName(s));
+            }
+        }
+    }
+
+    // ==== Segments ====
+
+    private Path dictFile() {
+        return Paths.get(base + ".dict");
+    }
+
+    private Path segmentFile(int n) {
+        return Paths.get(String.format("%s.%04d", base, n));
+    }
+
+    private Segment openSegment(int n) throws IOException {
+        Path file = segmentFile(n);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment seg = new Segment(file, channel);
+        int records = (int) (channel.size() / RECORD_BYTES);
+        if (records > 0 && !loadIndex(seg, records)) rebuildIndex(seg, records);
+        seg.records = records;
+        segments.add(seg);
+        return seg;
+    }
+
+    /** Rebuilds a segment's index by reading it once, for logs not closed cleanly. */
+    private void rebuildIndex(Segment seg, int records) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_BYTES);
+        for (int start = 0; start < records; start += BLOCK_RECORDS) {
+            int count = Math.min(BLOCK_RECORDS, records - start);
+            readFully(seg.channel, block, (long) start * RECORD_BYTES, count * RECORD_BYTES);
+            for (int i = 0; i < count; i++) {
+                seg.index(start + i, block.getInt(), block.getInt(), block.getInt(), block.getInt(), block.getInt());
+            }
+        }
+    }
+
+    private boolean loadIndex(Segment seg, int records) throws IOException {
+        Path idx = seg.indexFile();
+        if (!Files.exists(idx)) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(idx)))) {
+            if (in.readInt() != INDEX_FORMAT || in.readInt() != records) return false;
+            int blocks = (records + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+            for (int b = 0; b < blocks; b++) {
+                seg.blockMin[b] = in.readInt();
+                seg.blockMax[b] = in.readInt();
+            }
+            readBits(in, seg.entities);
+            readBits(in, seg.codes);
+            readBits(in, seg.data);
+            readBits(in, seg.typed);
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private void seal(Segment seg) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(seg.indexFile())))) {
+            out.writeInt(INDEX_FORMAT);
+            out.writeInt(seg.records);
+            for (int b = 0; b < seg.blockCount(); b++) {
+                out.writeInt(seg.blockMin[b]);
+                out.writeInt(seg.blockMax[b]);
+            }
+            writeBits(out, seg.entities);
+            writeBits(out, seg.codes);
+            writeBits(out, seg.data);
+            writeBits(out, seg.typed);
+        }
+    }
+
+    private static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+        long[] words = bits.toLongArray();
+        out.writeInt(words.length);
+        for (long w : words) out.writeLong(w);
+    }
+
+    private static void readBits(DataInputStream in, BitSet into) throws IOException {
+        long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) words[i] = in.readLong();
+        into.or(BitSet.valueOf(words));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position, int length) throws IOException {
+        buf.clear().limit(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) throw new EOFException("Truncated segment");
+        }
+        buf.flip();
+    }
+
+    private static void deleteFiles(Path base) throws IOException {
+        Files.deleteIfExists(Paths.get(base + ".dict"));
+        for (int n = 0; ; n++) {
+            Path seg = Paths.get(String.format("%s.%04d", base, n));
+            if (!Files.deleteIfExists(seg)) break;
+            Files.deleteIfExists(Paths.get(seg + ".idx"));
+        }
+    }
+
+    /** Writes everything out, saves the segment indexes and closes the files. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        flush();
+        closed = true;
+        dictOut.close();
+        for (Segment seg : segments) {
+            if (seg.records > 0) seal(seg);
+            seg.channel.close();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Push-based feed of Scheduler changes for the GUI.
+ *
+ * <p>The Scheduler publishes a change whenever a drone moves or changes
+ * state, water or battery, when the water still needed in a zone changes
+ * (a fire queued, assigned, partly put out or extinguished), and when the
+ * zones are reloaded. Changes are coalesced per drone and per zone, the
+ * latest value winning, in insertion-ordered maps, so a drone reporting its
+ * position ten times between two frames is one change.</p>
+ *
+ * <p>The feed is bounded: past {@link #getCapacity()} distinct pending
+ * changes they are dropped and the next {@link #drain} asks for a full
+ * resync instead, so a stalled GUI cannot make the Scheduler buffer without
+ * limit. The first drain is always a resync.</p>
+ *
+ * <p>The listener runs (on the publishing thread) when the feed goes from
+ * empty to non-empty, once per batch of changes; the GUI uses it to
+ * schedule one drain on the Event Dispatch Thread. With nothing happening
+ * nothing is published, and the GUI does no work.</p>
+ */
+public class ChangeFeed {
+
+    /** Pending changes kept before the feed gives up and asks for a resync. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+    private volatile Runnable listener;
+
+    // Guarded by this
+    private Map<Integer, DroneInfo> drones = new LinkedHashMap<>();
+    private Map<Integer, Integer>   fires  = new LinkedHashMap<>();
+    private int[]   fireCounts;
+    private boolean zonesReloaded;
+    private volatile boolean resync = true;    // read without the lock by isAccepting
+    private boolean pending = true;    // the first drain resyncs, so it is due already
+    private long    published, coalesced, overflows;
+
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChangeFeed(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /** Runs whenever the feed goes from empty to non-empty, on the publishing thread. */
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // ==== Publishing ====
+
+    /**
+     * Whether published changes are kept. False until a consumer first
+     * drains, and whenever a resync is due, since the next drain reads the
+     * full state anyway; publishers may skip building changes then.
+     */
+    public boolean isAccepting() {
+        return !resync;
+    }
+
+    /** A drone moved or changed state, water or battery; its fields are copied now. */
+    public void droneChanged(DroneInfo drone) {
+        boolean notify;
+        synchronized (this) {
+            published++;
+            if (resync) return;
+            DroneInfo copy = new DroneInfo(drone.droneId, drone.x, drone.y, drone.waterRemaining,
+                    drone.address, drone.port, drone.batteryLevel);
+            copy.state = drone.state;
+            if (drones.put(copy.droneId, copy) != null) coalesced++;
+            notify = checkCapacity();
+        }
+        if (notify) notifyListener();
+    }
+
+    /**
+     * The water still needed in some zones changed (0 once their fire is
+     * out), with the fires now queued per severity.
+     *
+     * @param zoneWater  zone ID → litres still needed
+     * @param fireCounts queued fires as {high, moderate, low}
+     */
+    public void firesChanged(Map<Integer, Integer> zoneWater, int[] fireCounts) {
+        boolean notify;
+        synchronized (this) {
+            published += zoneWater.size();
+            if (resync) return;
+            for (Map.Entry<Integer, Integer> e : zoneWater.entrySet()) {
+                if (fires.put(e.getKey(), e.getValue()) != null) coalesced++;
+            }
+            this.fireCounts = fireCounts.clone();
+            notify = checkCapacity();
+        }
+        if (notify) notifyListener();
+    }
+
+    /** The zones were replaced; the GUI reloads them and resyncs. */
+    public void zonesReloaded() {
+        boolean notify;
+        synchronized (this) {
+            published++;
+            zonesReloaded = true;
+            notify = requestResync();
+        }
+        if (notify) notifyListener();
+    }
+
+    /** Drops the pending changes; the next drain is a full resync. */
+    public void resync() {
+        boolean notify;
+        synchronized (this) {
+            notify = requestResync();
+        }
+        if (notify) notifyListener();
+    }
+
+    // Caller holds the lock; returns whether the feed just became non-empty
+    private boolean checkCapacity() {
+        if (drones.size() + fires.size() > capacity) {
+            overflows++;
+            return requestResync();
+        }
+        return markPending();
+    }
+
+    private boolean requestResync() {
+        resync = true;
+        drones.clear();
+        fires.clear();
+        fireCounts = null;
+        return markPending();
+    }
+
+    private boolean markPending() {
+        if (pending) return false;
+        pending = true;
+        return true;
+    }
+
+    private void notifyListener() {
+        Runnable l = listener;
+        if (l != null) l.run();
+    }
+
+    // ==== Consuming ====
+
+    /**
+     * Takes every pending change, leaving the feed empty; changes published
+     * from here on notify the listener again.
+     */
+    public synchronized Batch drain() {
+        Batch batch = new Batch(drones.values(), fires, fireCounts, zonesReloaded, resync);
+        drones        = new LinkedHashMap<>();
+        fires         = new LinkedHashMap<>();
+        fireCounts    = null;
+        zonesReloaded = false;
+        resync        = false;
+        pending       = false;
+        return batch;
+    }
+
+    /** Changes published, including those coalesced or dropped. */
+    public synchronized long getPublished() {
+        return published;
+    }
+
+    /** Changes that replaced a pending change for the same drone or zone. */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    /** Times the feed filled up and fell back to a resync. */
+    public synchronized long getOverflows() {
+        return overflows;
+    }
+
+    /** Changes taken by one {@link #drain}. */
+    public static final class Batch {
+        /** Latest copy of each drone that changed. */
+        public final Collection<DroneInfo> drones;
+        /** Zone ID → litres still needed, for each zone whose fire changed (0 once out). */
+        public final Map<Integer, Integer> fires;
+        /** Queued fires as {high, moderate, low}, or {@code null} if unchanged. */
+        public final int[] fireCounts;
+        /** The zones were reloaded; implies {@link #resync}. */
+        public final boolean zonesReloaded;
+        /** Changes were dropped: the consumer must re-read the full state. */
+        public final boolean resync;
+
+        Batch(Collection<DroneInfo> drones, Map<Integer, Integer> fires, int[] fireCounts,
+              boolean zonesReloaded, boolean resync) {
+            this.drones        = drones;
+            this.fires         = fires;
+            this.fireCounts    = fireCounts;
+            this.zonesReloaded = zonesReloaded;
+            this.resync        = resync;
+        }
+
+        public boolean isEmpty() {
+            return !resync && drones.isEmpty() && fires.isEmpty() && fireCounts == null;
+        }
+    }
+}
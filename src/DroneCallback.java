@@ -43,4 +43,9 @@ public interface DroneCallback {
     void onDroneRecovered(int droneId);
 
     void log(String msg);
+
+    /** Logs a typed event; by default as its wire text through {@link #log(String)}. */
+    default void log(Event event) {
+        log(event.toWire());
+    }
 }
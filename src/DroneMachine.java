@@ -107,9 +107,8 @@ public class DroneMachine extends Thread {
     public synchronized void setState(DroneState s) {
         this.droneState = s;
         notifyAll();  // wake run() loop if it is waiting (e.g. for DECOMMISSION to arrive)
-        String msg = "Drone " + droneId + ",STATE_CHANGE," + s;
-        if (currentMission != null) msg += ",ZONE " + currentMission.getZoneId();
-        log(msg);
+        log(Event.stateChange(droneId, s,
+                currentMission != null ? currentMission.getZoneId() : Event.NO_ZONE));
     }
 
     /**
@@ -411,15 +410,15 @@ public class DroneMachine extends Thread {
         }
     }
 
-    public void log(String msg) {
-        callback.log(msg);
+    public void log(Event event) {
+        callback.log(event);
     }
 
 
     @Override
     public void run() {
         System.out.printf("Drone %d: Starting%n", droneId);
-        log("Drone " + droneId + ",STARTED");
+        log(Event.of(EventEntity.drone(droneId), EventCode.STARTED));
 
         while (droneState != DroneState.DECOMMISSIONED) {
             // Wait for DroneSubsystem to push a mission via receiveMissionPush().
@@ -457,6 +456,6 @@ public class DroneMachine extends Thread {
         }
 
         System.out.printf("Drone %d: Shut down%n", droneId);
-        log("Drone " + droneId + ",ENDED");
+        log(Event.of(EventEntity.drone(droneId), EventCode.ENDED));
     }
 }
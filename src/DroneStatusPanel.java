@@ -1,19 +1,25 @@
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.util.Map;
 
 /**
  * This DroneStatusPanel class is the panel that displays
  * real-time information about all drones in the swarm,
  * including their state, water level, and position.
  *
+ * <p>The table is backed by a {@link DroneTableModel} that is updated in
+ * place, so only changed rows are redrawn and selection, scrolling and
+ * sorting survive refreshes. Columns sort on a header click; the combo box
+ * above the table filters by state.</p>
+ *
  * @author Aryan Kumar Singh (101299776)
  */
 public class DroneStatusPanel extends JPanel {
     private JTable droneTable;
-    private DefaultTableModel tableModel;
+    private DroneTableModel tableModel;
+    private TableRowSorter<DroneTableModel> sorter;
+    private JComboBox<String> stateFilter;
     private JLabel fireCountLabel;
     private Scheduler scheduler;
 
@@ -34,17 +40,14 @@ public class DroneStatusPanel extends JPanel {
         setPreferredSize(new Dimension(300, 0));
         setBackground(new Color(240, 240, 240));
 
-        // Create table model with column names
-        String[] columnNames = {"ID", "State", "Water(L)", "Battery (%)", "Position"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
-            }
-        };
+        // Table model is updated in place; the sorter sorts and filters on top of it
+        tableModel = new DroneTableModel();
+        sorter = new TableRowSorter<>(tableModel);
+        sorter.setSortsOnUpdates(true);
 
         // Create and configure table
         droneTable = new JTable(tableModel);
+        droneTable.setRowSorter(sorter);
         droneTable.setFillsViewportHeight(true);
         droneTable.setRowHeight(25);
         droneTable.setFont(new Font("Monospaced", Font.PLAIN, 12));
@@ -55,6 +58,16 @@ public class DroneStatusPanel extends JPanel {
         droneTable.getColumnModel().getColumn(2).setPreferredWidth(60);  // Water
         droneTable.getColumnModel().getColumn(3).setPreferredWidth(70);  // Position
 
+        // State filter
+        stateFilter = new JComboBox<>(new String[]{
+                "All states", "IDLE", "EN ROUTE", "EXTINGUISHING", "REFILLING", "FAULTED", "DECOMMISSIONED"});
+        stateFilter.addActionListener(e -> applyStateFilter());
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.setBackground(new Color(240, 240, 240));
+        filterPanel.add(new JLabel("Show:"));
+        filterPanel.add(stateFilter);
+        add(filterPanel, BorderLayout.NORTH);
+
         // Add table to scroll pane
         JScrollPane scrollPane = new JScrollPane(droneTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
@@ -81,26 +94,33 @@ public class DroneStatusPanel extends JPanel {
     public void refreshData() {
         if (scheduler == null) return;
 
-        tableModel.setRowCount(0);
+        // Copied under the Scheduler's lock; only changed rows fire events
+        tableModel.update(scheduler.getDroneList());
+        setFireCounts(scheduler.getFireCountsBySeverity());
+    }
 
-        Map<Integer,DroneInfo> drones = scheduler.getDroneRegistry();
-        if (drones != null) {
-            for (DroneInfo drone : drones.values()) {
-                if (drone != null) {
-                    String state = formatState(drone.state);
-                    int water = drone.waterRemaining;
-                    int battery = drone.batteryLevel;
-                    String pos = "(" + drone.x + "," + drone.y + ")";
+    /**
+     * Applies the drones that changed and, if not {@code null}, the new fire
+     * counts, as pushed by the Scheduler's {@link ChangeFeed}
+     */
+    public void applyChanges(java.util.Collection<DroneInfo> changedDrones, int[] fireCounts) {
+        tableModel.apply(changedDrones);
+        if (fireCounts != null) setFireCounts(fireCounts);
+    }
 
-                    tableModel.addRow(new Object[]{
-                            drone.droneId, state, water,battery, pos
-                    });
-                }
-            }
-        }
+    /**
+     * Shows exactly {@code drones} and the given fire counts, e.g. one
+     * moment of a replay; rows of drones not in {@code drones} are removed
+     */
+    public void showDrones(java.util.Collection<DroneInfo> drones, int[] fireCounts) {
+        tableModel.update(drones);
+        setFireCounts(fireCounts);
+    }
 
-        // Update fire count label
-        int[] counts = scheduler.getFireCountsBySeverity();
+    /**
+     * Shows the queued fires, {high, moderate, low}, in the fire count label
+     */
+    private void setFireCounts(int[] counts) {
         int totalFires = counts[0] + counts[1] + counts[2];
         String fireText = String.format("Active Fires: %d (H:%d M:%d L:%d)",
                 totalFires, counts[0], counts[1], counts[2]);
@@ -119,19 +139,19 @@ public class DroneStatusPanel extends JPanel {
     }
 
     /**
-     * Formats the drone state enum into a readable string
+     * Shows only the drones in the state picked in the filter box
      */
-    private String formatState(String state) {
-        if (state == null) return "UNKNOWN";
-
-        switch (state) {
-            case "IDLE":          return "IDLE";
-            case "ONROUTE":       return "EN ROUTE";
-            case "EXTINGUISHING": return "EXTINGUISHING";
-            case "REFILLING":     return "REFILLING";
-            case "FAULTED":       return "FAULTED";
-            case "DECOMMISSIONED":return "DECOMMISSIONED";
-            default:              return state;
+    private void applyStateFilter() {
+        String selected = (String) stateFilter.getSelectedItem();
+        if (selected == null || stateFilter.getSelectedIndex() == 0) {
+            sorter.setRowFilter(null);
+        } else {
+            sorter.setRowFilter(new RowFilter<DroneTableModel, Integer>() {
+                @Override
+                public boolean include(Entry<? extends DroneTableModel, ? extends Integer> entry) {
+                    return selected.equals(entry.getStringValue(DroneTableModel.COL_STATE));
+                }
+            });
         }
     }
 
@@ -147,12 +167,12 @@ public class DroneStatusPanel extends JPanel {
      * Highlights a specific drone in the table
      */
     public void highlightDrone(int droneId) {
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            if ((int) tableModel.getValueAt(i, 0) == droneId) {
-                droneTable.setRowSelectionInterval(i, i);
-                break;
-            }
-        }
+        int row = tableModel.indexOf(droneId);
+        if (row < 0) return;
+        int viewRow = droneTable.convertRowIndexToView(row);
+        if (viewRow < 0) return; // filtered out
+        droneTable.setRowSelectionInterval(viewRow, viewRow);
+        droneTable.scrollRectToVisible(droneTable.getCellRect(viewRow, 0, true));
     }
 
     /**
@@ -168,7 +188,7 @@ public class DroneStatusPanel extends JPanel {
     public Integer getSelectedDrone() {
         int selectedRow = droneTable.getSelectedRow();
         if (selectedRow >= 0) {
-            return (Integer) tableModel.getValueAt(selectedRow, 0);
+            return tableModel.getDroneId(droneTable.convertRowIndexToModel(selectedRow));
         }
         return null;
     }
@@ -1,5 +1,6 @@
 import java.io.IOException;
 import java.net.*;
+import java.nio.channels.DatagramChannel;
 import java.util.*;
 
 /**
@@ -15,11 +16,25 @@ public class DroneSubsystem extends Thread implements DroneCallback {
     private static final int TIMEOUT_MS  = 5000;
     private static final int MAX_RETRIES = 3;
 
-    /** One socket shared by all drones in this process. */
-    private final DatagramSocket socket;
-    private final InetAddress    schedulerAddr;
-    private final int            schedulerPort;
+    /** Scheduler pushes this subsystem routes; matched against each datagram in place. */
+    private static final String[] OPCODES = {
+            "ASSIGN_MISSION", "INJECT_FAULT", "DECOMMISSION", "RETURN_TO_BASE"
+    };
+
+    /** Event types and severities, so mission fields holding them need no copy. */
+    private static final String[] WORDS = {"FIRE", "HIGH", "MODERATE", "LOW"};
+
+    /** One channel shared by all drones in this process; the receive loop reads its socket view. */
+    private final DatagramChannel   channel;
+    private final DatagramSocket    socket;
+    private final InetAddress       schedulerAddr;
+    private final int               schedulerPort;
+    private final InetSocketAddress scheduler;
+    /** Drone threads report concurrently, each through its own reusable buffer. */
+    private final ThreadLocal<MessageWriter> writer = ThreadLocal.withInitial(MessageWriter::new);
     private InetAddress loggerAddress;
+    /** Packs log calls from every drone into sequenced batches for the EventLogger. */
+    private final EventBatcher eventBatcher;
 
 
     /** droneId → DroneMachine instance. */
@@ -39,9 +54,13 @@ public class DroneSubsystem extends Thread implements DroneCallback {
                           int schedulerPort) throws Exception {
         this.schedulerAddr = InetAddress.getByName(schedulerHost);
         this.schedulerPort = schedulerPort;
-        this.socket        = new DatagramSocket(0);  // OS assigns a free port
+        this.scheduler     = new InetSocketAddress(schedulerAddr, schedulerPort);
+        this.channel       = MessageWriter.openChannel(0);  // OS assigns a free port
+        this.socket        = channel.socket();
         this.socket.setSoTimeout(200);
         this.loggerAddress = InetAddress.getLocalHost();
+        this.eventBatcher  = new EventBatcher(EventBatcher.sourceName("DroneSubsystem"),
+                loggerAddress, EventLogger.DEFAULT_PORT);
 
         // Create each drone — pass 'this' as the callback so DroneMachine
         // can report events without touching the socket directly
@@ -55,9 +74,13 @@ public class DroneSubsystem extends Thread implements DroneCallback {
                           int schedulerPort, String loggerHost) throws Exception {
         this.schedulerAddr = InetAddress.getByName(schedulerHost);
         this.schedulerPort = schedulerPort;
-        this.socket        = new DatagramSocket(0);  // OS assigns a free port
+        this.scheduler     = new InetSocketAddress(schedulerAddr, schedulerPort);
+        this.channel       = MessageWriter.openChannel(0);  // OS assigns a free port
+        this.socket        = channel.socket();
         this.socket.setSoTimeout(200);
         this.loggerAddress = InetAddress.getByName(loggerHost);
+        this.eventBatcher  = new EventBatcher(EventBatcher.sourceName("DroneSubsystem"),
+                loggerAddress, EventLogger.DEFAULT_PORT);
 
         // Create each drone — pass 'this' as the callback so DroneMachine
         // can report events without touching the socket directly
@@ -68,13 +91,15 @@ public class DroneSubsystem extends Thread implements DroneCallback {
 
     // ==== UDP helpers ====
 
-    /** Fire-and-forget 
-     * . */
-    private void sendOnly(String message) {
+    /** This thread's writer, started on a new message with {@code opcode}. */
+    private MessageWriter out(String opcode) {
+        return writer.get().begin(opcode);
+    }
+
+    /** Fire-and-forget send to the Scheduler. */
+    private void sendOnly(MessageWriter message) {
         try {
-            byte[] data = message.getBytes();
-            socket.send(new DatagramPacket(
-                    data, data.length, schedulerAddr, schedulerPort));
+            message.send(channel, scheduler);
         } catch (Exception e) {
             System.err.println("DroneSubsystem send error: " + e.getMessage());
         }
@@ -114,12 +139,12 @@ public class DroneSubsystem extends Thread implements DroneCallback {
 
     @Override
     public void onLocationUpdate(int droneId, int x, int y, String state) {
-        sendOnly("locationUpdate|" + droneId + "|" + x + "|" + y + "|" + state);
+        sendOnly(out("locationUpdate").field(droneId).field(x).field(y).field(state));
     }
 
     @Override
     public void onBatteryUpdate(int droneId, int battery) {
-        sendOnly("batteryUpdate|" + droneId + "|" + battery);
+        sendOnly(out("batteryUpdate").field(droneId).field(battery));
     }
 
     @Override
@@ -150,7 +175,7 @@ public class DroneSubsystem extends Thread implements DroneCallback {
 
     @Override
     public void onDroneRefilling(int droneId) {
-        sendOnly("droneRefilling|" + droneId);
+        sendOnly(out("droneRefilling").field(droneId));
     }
 
     @Override
@@ -185,7 +210,7 @@ public class DroneSubsystem extends Thread implements DroneCallback {
      */
     @Override
     public void onDroneRecovered(int droneId) {
-        sendOnly("droneRecovered|" + droneId);
+        sendOnly(out("droneRecovered").field(droneId));
     }
 
     // ==== Startup registration ====
@@ -222,26 +247,31 @@ public class DroneSubsystem extends Thread implements DroneCallback {
      *   ASSIGN_MISSION|droneId|zoneId|eventType|severity|waterAssigned|secondsFromStart
      *   DECOMMISSION|droneId
      */
-    private void handleIncoming(String msg) {
-        String[] parts = msg.split("\\|");
-        switch (parts[0]) {
+    private void handleIncoming(MessageReader m) {
+        String op = m.opcode(OPCODES);
+        if (op == null) {
+            System.err.println("DroneSubsystem: ignored unexpected message: "
+                    + (m.fieldCount() == 0 ? "" : m.stringField(0)));
+            return;
+        }
+        switch (op) {
 
             case "ASSIGN_MISSION": {
                 // [1]=droneId [2]=zoneId [3]=eventType [4]=severity [5]=water [6]=seconds [7]=targetX [8]=targetY
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneMachine drone = drones.get(droneId);
                 if (drone == null) {
                     System.err.println("DroneSubsystem: unknown droneId " + droneId);
                     return;
                 }
                 FireEvent base    = new FireEvent(
-                        Integer.parseInt(parts[2]),
-                        parts[3],
-                        parts[4],
-                        Integer.parseInt(parts[6]));
-                FireEvent mission = new FireEvent(base, Integer.parseInt(parts[5]));
-                int targetX = Integer.parseInt(parts[7]);
-                int targetY = Integer.parseInt(parts[8]);
+                        m.intField(2),
+                        m.wordOrString(3, WORDS),
+                        m.wordOrString(4, WORDS),
+                        m.intField(6));
+                FireEvent mission = new FireEvent(base, m.intField(5));
+                int targetX = m.intField(7);
+                int targetY = m.intField(8);
                 System.out.printf("DroneSubsystem: Routing to Drone %d → Zone %d at (%d,%d)%n",
                         droneId, mission.getZoneId(), targetX, targetY);
                 drone.setMissionCoordinates(targetX, targetY);
@@ -253,14 +283,14 @@ public class DroneSubsystem extends Thread implements DroneCallback {
                 // Injects a fault into an already-active drone mid-action.
                 // The sleepInterruptibly tick picks it up within 200ms.
                 // [1]=droneId [2]=faultType
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneMachine drone = drones.get(droneId);
                 if (drone == null) {
                     System.err.println("DroneSubsystem: unknown droneId " + droneId);
                     return;
                 }
-                FaultType fault = parts.length > 2
-                        ? FaultType.from(parts[2]) : FaultType.NONE;
+                FaultType fault = m.fieldCount() > 2
+                        ? FaultType.from(m.stringField(2)) : FaultType.NONE;
                 System.out.printf(
                         "DroneSubsystem: Injecting %s fault into Drone %d mid-action%n",
                         fault, droneId);
@@ -269,7 +299,7 @@ public class DroneSubsystem extends Thread implements DroneCallback {
             }
 
             case "DECOMMISSION": {
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneMachine drone = drones.get(droneId);
                 if (drone != null) {
                     drone.handleEvent(DroneMachine.droneEvents.DECOMMISSION);
@@ -278,7 +308,7 @@ public class DroneSubsystem extends Thread implements DroneCallback {
             }
 
             case "RETURN_TO_BASE": {
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneMachine drone = drones.get(droneId);
                 if (drone != null) {
                     drone.requestReturnToBase();
@@ -287,15 +317,22 @@ public class DroneSubsystem extends Thread implements DroneCallback {
             }
 
             default:
-                System.err.println("DroneSubsystem: ignored unexpected message: " + parts[0]);
+                System.err.println("DroneSubsystem: ignored unexpected message: " + op);
         }
     }
 
     public void log(String msg) {
         try {
-            String time = sendAndReceive("getTime");
-            byte[] event = (time + "," + msg).getBytes();
-            socket.send(new DatagramPacket(event, event.length, loggerAddress, EventLogger.DEFAULT_PORT));
+            eventBatcher.add(sendAndReceive("getTime"), msg);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void log(Event event) {
+        try {
+            eventBatcher.add(sendAndReceive("getTime"), event);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -304,7 +341,7 @@ public class DroneSubsystem extends Thread implements DroneCallback {
     @Override
     public void run() {
         System.out.println("DroneSubsystem: Starting");
-        log("DroneSubsystem,STARTED");
+        log(Event.of(EventEntity.DRONE_SUBSYSTEM, EventCode.STARTED));
 
         // Start each drone's state machine on its own thread
         for (DroneMachine drone : drones.values()) {
@@ -317,12 +354,13 @@ public class DroneSubsystem extends Thread implements DroneCallback {
 
         // Receive loop — routes Scheduler pushes to the right DroneMachine
         byte[] buf = new byte[BUFFER_SIZE];
+        DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+        MessageReader reader = new MessageReader();
         while (true) {
             try {
-                DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+                pkt.setLength(buf.length);
                 socket.receive(pkt);
-                String msg = new String(pkt.getData(), 0, pkt.getLength()).trim();
-                handleIncoming(msg);
+                handleIncoming(reader.reset(pkt.getData(), pkt.getOffset(), pkt.getLength()));
             } catch (SocketTimeoutException e) {
                 // 200ms timeout — check if all drones are decommissioned
                 boolean allDone = drones.values().stream()
@@ -338,6 +376,7 @@ public class DroneSubsystem extends Thread implements DroneCallback {
 
         socket.close();
         System.out.println("DroneSubsystem: Shut down");
-        log("DroneSubsystem,ENDED");
+        log(Event.of(EventEntity.DRONE_SUBSYSTEM, EventCode.ENDED));
+        eventBatcher.close();
     }
 }
@@ -13,17 +13,21 @@ import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.List;
+import java.util.Map;
 
 public class DroneSwarmFrame extends JFrame {
     private MapPanel mapPanel;
     private StatusPanel statusPanel;
     private ControlPanel controlPanel;
     private DroneStatusPanel droneStatusPanel;
+    private ReplayPanel replayPanel;
 
     private Scheduler model;
-    private Timer mapTimer;    // fast  — smooth drone movement on the map
-    private Timer statusTimer; // slow  — drone table + fire count label
-    private int lastZonesVersion = -1;
+    private ChangeFeed changeFeed;
+    private Timer frameTimer;  // one-shot: drains the change feed at most once per frame
+
+    /** Shortest time between two drains of the change feed, in ms. */
+    private static final int FRAME_MS = 100;
 
     public DroneSwarmFrame(Scheduler model) {
         setTitle("Firefighting Drone Swarm - Control Center");
@@ -40,6 +44,53 @@ public class DroneSwarmFrame extends JFrame {
         controlPanel = new ControlPanel(statusPanel);
         droneStatusPanel = new DroneStatusPanel(model);
 
+        addPanels(controlPanel);
+
+        // The Scheduler pushes its changes; the first batch of changes after
+        // a drain schedules the next one, a frame later, so an idle system
+        // costs the GUI nothing and a busy one is drained once per frame
+        frameTimer = new Timer(FRAME_MS, e -> drainChanges());
+        frameTimer.setRepeats(false);
+        if (model != null) {
+            changeFeed = model.getChangeFeed();
+            changeFeed.setListener(() -> SwingUtilities.invokeLater(this::scheduleDrain));
+            mapPanel.setZones(model.getZones());
+            drainChanges();
+        }
+    }
+
+    /**
+     * Opens a replay of a finished run instead of a live Scheduler: the
+     * map, drone table and fire counts show the state at the time picked on
+     * the timeline, which can be scrubbed, or played at a chosen speed.
+     *
+     * @param replay index over the run's event log
+     * @param zones  zones of the run
+     * @param name   shown in the title, e.g. the log file name
+     */
+    public DroneSwarmFrame(ReplayIndex replay, Map<Integer, Zone> zones, String name) {
+        setTitle("Firefighting Drone Swarm - Replay of " + name);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        mapPanel = new MapPanel();
+        mapPanel.setZones(zones);
+        statusPanel = new StatusPanel();
+        droneStatusPanel = new DroneStatusPanel(null);
+        replayPanel = new ReplayPanel(replay);
+        addPanels(replayPanel);
+
+        statusPanel.logMessage(String.format("Replay of %s: %s to %s, %,d events, %d snapshots",
+                name, SimulationClock.formatTime(replay.getStartTime()),
+                SimulationClock.formatTime(replay.getEndTime()),
+                replay.getEventCount(), replay.getSnapshotCount()));
+        if (replay.getMalformed() > 0) {
+            statusPanel.logMessage(replay.getMalformed() + " malformed log lines skipped");
+        }
+        replayPanel.seek(replay.getStartTime());
+    }
+
+    private void addPanels(JPanel controls) {
         // Add panels to frame
         JScrollPane mapScrollPane = new JScrollPane(mapPanel);
         mapScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
@@ -48,30 +99,32 @@ public class DroneSwarmFrame extends JFrame {
 
         add(droneStatusPanel, BorderLayout.WEST);   // Drone status on left
         add(statusPanel, BorderLayout.EAST);         // System log on right
-        add(controlPanel, BorderLayout.SOUTH);     // Input panel along bottom
+        add(controls, BorderLayout.SOUTH);           // Input panel along bottom
 
         // Set size and make visible
         setSize(1600, 1050);
         setLocationRelativeTo(null); // Center on screen
+    }
 
-        // Fast timer: only redraws the map (one synchronized snapshot call)
-        mapTimer = new Timer(100, e -> refreshMap());
-        mapTimer.start();
-
-        // Slow timer: updates the drone status table and fire counts
-        statusTimer = new Timer(500, e -> droneStatusPanel.refreshData());
-        statusTimer.start();
+    private void scheduleDrain() {
+        if (!frameTimer.isRunning()) frameTimer.start();
     }
 
-    private void refreshMap() {
-        if (model != null) {
-            int version = model.getZonesVersion();
-            if (version != lastZonesVersion) {
-                lastZonesVersion = version;
-                mapPanel.setZones(model.getZones());
-            }
+    /**
+     * Applies everything the Scheduler changed since the last drain: only
+     * the changed drones and zones, or the full state after the zones were
+     * reloaded or the feed overflowed.
+     */
+    private void drainChanges() {
+        ChangeFeed.Batch batch = changeFeed.drain();
+        if (batch.resync) {
+            if (batch.zonesReloaded) mapPanel.setZones(model.getZones());
             Scheduler.GuiSnapshot snap = model.getGuiSnapshot();
             mapPanel.updateDronesAndFires(snap.drones, snap.firesPerZone);
+            droneStatusPanel.refreshData();
+        } else if (!batch.isEmpty()) {
+            mapPanel.applyChanges(batch.drones, batch.fires);
+            droneStatusPanel.applyChanges(batch.drones, batch.fireCounts);
         }
     }
 
@@ -79,6 +132,104 @@ public class DroneSwarmFrame extends JFrame {
     public MapPanel getMapPanel() { return mapPanel; }
     public StatusPanel getStatusPanel() { return statusPanel; }
     public ControlPanel getControlPanel() { return controlPanel; }
+    public ReplayPanel getReplayPanel() { return replayPanel; }
+
+
+    /**
+     * Timeline of a replay: a slider over the run's simulation time that
+     * seeks as it is dragged, and play/pause at a chosen speed. Each seek
+     * rebuilds the state from the nearest snapshot of the {@link ReplayIndex}.
+     */
+    public class ReplayPanel extends JPanel {
+        private static final int TICK_MS = 100;
+        private final ReplayIndex replay;
+        private final JSlider timeline;
+        private final JButton playButton;
+        private final JComboBox<String> speedBox;
+        private final JLabel timeLabel;
+        private final Timer playTimer;
+        private final String endText;
+        private double position;    // simulation seconds, fractional while playing
+
+        public ReplayPanel(ReplayIndex replay) {
+            this.replay = replay;
+            setLayout(new BorderLayout());
+            setBorder(new TitledBorder("Replay"));
+
+            int start = (int) replay.getStartTime(), end = (int) Math.max(replay.getEndTime(), start);
+            endText = SimulationClock.formatTime(end);
+            timeline = new JSlider(start, end, start);
+            timeline.addChangeListener(e -> {
+                if ((int) position != timeline.getValue()) position = timeline.getValue();
+                show((long) position);
+            });
+
+            // --- Play/pause: advances the timeline by the speed every tick ---
+            playTimer = new Timer(TICK_MS, e -> {
+                position += speed() * TICK_MS / 1000.0;
+                if (position >= timeline.getMaximum()) {
+                    position = timeline.getMaximum();
+                    pause();
+                }
+                timeline.setValue((int) position);
+            });
+            playButton = new JButton("Play");
+            playButton.addActionListener(e -> {
+                if (playTimer.isRunning()) {
+                    pause();
+                } else {
+                    if (position >= timeline.getMaximum()) seek(timeline.getMinimum());
+                    playTimer.start();
+                    playButton.setText("Pause");
+                }
+            });
+            speedBox = new JComboBox<>(new String[]{"1x", "10x", "60x", "600x"});
+            speedBox.setSelectedIndex(2);
+
+            JButton fitMapButton = new JButton("Fit Map");
+            fitMapButton.addActionListener(e -> mapPanel.zoomToFit());
+
+            timeLabel = new JLabel();
+            timeLabel.setFont(new Font("Monospaced", Font.BOLD, 12));
+
+            JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            buttons.add(playButton);
+            buttons.add(new JLabel("Speed:"));
+            buttons.add(speedBox);
+            buttons.add(fitMapButton);
+            buttons.add(timeLabel);
+            add(timeline, BorderLayout.CENTER);
+            add(buttons, BorderLayout.EAST);
+        }
+
+        /** Moves the timeline to simulation second {@code time} and shows that moment. */
+        public void seek(long time) {
+            position = Math.max(timeline.getMinimum(), Math.min(timeline.getMaximum(), time));
+            if (timeline.getValue() != (int) position) {
+                timeline.setValue((int) position);       // shows it through the change listener
+            } else {
+                show((long) position);
+            }
+        }
+
+        private void show(long time) {
+            ReplayIndex.State state = replay.stateAt(time);
+            Map<Integer, DroneInfo> drones = state.getDrones();
+            mapPanel.updateDronesAndFires(drones, state.getFiresPerZone());
+            droneStatusPanel.showDrones(drones.values(), state.getFireCounts());
+            timeLabel.setText(SimulationClock.formatTime(time) + " / " + endText);
+        }
+
+        private void pause() {
+            playTimer.stop();
+            playButton.setText("Play");
+        }
+
+        private int speed() {
+            String s = (String) speedBox.getSelectedItem();
+            return Integer.parseInt(s.substring(0, s.length() - 1));
+        }
+    }
 
 
     public class ControlPanel extends JPanel {
@@ -88,6 +239,7 @@ public class DroneSwarmFrame extends JFrame {
         private JButton startButton;
         private JButton stopButton;
         private JButton printMetrics;
+        private JButton fitMapButton;
         private JLabel fileLabel;
         private String selectedFireFile = null;
         private InetAddress loggerAddress;
@@ -117,22 +269,37 @@ public class DroneSwarmFrame extends JFrame {
                 chooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
                 if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
                     String zonePath = chooser.getSelectedFile().getAbsolutePath();
-                    try {
-                        List<String> errors = model.loadZonesFromFile(zonePath);
-                        if (errors.isEmpty()) {
-                            mapPanel.setZones(model.getZones());
-                            statusPanel.logMessage("Zones loaded: " + chooser.getSelectedFile().getName()
-                                    + " (" + model.getZones().size() + " zones)");
-                        } else {
-                            JOptionPane.showMessageDialog(this,
-                                    String.join("\n", errors),
-                                    "Zone Load Errors", JOptionPane.ERROR_MESSAGE);
+                    String zoneName = chooser.getSelectedFile().getName();
+                    // A large file takes a while to read and validate: do it off the EDT
+                    loadZoneButton.setEnabled(false);
+                    new SwingWorker<List<String>, Void>() {
+                        @Override
+                        protected List<String> doInBackground() throws Exception {
+                            return model.loadZonesFromFile(zonePath);
                         }
-                    } catch (Exception ex) {
-                        JOptionPane.showMessageDialog(this,
-                                "Error loading zone file: " + ex.getMessage(),
-                                "Error", JOptionPane.ERROR_MESSAGE);
-                    }
+
+                        @Override
+                        protected void done() {
+                            loadZoneButton.setEnabled(true);
+                            try {
+                                List<String> errors = get();
+                                if (errors.isEmpty()) {
+                                    // The map picks the new zones up from the change feed
+                                    statusPanel.logMessage("Zones loaded: " + zoneName
+                                            + " (" + model.getZones().size() + " zones)");
+                                } else {
+                                    JOptionPane.showMessageDialog(ControlPanel.this,
+                                            String.join("\n", errors),
+                                            "Zone Load Errors", JOptionPane.ERROR_MESSAGE);
+                                }
+                            } catch (Exception ex) {
+                                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                                JOptionPane.showMessageDialog(ControlPanel.this,
+                                        "Error loading zone file: " + cause.getMessage(),
+                                        "Error", JOptionPane.ERROR_MESSAGE);
+                            }
+                        }
+                    }.execute();
                 }
             });
 
@@ -187,6 +354,10 @@ public class DroneSwarmFrame extends JFrame {
                 }
             });
 
+            // --- Zoom the map out to show every zone (wheel zooms, dragging pans) ---
+            fitMapButton = new JButton("Fit Map");
+            fitMapButton.addActionListener(e -> mapPanel.zoomToFit());
+
             fileLabel = new JLabel("No file loaded");
 
             add(loadFileButton);
@@ -194,6 +365,7 @@ public class DroneSwarmFrame extends JFrame {
             add(startButton);
             add(stopButton);
             add(printMetrics);
+            add(fitMapButton);
             add(fileLabel);
         }
     }
@@ -0,0 +1,242 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Table model behind the drone status table.
+ *
+ * <p>Rows live in an array indexed by row number, with a drone ID → row
+ * index map, and are updated in place: {@link #update} compares each drone
+ * with its row and fires {@code fireTableRowsUpdated} only for the rows whose
+ * state, water, battery or position changed (contiguous rows as one event,
+ * and one event spanning them all once there are more than
+ * {@value #MAX_UPDATE_EVENTS} runs).
+ * New drones are appended, and removed drones deleted, one event each. The
+ * table's selection, scroll position and sort survive updates, and a
+ * {@link javax.swing.table.TableRowSorter} can sort and filter the model
+ * without it being rebuilt.</p>
+ *
+ * <p>Must be used on the Event Dispatch Thread.</p>
+ */
+public class DroneTableModel extends AbstractTableModel {
+
+    public static final int COL_ID = 0, COL_STATE = 1, COL_WATER = 2, COL_BATTERY = 3, COL_POSITION = 4;
+
+    /** Most update events fired by one refresh; more changed runs are sent as one range. */
+    static final int MAX_UPDATE_EVENTS = 16;
+
+    private static final String[]   COLUMN_NAMES   = {"ID", "State", "Water(L)", "Battery (%)", "Position"};
+    private static final Class<?>[] COLUMN_CLASSES = {Integer.class, String.class, Integer.class, Integer.class, String.class};
+
+    // One drone as displayed; values are boxed once per change, not per paint
+    private static final class Row {
+        final Integer id;
+        String  state;       // raw state, to diff against
+        String  stateLabel;  // formatted for display
+        int     water, battery, x, y;
+        Integer waterValue, batteryValue;
+        String  position;
+
+        Row(int id) {
+            this.id = id;
+        }
+
+        /** Copies the drone's displayed fields; returns whether any changed. */
+        boolean set(DroneInfo d) {
+            boolean changed = false;
+            String s = d.state;
+            if (stateLabel == null || !Objects.equals(state, s)) {
+                state      = s;
+                stateLabel = formatState(s);
+                changed    = true;
+            }
+            if (waterValue == null || water != d.waterRemaining) {
+                water      = d.waterRemaining;
+                waterValue = water;
+                changed    = true;
+            }
+            if (batteryValue == null || battery != d.batteryLevel) {
+                battery      = d.batteryLevel;
+                batteryValue = battery;
+                changed      = true;
+            }
+            if (position == null || x != d.x || y != d.y) {
+                x        = d.x;
+                y        = d.y;
+                position = "(" + x + "," + y + ")";
+                changed  = true;
+            }
+            return changed;
+        }
+    }
+
+    private Row[] rows = new Row[64];
+    private int   size;
+    private final Map<Integer, Integer> indexById = new HashMap<>();
+
+    // Scratch for one update, reused between updates
+    private boolean[] changed = new boolean[64];
+    private boolean[] seen    = new boolean[64];
+
+    /**
+     * Brings the rows up to date with {@code drones} and fires the matching
+     * row events.
+     *
+     * @return the number of rows updated, inserted or deleted
+     */
+    public int update(Collection<DroneInfo> drones) {
+        return sync(drones, true);
+    }
+
+    /**
+     * Applies the drones that changed, as pushed by the Scheduler's
+     * {@link ChangeFeed}: their rows are updated or appended, and rows of
+     * drones not in {@code drones} are left alone.
+     *
+     * @return the number of rows updated or inserted
+     */
+    public int apply(Collection<DroneInfo> drones) {
+        return sync(drones, false);
+    }
+
+    // Full sync deletes the rows of drones missing from the collection
+    private int sync(Collection<DroneInfo> drones, boolean full) {
+        if (changed.length < rows.length) {
+            changed = new boolean[rows.length];
+            seen    = new boolean[rows.length];
+        }
+        Arrays.fill(changed, 0, size, false);
+        Arrays.fill(seen, 0, size, false);
+
+        int oldSize = size;
+        int updated = 0;
+        for (DroneInfo d : drones) {
+            if (d == null) continue;
+            Integer index = indexById.get(d.droneId);
+            if (index == null) {
+                Row row = new Row(d.droneId);
+                row.set(d);
+                append(row);
+                continue;
+            }
+            seen[index] = true;
+            if (rows[index].set(d)) {
+                changed[index] = true;
+                updated++;
+            }
+        }
+
+        // Updated rows, as contiguous runs; each event costs the JTable and
+        // its sorter a pass over the rows, so many runs become one range
+        int runs = 0, first = -1, last = -1;
+        for (int i = 0; i < oldSize; i++) {
+            if (!changed[i]) continue;
+            if (first < 0) first = i;
+            if (i == 0 || !changed[i - 1]) runs++;
+            last = i;
+        }
+        if (runs > MAX_UPDATE_EVENTS) {
+            fireTableRowsUpdated(first, last);
+        } else {
+            for (int i = first < 0 ? oldSize : first; i <= last; ) {
+                if (!changed[i]) { i++; continue; }
+                int start = i;
+                while (i <= last && changed[i]) i++;
+                fireTableRowsUpdated(start, i - 1);
+            }
+        }
+        int inserted = size - oldSize;
+        if (inserted > 0) fireTableRowsInserted(oldSize, size - 1);
+
+        // Drones gone from the registry, highest row first so indexes stay valid
+        int deleted = 0;
+        for (int i = full ? oldSize - 1 : -1; i >= 0; i--) {
+            if (seen[i]) continue;
+            remove(i);
+            fireTableRowsDeleted(i, i);
+            deleted++;
+        }
+        return updated + inserted + deleted;
+    }
+
+    private void append(Row row) {
+        if (size == rows.length) {
+            rows    = Arrays.copyOf(rows, size * 2);
+            changed = Arrays.copyOf(changed, size * 2);
+            seen    = Arrays.copyOf(seen, size * 2);
+        }
+        indexById.put(row.id, size);
+        rows[size++] = row;
+    }
+
+    private void remove(int index) {
+        indexById.remove(rows[index].id);
+        System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+        rows[--size] = null;
+        for (int i = index; i < size; i++) indexById.put(rows[i].id, i);
+    }
+
+    /** Model row of drone {@code droneId}, or -1 if it has none. */
+    public int indexOf(int droneId) {
+        Integer index = indexById.get(droneId);
+        return index == null ? -1 : index;
+    }
+
+    /** Drone ID shown in model row {@code row}. */
+    public int getDroneId(int row) {
+        return rows[row].id;
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Row row = rows[rowIndex];
+        switch (columnIndex) {
+            case COL_ID:       return row.id;
+            case COL_STATE:    return row.stateLabel;
+            case COL_WATER:    return row.waterValue;
+            case COL_BATTERY:  return row.batteryValue;
+            case COL_POSITION: return row.position;
+            default:           return null;
+        }
+    }
+
+    /**
+     * Formats the drone state enum into a readable string
+     */
+    static String formatState(String state) {
+        if (state == null) return "UNKNOWN";
+
+        switch (state) {
+            case "IDLE":          return "IDLE";
+            case "ONROUTE":       return "EN ROUTE";
+            case "EXTINGUISHING": return "EXTINGUISHING";
+            case "REFILLING":     return "REFILLING";
+            case "FAULTED":       return "FAULTED";
+            case "DECOMMISSIONED":return "DECOMMISSIONED";
+            default:              return state;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One typed event of the simulation, shared by the producers and the
+ * EventLogger.
+ *
+ * <p>The wire form is unchanged — {@code time,Entity,CODE[,data...]}, e.g.
+ * {@code 212,Drone 4,STATE_CHANGE,ONROUTE,ZONE 2} — but in memory the code
+ * is an {@link EventCode}, the entity an interned {@link EventEntity}, and
+ * the payload is typed by code:</p>
+ * <table>
+ *   <caption>Payload per code</caption>
+ *   <tr><th>Code</th><th>Payload (wire order)</th></tr>
+ *   <tr><td>STATE_CHANGE</td><td>{@link #getState()} [, {@link #getZone()}]</td></tr>
+ *   <tr><td>FIRE_DETECTED</td><td>zone [, {@link #getSeverity()}]</td></tr>
+ *   <tr><td>FIRE_EXTINGUISHED</td><td>zone</td></tr>
+ *   <tr><td>DRONE_FAULT</td><td>{@link #getSubject()} (the drone)</td></tr>
+ *   <tr><td>others</td><td>[{@link #getText()}]</td></tr>
+ * </table>
+ *
+ * <p>Producers build events with the factory methods and hand them to an
+ * {@link EventBatcher}, which stamps the time and writes the bytes straight
+ * into its datagram. The logger parses those bytes with {@link #parse}
+ * without splitting the line into Strings, and the metrics then compare
+ * enums and ints instead of text.</p>
+ */
+public final class Event {
+
+    /** Time of an event not yet stamped by a batcher. */
+    public static final long NO_TIME = -1;
+    /** Zone of an event that does not concern one. */
+    public static final int  NO_ZONE = -1;
+
+    private static final byte[] LOG_PREFIX  = "Event log: [".getBytes(StandardCharsets.US_ASCII);
+    private static final String ZONE_PREFIX = "ZONE ";
+    private static final byte[] ZONE_ASCII  = ZONE_PREFIX.getBytes(StandardCharsets.US_ASCII);
+    private static final DroneMachine.DroneState[] STATES     = DroneMachine.DroneState.values();
+    private static final FireEvent.FireSeverity[]  SEVERITIES = FireEvent.FireSeverity.values();
+    private static final byte[][] STATE_ASCII    = asciiNames(STATES);
+    private static final byte[][] SEVERITY_ASCII = asciiNames(SEVERITIES);
+
+    /** "ZONE n" strings for the zones seen so far, so data fields are not rebuilt per event. */
+    private static volatile String[] zoneNames = new String[0];
+
+    private final long                    time;
+    private final EventEntity             entity;
+    private final EventCode               code;
+    private final DroneMachine.DroneState state;
+    private final int                     zone;
+    private final FireEvent.FireSeverity  severity;
+    private final EventEntity             subject;
+    private final String                  text;
+
+    private Event(long time, EventEntity entity, EventCode code, DroneMachine.DroneState state,
+                  int zone, FireEvent.FireSeverity severity, EventEntity subject, String text) {
+        if (entity == null || code == null) throw new IllegalArgumentException("Event needs an entity and a code");
+        this.time     = time;
+        this.entity   = entity;
+        this.code     = code;
+        this.state    = state;
+        this.zone     = zone;
+        this.severity = severity;
+        this.subject  = subject;
+        this.text     = text;
+    }
+
+    // ==== Factories ====
+
+    /** An event with no payload, e.g. {@code STARTED}. */
+    public static Event of(EventEntity entity, EventCode code) {
+        return new Event(NO_TIME, entity, code, null, NO_ZONE, null, null, null);
+    }
+
+    /** An event whose payload is free text (a file name, a generator spec). */
+    public static Event withText(EventEntity entity, EventCode code, String text) {
+        return new Event(NO_TIME, entity, code, null, NO_ZONE, null, null, text);
+    }
+
+    /** A drone's state change; {@code zone} is {@link #NO_ZONE} when it has no mission. */
+    public static Event stateChange(int droneId, DroneMachine.DroneState state, int zone) {
+        return new Event(NO_TIME, EventEntity.drone(droneId), EventCode.STATE_CHANGE,
+                state, zone, null, null, null);
+    }
+
+    public static Event fireDetected(int zone, FireEvent.FireSeverity severity) {
+        return new Event(NO_TIME, EventEntity.SCHEDULER, EventCode.FIRE_DETECTED,
+                null, zone, severity, null, null);
+    }
+
+    public static Event fireExtinguished(int zone) {
+        return new Event(NO_TIME, EventEntity.SCHEDULER, EventCode.FIRE_EXTINGUISHED,
+                null, zone, null, null, null);
+    }
+
+    public static Event droneFault(int droneId) {
+        return new Event(NO_TIME, EventEntity.SCHEDULER, EventCode.DRONE_FAULT,
+                null, NO_ZONE, null, EventEntity.drone(droneId), null);
+    }
+
+    /** This event stamped with a simulation time in seconds. */
+    public Event at(long time) {
+        return new Event(time, entity, code, state, zone, severity, subject, text);
+    }
+
+    // ==== Accessors ====
+
+    /** Simulation time in seconds, or {@link #NO_TIME}. */
+    public long getTime()                       { return time; }
+    public EventEntity getEntity()              { return entity; }
+    public EventCode getCode()                  { return code; }
+    /** New state of a {@code STATE_CHANGE}, else null. */
+    public DroneMachine.DroneState getState()   { return state; }
+    /** Zone ID, or {@link #NO_ZONE}. */
+    public int getZone()                        { return zone; }
+    /** Severity of a {@code FIRE_DETECTED}, or null if not given. */
+    public FireEvent.FireSeverity getSeverity() { return severity; }
+    /** The drone a {@code DRONE_FAULT} concerns, else null. */
+    public EventEntity getSubject()             { return subject; }
+    /** Free-text payload, or null. */
+    public String getText()                     { return text; }
+
+    /** The "ZONE n" data field for a zone ID. */
+    public static String zoneName(int zone) {
+        String[] names = zoneNames;
+        if (zone >= 0 && zone < names.length) return names[zone];
+        if (zone < 0 || zone > 65_535) return ZONE_PREFIX + zone;
+        synchronized (Event.class) {
+            names = zoneNames;
+            if (zone >= names.length) {
+                String[] grown = java.util.Arrays.copyOf(names, Math.max(zone + 1, names.length * 2));
+                for (int i = names.length; i < grown.length; i++) grown[i] = ZONE_PREFIX + i;
+                zoneNames = names = grown;
+            }
+            return names[zone];
+        }
+    }
+
+    /** The payload as text data fields, in wire order. */
+    public String[] dataFields() {
+        switch (code) {
+            case STATE_CHANGE:
+                return zone == NO_ZONE ? new String[]{state.name()}
+                                       : new String[]{state.name(), zoneName(zone)};
+            case FIRE_DETECTED:
+                return severity == null ? new String[]{zoneName(zone)}
+                                        : new String[]{zoneName(zone), severity.name()};
+            case FIRE_EXTINGUISHED:
+                return new String[]{zoneName(zone)};
+            case DRONE_FAULT:
+                return new String[]{subject.toString()};
+            default:
+                return text == null ? new String[0] : new String[]{text};
+        }
+    }
+
+    // ==== Wire form ====
+
+    /** {@code Entity,CODE[,data...]}, i.e. the wire form without the time. */
+    public String toWire() {
+        StringBuilder sb = new StringBuilder(48).append(entity).append(',').append(code.name());
+        for (String f : dataFields()) sb.append(',').append(f);
+        return sb.toString();
+    }
+
+    /**
+     * Writes {@code time,Entity,CODE[,data...]\n} into {@code out}.
+     *
+     * @throws java.nio.BufferOverflowException if it does not fit; the
+     *         buffer position is then undefined and the caller resets it
+     */
+    public void writeTo(ByteBuffer out, long time) {
+        writeLong(out, time);
+        out.put((byte) ',').put(entity.ascii).put((byte) ',').put(code.ascii);
+        switch (code) {
+            case STATE_CHANGE:
+                out.put((byte) ',').put(STATE_ASCII[state.ordinal()]);
+                if (zone != NO_ZONE) writeZone(out);
+                break;
+            case FIRE_DETECTED:
+                writeZone(out);
+                if (severity != null) out.put((byte) ',').put(SEVERITY_ASCII[severity.ordinal()]);
+                break;
+            case FIRE_EXTINGUISHED:
+                writeZone(out);
+                break;
+            case DRONE_FAULT:
+                out.put((byte) ',').put(subject.ascii);
+                break;
+            default:
+                if (text != null) out.put((byte) ',').put(text.getBytes(StandardCharsets.UTF_8));
+                break;
+        }
+        out.put((byte) '\n');
+    }
+
+    private void writeZone(ByteBuffer out) {
+        out.put((byte) ',').put(ZONE_ASCII);
+        writeLong(out, zone);
+    }
+
+    private static void writeLong(ByteBuffer out, long v) {
+        if (v < 0) {
+            out.put((byte) '-');
+            v = -v;
+        }
+        long div = 1;
+        while (v / div >= 10) div *= 10;
+        for (; div > 0; div /= 10) out.put((byte) ('0' + (v / div) % 10));
+    }
+
+    /**
+     * Parses one wire-form event from {@code len} bytes of {@code data} at
+     * {@code off}. Leading and trailing whitespace is ignored.
+     *
+     * @throws IllegalArgumentException if the event is malformed or uses an
+     *         unknown entity, code, state or severity
+     */
+    public static Event parse(byte[] data, int off, int len) {
+        int end = off + len;
+        while (off < end && data[off] <= ' ') off++;
+        while (end > off && data[end - 1] <= ' ') end--;
+
+        int c1 = indexOf(data, off, end, (byte) ',');
+        if (c1 < 0) throw malformed(data, off, end);
+        return parseFields(data, off, end, parseLong(data, off, c1 - off), c1 + 1, 1);
+    }
+
+    /**
+     * Parses one {@code log.txt} line as written by {@link #toString()}, e.g.
+     * {@code Event log: [00:03:32, Drone 4, STATE_CHANGE, ONROUTE, ZONE 2]}.
+     *
+     * @throws IllegalArgumentException if the line is not a valid event line
+     */
+    public static Event parseLogLine(byte[] data, int off, int len) {
+        int end = off + len;
+        while (off < end && data[off] <= ' ') off++;
+        while (end > off && data[end - 1] <= ' ') end--;
+        int p = LOG_PREFIX.length;
+        if (end - off <= p || !bytesEqual(LOG_PREFIX, data, off, p) || data[end - 1] != ']') {
+            throw malformed(data, off, end);
+        }
+        int c1 = indexOf(data, off + p, end - 1, (byte) ',');
+        if (c1 < 0) throw malformed(data, off, end);
+        return parseFields(data, off, end - 1, parseClock(data, off + p, c1 - off - p), c1 + 2, 2);
+    }
+
+    /**
+     * Parses {@code Entity,CODE[,data...]} from {@code from} up to {@code end}
+     * with fields separated by a comma and {@code sepLen - 1} spaces.
+     */
+    private static Event parseFields(byte[] data, int lineStart, int end, long time, int from, int sepLen) {
+        int c2 = from > end ? -1 : indexOf(data, from, end, (byte) ',');
+        if (c2 < 0 || time < 0) throw malformed(data, lineStart, end);
+        int  c3   = indexOf(data, c2 + sepLen, end, (byte) ',');
+        int  codeEnd = c3 < 0 ? end : c3;
+        EventEntity entity = EventEntity.match(data, from, c2 - from);
+        EventCode   code   = EventCode.match(data, c2 + sepLen, codeEnd - c2 - sepLen);
+        if (entity == null || code == null) throw malformed(data, lineStart, end);
+
+        // Payload fields: [f1s, f1e) and [f2s, end); the second runs to the end of the line
+        int f1s = c3 < 0 ? end : c3 + sepLen;
+        int c4  = c3 < 0 ? -1 : indexOf(data, f1s, end, (byte) ',');
+        int f1e = c4 < 0 ? end : c4;
+        int f2s = c4 < 0 ? end : c4 + sepLen;
+        boolean has1 = c3 >= 0, has2 = c4 >= 0;
+
+        switch (code) {
+            case STATE_CHANGE: {
+                DroneMachine.DroneState st = has1 ? matchName(STATES, STATE_ASCII, data, f1s, f1e - f1s) : null;
+                if (st == null) throw malformed(data, lineStart, end);
+                int z = has2 ? parseZone(data, f2s, end - f2s) : NO_ZONE;
+                if (has2 && z < 0) throw malformed(data, lineStart, end);
+                return new Event(time, entity, code, st, z, null, null, null);
+            }
+            case FIRE_DETECTED:
+            case FIRE_EXTINGUISHED: {
+                int z = has1 ? parseZone(data, f1s, f1e - f1s) : -1;
+                FireEvent.FireSeverity sev = has2 && code == EventCode.FIRE_DETECTED
+                        ? matchName(SEVERITIES, SEVERITY_ASCII, data, f2s, end - f2s) : null;
+                if (z < 0 || (has2 && code == EventCode.FIRE_DETECTED && sev == null)) {
+                    throw malformed(data, lineStart, end);
+                }
+                return new Event(time, entity, code, null, z, sev, null, null);
+            }
+            case DRONE_FAULT: {
+                EventEntity drone = has1 ? EventEntity.match(data, f1s, end - f1s) : null;
+                if (drone == null || !drone.isDrone()) throw malformed(data, lineStart, end);
+                return new Event(time, entity, code, null, NO_ZONE, null, drone, null);
+            }
+            default:
+                String t = has1 ? new String(data, f1s, end - f1s, StandardCharsets.UTF_8) : null;
+                return new Event(time, entity, code, null, NO_ZONE, null, null, t);
+        }
+    }
+
+    /** Seconds from {@code H+:MM:SS}, or -1 if the bytes are not a clock time. */
+    private static long parseClock(byte[] data, int off, int len) {
+        int c1 = indexOf(data, off, off + len, (byte) ':');
+        int c2 = c1 < 0 ? -1 : indexOf(data, c1 + 1, off + len, (byte) ':');
+        if (c2 < 0) return -1;
+        long h = parseLong(data, off, c1 - off);
+        long m = parseLong(data, c1 + 1, c2 - c1 - 1);
+        long s = parseLong(data, c2 + 1, off + len - c2 - 1);
+        if (h < 0 || m < 0 || m > 59 || s < 0 || s > 59) return -1;
+        return h * 3600 + m * 60 + s;
+    }
+
+    /** Parses a wire-form line, e.g. {@code "5,Scheduler,FIRE_DETECTED,ZONE 1,HIGH"}. */
+    public static Event parse(String line) {
+        byte[] b = line.getBytes(StandardCharsets.UTF_8);
+        return parse(b, 0, b.length);
+    }
+
+    private static IllegalArgumentException malformed(byte[] data, int from, int to) {
+        return new IllegalArgumentException("Malformed event: "
+                + new String(data, from, to - from, StandardCharsets.UTF_8));
+    }
+
+    private static int parseZone(byte[] data, int off, int len) {
+        if (len <= ZONE_ASCII.length || !bytesEqual(ZONE_ASCII, data, off, ZONE_ASCII.length)) return -1;
+        return parseInt(data, off + ZONE_ASCII.length, len - ZONE_ASCII.length);
+    }
+
+    private static <E> E matchName(E[] values, byte[][] names, byte[] data, int off, int len) {
+        for (int i = 0; i < names.length; i++) {
+            if (bytesEqual(names[i], data, off, len)) return values[i];
+        }
+        return null;
+    }
+
+    private static byte[][] asciiNames(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) names[i] = values[i].name().getBytes(StandardCharsets.US_ASCII);
+        return names;
+    }
+
+    // ==== Byte helpers (shared with EventCode and EventEntity) ====
+
+    static boolean bytesEqual(byte[] expected, byte[] data, int off, int len) {
+        if (len != expected.length) return false;
+        for (int i = 0; i < len; i++) if (data[off + i] != expected[i]) return false;
+        return true;
+    }
+
+    /** Non-negative decimal int, or -1 if the bytes are not one. */
+    static int parseInt(byte[] data, int off, int len) {
+        long v = parseLong(data, off, len);
+        return v > Integer.MAX_VALUE ? -1 : (int) v;
+    }
+
+    /** Non-negative decimal long, or -1 if the bytes are not one. */
+    static long parseLong(byte[] data, int off, int len) {
+        if (len <= 0 || len > 18) return -1;
+        long v = 0;
+        for (int i = off; i < off + len; i++) {
+            int d = data[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private static int indexOf(byte[] data, int from, int to, byte b) {
+        for (int i = from; i < to; i++) if (data[i] == b) return i;
+        return -1;
+    }
+
+    // ==== Log text ====
+
+    /**
+     * The {@code log.txt} line, e.g.
+     * {@code Event log: [00:03:32, Drone 4, STATE_CHANGE, ONROUTE, ZONE 2]}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(64).append("Event log: [")
+                .append(SimulationClock.formatTime(Math.max(time, 0))).append(", ")
+                .append(entity).append(", ").append(code.name());
+        for (String f : dataFields()) sb.append(", ").append(f);
+        return sb.append(']').toString();
+    }
+}
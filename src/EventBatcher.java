@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer side of the EventLogger's batched ingestion path.
+ *
+ * <p>Instead of one datagram per event, events are packed into a single
+ * datagram until it is full or {@link #FLUSH_INTERVAL_MS} has passed:</p>
+ * <pre>
+ *   EVB1,&lt;source&gt;,&lt;epoch&gt;,&lt;seq&gt;\n
+ *   &lt;time&gt;,&lt;entity&gt;,&lt;code&gt;[,data...]\n
+ *   ...
+ * </pre>
+ * <p>{@code seq} counts datagrams from this source, so the logger can tell
+ * exactly how many were lost or arrived out of order; {@code epoch} is
+ * random per batcher so a restarted producer is not mistaken for loss.
+ * The batch buffer and outgoing datagram are allocated once and reused,
+ * typed {@link Event}s are written into it directly as bytes, and only the
+ * sequence number of the header is encoded per batch.</p>
+ */
+public class EventBatcher implements AutoCloseable {
+
+    /** First field of every batch datagram. */
+    public static final String MAGIC = "EVB1";
+
+    /** Largest datagram sent: one Ethernet MTU of UDP payload, so batches are never IP-fragmented. */
+    public static final int MAX_DATAGRAM = 1472;
+
+    /** Longest time an event waits in a partly filled batch. */
+    public static final long FLUSH_INTERVAL_MS = 20;
+
+    /** One daemon thread flushes idle batches for every batcher in the process. */
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "EventBatcher-Flusher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String            source;
+    private final long              epoch;
+    private final DatagramChannel   channel;
+    private final InetSocketAddress logger;
+    private final ByteBuffer        body     = ByteBuffer.allocate(MAX_DATAGRAM);
+    private final ByteBuffer        datagram = ByteBuffer.allocateDirect(MAX_DATAGRAM);
+    /** "EVB1,source,epoch," — the header up to the sequence number, which never changes. */
+    private final byte[]            headerPrefix;
+    private final ScheduledFuture<?> flusher;
+
+    private long    nextSeq    = 0;
+    private int     eventCount = 0;
+    private long    oldestEventAt;
+    private volatile boolean closed = false;
+
+    /**
+     * @param source name of the producing subsystem (no commas or newlines)
+     * @param logger address of the EventLogger
+     * @param port   EventLogger port
+     */
+    public EventBatcher(String source, InetAddress logger, int port) throws SocketException {
+        if (source.indexOf(',') >= 0 || source.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Source name may not contain ',' or newline: " + source);
+        }
+        this.source  = source;
+        this.epoch   = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        this.channel = MessageWriter.openChannel(0);
+        this.logger  = new InetSocketAddress(logger, port);
+        this.headerPrefix = (MAGIC + "," + source + "," + epoch + ",").getBytes(StandardCharsets.UTF_8);
+        this.flusher = FLUSHER.scheduleWithFixedDelay(this::flushIfStale,
+                FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Source name unique to this process, e.g. "Scheduler@4182", so several
+     * processes of the same kind keep separate loss counters.
+     */
+    public static String sourceName(String subsystem) {
+        return subsystem + "@" + ProcessHandle.current().pid();
+    }
+
+    /**
+     * Adds one event. {@code event} is the usual "Entity,CODE[,data...]"
+     * text; the time is prepended here.
+     */
+    public void add(long time, String event) {
+        add(String.valueOf(time), event);
+    }
+
+    /**
+     * Adds one typed event, stamped with {@code time} (simulation seconds).
+     * The event is encoded straight into the batch buffer.
+     */
+    public synchronized void add(long time, Event event) {
+        if (closed) return;
+        int room = MAX_DATAGRAM - headerLength();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int mark = body.position();
+            body.limit(room);
+            try {
+                event.writeTo(body, time);
+                if (eventCount == 0) oldestEventAt = System.nanoTime();
+                eventCount++;
+                return;
+            } catch (BufferOverflowException full) {
+                body.position(mark);
+                if (eventCount == 0) break;
+                sendBatch();
+            } finally {
+                body.limit(body.capacity());
+            }
+        }
+        // Longer than a whole datagram (only free text can be): truncated like any other
+        add(String.valueOf(time), event.toWire());
+    }
+
+    /** Adds one typed event whose time is text (a getTime reply); non-numeric times are sent as they are. */
+    public void add(String time, Event event) {
+        long t = Event.parseLong(time.getBytes(StandardCharsets.US_ASCII), 0, time.length());
+        if (t >= 0) add(t, event);
+        else add(time, event.toWire());
+    }
+
+    /** Adds one event whose time is already text (e.g. a getTime reply). */
+    public synchronized void add(String time, String event) {
+        if (closed) return;
+        byte[] line = (time + "," + event + "\n").getBytes(StandardCharsets.UTF_8);
+        int room = MAX_DATAGRAM - headerLength();
+        if (line.length > room) {
+            System.err.println("EventBatcher: event too long for one datagram, truncated: " + event);
+            line[room - 1] = '\n';
+        }
+        if (line.length > body.remaining() - headerLength()) sendBatch();
+        if (eventCount == 0) oldestEventAt = System.nanoTime();
+        body.put(line, 0, Math.min(line.length, room));
+        eventCount++;
+    }
+
+    /** Sends any events still waiting. */
+    public synchronized void flush() {
+        if (eventCount > 0) sendBatch();
+    }
+
+    /** Datagrams sent so far. */
+    public synchronized long sentCount() {
+        return nextSeq;
+    }
+
+    private int headerLength() {
+        // MAGIC, source, up to 19-digit epoch and sequence, separators
+        return MAGIC.length() + source.length() + 19 + 19 + 4;
+    }
+
+    private void sendBatch() {
+        if (eventCount == 0) return;
+        datagram.clear();
+        datagram.put(headerPrefix);
+        datagram.position(MessageWriter.putDecimal(datagram, datagram.position(), nextSeq++));
+        datagram.put((byte) '\n');
+        datagram.put(body.array(), 0, body.position());
+        datagram.flip();
+        try {
+            channel.send(datagram, logger);
+        } catch (IOException e) {
+            if (!closed) System.err.println("EventBatcher: send failed: " + e.getMessage());
+        }
+        body.clear();
+        eventCount = 0;
+    }
+
+    private synchronized void flushIfStale() {
+        if (!closed && eventCount > 0
+                && System.nanoTime() - oldestEventAt >= TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS)) {
+            sendBatch();
+        }
+    }
+
+    /** Sends what is left and releases the socket. */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        flush();
+        closed = true;
+        flusher.cancel(false);
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing left to send
+        }
+    }
+}
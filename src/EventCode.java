@@ -0,0 +1,49 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Every event code that appears in the event log, shared by the producers
+ * (Scheduler, DroneSubsystem, FireIncidentSubsystem) and the EventLogger.
+ *
+ * <p>The wire and log text of a code is its name, e.g. {@code STATE_CHANGE}.
+ * Each constant keeps its ASCII bytes so events can be written and parsed
+ * without building a String for the code.</p>
+ *
+ * @see Event
+ */
+public enum EventCode {
+    /** A subsystem or drone has started. */
+    STARTED,
+    /** A subsystem or drone has shut down. */
+    ENDED,
+    /** A drone moved to a new {@link DroneMachine.DroneState}; payload: state [, zone]. */
+    STATE_CHANGE,
+    /** The Scheduler queued a new fire; payload: zone [, severity]. */
+    FIRE_DETECTED,
+    /** The Scheduler saw the last water for a zone delivered; payload: zone. */
+    FIRE_EXTINGUISHED,
+    /** A fault was injected into a drone; payload: the drone. */
+    DRONE_FAULT,
+    /** A replay session started reading an incident file; payload: file name. */
+    PROCESSING_FILE,
+    /** A replay session finished an incident file; payload: file name. */
+    FILE_PROCESSED,
+    /** A synthetic load session started; payload: generator spec. */
+    GENERATOR_STARTED,
+    /** A synthetic load session finished; payload: generator spec. */
+    GENERATOR_FINISHED;
+
+    private static final EventCode[] VALUES = values();
+
+    final byte[] ascii = name().getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Returns the code spelled by {@code len} bytes of {@code data} at
+     * {@code off}, or {@code null} if there is none.
+     */
+    static EventCode match(byte[] data, int off, int len) {
+        for (EventCode c : VALUES) {
+            if (Event.bytesEqual(c.ascii, data, off, len)) return c;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The entity that produced an event: a subsystem, or one drone.
+ *
+ * <p>Entities are interned — there is exactly one instance per subsystem and
+ * per drone ID — so they are compared with {@code ==} and carry their log
+ * name and its bytes ready-made. The log name is the one always used on the
+ * wire: {@code Scheduler}, {@code FireSubsystem}, {@code DroneSubsystem} or
+ * {@code Drone <id>}.</p>
+ *
+ * @see Event
+ */
+public final class EventEntity {
+
+    /** Kinds of entity; only drones have more than one instance. */
+    public enum Type {
+        SCHEDULER("Scheduler"),
+        FIRE_SUBSYSTEM("FireSubsystem"),
+        DRONE_SUBSYSTEM("DroneSubsystem"),
+        DRONE("Drone ");
+
+        final String prefix;
+        final byte[] ascii;
+
+        Type(String prefix) {
+            this.prefix = prefix;
+            this.ascii  = prefix.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    public static final EventEntity SCHEDULER       = new EventEntity(Type.SCHEDULER, 0);
+    public static final EventEntity FIRE_SUBSYSTEM  = new EventEntity(Type.FIRE_SUBSYSTEM, 0);
+    public static final EventEntity DRONE_SUBSYSTEM = new EventEntity(Type.DRONE_SUBSYSTEM, 0);
+
+    private static final EventEntity[] SUBSYSTEMS = {SCHEDULER, FIRE_SUBSYSTEM, DRONE_SUBSYSTEM};
+
+    /** Interned drones by ID; grown (copy-on-write) when a larger ID appears. */
+    private static volatile EventEntity[] drones = new EventEntity[64];
+
+    private final Type   type;
+    private final int    id;
+    private final String name;
+    final byte[]         ascii;
+
+    private EventEntity(Type type, int id) {
+        this.type  = type;
+        this.id    = id;
+        this.name  = type == Type.DRONE ? type.prefix + id : type.prefix;
+        this.ascii = name.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** The interned entity for drone {@code id} (0 or greater). */
+    public static EventEntity drone(int id) {
+        if (id < 0) throw new IllegalArgumentException("Drone id must not be negative: " + id);
+        EventEntity[] table = drones;
+        if (id < table.length && table[id] != null) return table[id];
+        synchronized (EventEntity.class) {
+            table = drones;
+            if (id >= table.length) table = Arrays.copyOf(table, Math.max(id + 1, table.length * 2));
+            else table = table.clone();
+            if (table[id] == null) table[id] = new EventEntity(Type.DRONE, id);
+            drones = table;
+            return table[id];
+        }
+    }
+
+    /**
+     * Looks up an entity by its log name, e.g. {@code "Drone 4"}.
+     *
+     * @return the interned entity, or {@code null} if the name is not one
+     */
+    public static EventEntity of(String name) {
+        byte[] b = name.getBytes(StandardCharsets.US_ASCII);
+        return match(b, 0, b.length);
+    }
+
+    /** Parses an entity from {@code len} bytes at {@code off}; {@code null} if there is none. */
+    static EventEntity match(byte[] data, int off, int len) {
+        for (EventEntity e : SUBSYSTEMS) {
+            if (Event.bytesEqual(e.ascii, data, off, len)) return e;
+        }
+        byte[] p = Type.DRONE.ascii;
+        if (len > p.length && Event.bytesEqual(p, data, off, p.length)) {
+            int id = Event.parseInt(data, off + p.length, len - p.length);
+            return id < 0 ? null : drone(id);
+        }
+        return null;
+    }
+
+    public Type getType() { return type; }
+
+    /** Drone ID, or 0 for a subsystem. */
+    public int getId() { return id; }
+
+    public boolean isDrone() { return type == Type.DRONE; }
+
+    /** The log name, e.g. {@code "Drone 4"}. */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
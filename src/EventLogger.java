@@ -1,15 +1,13 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.*;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Listens for UDP event packets from the drone fire-suppression simulation,
@@ -18,83 +16,82 @@ import java.util.Map;
  *
  * <p>Each subsystem (Scheduler, FireSubsystem, DroneSubsystem) sends an
  * {@code ENDED} event when it shuts down. Once all three have signalled,
- * the logger stops receiving, computes metrics from the completed log, and
- * prints them to stdout.</p>
+ * the logger stops receiving and prints the performance metrics, which are
+ * kept up to date as events arrive (see {@link MetricsEngine}).</p>
+ *
+ * <p>The receive loop only parses packets and hands them to an
+ * {@link AsyncLogWriter}; binary-log records, formatting and file I/O happen
+ * in batches on the writer thread, so a burst of events does not back up the
+ * socket.</p>
+ *
+ * <p>Packets arrive on a {@link DatagramChannel} with a large socket receive
+ * buffer and are read into one reused direct buffer. A packet is either a
+ * single legacy event ({@code time,entity,code[,data...]}) or a batch from an
+ * {@link EventBatcher}; batches carry a per-source sequence number, and the
+ * logger counts lost and out-of-order batches for every source.</p>
+ *
+ * <p>Packets are parsed straight from bytes into typed {@link Event}s
+ * (enum codes, interned entities, typed payload), the same model the
+ * producers send with, so metrics and flags compare enums and ints.</p>
+ *
+ * <p>Events are also recorded in an indexed {@link BinaryEventLog}
+ * ({@code log.bin.*}), which answers time-range and entity/code/zone queries
+ * without reading the whole log; see {@link #query}. The text log is then
+ * only a readable rendering and can be switched off.</p>
  *
  * <p>Implements {@link Runnable} so it can be run on a dedicated thread.</p>
  */
 public class EventLogger implements Runnable{
-    /**
-     * Represents a single parsed event from the simulation.
-     *
-     * <p>Each event has a timestamp, the name of the entity that produced it,
-     * an event code, and an optional array of extra data fields.</p>
-     */
-    private class EventLog {
-        final long time;
-        final String entity;
-        final String code;
-        final String[] data;
-
-        /**
-         * Constructs an EventLog with the given fields.
-         *
-         * @param time   epoch-millisecond timestamp
-         * @param entity name of the producing entity
-         * @param code   event code
-         * @param data   zero or more additional data fields
-         */
-        public EventLog(long time, String entity, String code, String... data) {
-            this.time = time;
-            this.entity = entity;
-            this.code = code;
-            this.data = data;
-        }
-
-        /**
-         * Returns the name of the entity that produced this event.
-         *
-         * @return entity name
-         */
-        public String getEntity() {
-            return entity;
-        }
+    public final static int DEFAULT_PORT = 9000;
 
-        /**
-         * Returns the event code for this log entry.
-         *
-         * @return event code string
-         */
-        public String getCode() {
-            return code;
-        }
+    /** Default port of the Prometheus {@code /metrics} endpoint (see {@link #writeMetrics}). */
+    public final static int METRICS_PORT = 9101;
 
-        /**
-         * Returns a formatted log string suitable for writing to {@code log.txt}.
-         *
-         * <p>Format: {@code Event log: [HH:MM:SS, entity, code, data...]}</p>
-         *
-         * @return formatted log line
-         */
-        public String toString() {
-            String formattedTime = SimulationClock.formatTime(time);
+    /** File that every received event is appended to. */
+    public final static String LOG_FILE = "log.txt";
 
-            String logString = "Event log: [" + formattedTime + ", " + entity + ", " + code;
+    /** Base name of the indexed binary event log files. */
+    public final static String BINARY_LOG = "log.bin";
 
-            for (String thing : data) {
-                logString += ", " + thing;
-            }
+    /** CSV export of the latency percentiles, rewritten by {@link #displayMetrics()}. */
+    public final static String LATENCY_FILE = "latency.csv";
 
-            logString += "]";
+    /** Command packet that prints the metrics. */
+    private final static byte[] PRINT_METRICS = "printMetrics".getBytes(StandardCharsets.US_ASCII);
 
-            return  logString;
-        }
-    }
+    /** Largest datagram accepted (the UDP maximum), so nothing is truncated. */
+    private final static int PACKET_SIZE = 65507;
 
-    public final static int DEFAULT_PORT = 9000;
+    /** Socket receive buffer requested from the OS, to absorb bursts. */
+    private final static int RECEIVE_BUFFER_BYTES = 4 * 1024 * 1024;
 
-    private DatagramSocket reciever;
+    private DatagramChannel reciever;
     private int port;
+    private final ByteBuffer packetBuffer = ByteBuffer.allocateDirect(PACKET_SIZE);
+    private final byte[] packetBytes = new byte[PACKET_SIZE];
+
+    /** Events logged since start, legacy and batched (receive thread only writes it). */
+    private volatile long eventsLogged = 0;
+    /** Datagrams received: batches, single events, and everything else (commands, junk). */
+    private volatile long batchDatagrams, eventDatagrams, otherDatagrams;
+
+    /** Events logged and time at the previous scrape, for the ingest rate. */
+    private long lastScrapeEvents;
+    private long lastScrapeNanos = System.nanoTime();
+
+    /** Per-source batch counters, keyed by EventBatcher source name. */
+    private final Map<String, SourceStats> sources = new TreeMap<>();
+
+    private final AsyncLogWriter.FsyncPolicy fsyncPolicy;
+    private final long flushIntervalMs;
+    /** Performance metrics, updated as each event is received. */
+    private final MetricsEngine metrics = new MetricsEngine();
+
+    /** Background writer for {@link #LOG_FILE}; null until {@link #run()} starts it. */
+    private volatile AsyncLogWriter logWriter;
+    /** Indexed binary log; null until {@link #run()} starts it and after the run ends. */
+    private volatile BinaryEventLog binaryLog;
+    private volatile boolean textLogEnabled = true;
 
     private boolean schedulerRunning = true;
     private boolean fireSystemRunning = true;
@@ -107,379 +104,535 @@ public class EventLogger implements Runnable{
      * @throws UnknownHostException if the local host cannot be resolved
      */
     public EventLogger() throws SocketException, UnknownHostException {
-        this.port = DEFAULT_PORT;
-        this.reciever = new DatagramSocket(port);
+        this(AsyncLogWriter.FsyncPolicy.NEVER, AsyncLogWriter.DEFAULT_FLUSH_INTERVAL_MS);
     }
 
     /**
-     * Blocks until a UDP packet arrives, then parses and returns it as an {@link EventLog}.
+     * Creates an EventLogger bound to {@link #DEFAULT_PORT} with the given
+     * log-file durability settings.
      *
-     * <p>Expects comma-separated packets in the form {@code entity,code} or
-     * {@code entity,code,data}. Returns {@code null} if an {@link IOException} occurs.</p>
-     *
-     * @return the parsed {@link EventLog}, or {@code null} on error
+     * @param fsyncPolicy     when written batches are forced to disk
+     * @param flushIntervalMs longest time an event may wait before it is written to the file
+     * @throws SocketException      if the UDP socket cannot be created or bound
+     * @throws UnknownHostException if the local host cannot be resolved
      */
-    public EventLog recieve() {
-        byte[] buffer = new byte[100];
-        EventLog log;
+    public EventLogger(AsyncLogWriter.FsyncPolicy fsyncPolicy, long flushIntervalMs)
+            throws SocketException, UnknownHostException {
+        this.port = DEFAULT_PORT;
         try {
-            DatagramPacket event = new DatagramPacket(buffer, buffer.length);
-            reciever.receive(event);
-            String[] eventStr = new String(event.getData(), 0, event.getLength()).split(",");
-
-            if (eventStr[0].equals("printMetrics")) {
-                displayMetrics();
-                return null;
-            }
-
-            if (eventStr.length == 3) log = new EventLog(Long.parseLong(eventStr[0]), eventStr[1], eventStr[2]);
-            else if (eventStr.length == 4) log = new EventLog(Long.parseLong(eventStr[0]), eventStr[1], eventStr[2], eventStr[3]);
-            else log = new EventLog(Long.parseLong(eventStr[0]), eventStr[1], eventStr[2], eventStr[3], eventStr[4]);
-            return log;
+            this.reciever = DatagramChannel.open();
+            this.reciever.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_BYTES);
+            this.reciever.bind(new InetSocketAddress(port));
         } catch (IOException e) {
-            e.printStackTrace();
+            SocketException se = new SocketException("Could not bind EventLogger port " + port);
+            se.initCause(e);
+            throw se;
         }
-        return null;
+        this.fsyncPolicy = fsyncPolicy;
+        this.flushIntervalMs = flushIntervalMs;
     }
 
     /**
-     * Appends a single log line to {@code log.txt}.
-     *
-     * @param event the formatted log string to write
+     * Loss and ordering counters for one batching producer.
      */
-    public void writeLog(String event) {
-        if (event == null) return;
+    public static class SourceStats {
+        long epoch;
+        long nextSeq;
+        long batches, events, lost, reordered;
+
+        /** Batches received. */
+        public long getBatches()   { return batches; }
+        /** Events received in those batches. */
+        public long getEvents()    { return events; }
+        /** Batches that never arrived (sequence gaps not filled later). */
+        public long getLost()      { return lost; }
+        /** Batches that arrived after a later one. */
+        public long getReordered() { return reordered; }
+    }
 
+    /**
+     * Blocks until a UDP packet arrives, then logs every event in it.
+     *
+     * <p>A packet is either one comma-separated event
+     * ({@code time,entity,code[,data...]}), a {@code printMetrics} request, or
+     * an {@link EventBatcher} batch. Events that cannot be parsed are reported
+     * and skipped.</p>
+     *
+     * @return number of events logged from the packet
+     */
+    public int receivePacket() {
+        int length;
         try {
-            FileWriter writer = new FileWriter("log.txt", true);
-            writer.write(event + "\n");
-            writer.close();
+            packetBuffer.clear();
+            reciever.receive(packetBuffer);
+            packetBuffer.flip();
+            length = packetBuffer.remaining();
+            packetBuffer.get(packetBytes, 0, length);
         } catch (IOException e) {
-            e.printStackTrace();
+            if (reciever.isOpen()) e.printStackTrace();
+            return 0;
         }
+        return handlePacket(packetBytes, length);
     }
 
     /**
-     * Truncates {@code log.txt} to zero bytes, discarding any previous run's data.
-     * Called at the start of each simulation run.
+     * Logs every event in one packet.
+     *
+     * @param data   packet bytes
+     * @param length number of valid bytes in {@code data}
+     * @return number of events logged
      */
-    public void clearLogFile() {
+    int handlePacket(byte[] data, int length) {
+        if (!startsWith(data, length, EventBatcher.MAGIC)) {
+            int logged = handleEvent(data, 0, length);
+            if (logged > 0) eventDatagrams++;
+            else otherDatagrams++;
+            return logged;
+        }
+        int headerEnd = indexOf(data, 0, length, (byte) '\n');
+        String[] header = headerEnd < 0 ? new String[0]
+                : new String(data, 0, headerEnd, StandardCharsets.UTF_8).split(",");
+        long epoch, seq;
         try {
-            FileWriter writer = new FileWriter("log.txt");
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+            if (header.length != 4) throw new NumberFormatException();
+            epoch = Long.parseLong(header[2]);
+            seq   = Long.parseLong(header[3]);
+        } catch (NumberFormatException e) {
+            System.err.println("EventLogger: malformed batch header");
+            otherDatagrams++;
+            return 0;
+        }
+        batchDatagrams++;
+        countBatch(header[1], epoch, seq);
+
+        int logged = 0;
+        int start  = headerEnd + 1;
+        while (start < length) {
+            int end = indexOf(data, start, length, (byte) '\n');
+            if (end < 0) end = length;
+            if (end > start) logged += handleEvent(data, start, end - start);
+            start = end + 1;
+        }
+        synchronized (sources) {
+            sources.get(header[1]).events += logged;
+        }
+        return logged;
+    }
+
+    private int handleEvent(byte[] data, int offset, int length) {
+        Event event;
+        try {
+            event = parse(data, offset, length);
+        } catch (RuntimeException e) {
+            System.err.println("EventLogger: skipping malformed event: "
+                    + new String(data, offset, length, StandardCharsets.UTF_8));
+            return 0;
+        }
+        if (event == null) return 0;
+        eventsLogged++;
+        enqueue(event);
+        recordMetrics(event);
+        checkFlags(event);
+        return 1;
+    }
+
+    /** Updates a source's counters for a batch with the given sequence number. */
+    private void countBatch(String source, long epoch, long seq) {
+        synchronized (sources) {
+            SourceStats stats = sources.computeIfAbsent(source, k -> new SourceStats());
+            if (stats.epoch != epoch) {
+                // New producer (or a restarted one): start counting from its first batch
+                stats.epoch   = epoch;
+                stats.nextSeq = seq;
+            }
+            stats.batches++;
+            if (seq >= stats.nextSeq) {
+                stats.lost   += seq - stats.nextSeq;
+                stats.nextSeq = seq + 1;
+            } else {
+                // Counted as lost when the gap was seen; it turned up late instead
+                stats.reordered++;
+                if (stats.lost > 0) stats.lost--;
+            }
         }
     }
 
     /**
-     * Checks whether the given event signals that a subsystem has finished,
-     * and clears the corresponding running flag if so.
-     *
-     * <p>The main loop in {@link #run()} continues only while at least one
-     * running flag is {@code true}.</p>
+     * Returns a snapshot of the per-source batch counters.
      *
-     * @param event the event to inspect
+     * @return counters keyed by source name
      */
-    public void checkFlags(EventLog event) {
-        if (event == null) return;
-        if (event.getEntity().equals("Scheduler") && event.code.equals("ENDED")) schedulerRunning = false;
-        if (event.getEntity().equals("FireSubsystem") && event.code.equals("ENDED")) fireSystemRunning = false;
-        if (event.getEntity().equals("DroneSubsystem") && event.code.equals("ENDED")) droneSystemRunning = false;
+    public Map<String, SourceStats> getSourceStats() {
+        synchronized (sources) {
+            Map<String, SourceStats> copy = new TreeMap<>();
+            for (Map.Entry<String, SourceStats> e : sources.entrySet()) {
+                SourceStats c = new SourceStats();
+                SourceStats s = e.getValue();
+                c.epoch = s.epoch; c.nextSeq = s.nextSeq;
+                c.batches = s.batches; c.events = s.events; c.lost = s.lost; c.reordered = s.reordered;
+                copy.put(e.getKey(), c);
+            }
+            return copy;
+        }
     }
 
     /**
-     * Reads the completed log file and prints all performance metrics to stdout.
+     * Returns the number of events logged so far.
      *
-     * <p>Delegates to {@link #displayFireIncidentMetrics}, {@link #displayDroneMetrics},
-     * and {@link #displayOverallMetrics}.</p>
+     * @return events received and logged
      */
-    public void displayMetrics() {
-        List<String> logLines = readLogLines();
-        List<EventLog> events = parseLogLines(logLines);
+    public long getEventsLogged() {
+        return eventsLogged;
+    }
+
+    /** Closes the receive channel; a blocked {@link #run()} loop then ends. */
+    public void close() {
+        try {
+            reciever.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static boolean startsWith(byte[] data, int length, String prefix) {
+        if (length < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[i] != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
 
-        System.out.println("\nPERFORMANCE METRICS:\n");
-        displayFireIncidentMetrics(events);
-        displayDroneMetrics(events);
-        displayOverallMetrics(events);
+    private static int indexOf(byte[] data, int from, int to, byte b) {
+        for (int i = from; i < to; i++) if (data[i] == b) return i;
+        return -1;
     }
 
     /**
-     * Reads all lines from {@code log.txt} and returns them as a list.
+     * Parses one event packet. A {@code printMetrics} packet prints the
+     * metrics and yields {@code null}.
      *
-     * @return list of raw log lines; empty if the file cannot be read
+     * @param data   packet bytes
+     * @param length number of valid bytes in {@code data}
+     * @return the parsed {@link Event}, or {@code null} if there is nothing to log
      */
-    private List<String> readLogLines() {
-        List<String> lines = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader("log.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) lines.add(line);
-        } catch (IOException e) { e.printStackTrace(); }
-        return lines;
+    Event parse(byte[] data, int length) {
+        return parse(data, 0, length);
     }
 
     /**
-     * Parses a list of raw log lines into {@link EventLog} objects.
-     *
-     * <p>Expects lines in the format:
-     * {@code Event log: [HH:MM:SS, entity, code, data?]}
-     * Lines that do not match this format are silently skipped.</p>
+     * Parses one event from {@code length} bytes of {@code data} starting at {@code offset}.
      *
-     * @param lines raw lines read from the log file
-     * @return ordered list of parsed {@link EventLog} entries
+     * @throws IllegalArgumentException if the bytes are not a valid event
      */
-    private List<EventLog> parseLogLines(List<String> lines) {
-        List<EventLog> events = new ArrayList<>();
-        for (String line : lines) {
-            int start = line.indexOf('['), end = line.lastIndexOf(']');
-            if (start < 0 || end < 0) continue;
-            String[] parts = line.substring(start + 1, end).split(", ");
-            if (parts.length < 3) continue;
-            long ts = parseSimTime(parts[0]);
-            if (ts < 0) continue;
-            String[] extra = parts.length > 3
-                    ? java.util.Arrays.copyOfRange(parts, 3, parts.length)
-                    : new String[0];
-            events.add(new EventLog(ts, parts[1], parts[2], extra));
+    Event parse(byte[] data, int offset, int length) {
+        if (length >= PRINT_METRICS.length && Event.bytesEqual(PRINT_METRICS, data, offset, PRINT_METRICS.length)) {
+            displayMetrics();
+            return null;
         }
-        return events;
+        return Event.parse(data, offset, length);
     }
 
     /**
-     * Parses a simulation timestamp in {@code HH:MM:SS} format into milliseconds
-     * elapsed since time zero.
+     * Queues an event for the background writer, which records it in the
+     * binary log and in the text log. Falls back to writing both directly if
+     * the writer has not been started.
      *
-     * @param timeStr timestamp string in {@code HH:MM:SS} format
-     * @return elapsed milliseconds, or {@code -1} if the string cannot be parsed
+     * @param event the event to log
      */
-    private long parseSimTime(String timeStr) {
+    public void enqueue(Event event) {
+        AsyncLogWriter writer = logWriter;
+        if (writer != null) {
+            writer.append(event);
+            return;
+        }
+        BinaryEventLog binary = binaryLog;
+        if (binary != null) appendBinary(binary, event);
+        if (textLogEnabled) writeLog(event.toString());
+    }
+
+    /** Records one event in the binary log; runs on the writer thread. */
+    private static void appendBinary(BinaryEventLog binary, Event event) {
         try {
-            String[] parts = timeStr.trim().split(":");
-            if (parts.length != 3) return -1;
-            long hours   = Long.parseLong(parts[0]);
-            long minutes = Long.parseLong(parts[1]);
-            long seconds = Long.parseLong(parts[2]);
-            return ((hours * 60 + minutes) * 60 + seconds) * 1000L;
-        } catch (NumberFormatException e) {
-            return -1;
+            binary.append(event);
+        } catch (IOException e) {
+            System.err.println("EventLogger: binary log write failed: " + e.getMessage());
         }
     }
 
     /**
-     * Prints a per-incident table of fire response times and extinguish durations,
-     * followed by averages across all incidents.
+     * Turns the human-readable {@code log.txt} on or off. The binary log is
+     * always written. Takes effect when the writer starts in {@link #run()}.
      *
-     * <p>For each fire (identified by a {@code FIRE_DETECTED} event), this method computes:</p>
-     * <ul>
-     *   <li><b>Response time</b> — time from detection to the moment the <em>first</em> drone
-     *       transitions to {@code EXTINGUISHING} for that zone. Recorded once and never
-     *       updated even if that drone leaves and more drones are dispatched later.</li>
-     *   <li><b>Extinguish duration</b> — time from detection to the matching
-     *       {@code FIRE_EXTINGUISHED} event.</li>
-     * </ul>
-     *
-     * <p>There is exactly one response time entry per {@code FIRE_DETECTED} event.</p>
+     * @param enabled whether to write {@code log.txt}
+     */
+    public void setTextLogEnabled(boolean enabled) {
+        this.textLogEnabled = enabled;
+    }
+
+    // ==== Queries (binary log) ====
+
+    /**
+     * Returns logged events in a simulation-time range that match every
+     * non-null filter, using the binary log's index. Works during the run
+     * and on the files left by the last run; during the run it includes
+     * every event received before the call, and does not hold up ingestion.
      *
-     * @param events ordered list of all parsed log events
+     * @param fromSeconds earliest simulation time, inclusive
+     * @param toSeconds   latest simulation time, inclusive
+     * @param entity      e.g. {@code "Drone 17"}, or {@code null} for any
+     * @param code        e.g. {@code "FIRE_DETECTED"}, or {@code null} for any
+     * @param dataField   e.g. {@code "ZONE 3"}, or {@code null} for any
+     * @return matching events in log order
+     * @throws IOException if the binary log cannot be read
      */
-    private void displayFireIncidentMetrics(List<EventLog> events) {
-        Map<String, List<Long>> detectedTimes = new HashMap<>();
-        Map<String, List<Long>> responseTimes = new HashMap<>();
+    public List<BinaryEventLog.Record> query(long fromSeconds, long toSeconds,
+                                             String entity, String code, String dataField) throws IOException {
+        BinaryEventLog live = binaryLog;
+        if (live != null) {
+            AsyncLogWriter writer = logWriter;
+            if (writer != null) writer.sync();
+            return live.query(fromSeconds, toSeconds, entity, code, dataField);
+        }
+        try (BinaryEventLog saved = BinaryEventLog.open(Paths.get(BINARY_LOG))) {
+            return saved.query(fromSeconds, toSeconds, entity, code, dataField);
+        }
+    }
 
-        List<Object[]> incidents = new ArrayList<>();
+    /**
+     * All events from one entity between two simulation times, e.g.
+     * {@code eventsFor("Drone 17", 3600, 7200)}.
+     */
+    public List<BinaryEventLog.Record> eventsFor(String entity, long fromSeconds, long toSeconds) throws IOException {
+        return query(fromSeconds, toSeconds, entity, null, null);
+    }
 
-        for (EventLog e : events) {
-            if (e.getCode().equals("FIRE_DETECTED") && e.data.length > 0) {
-                String zone = e.data[0];
-                detectedTimes.computeIfAbsent(zone, k -> new ArrayList<>()).add(e.time);
-                responseTimes.computeIfAbsent(zone, k -> new ArrayList<>()).add(-1L);
-            }
+    /**
+     * All events with a code and data field, e.g.
+     * {@code eventsWith("FIRE_DETECTED", "ZONE 3")}.
+     */
+    public List<BinaryEventLog.Record> eventsWith(String code, String dataField) throws IOException {
+        return query(Long.MIN_VALUE, Long.MAX_VALUE, null, code, dataField);
+    }
 
-            if (e.getCode().equals("STATE_CHANGE") && e.data.length > 1
-                    && e.data[0].equals("EXTINGUISHING")) {
-                String zone = e.data[1];
-                List<Long> detections = detectedTimes.get(zone);
-                List<Long> responses  = responseTimes.get(zone);
-                if (detections != null) {
-                    for (int i = 0; i < responses.size(); i++) {
-                        if (responses.get(i) == -1L) {
-                            responses.set(i, e.time - detections.get(i));
-                            break;
-                        }
-                    }
-                }
-            }
+    /**
+     * Appends a single log line to {@code log.txt} synchronously, opening and
+     * closing the file for this one line. The receive loop uses
+     * {@link #enqueue} instead; this remains for one-off writes.
+     *
+     * @param event the formatted log string to write
+     */
+    public void writeLog(String event) {
+        if (event == null) return;
 
-            if (e.getCode().equals("FIRE_EXTINGUISHED") && e.data.length > 0) {
-                String zone = e.data[0];
-                List<Long> detections = detectedTimes.get(zone);
-                List<Long> responses  = responseTimes.get(zone);
-                if (detections == null || detections.isEmpty()) continue;
-                long detectedAt = detections.remove(0);
-                long responseMs = responses.remove(0);
-                long durationMs = e.time - detectedAt;
-                incidents.add(new Object[]{zone, responseMs, durationMs});
-            }
+        try {
+            FileWriter writer = new FileWriter(LOG_FILE, true);
+            writer.write(event + "\n");
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
+    }
 
-        System.out.println("Fire Incident Metrics:");
-        System.out.printf("%-10s %-16s %-18s%n", "Zone", "Response time", "Extinguish duration");
-
-        for (Object[] inc : incidents) {
-            String zone       = (String) inc[0];
-            long   responseMs = (long)   inc[1];
-            long   durationMs = (long)   inc[2];
-            System.out.printf("%-10s %-16s %-18s%n",
-                    zone,
-                    responseMs >= 0 ? formatDuration(responseMs) : "N/A",
-                    formatDuration(durationMs));
+    /**
+     * Truncates {@code log.txt} to zero bytes, discarding any previous run's data.
+     * Called at the start of each simulation run.
+     */
+    public void clearLogFile() {
+        try {
+            FileWriter writer = new FileWriter(LOG_FILE);
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
+    }
 
-        if (!incidents.isEmpty()) {
-            double avgResponse = incidents.stream()
-                    .mapToLong(r -> (long) r[1]).filter(r -> r >= 0).average().orElse(0);
-            double avgExtinguish = incidents.stream()
-                    .mapToLong(r -> (long) r[2]).average().orElse(0);
-            System.out.printf("%nTotal fires:             %d%n", incidents.size());
-            System.out.printf("Avg response time:       %s%n", formatDuration((long) avgResponse));
-            System.out.printf("Avg extinguish duration: %s%n%n", formatDuration((long) avgExtinguish));
-        }
+    /**
+     * Checks whether the given event signals that a subsystem has finished,
+     * and clears the corresponding running flag if so.
+     *
+     * <p>The main loop in {@link #run()} continues only while at least one
+     * running flag is {@code true}.</p>
+     *
+     * @param event the event to inspect
+     */
+    public void checkFlags(Event event) {
+        if (event == null || event.getCode() != EventCode.ENDED) return;
+        if (event.getEntity() == EventEntity.SCHEDULER)       schedulerRunning = false;
+        if (event.getEntity() == EventEntity.FIRE_SUBSYSTEM)  fireSystemRunning = false;
+        if (event.getEntity() == EventEntity.DRONE_SUBSYSTEM) droneSystemRunning = false;
     }
 
     /**
-     * Prints a per-drone breakdown of mission count, total flight time, total idle time,
-     * and recharge cycles, followed by the average idle time across all drones.
+     * Folds a received event into the running metrics.
      *
-     * <p>Drone names are discovered dynamically from the log — any entity whose name
-     * starts with {@code "Drone "} is included. Flight time accumulates time spent in
-     * the {@code ONROUTE} and {@code EXTINGUISHING} states; idle time accumulates time
-     * spent in the {@code IDLE} state.</p>
+     * @param event the event to record
+     */
+    public void recordMetrics(Event event) {
+        if (event == null) return;
+        metrics.record(event);
+    }
+
+    /**
+     * Prints all performance metrics to stdout and exports the latency
+     * percentiles to {@link #LATENCY_FILE}.
      *
-     * @param events ordered list of all parsed log events
+     * <p>The metrics are maintained incrementally by {@link MetricsEngine} as
+     * events arrive, so this neither re-reads {@code log.txt} nor scans the
+     * events received so far.</p>
      */
-    private void displayDroneMetrics(List<EventLog> events) {
-        List<String> drones = events.stream()
-                .map(EventLog::getEntity)
-                .filter(name -> name.startsWith("Drone "))
-                .distinct()
-                .sorted(java.util.Comparator.comparingInt(
-                        s -> Integer.parseInt(s.substring(6))))
-                .toList();
-
-        long logStart = events.get(0).time;
-        long logEnd   = events.get(events.size() - 1).time;
-
-        System.out.println("Drone Performance Metrics:");
-        System.out.printf("%-10s %-12s %-12s %-12s %-10s%n",
-                "Drone", "Missions", "FlightTime", "IdleTime", "Recharges");
-
-        long totalIdle = 0;
-        for (String drone : drones) {
-            List<EventLog> droneEvents = events.stream()
-                    .filter(e -> e.getEntity().equals(drone) && e.getCode().equals("STATE_CHANGE"))
-                    .toList();
-
-            long flightTime = 0, idleTime = 0;
-            int missions = 0, recharges = 0;
-            long stateStart = logStart;
-            String currentState = "IDLE";
-
-            for (EventLog e : droneEvents) {
-                long dur = e.time - stateStart;
-                if (currentState.equals("ONROUTE") || currentState.equals("EXTINGUISHING")) flightTime += dur;
-                if (currentState.equals("IDLE")) idleTime += dur;
-                if (e.data[0].equals("ONROUTE")) missions++;
-                if (e.data[0].equals("REFILLING_AND_RECHARGING")) recharges++;
-                currentState = e.data[0];
-                stateStart = e.time;
-            }
-            long remaining = logEnd - stateStart;
-            if (currentState.equals("IDLE")) idleTime += remaining;
-
-            totalIdle += idleTime;
-            System.out.printf("%-10s %-12d %-12s %-12s %-10d%n",
-                    drone, missions,
-                    formatDuration(flightTime),
-                    formatDuration(idleTime),
-                    recharges);
+    public void displayMetrics() {
+        metrics.print();
+        printSourceStats();
+        try (FileWriter writer = new FileWriter(LATENCY_FILE)) {
+            metrics.exportPercentiles(writer);
+        } catch (IOException e) {
+            System.err.println("EventLogger: could not write " + LATENCY_FILE + ": " + e.getMessage());
         }
+    }
 
-        if (!drones.isEmpty()) {
-            System.out.printf("%nAvg drone idle time: %s%n%n", formatDuration(totalIdle / drones.size()));
+    /** Prints received, lost and reordered batch counts for every batching source. */
+    private void printSourceStats() {
+        Map<String, SourceStats> stats = getSourceStats();
+        if (stats.isEmpty()) return;
+        System.out.println("\nEvent Ingestion:");
+        System.out.printf("%-16s %-10s %-10s %-8s %-10s%n", "Source", "Batches", "Events", "Lost", "Reordered");
+        for (Map.Entry<String, SourceStats> e : stats.entrySet()) {
+            SourceStats s = e.getValue();
+            System.out.printf("%-16s %-10d %-10d %-8d %-10d%n",
+                    e.getKey(), s.batches, s.events, s.lost, s.reordered);
         }
     }
 
     /**
-     * Prints high-level simulation summary metrics including total runtime,
-     * time from first fire detected to last fire extinguished, and overall
-     * fire detection and extinguish counts.
-     *
-     * @param events ordered list of all parsed log events
+     * Writes the logger's live metrics for a {@link MetricsHttpServer}
+     * scrape: ingest counters and rate, per-source batch loss, fires seen,
+     * and the latency percentiles from {@link MetricsEngine}.
      */
-    private void displayOverallMetrics(List<EventLog> events) {
-        long logStart = events.get(0).time;
-        long logEnd   = events.get(events.size() - 1).time;
-
-        long firstFire = events.stream()
-                .filter(e -> e.getCode().equals("FIRE_DETECTED"))
-                .mapToLong(e -> e.time).min().orElse(logStart);
-        long lastExtinguish = events.stream()
-                .filter(e -> e.getCode().equals("FIRE_EXTINGUISHED"))
-                .mapToLong(e -> e.time).max().orElse(logEnd);
-
-        long totalFires = events.stream().filter(e -> e.getCode().equals("FIRE_DETECTED")).count();
-        long totalExtinguished = events.stream().filter(e -> e.getCode().equals("FIRE_EXTINGUISHED")).count();
-
-        System.out.println("Overall Simulation Metrics:");
-        System.out.println("Total simulation time:  " + formatDuration(logEnd - logStart));
-        System.out.println("First fire → last out:  " + formatDuration(lastExtinguish - firstFire));
-        System.out.println("Total fires detected:   " + totalFires);
-        System.out.println("Total fires extinguished: " + totalExtinguished);
+    public void writeMetrics(MetricsHttpServer.Exposition out) {
+        long events = eventsLogged;
+        double rate;
+        synchronized (this) {
+            long now = System.nanoTime();
+            double secs = (now - lastScrapeNanos) / 1e9;
+            rate = secs > 0 ? (events - lastScrapeEvents) / secs : 0;
+            lastScrapeNanos  = now;
+            lastScrapeEvents = events;
+        }
+        out.counter("eventlogger_events_total", "Events received and logged");
+        out.sample("eventlogger_events_total", events);
+        out.gauge("eventlogger_ingest_rate", "Events per second since the previous scrape");
+        out.sample("eventlogger_ingest_rate", Math.round(rate * 10) / 10.0);
+        out.counter("eventlogger_datagrams_received_total", "UDP datagrams received, by kind");
+        out.sample("eventlogger_datagrams_received_total", batchDatagrams, "type", "batch");
+        out.sample("eventlogger_datagrams_received_total", eventDatagrams, "type", "event");
+        out.sample("eventlogger_datagrams_received_total", otherDatagrams, "type", "other");
+
+        AsyncLogWriter writer = logWriter;
+        if (writer != null) {
+            if (textLogEnabled) {
+                out.counter("eventlogger_written_total", "Events written to log.txt");
+                out.sample("eventlogger_written_total", writer.writtenCount());
+            }
+            out.counter("eventlogger_writer_full_waits_total", "Times the receive loop waited on a full writer queue");
+            out.sample("eventlogger_writer_full_waits_total", writer.fullWaitCount());
+        }
+
+        Map<String, SourceStats> stats = getSourceStats();
+        out.counter("eventlogger_batches_lost_total", "Batches that never arrived, by source");
+        for (Map.Entry<String, SourceStats> e : stats.entrySet()) {
+            out.sample("eventlogger_batches_lost_total", e.getValue().lost, "source", e.getKey());
+        }
+        out.counter("eventlogger_batches_reordered_total", "Batches that arrived after a later one, by source");
+        for (Map.Entry<String, SourceStats> e : stats.entrySet()) {
+            out.sample("eventlogger_batches_reordered_total", e.getValue().reordered, "source", e.getKey());
+        }
+
+        out.counter("eventlogger_fires_detected_total", "FIRE_DETECTED events seen");
+        out.sample("eventlogger_fires_detected_total", metrics.getFiresDetected());
+        out.counter("eventlogger_fires_extinguished_total", "FIRE_EXTINGUISHED events seen");
+        out.sample("eventlogger_fires_extinguished_total", metrics.getFiresExtinguished());
+        for (MetricsEngine.Latency kind : MetricsEngine.Latency.values()) {
+            String name = "eventlogger_" + kind.name().toLowerCase() + "_seconds";
+            out.summary(name, kind.label + " latency in simulation seconds");
+            out.summary(name, metrics.getHistogram(kind));
+        }
     }
 
     /**
-     * Formats a millisecond duration as a human-readable string.
-     *
-     * <ul>
-     *   <li>Under 1 second: expressed in milliseconds, e.g. {@code "450ms"}</li>
-     *   <li>Under 1 minute: expressed in seconds with one decimal place, e.g. {@code "12.5s"}</li>
-     *   <li>Under 1 hour: expressed as minutes and seconds, e.g. {@code "3m 20s"}</li>
-     *   <li>1 hour or more: expressed as hours, minutes, and seconds, e.g. {@code "1h 3m 20s"}</li>
-     * </ul>
+     * Returns the running metrics for this logger.
      *
-     * @param ms duration in milliseconds
-     * @return formatted duration string
+     * @return the metrics engine fed by the receive loop
      */
-    private String formatDuration(long ms) {
-        long totalSeconds = ms / 1000;
-        if (totalSeconds < 60) return totalSeconds + "s";
-        long seconds = totalSeconds % 60;
-        long totalMinutes = totalSeconds / 60;
-        if (totalMinutes < 60) return String.format("%dm %02ds", totalMinutes, seconds);
-        long minutes = totalMinutes % 60;
-        long hours   = totalMinutes / 60;
-        return String.format("%dh %02dm %02ds", hours, minutes, seconds);
+    public MetricsEngine getMetrics() {
+        return metrics;
     }
 
     /**
      * Entry point for the logger thread.
      *
-     * <p>Clears the log file, then loops receiving UDP events and writing each to disk
-     * until all three subsystems have sent {@code ENDED} events or the thread is
-     * interrupted. Once the loop exits, {@link #displayMetrics()} is called to print
-     * the final performance report.</p>
+     * <p>Clears the log file and starts the background writer, then loops receiving
+     * UDP packets and queueing each event for the writer until all three subsystems have
+     * sent {@code ENDED} events or the thread is interrupted. Once the loop exits,
+     * the writer is drained and closed and {@link #displayMetrics()} is called to
+     * print the final performance report.</p>
      */
     @Override
     public void run() {
         clearLogFile();
+        startWriter();
         System.out.println("Starting Event Logger");
-        while ((schedulerRunning | fireSystemRunning | droneSystemRunning) && !Thread.currentThread().isInterrupted()) {
-            EventLog event = recieve();
-            if (event != null) {
-                writeLog(event.toString());
-                checkFlags(event);
-            }
+        while ((schedulerRunning | fireSystemRunning | droneSystemRunning)
+                && !Thread.currentThread().isInterrupted() && reciever.isOpen()) {
+            receivePacket();
         }
+        stopWriter();
         displayMetrics();
     }
+
+    /**
+     * Starts a fresh binary log and the background writer that records queued
+     * events in it and appends them to {@link #LOG_FILE}. If the text file
+     * cannot be opened, events are written synchronously instead.
+     */
+    void startWriter() {
+        BinaryEventLog binary = null;
+        try {
+            binary = BinaryEventLog.create(Paths.get(BINARY_LOG));
+        } catch (IOException e) {
+            System.err.println("EventLogger: could not create " + BINARY_LOG + ": " + e.getMessage());
+        }
+        binaryLog = binary;
+        if (binary == null && !textLogEnabled) return;
+        BinaryEventLog sink = binary;
+        try {
+            logWriter = new AsyncLogWriter(textLogEnabled ? Paths.get(LOG_FILE) : null,
+                    sink == null ? null : record -> appendBinary(sink, (Event) record),
+                    AsyncLogWriter.DEFAULT_CAPACITY, flushIntervalMs, fsyncPolicy,
+                    AsyncLogWriter.DEFAULT_FSYNC_INTERVAL_MS);
+        } catch (IOException e) {
+            System.err.println("EventLogger: could not open " + LOG_FILE + " for batched writes, "
+                    + "writing synchronously: " + e.getMessage());
+        }
+    }
+
+    /** Writes out every queued event, stops the background writer and closes the binary log. */
+    void stopWriter() {
+        AsyncLogWriter writer = logWriter;
+        if (writer != null) {
+            logWriter = null;
+            writer.close();
+            if (writer.fullWaitCount() > 0) {
+                System.out.printf("EventLogger: writer fell behind %d times%n", writer.fullWaitCount());
+            }
+        }
+        BinaryEventLog binary = binaryLog;
+        if (binary != null) {
+            binaryLog = null;
+            try {
+                binary.close();
+            } catch (IOException e) {
+                System.err.println("EventLogger: could not close " + BINARY_LOG + ": " + e.getMessage());
+            }
+        }
+    }
 }
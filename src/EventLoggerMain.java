@@ -1,9 +1,38 @@
 import java.net.SocketException;
 import java.net.UnknownHostException;
 
+/**
+ * Entry point for the EventLogger process.
+ *
+ * Usage:   java EventLoggerMain [--fsync never|interval|batch] [--flush-ms N] [--no-text]
+ *                                [--metrics-port N]
+ *
+ * --fsync        when log.txt is forced to disk (default never: left to the OS, forced on exit)
+ * --flush-ms     longest time an event waits in the writer's batch (default 50)
+ * --no-text      only write the indexed binary log (log.bin.*), not log.txt
+ * --metrics-port port of the Prometheus /metrics endpoint (default 9101, 0 to disable)
+ */
 public class EventLoggerMain {
     public static void main(String[] args) throws SocketException, UnknownHostException, InterruptedException {
-        EventLogger logger = new EventLogger();
+        AsyncLogWriter.FsyncPolicy fsync = AsyncLogWriter.FsyncPolicy.NEVER;
+        long flushMs = AsyncLogWriter.DEFAULT_FLUSH_INTERVAL_MS;
+        boolean text = true;
+        int metricsPort = EventLogger.METRICS_PORT;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--fsync".equals(args[i])) {
+                String policy = args[++i].toUpperCase();
+                fsync = "BATCH".equals(policy) ? AsyncLogWriter.FsyncPolicy.EVERY_BATCH
+                                               : AsyncLogWriter.FsyncPolicy.valueOf(policy);
+            }
+            else if ("--flush-ms".equals(args[i])) flushMs = Long.parseLong(args[++i]);
+            else if ("--no-text".equals(args[i])) text = false;
+            else if ("--metrics-port".equals(args[i])) metricsPort = Integer.parseInt(args[++i]);
+        }
+
+        EventLogger logger = new EventLogger(fsync, flushMs);
+        logger.setTextLogEnabled(text);
+        if (metricsPort > 0) MetricsHttpServer.startOrWarn("EventLogger", metricsPort, logger::writeMetrics);
         Thread thread = new Thread(logger, "EventLogger");
         thread.start();
         //Thread.sleep(420000);
@@ -4,25 +4,30 @@ import java.net.*;
  * Entry point for the FireIncidentSubsystem process. Start alongside SchedulerMain.
  *
  * Usage:   java FireIncidentMain [--host schedulerHost] [--file path/to/fire_events.csv] [--zones path/to/zones.csv]
+ *                             [--generate spec]
  * Example: java FireIncidentMain
  *          java FireIncidentMain --file src/fire_events.csv
  *          java FireIncidentMain --file src/fire_events.csv --zones src/zones.csv
  *          java FireIncidentMain --host 192.168.1.10 --file fire_events.csv
+ *          java FireIncidentMain --zones src/zones.csv --generate fireRate=20000,stuckRate=30,seed=1
  *
  * Without --file/--zones: subsystem starts and waits for GUI loadFile commands.
  * With --file: sends a loadFile UDP command to the subsystem immediately.
  * With --zones: sends a loadZones UDP command to the Scheduler immediately.
+ * With --generate: starts a synthetic load session (see IncidentGenerator for the spec keys).
  */
 public class FireIncidentMain {
     public static void main(String[] args) throws Exception {
         String host      = "localhost";
         String incFile   = null;
         String zonesFile = null;
+        String genSpec   = null;
 
         for (int i = 0; i < args.length; i++) {
             if ("--host".equals(args[i]))  host      = args[++i];
             else if ("--file".equals(args[i]))  incFile   = args[++i];
             else if ("--zones".equals(args[i])) zonesFile = args[++i];
+            else if ("--generate".equals(args[i])) genSpec = args[++i];
         }
 
         FireIncidentSubsystem subsystem =
@@ -45,6 +50,11 @@ public class FireIncidentMain {
             sendUdp(host, FireIncidentSubsystem.PORT, "loadFile|" + absPath);
             System.out.println("FireIncidentMain: sent loadFile -> " + absPath);
         }
+
+        if (genSpec != null) {
+            sendUdp(host, FireIncidentSubsystem.PORT, "generate|" + genSpec);
+            System.out.println("FireIncidentMain: sent generate -> " + genSpec);
+        }
     }
 
     private static void sendUdp(String host, int port, String message) throws Exception {
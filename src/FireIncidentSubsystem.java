@@ -1,7 +1,8 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Listens on its own UDP port for a loadFile command from the GUI/Scheduler
@@ -11,11 +12,25 @@ import java.net.*;
  * sending: loadFile|<absolute-path-to-csv>
  *
  * Input file format (4 columns):
- *   Time, EventType, ZoneOrDroneID, Severity
+ *   Time, ZoneOrDroneID, EventType, Severity
+ *
+ * The CSV is compiled into a binary IncidentTimeline before it is replayed
+ * (see IncidentTimeline), so very large incident logs replay from a
+ * memory-mapped file instead of being parsed line by line.
  *
  * FIRE rows  → receiveFireEvent  to Scheduler; ZoneOrDroneID is zone ID.
  * Fault rows → injectFaultEvent  to Scheduler; ZoneOrDroneID is drone ID.
  *
+ * Each loadFile starts a ReplaySession with its own ID on a bounded executor,
+ * so several incident files (regions, scenarios) can replay at once. All
+ * sessions share one SchedulerChannel whose requests carry correlation tags,
+ * so one session can never consume another session's reply. Send
+ * stopSession|<id> to cancel a running replay.
+ *
+ * For load testing, generate|<spec> starts a session fed by an
+ * IncidentGenerator instead of a file: Poisson fire and fault arrivals with
+ * per-zone hotspot weights, streamed straight to the Scheduler.
+ *
  * @author Rayyan Kashif (101274266)
  * @author Aryan Kumar Singh (101299776)
  */
@@ -24,37 +39,71 @@ public class FireIncidentSubsystem implements Runnable {
     /** Port this subsystem listens on for loadFile commands. */
     public static final int PORT = 6001;
 
+    /** Replay sessions that may run at the same time. */
+    public static final int MAX_ACTIVE_SESSIONS = 4;
+
     private static final int BUFFER_SIZE = 1024;
     private static final int TIMEOUT_MS  = 5000;
     private static final int MAX_RETRIES = 3;
+
     private static final int CLOCK_SPEED = 100;
+    /** loadFile requests that may wait for a free session slot before being refused. */
+    private static final int MAX_QUEUED_SESSIONS = 16;
 
-    private final DatagramSocket sendSocket;   // ephemeral, used to talk to Scheduler
-    private final DatagramSocket listenSocket; // bound to PORT, receives commands
-    private final InetAddress    schedulerAddr;
-    private final int            schedulerPort;
-    private final String         inputFileName;
+    /** Commands accepted on the listen port; matched against each datagram in place. */
+    private static final String[] COMMANDS = {"loadFile", "generate", "stopSession"};
+
+    private final SchedulerChannel scheduler;    // shared request/reply channel to the Scheduler
+    private final DatagramSocket   listenSocket; // bound to PORT, receives commands
+    private final String           inputFileName;
     private InetAddress loggerAddress;
+    /** Packs log calls from every session into sequenced batches for the EventLogger. */
+    private final EventBatcher eventBatcher;
+
+    // ==== Replay sessions ====
+    private final ThreadPoolExecutor          replayExecutor;
+    private final Map<Integer, ReplaySession> sessions      = new ConcurrentHashMap<>();
+    private final AtomicInteger               nextSessionId = new AtomicInteger(1);
+
+    /** Sessions currently replaying against the Scheduler clock; the first one starts it. */
+    private final Object clockLock  = new Object();
+    private int          clockUsers = 0;
 
     public FireIncidentSubsystem(String schedulerHost, int schedulerPort, String inputFileName) throws Exception {
-        this.schedulerAddr = InetAddress.getByName(schedulerHost);
-        this.schedulerPort = schedulerPort;
-        this.inputFileName = inputFileName;
-        this.sendSocket = new DatagramSocket();
-        this.sendSocket.setSoTimeout(TIMEOUT_MS);
-        this.listenSocket  = new DatagramSocket(PORT);
-        this.loggerAddress = InetAddress.getLocalHost();
+        this.scheduler = new SchedulerChannel(InetAddress.getByName(schedulerHost), schedulerPort,
+                TIMEOUT_MS, MAX_RETRIES);
+        this.inputFileName  = inputFileName;
+        this.listenSocket   = new DatagramSocket(PORT);
+        this.loggerAddress  = InetAddress.getLocalHost();
+        this.eventBatcher   = new EventBatcher(EventBatcher.sourceName("FireSubsystem"),
+                loggerAddress, EventLogger.DEFAULT_PORT);
+        this.replayExecutor = newReplayExecutor();
     }
 
     public FireIncidentSubsystem(String schedulerHost, int schedulerPort, // CHANGED
                                  String inputFileName, String loggerHost) throws Exception {
-        this.schedulerAddr = InetAddress.getByName(schedulerHost);
-        this.schedulerPort = schedulerPort;
-        this.inputFileName = inputFileName;
-        this.sendSocket = new DatagramSocket();
-        this.sendSocket.setSoTimeout(TIMEOUT_MS);
-        this.listenSocket  = new DatagramSocket(PORT);
-        this.loggerAddress = InetAddress.getByName(loggerHost);
+        this.scheduler = new SchedulerChannel(InetAddress.getByName(schedulerHost), schedulerPort,
+                TIMEOUT_MS, MAX_RETRIES);
+        this.inputFileName  = inputFileName;
+        this.listenSocket   = new DatagramSocket(PORT);
+        this.loggerAddress  = InetAddress.getByName(loggerHost);
+        this.eventBatcher   = new EventBatcher(EventBatcher.sourceName("FireSubsystem"),
+                loggerAddress, EventLogger.DEFAULT_PORT);
+        this.replayExecutor = newReplayExecutor();
+    }
+
+    private static ThreadPoolExecutor newReplayExecutor() {
+        AtomicInteger threadCount = new AtomicInteger(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_ACTIVE_SESSIONS, MAX_ACTIVE_SESSIONS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_SESSIONS),
+                r -> {
+                    Thread t = new Thread(r, "FireIncident-Replay-" + threadCount.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     // ==== UDP helpers (talk to Scheduler) ====
@@ -68,23 +117,7 @@ public class FireIncidentSubsystem implements Runnable {
     }
 
     private String sendAndReceive(String message) throws Exception {
-        byte[]         data    = message.getBytes();
-        DatagramPacket sendPkt = new DatagramPacket(data, data.length,
-                schedulerAddr, schedulerPort);
-        byte[]         buf     = new byte[BUFFER_SIZE];
-        DatagramPacket recvPkt = new DatagramPacket(buf, buf.length);
-
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            sendSocket.send(sendPkt);
-            try {
-                sendSocket.receive(recvPkt);
-                return new String(recvPkt.getData(), 0, recvPkt.getLength()).trim();
-            } catch (SocketTimeoutException e) {
-                System.err.printf("FireIncidentSubsystem: timeout (attempt %d/%d)%n",
-                        attempt, MAX_RETRIES);
-            }
-        }
-        throw new Exception("No response after " + MAX_RETRIES + " attempts");
+        return scheduler.request(message);
     }
 
     private long getSchedulerTime() {
@@ -96,11 +129,9 @@ public class FireIncidentSubsystem implements Runnable {
         }
     }
 
-  public void log(String msg) {
+    public void log(Event event) {
         try {
-            String time = sendAndReceive("getTime");
-            byte[] event = (time + "," + msg).getBytes();
-            sendSocket.send(new DatagramPacket(event, event.length, loggerAddress, EventLogger.DEFAULT_PORT));
+            eventBatcher.add(sendAndReceive("getTime"), event);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -110,23 +141,30 @@ public class FireIncidentSubsystem implements Runnable {
 
     @Override
     public void run() {
-        log("FireSubsystem,STARTED");
+        log(Event.of(EventEntity.FIRE_SUBSYSTEM, EventCode.STARTED));
         System.out.println("FireIncidentSubsystem: Listening on port " + PORT
                 + " for loadFile commands...");
         byte[] buf = new byte[BUFFER_SIZE];
+        DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+        MessageReader msg = new MessageReader();
 
         while (true) {
             try {
-                DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+                pkt.setLength(buf.length);
                 listenSocket.receive(pkt);
-                String msg = new String(pkt.getData(), 0, pkt.getLength()).trim();
+                msg.reset(pkt.getData(), pkt.getOffset(), pkt.getLength());
+                String command = msg.fieldCount() > 1 ? msg.opcode(COMMANDS) : null;
 
-                if (msg.startsWith("loadFile|")) {
-                    String filePath = msg.substring("loadFile|".length()).trim();
+                if ("loadFile".equals(command)) {
+                    String filePath = msg.rest(1);
                     System.out.println("FireIncidentSubsystem: Received loadFile -> " + filePath);
-                    Thread worker = new Thread(() -> processFile(filePath), "FireIncident-Worker");
-                    worker.setDaemon(true);
-                    worker.start();
+                    startSession(filePath);
+                } else if ("generate".equals(command)) {
+                    String spec = msg.rest(1);
+                    System.out.println("FireIncidentSubsystem: Received generate -> " + spec);
+                    startGeneratorSession(spec);
+                } else if ("stopSession".equals(command)) {
+                    stopSession(msg.intField(1));
                 } else {
                     System.err.println("FireIncidentSubsystem: Unknown command: " + msg);
                 }
@@ -134,98 +172,316 @@ public class FireIncidentSubsystem implements Runnable {
                 System.err.println("FireIncidentSubsystem listen error: " + e.getMessage());
             }
         }
-        //log("FireSubsystem,ENDED");
+        //log(Event.of(EventEntity.FIRE_SUBSYSTEM, EventCode.ENDED));
     }
 
-    // ==== File processing (previously the body of run()) ====
+    // ==== Replay sessions ====
+
+    /**
+     * Queues a replay of the given file as a new session.
+     *
+     * @return the session ID, or -1 if too many sessions are already waiting
+     */
+    public int startSession(String filePath) {
+        return submit(new ReplaySession(nextSessionId.getAndIncrement(), filePath, false,
+                () -> IncidentTimeline.load(filePath).cursor()));
+    }
+
+    /**
+     * Queues a synthetic load session driven by an IncidentGenerator.
+     *
+     * @param spec generator settings, e.g. "fireRate=20000,zones=1:5;2:1,seed=7"
+     * @return the session ID, or -1 if the spec is invalid or too many sessions are waiting
+     */
+    public int startGeneratorSession(String spec) {
+        IncidentGenerator.Config config;
+        try {
+            config = IncidentGenerator.Config.parse(spec);
+        } catch (IllegalArgumentException e) {
+            System.err.println("FireIncidentSubsystem: bad generator spec: " + e.getMessage());
+            return -1;
+        }
+        return submit(new ReplaySession(nextSessionId.getAndIncrement(), "generator[" + config + "]", true,
+                () -> new IncidentGenerator(config)));
+    }
+
+    private int submit(ReplaySession session) {
+        sessions.put(session.id, session);
+        try {
+            replayExecutor.execute(session);
+        } catch (RejectedExecutionException e) {
+            sessions.remove(session.id);
+            System.err.printf("FireIncidentSubsystem: too many replays queued — refusing %s%n", session.name);
+            return -1;
+        }
+        System.out.printf("FireIncidentSubsystem: Session %d queued for %s%n", session.id, session.name);
+        return session.id;
+    }
+
+    /** Cancels a queued or running session; its remaining events are not sent. */
+    public void stopSession(int sessionId) {
+        ReplaySession session = sessions.get(sessionId);
+        if (session == null) {
+            System.err.println("FireIncidentSubsystem: no session " + sessionId);
+            return;
+        }
+        session.cancelled = true;
+        System.out.printf("FireIncidentSubsystem: Session %d stopping%n", sessionId);
+    }
+
+    /** IDs of sessions that are queued or replaying. */
+    public Set<Integer> getActiveSessionIds() {
+        return new TreeSet<>(sessions.keySet());
+    }
+
+    /**
+     * Registers a session against the Scheduler clock. The first concurrent
+     * session starts (resets) the clock; later ones join it and replay their
+     * events relative to the sim-time at which they joined.
+     *
+     * @return sim-time offset to add to the session's event times
+     */
+    private long joinClock(int firstEventSeconds) throws Exception {
+        synchronized (clockLock) {
+            if (clockUsers == 0) {
+                sendAndReceive("startClock|" + firstEventSeconds + "|" + CLOCK_SPEED);
+                clockUsers++;
+                return 0;
+            }
+            clockUsers++;
+            return getSchedulerTime();
+        }
+    }
+
+    private void leaveClock() {
+        synchronized (clockLock) {
+            clockUsers = Math.max(0, clockUsers - 1);
+        }
+    }
+
+    /** Opens a session's event stream once the session actually starts running. */
+    private interface SourceOpener {
+        IncidentSource open() throws IOException;
+    }
 
-    private void processFile(String inputFileName) {
-        System.out.println("FireIncidentSubsystem: Processing file: " + inputFileName);
-        log("FireSubsystem,PROCESSING_FILE," + inputFileName);
+    /**
+     * One replay of one incident file or generator. Sessions run on the
+     * bounded replay executor and talk to the Scheduler only through the
+     * shared, correlated SchedulerChannel, so any number can be in flight
+     * without interfering.
+     */
+    private class ReplaySession implements Runnable {
+        final int          id;
+        final String       name;
+        final boolean      generated;
+        final SourceOpener opener;
+        volatile boolean cancelled = false;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(inputFileName))) {
-            String  line;
-            boolean clockStarted = false;
-            boolean isFirstLine  = true;
+        /** Events handed to the Scheduler, for the end-of-session summary. */
+        private int sentEvents = 0;
 
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty() || line.startsWith("#")) continue;
-                if (isFirstLine) { isFirstLine = false; continue; }  // skip header
+        /** Set once the session has started or joined the Scheduler clock. */
+        private boolean clockJoined = false;
+        /** Sim-time at which this session joined the clock (0 if it started it). */
+        private long    offset      = 0;
 
+        ReplaySession(int id, String name, boolean generated, SourceOpener opener) {
+            this.id        = id;
+            this.name      = name;
+            this.generated = generated;
+            this.opener    = opener;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!cancelled) process();
+            } finally {
+                sessions.remove(id);
+            }
+        }
+
+        /**
+         * Replays the session's events. An incident CSV is compiled once into a
+         * sorted binary IncidentTimeline (cached next to the CSV) and then
+         * streamed from a memory-mapped window, so large files are never parsed
+         * or held in memory row by row during the replay. A generator produces
+         * its events on demand, so a load run of any length uses no extra memory.
+         *
+         * All fires due at the same sim-time are sent together (see sendFires)
+         * so a storm of simultaneous fires reaches the Scheduler in one exchange.
+         */
+        private void process() {
+            EventCode startCode = generated ? EventCode.GENERATOR_STARTED : EventCode.PROCESSING_FILE;
+            EventCode endCode   = generated ? EventCode.GENERATOR_FINISHED : EventCode.FILE_PROCESSED;
+            System.out.printf("FireIncidentSubsystem: Session %d processing %s%n", id, name);
+            log(Event.withText(EventEntity.FIRE_SUBSYSTEM, startCode, name));
+
+            long started = System.nanoTime();
+            try (IncidentSource events = opener.open()) {
                 try {
-                    String[] parts = line.split(",", -1);
-                    for (int i = 0; i < parts.length; i++) parts[i] = parts[i].trim();
-
-                    // Column 0: Time
-                    String[] timeParts = parts[0].split(":");
-                    int hours   = Integer.parseInt(timeParts[0]);
-                    int minutes = Integer.parseInt(timeParts[1]);
-                    int seconds = Integer.parseInt(timeParts[2]);
-                    int eventTimeSeconds = hours * 3600 + minutes * 60 + seconds;
-
-                    // Start the Scheduler's clock on the first event
-                    if (!clockStarted) {
-                        sendAndReceive("startClock|" + eventTimeSeconds + "|" + CLOCK_SPEED);
-                        clockStarted = true;
-                    }
+                    replay(events);
+                } finally {
+                    if (clockJoined) leaveClock();
+                }
 
-                    // Wait until simulation time reaches this event
-                    while (getSchedulerTime() < eventTimeSeconds) {
-                        Thread.sleep(200);
-                    }
+                double seconds = (System.nanoTime() - started) / 1e9;
+                if (cancelled) {
+                    System.out.printf("FireIncidentSubsystem: Session %d stopped after %d events from %s%n",
+                            id, sentEvents, name);
+                    return;
+                }
+                System.out.printf("FireIncidentSubsystem: Session %d — all %d events from %s dispatched"
+                        + " in %.1f s (%.0f events/s).%n",
+                        id, sentEvents, name, seconds, seconds > 0 ? sentEvents / seconds : 0);
+                log(Event.withText(EventEntity.FIRE_SUBSYSTEM, endCode, name));
+
+            } catch (IOException e) {
+                System.err.println("FireIncidentSubsystem File Error: " + e.getMessage());
+            }
+        }
 
-                    // Expected format (4 columns):
-                    //   Time, ZoneID (or DroneID for faults), EventType, Severity
-                    // EventType values: FIRE_EVENT (or FIRE), DRONE_STUCK, NOZZLE_FAULT
-                    // Severity:         HIGH / MODERATE / LOW for fires; NONE (or blank) for faults
-                    if (parts.length < 3) {
-                        System.err.println("FireIncidentSubsystem: skipping short line: " + line);
-                        continue;
+        /**
+         * Streams the events to the Scheduler, waiting on the shared clock
+         * for each instant. Returns early if the session is cancelled.
+         */
+        private void replay(IncidentSource events) throws IOException {
+            FireBatch fires         = new FireBatch();
+            long      schedulerTime = -1;
+            boolean   hasEvent      = events.next();
+
+            while (hasEvent && !cancelled) {
+                // Event times are shifted onto the shared clock for joining sessions
+                int eventTimeSeconds = (int) (events.time() + offset);
+                try {
+                    // Start (or join) the Scheduler's clock on the first event
+                    if (!clockJoined) {
+                        offset           = joinClock(events.time());
+                        clockJoined      = true;
+                        eventTimeSeconds = (int) (events.time() + offset);
                     }
-                    int    id        = Integer.parseInt(parts[1]);
-                    String eventType = parts[2].toUpperCase().trim();
-                    String severity  = parts.length > 3 ? parts[3].trim() : "";
 
-                    boolean isFire = eventType.equals("FIRE_EVENT") || eventType.equals("FIRE");
+                    // Wait until simulation time reaches this event. Events already
+                    // due at the last known time go out without another getTime.
+                    while (schedulerTime < eventTimeSeconds && !cancelled) {
+                        schedulerTime = getSchedulerTime();
+                        if (schedulerTime < eventTimeSeconds) Thread.sleep(200);
+                    }
+                    if (cancelled) break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    System.err.println("FireIncidentSubsystem: could not start clock: " + e.getMessage());
+                }
 
-                    if (isFire) {
-                        if (isZoneActive(id)) {
+                // Collect every event due at this instant. Faults flush the fires
+                // gathered so far so same-time rows keep their file order.
+                do {
+                    int targetId = events.id();
+                    sentEvents++;
+                    if (events.type() == IncidentTimeline.TYPE_FIRE) {
+                        if (!fires.add(targetId, events.severity())) {
                             System.out.printf(
                                     "FireIncidentSubsystem: Zone %d already has an active fire — skipping duplicate%n",
-                                    id);
-                            continue;
+                                    targetId);
                         }
-                        FireEvent event = new FireEvent(id, "FIRE", severity, eventTimeSeconds);
-                        System.out.printf("FireIncidentSubsystem: Sending Fire Event: %s%n", event);
-
-                        sendAndReceive("receiveFireEvent|"
-                                + event.getZoneId()         + "|"
-                                + event.getEventType()       + "|"
-                                + event.getSeverity().name() + "|"
-                                + event.getSecondsFromStart());
                     } else {
-                        FaultType faultType = FaultType.from(eventType);
-                        if (faultType == FaultType.NONE) {
-                            System.err.printf("FireIncidentSubsystem: unknown event type '%s' — skipping%n",
-                                    eventType);
-                            continue;
-                        }
+                        sendFires(fires, eventTimeSeconds);
+                        FaultType faultType = events.fault();
                         System.out.printf("FireIncidentSubsystem: Sending Fault Event: %s -> Drone %d%n",
-                                faultType, id);
-                        sendAndReceive("injectFaultEvent|" + id + "|" + faultType.name());
+                                faultType, targetId);
+                        try {
+                            sendAndReceive("injectFaultEvent|" + targetId + "|" + faultType.name());
+                        } catch (Exception e) {
+                            System.err.println("FireIncidentSubsystem: injectFaultEvent failed: "
+                                    + e.getMessage());
+                        }
                     }
+                    hasEvent = events.next();
+                } while (hasEvent && events.time() + offset == eventTimeSeconds);
 
-                } catch (Exception e) {
-                    System.err.println("FireIncidentSubsystem Error Parsing Line: " + line);
-                    e.printStackTrace();
+                sendFires(fires, eventTimeSeconds);
+            }
+        }
+    }
+
+    /**
+     * Sends the fires collected for one sim-time and clears the batch.
+     *
+     * A lone fire uses the original isZoneActive + receiveFireEvent exchange.
+     * Two or more go out as receiveFireEventBatch packets (split only if they
+     * would not fit in the Scheduler's receive buffer with the correlation
+     * tag appended, see {@link SchedulerChannel#MAX_PAYLOAD}); the Scheduler drops
+     * zones that are already burning, so no isZoneActive round trips are made.
+     */
+    private void sendFires(FireBatch fires, int secondsFromStart) {
+        if (fires.size == 0) return;
+        try {
+            if (fires.size == 1) {
+                int zoneId = fires.zones[0];
+                if (isZoneActive(zoneId)) {
+                    System.out.printf(
+                            "FireIncidentSubsystem: Zone %d already has an active fire — skipping duplicate%n",
+                            zoneId);
+                    return;
                 }
+                FireEvent event = new FireEvent(zoneId, "FIRE", fires.severities[0].name(), secondsFromStart);
+                System.out.printf("FireIncidentSubsystem: Sending Fire Event: %s%n", event);
+                sendAndReceive("receiveFireEvent|"
+                        + event.getZoneId()         + "|"
+                        + event.getEventType()       + "|"
+                        + event.getSeverity().name() + "|"
+                        + event.getSecondsFromStart());
+                return;
             }
 
-            System.out.println("FireIncidentSubsystem: All events from " + inputFileName + " dispatched.");
-            log("FireSubsystem,FILE_PROCESSED," + inputFileName);
+            System.out.printf("FireIncidentSubsystem: Sending %d Fire Events at %s%n",
+                    fires.size, SimulationClock.formatTime(secondsFromStart));
+            String        header = "receiveFireEventBatch|" + secondsFromStart;
+            StringBuilder msg    = new StringBuilder(SchedulerChannel.MAX_PAYLOAD).append(header);
+            for (int i = 0; i < fires.size; i++) {
+                String entry = "|" + fires.zones[i] + "|" + fires.severities[i].name();
+                if (msg.length() + entry.length() > SchedulerChannel.MAX_PAYLOAD) {
+                    sendAndReceive(msg.toString());
+                    msg.setLength(0);
+                    msg.append(header);
+                }
+                msg.append(entry);
+            }
+            sendAndReceive(msg.toString());
+        } catch (Exception e) {
+            System.err.println("FireIncidentSubsystem: sending fires at "
+                    + SimulationClock.formatTime(secondsFromStart) + " failed: " + e.getMessage());
+        } finally {
+            fires.clear();
+        }
+    }
+
+    /** Fires due at the same sim-time, with duplicate zones removed. */
+    private static class FireBatch {
+        int[]                    zones      = new int[16];
+        FireEvent.FireSeverity[] severities = new FireEvent.FireSeverity[16];
+        int                      size;
+        private final BitSet     seen       = new BitSet();
+
+        /** Returns false if this zone is already in the batch. */
+        boolean add(int zoneId, FireEvent.FireSeverity severity) {
+            if (seen.get(zoneId)) return false;
+            seen.set(zoneId);
+            if (size == zones.length) {
+                zones      = Arrays.copyOf(zones, size * 2);
+                severities = Arrays.copyOf(severities, size * 2);
+            }
+            zones[size]      = zoneId;
+            severities[size] = severity;
+            size++;
+            return true;
+        }
 
-        } catch (IOException e) {
-            System.err.println("FireIncidentSubsystem File Error: " + e.getMessage());
+        void clear() {
+            for (int i = 0; i < size; i++) seen.clear(zones[i]);
+            size = 0;
         }
     }
 }
@@ -0,0 +1,234 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic, high-rate source of fire and fault events for load testing the
+ * Scheduler.
+ *
+ * Arrivals follow a Poisson process: fires, DRONE_STUCK and NOZZLE_FAULT
+ * events each have their own rate (events per simulated hour) and are merged
+ * into one stream by drawing exponential gaps at the combined rate. Fire
+ * zones are drawn from per-zone hotspot weights and severities from a
+ * HIGH:MODERATE:LOW mix; faults target a uniformly chosen drone. Weighted
+ * draws use alias tables, so each event costs O(1) however many zones there
+ * are, and nothing is buffered — the stream is produced as it is consumed.
+ *
+ * Started on a FireIncidentSubsystem with:
+ *   generate|fireRate=20000,stuckRate=30,nozzleRate=5,duration=3600,
+ *            zones=1:5;2:1;3:1;4:1,severity=2:5:3,drones=1-20,seed=42
+ * Every key is optional (see Config for the defaults).
+ */
+public class IncidentGenerator implements IncidentSource {
+
+    /**
+     * Generator settings, parsed from a comma-separated key=value spec.
+     */
+    public static class Config {
+        /** Fires per simulated hour. */
+        public double fireRate   = 1000;
+        /** DRONE_STUCK faults per simulated hour. */
+        public double stuckRate  = 0;
+        /** NOZZLE_FAULT faults per simulated hour. */
+        public double nozzleRate = 0;
+        /** Simulated seconds of events to produce. */
+        public int    durationSeconds = 3600;
+        /** Zone IDs and their hotspot weights. */
+        public int[]    zoneIds     = {1, 2, 3, 4};
+        public double[] zoneWeights = {1, 1, 1, 1};
+        /** Relative weights of HIGH, MODERATE and LOW fires. */
+        public double[] severityWeights = {1, 1, 1};
+        /** Inclusive range of drone IDs that faults may target. */
+        public int    firstDrone = 1;
+        public int    lastDrone  = 4;
+        public long   seed       = System.nanoTime();
+
+        /**
+         * Parses a spec such as "fireRate=20000,zones=1:5;2:1,severity=2:5:3,drones=1-20".
+         *
+         * @throws IllegalArgumentException on an unknown key or malformed value
+         */
+        public static Config parse(String spec) {
+            Config c = new Config();
+            if (spec == null || spec.isBlank()) return c;
+            for (String entry : spec.split(",")) {
+                if (entry.isBlank()) continue;
+                int eq = entry.indexOf('=');
+                if (eq < 0) throw new IllegalArgumentException("Expected key=value: " + entry);
+                String key   = entry.substring(0, eq).trim();
+                String value = entry.substring(eq + 1).trim();
+                switch (key) {
+                    case "fireRate":   c.fireRate        = Double.parseDouble(value); break;
+                    case "stuckRate":  c.stuckRate       = Double.parseDouble(value); break;
+                    case "nozzleRate": c.nozzleRate      = Double.parseDouble(value); break;
+                    case "duration":   c.durationSeconds = Integer.parseInt(value);   break;
+                    case "seed":       c.seed            = Long.parseLong(value);     break;
+                    case "zones":      c.parseZones(value);                           break;
+                    case "severity": {
+                        String[] w = value.split(":");
+                        if (w.length != 3) throw new IllegalArgumentException("severity needs HIGH:MODERATE:LOW");
+                        for (int i = 0; i < 3; i++) c.severityWeights[i] = Double.parseDouble(w[i]);
+                        break;
+                    }
+                    case "drones": {
+                        int dash = value.indexOf('-');
+                        c.firstDrone = Integer.parseInt(dash < 0 ? value : value.substring(0, dash));
+                        c.lastDrone  = dash < 0 ? c.firstDrone : Integer.parseInt(value.substring(dash + 1));
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Unknown generator setting: " + key);
+                }
+            }
+            c.validate();
+            return c;
+        }
+
+        /** zones=1:5;2:1;3 — zone ID with an optional weight (default 1). */
+        private void parseZones(String value) {
+            List<String> entries = new ArrayList<>();
+            for (String z : value.split(";")) if (!z.isBlank()) entries.add(z.trim());
+            zoneIds     = new int[entries.size()];
+            zoneWeights = new double[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                String[] p = entries.get(i).split(":");
+                zoneIds[i]     = Integer.parseInt(p[0].trim());
+                zoneWeights[i] = p.length > 1 ? Double.parseDouble(p[1].trim()) : 1;
+            }
+        }
+
+        private void validate() {
+            if (fireRate < 0 || stuckRate < 0 || nozzleRate < 0) {
+                throw new IllegalArgumentException("Rates must not be negative");
+            }
+            if (fireRate > 0 && zoneIds.length == 0) throw new IllegalArgumentException("No zones given");
+            new AliasTable(zoneWeights);      // throws on negative or all-zero weights
+            new AliasTable(severityWeights);
+            if (lastDrone < firstDrone) throw new IllegalArgumentException("Empty drone range");
+            if (durationSeconds <= 0) throw new IllegalArgumentException("duration must be positive");
+        }
+
+        @Override
+        public String toString() {
+            // No commas: this ends up as a field of comma-separated EventLogger lines
+            return String.format("fires=%.0f/h stuck=%.0f/h nozzle=%.0f/h duration=%s zones=%d drones=%d-%d seed=%d",
+                    fireRate, stuckRate, nozzleRate, SimulationClock.formatTime(durationSeconds),
+                    zoneIds.length, firstDrone, lastDrone, seed);
+        }
+    }
+
+    private static final FireEvent.FireSeverity[] SEVERITIES = {
+            FireEvent.FireSeverity.HIGH, FireEvent.FireSeverity.MODERATE, FireEvent.FireSeverity.LOW
+    };
+
+    private final Config           config;
+    private final SplittableRandom random;
+    private final AliasTable       zones;
+    private final AliasTable       severities;
+    /** Combined arrival rate in events per simulated second. */
+    private final double           ratePerSecond;
+    private final double           fireShare;
+    private final double           stuckShare;
+
+    private double clockSeconds = 0;
+    private int    time;
+    private int    id;
+    private int    type;
+    private FireEvent.FireSeverity severity;
+
+    public IncidentGenerator(Config config) {
+        this.config        = config;
+        this.random        = new SplittableRandom(config.seed);
+        this.zones         = new AliasTable(config.zoneWeights);
+        this.severities    = new AliasTable(config.severityWeights);
+        double total       = config.fireRate + config.stuckRate + config.nozzleRate;
+        this.ratePerSecond = total / 3600.0;
+        this.fireShare     = total == 0 ? 0 : config.fireRate / total;
+        this.stuckShare    = total == 0 ? 0 : config.stuckRate / total;
+    }
+
+    public Config getConfig() { return config; }
+
+    @Override
+    public boolean next() {
+        if (ratePerSecond <= 0) return false;
+        // Exponential inter-arrival gap; 1 - u keeps the log argument in (0, 1]
+        clockSeconds += -Math.log(1.0 - random.nextDouble()) / ratePerSecond;
+        if (clockSeconds >= config.durationSeconds) return false;
+        time = (int) clockSeconds;
+
+        double kind = random.nextDouble();
+        if (kind < fireShare) {
+            type     = IncidentTimeline.TYPE_FIRE;
+            id       = config.zoneIds[zones.sample(random)];
+            severity = SEVERITIES[severities.sample(random)];
+        } else {
+            type     = kind < fireShare + stuckShare
+                    ? IncidentTimeline.TYPE_DRONE_STUCK : IncidentTimeline.TYPE_NOZZLE_FAULT;
+            id       = config.firstDrone + random.nextInt(config.lastDrone - config.firstDrone + 1);
+            severity = null;
+        }
+        return true;
+    }
+
+    @Override public int time() { return time; }
+    @Override public int id()   { return id; }
+    @Override public int type() { return type; }
+    @Override public FireEvent.FireSeverity severity() { return severity; }
+
+    @Override
+    public FaultType fault() {
+        switch (type) {
+            case IncidentTimeline.TYPE_DRONE_STUCK:  return FaultType.DRONE_STUCK;
+            case IncidentTimeline.TYPE_NOZZLE_FAULT: return FaultType.NOZZLE_FAULT;
+            default:                                 return FaultType.NONE;
+        }
+    }
+
+    @Override
+    public void close() { }
+
+    /**
+     * Walker/Vose alias table: O(n) to build, O(1) per weighted draw.
+     */
+    static class AliasTable {
+        private final double[] probability;
+        private final int[]    alias;
+
+        AliasTable(double[] weights) {
+            int n = weights.length;
+            probability = new double[n];
+            alias       = new int[n];
+            if (n == 0) return;
+
+            double sum = 0;
+            for (double w : weights) {
+                if (w < 0) throw new IllegalArgumentException("Weights must not be negative");
+                sum += w;
+            }
+            if (sum <= 0) throw new IllegalArgumentException("At least one weight must be positive");
+
+            double[] scaled = new double[n];
+            int[] small = new int[n], large = new int[n];
+            int ns = 0, nl = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / sum;
+                if (scaled[i] < 1) small[ns++] = i; else large[nl++] = i;
+            }
+            while (ns > 0 && nl > 0) {
+                int s = small[--ns], l = large[--nl];
+                probability[s] = scaled[s];
+                alias[s]       = l;
+                scaled[l]      = scaled[l] + scaled[s] - 1;
+                if (scaled[l] < 1) small[ns++] = l; else large[nl++] = l;
+            }
+            while (nl > 0) probability[large[--nl]] = 1;
+            while (ns > 0) probability[small[--ns]] = 1;  // rounding leftovers
+        }
+
+        int sample(SplittableRandom random) {
+            int column = random.nextInt(probability.length);
+            return random.nextDouble() < probability[column] ? column : alias[column];
+        }
+    }
+}
@@ -0,0 +1,34 @@
+import java.io.IOException;
+
+/**
+ * A time-ordered stream of incident events that a FireIncidentSubsystem
+ * replay session sends to the Scheduler.
+ *
+ * Implemented by the cursor over a compiled incident file
+ * (IncidentTimeline.Cursor) and by the synthetic IncidentGenerator.
+ * Accessors describe the current event and are only valid after next()
+ * has returned true.
+ */
+public interface IncidentSource extends AutoCloseable {
+
+    /** Advances to the next event; returns false once the stream is exhausted. */
+    boolean next() throws IOException;
+
+    /** Simulation time of the current event, in seconds from the start. */
+    int time();
+
+    /** Zone ID for fires, drone ID for faults. */
+    int id();
+
+    /** One of the IncidentTimeline.TYPE_* codes. */
+    int type();
+
+    /** Fire severity of the current event, or null for faults. */
+    FireEvent.FireSeverity severity();
+
+    /** Fault carried by the current event, or FaultType.NONE for fires. */
+    FaultType fault();
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,449 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Pre-compiled, memory-mapped form of an incident CSV.
+ *
+ * The CSV is parsed exactly once into a binary file of fixed-width records
+ * sorted by simulation time, so the FireIncidentSubsystem can replay logs of
+ * millions of rows without re-parsing text or holding the rows on the heap.
+ *
+ * File layout (big-endian):
+ *   header  : magic, version, recordBytes, recordCount, sourceLength, sourceModified
+ *   records : secondsFromStart (int), zoneOrDroneId (int), type (byte),
+ *             severity (byte), padding (short)
+ *
+ * Rows that share the same time keep their original file order. Compiling
+ * uses bounded sort runs and a k-way merge, and replay maps the file in
+ * fixed windows, so heap use does not grow with the size of the input.
+ */
+public class IncidentTimeline implements AutoCloseable {
+
+    // ==== Record type / severity codes ====
+    public static final int TYPE_FIRE         = 0;
+    public static final int TYPE_DRONE_STUCK  = 1;
+    public static final int TYPE_NOZZLE_FAULT = 2;
+
+    /** Severity code stored for fault rows. */
+    public static final int SEVERITY_NONE = -1;
+
+    /** Extension appended to the CSV path for the compiled timeline. */
+    public static final String EXTENSION = ".timeline";
+
+    private static final int MAGIC        = 0x46495431; // "FIT1"
+    private static final int VERSION      = 2;  // 2: negative IDs are skipped
+    private static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES         = 12;
+
+    /** Records sorted in memory per run while compiling an unsorted file. */
+    private static final int RUN_RECORDS = 1 << 16;
+    /** Bytes mapped at a time while replaying (a whole number of records). */
+    private static final long WINDOW_BYTES = (long) RECORD_BYTES * (1 << 20);
+    private static final int IO_BUFFER = 1 << 16;
+
+    private static final FireEvent.FireSeverity[] SEVERITIES = FireEvent.FireSeverity.values();
+
+    private final FileChannel channel;
+    private final long        recordCount;
+
+    private IncidentTimeline(FileChannel channel, long recordCount) {
+        this.channel     = channel;
+        this.recordCount = recordCount;
+    }
+
+    // ==== Opening / compiling ====
+
+    /**
+     * Returns the timeline for an incident CSV, compiling it next to the CSV
+     * (csvPath + ".timeline") unless an up-to-date compiled file already exists.
+     */
+    public static IncidentTimeline load(String csvPath) throws IOException {
+        Path csv      = Paths.get(csvPath);
+        Path timeline = Paths.get(csvPath + EXTENSION);
+        if (!isUpToDate(timeline, csv)) {
+            try {
+                compile(csv, timeline);
+            } catch (AccessDeniedException e) {
+                // Read-only input directory: compile into the temp directory instead
+                timeline = Files.createTempFile("incidents", EXTENSION);
+                timeline.toFile().deleteOnExit();
+                compile(csv, timeline);
+            }
+        }
+        return open(timeline);
+    }
+
+    /** Maps an existing compiled timeline file. */
+    public static IncidentTimeline open(Path timelinePath) throws IOException {
+        FileChannel ch = FileChannel.open(timelinePath, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readHeader(ch);
+            if (header == null) throw new IOException("Not an incident timeline: " + timelinePath);
+            long count = header.getLong(8);
+            if (ch.size() != HEADER_BYTES + count * RECORD_BYTES) {
+                throw new IOException("Truncated incident timeline: " + timelinePath);
+            }
+            return new IncidentTimeline(ch, count);
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Parses the incident CSV and writes the sorted binary timeline.
+     * Malformed rows are reported on stderr and skipped, as the line-by-line
+     * reader used to do.
+     *
+     * @return number of records written
+     */
+    public static long compile(Path csvPath, Path timelinePath) throws IOException {
+        Path body = Files.createTempFile(timelinePath.toAbsolutePath().getParent(), "body", ".tmp");
+        try {
+            long    count;
+            boolean sorted;
+            try (RecordWriter out = new RecordWriter(body);
+                 BufferedReader br = Files.newBufferedReader(csvPath)) {
+                String  line;
+                boolean isFirstLine = true;
+                int     lastTime    = Integer.MIN_VALUE;
+                boolean inOrder     = true;
+                while ((line = br.readLine()) != null) {
+                    if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                    if (isFirstLine) { isFirstLine = false; continue; }  // skip header
+                    if (!parseRow(line, out)) continue;
+                    if (out.lastTime < lastTime) inOrder = false;
+                    lastTime = out.lastTime;
+                }
+                count  = out.count;
+                sorted = inOrder;
+            }
+
+            // Written beside the target and moved over it, so a session that
+            // already mapped the old file keeps reading a complete one
+            Path sortedBody = sorted ? body : sortBody(body, count);
+            Path compiled   = Files.createTempFile(timelinePath.toAbsolutePath().getParent(), "timeline", ".tmp");
+            try (FileChannel dst = FileChannel.open(compiled, StandardOpenOption.WRITE);
+                 FileChannel src = FileChannel.open(sortedBody, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putShort((short) VERSION).putShort((short) RECORD_BYTES)
+                        .putLong(count)
+                        .putLong(Files.size(csvPath))
+                        .putLong(Files.getLastModifiedTime(csvPath).toMillis());
+                header.flip();
+                while (header.hasRemaining()) dst.write(header);
+                long pos = 0, size = src.size();
+                while (pos < size) pos += src.transferTo(pos, size - pos, dst);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(compiled);
+                throw e;
+            } finally {
+                if (sortedBody != body) Files.deleteIfExists(sortedBody);
+            }
+            replace(compiled, timelinePath);
+            return count;
+        } finally {
+            Files.deleteIfExists(body);
+        }
+    }
+
+    /** Moves a finished file over the target in one step, where the file system allows it. */
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private static boolean isUpToDate(Path timeline, Path csv) {
+        if (!Files.isRegularFile(timeline)) return false;
+        try (FileChannel ch = FileChannel.open(timeline, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(ch);
+            return header != null
+                    && ch.size() == HEADER_BYTES + header.getLong(8) * RECORD_BYTES
+                    && header.getLong(16) == Files.size(csv)
+                    && header.getLong(24) == Files.getLastModifiedTime(csv).toMillis();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel ch) throws IOException {
+        if (ch.size() < HEADER_BYTES) return null;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && ch.read(header, header.position()) > 0) { }
+        header.flip();
+        if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION
+                || header.getShort(6) != RECORD_BYTES) return null;
+        return header;
+    }
+
+    // ==== CSV row parsing ====
+
+    /**
+     * Parses one data row (Time, ZoneOrDroneID, EventType, Severity) and
+     * appends it to the writer. Returns false if the row was skipped.
+     */
+    private static boolean parseRow(String line, RecordWriter out) throws IOException {
+        try {
+            int c1 = line.indexOf(',');
+            int c2 = c1 < 0 ? -1 : line.indexOf(',', c1 + 1);
+            if (c2 < 0) {
+                System.err.println("IncidentTimeline: skipping short line: " + line);
+                return false;
+            }
+            int c3 = line.indexOf(',', c2 + 1);
+
+            int    time      = parseTime(line, 0, c1);
+            int    id        = Integer.parseInt(line.substring(c1 + 1, c2).trim());
+            if (id < 0) {
+                System.err.println("IncidentTimeline: skipping negative ID: " + line);
+                return false;
+            }
+            String eventType = line.substring(c2 + 1, c3 < 0 ? line.length() : c3).trim().toUpperCase();
+
+            if (eventType.equals("FIRE_EVENT") || eventType.equals("FIRE")) {
+                String severity = c3 < 0 ? "" : line.substring(c3 + 1).trim();
+                out.write(time, id, TYPE_FIRE, new FireEvent(id, "FIRE", severity, time).getSeverity().ordinal());
+                return true;
+            }
+
+            FaultType fault = FaultType.from(eventType);
+            if (fault == FaultType.NONE) {
+                System.err.printf("IncidentTimeline: unknown event type '%s' — skipping%n", eventType);
+                return false;
+            }
+            out.write(time, id, fault == FaultType.DRONE_STUCK ? TYPE_DRONE_STUCK : TYPE_NOZZLE_FAULT,
+                    SEVERITY_NONE);
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("IncidentTimeline: error parsing line: " + line);
+            return false;
+        }
+    }
+
+    /** Parses HH:MM:SS between [from, to) into seconds. */
+    private static int parseTime(String s, int from, int to) {
+        int seconds = 0, field = 0, fields = 0;
+        boolean digits = false;
+        for (int i = from; i < to; i++) {
+            char ch = s.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                field = field * 10 + (ch - '0');
+                digits = true;
+            } else if (ch == ':') {
+                if (!digits) throw new NumberFormatException("Bad time: " + s.substring(from, to));
+                seconds = seconds * 60 + field;
+                field = 0; digits = false; fields++;
+            } else if (ch != ' ' && ch != '\t') {
+                throw new NumberFormatException("Bad time: " + s.substring(from, to));
+            }
+        }
+        if (!digits || fields != 2) throw new NumberFormatException("Bad time: " + s.substring(from, to));
+        return seconds * 60 + field;
+    }
+
+    // ==== External sort (only used when the CSV is not already in time order) ====
+
+    private static Path sortBody(Path body, long count) throws IOException {
+        Path dir = body.toAbsolutePath().getParent();
+        List<Path> runs = new ArrayList<>();
+        try {
+            long[] keys = new long[RUN_RECORDS];
+            byte[] chunk = new byte[RUN_RECORDS * RECORD_BYTES];
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(body), IO_BUFFER)) {
+                for (long done = 0; done < count; ) {
+                    int n = (int) Math.min(RUN_RECORDS, count - done);
+                    readFully(in, chunk, n * RECORD_BYTES);
+                    ByteBuffer view = ByteBuffer.wrap(chunk);
+                    // Sort by (time, position in run) — keeps ties in file order
+                    for (int i = 0; i < n; i++) {
+                        keys[i] = ((long) view.getInt(i * RECORD_BYTES) << 32) | i;
+                    }
+                    Arrays.sort(keys, 0, n);
+                    Path run = Files.createTempFile(dir, "run", ".tmp");
+                    runs.add(run);
+                    try (RecordWriter out = new RecordWriter(run)) {
+                        for (int i = 0; i < n; i++) {
+                            out.copy(chunk, (int) keys[i] * RECORD_BYTES);
+                        }
+                    }
+                    done += n;
+                }
+            }
+            if (runs.size() == 1) return runs.remove(0);
+            return mergeRuns(runs, dir);
+        } finally {
+            for (Path run : runs) Files.deleteIfExists(run);
+        }
+    }
+
+    private static Path mergeRuns(List<Path> runs, Path dir) throws IOException {
+        Path merged = Files.createTempFile(dir, "merged", ".tmp");
+        List<RunReader> readers = new ArrayList<>();
+        try (RecordWriter out = new RecordWriter(merged)) {
+            // Ties on time go to the earlier run, so the merge is stable too
+            PriorityQueue<RunReader> heap = new PriorityQueue<>((a, b) ->
+                    a.time != b.time ? Integer.compare(a.time, b.time) : Integer.compare(a.index, b.index));
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader r = new RunReader(runs.get(i), i);
+                readers.add(r);
+                if (r.advance()) heap.add(r);
+            }
+            while (!heap.isEmpty()) {
+                RunReader r = heap.poll();
+                out.copy(r.record, 0);
+                if (r.advance()) heap.add(r);
+            }
+        } finally {
+            for (RunReader r : readers) r.in.close();
+        }
+        return merged;
+    }
+
+    private static void readFully(InputStream in, byte[] buf, int len) throws IOException {
+        int off = 0;
+        while (off < len) {
+            int n = in.read(buf, off, len - off);
+            if (n < 0) throw new EOFException("Incident timeline body ended early");
+            off += n;
+        }
+    }
+
+    /** Sequential reader over one sorted run. */
+    private static class RunReader {
+        final InputStream in;
+        final int         index;
+        final byte[]      record = new byte[RECORD_BYTES];
+        int time;
+
+        RunReader(Path run, int index) throws IOException {
+            this.in    = new BufferedInputStream(Files.newInputStream(run), IO_BUFFER);
+            this.index = index;
+        }
+
+        boolean advance() throws IOException {
+            int n = in.readNBytes(record, 0, RECORD_BYTES);
+            if (n < RECORD_BYTES) return false;
+            time = ((record[0] & 0xFF) << 24) | ((record[1] & 0xFF) << 16)
+                    | ((record[2] & 0xFF) << 8) | (record[3] & 0xFF);
+            return true;
+        }
+    }
+
+    /** Buffered fixed-width record writer backed by a FileChannel. */
+    private static class RecordWriter implements Closeable {
+        private final FileChannel ch;
+        private final ByteBuffer  buf = ByteBuffer.allocateDirect(IO_BUFFER - IO_BUFFER % RECORD_BYTES);
+        long count;
+        int  lastTime;
+
+        RecordWriter(Path path) throws IOException {
+            ch = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(int time, int id, int type, int severity) throws IOException {
+            if (buf.remaining() < RECORD_BYTES) drain();
+            buf.putInt(time).putInt(id).put((byte) type).put((byte) severity).putShort((short) 0);
+            lastTime = time;
+            count++;
+        }
+
+        void copy(byte[] src, int offset) throws IOException {
+            if (buf.remaining() < RECORD_BYTES) drain();
+            buf.put(src, offset, RECORD_BYTES);
+            count++;
+        }
+
+        private void drain() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                ch.close();
+            }
+        }
+    }
+
+    // ==== Replay ====
+
+    /** Number of records in the timeline. */
+    public long size() { return recordCount; }
+
+    /** Returns a new forward-only cursor positioned before the first record. */
+    public Cursor cursor() { return new Cursor(); }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Forward-only view over the records. Reads straight from a mapped
+     * window of the file; the window is remapped as the cursor moves, so only
+     * a bounded slice of the file is mapped at any time. Closing the cursor
+     * closes the timeline.
+     */
+    public class Cursor implements IncidentSource {
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long index = -1;
+        private int  offset;
+
+        @Override
+        public boolean next() throws IOException {
+            if (index + 1 >= recordCount) return false;
+            index++;
+            long pos = HEADER_BYTES + index * RECORD_BYTES;
+            if (window == null || pos + RECORD_BYTES > windowStart + window.capacity()) {
+                windowStart = pos;
+                long len = Math.min(WINDOW_BYTES, channel.size() - pos);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                window.order(ByteOrder.BIG_ENDIAN);
+            }
+            offset = (int) (pos - windowStart);
+            return true;
+        }
+
+        @Override public int time() { return window.getInt(offset); }
+        @Override public int id()   { return window.getInt(offset + 4); }
+        @Override public int type() { return window.get(offset + 8); }
+
+        @Override
+        public FireEvent.FireSeverity severity() {
+            int s = window.get(offset + 9);
+            return s == SEVERITY_NONE ? null : SEVERITIES[s];
+        }
+
+        @Override
+        public FaultType fault() {
+            switch (type()) {
+                case TYPE_DRONE_STUCK:  return FaultType.DRONE_STUCK;
+                case TYPE_NOZZLE_FAULT: return FaultType.NOZZLE_FAULT;
+                default:                return FaultType.NONE;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            IncidentTimeline.this.close();
+        }
+    }
+}
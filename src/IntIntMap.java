@@ -0,0 +1,165 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Map from {@code int} keys to {@code int} values, without boxing; the
+ * Scheduler's litres-per-zone bookkeeping.
+ *
+ * <p>Same layout as {@link IntMap} (linear probing, at most half full,
+ * backward-shift removal), with a flag array marking the used slots since
+ * every int is a valid value. Besides get and put it has the two updates
+ * the water bookkeeping needs, {@link #add} and {@link #subtract}, so
+ * neither allocates a lambda or an {@code Integer}.</p>
+ *
+ * <p>Not thread-safe. Iteration order is unspecified.</p>
+ */
+public final class IntIntMap {
+
+    /** Visits one entry; see {@link #forEach}. */
+    public interface EntryVisitor {
+        void accept(int key, int value);
+    }
+
+    private int[]     keys;
+    private int[]     values;
+    private boolean[] used;
+    private int       mask;
+    private int       size;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    /** A map that holds {@code expected} entries before it has to grow. */
+    public IntIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys   = new int[capacity];
+        values = new int[capacity];
+        used   = new boolean[capacity];
+        mask   = capacity - 1;
+    }
+
+    private int find(int key) {
+        int i = IntMap.slot(key, mask);
+        while (used[i] && keys[i] != key) i = (i + 1) & mask;
+        return i;
+    }
+
+    /** Value of {@code key}, or {@code missing} if it is absent. */
+    public int get(int key, int missing) {
+        int i = find(key);
+        return used[i] ? values[i] : missing;
+    }
+
+    public boolean containsKey(int key) {
+        return used[find(key)];
+    }
+
+    public void put(int key, int value) {
+        int i = find(key);
+        if (!used[i]) i = insert(i, key);
+        values[i] = value;
+    }
+
+    /** Adds {@code delta} to the value of {@code key}, which starts at 0 if absent. */
+    public int add(int key, int delta) {
+        int i = find(key);
+        if (!used[i]) i = insert(i, key);
+        return values[i] += delta;
+    }
+
+    /**
+     * Takes {@code amount} off the value of {@code key} if it is present,
+     * removing it once it reaches zero or below.
+     *
+     * @return the value left, 0 if the key was removed or absent
+     */
+    public int subtract(int key, int amount) {
+        int i = find(key);
+        if (!used[i]) return 0;
+        int left = values[i] - amount;
+        if (left <= 0) {
+            removeAt(i);
+            return 0;
+        }
+        return values[i] = left;
+    }
+
+    /** Removes {@code key}; returns whether it was present. */
+    public boolean remove(int key) {
+        int i = find(key);
+        if (!used[i]) return false;
+        removeAt(i);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public void forEach(EntryVisitor visitor) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) visitor.accept(keys[i], values[i]);
+        }
+    }
+
+    /** Boxed copy, for callers outside the hot path that want a {@link Map}. */
+    public Map<Integer, Integer> toMap() {
+        Map<Integer, Integer> copy = new HashMap<>(size * 2);
+        forEach(copy::put);
+        return copy;
+    }
+
+    // Claims empty slot i for key, growing first if that would overfill the table
+    private int insert(int i, int key) {
+        if ((size + 1) * 2 > used.length) {
+            grow();
+            i = find(key);
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = 0;
+        size++;
+        return i;
+    }
+
+    private void removeAt(int i) {
+        for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = IntMap.slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i]   = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        used[i] = false;
+        size--;
+    }
+
+    private void grow() {
+        int[]     oldKeys   = keys;
+        int[]     oldValues = values;
+        boolean[] oldUsed   = used;
+        keys   = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        used   = new boolean[oldUsed.length * 2];
+        mask   = keys.length - 1;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (!oldUsed[i]) continue;
+            int j = find(oldKeys[i]);
+            used[j]   = true;
+            keys[j]   = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+}
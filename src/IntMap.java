@@ -0,0 +1,181 @@
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from {@code int} keys to non-null values, without boxing.
+ *
+ * <p>Open addressing with linear probing over two parallel arrays, sized to
+ * a power of two and kept at most half full; a slot is empty when its value
+ * is {@code null}. Removal shifts the rest of the probe run back instead of
+ * leaving tombstones, so lookups never slow down as entries come and go.
+ * Lookups, puts of an existing key and removals allocate nothing.</p>
+ *
+ * <p>Not thread-safe; the Scheduler only touches its maps under its own
+ * lock. Iteration order is unspecified.</p>
+ */
+public final class IntMap<V> {
+
+    /** Visits one entry; see {@link #forEach}. */
+    public interface EntryVisitor<V> {
+        void accept(int key, V value);
+    }
+
+    private int[]    keys;
+    private Object[] values;
+    private int      mask;     // capacity - 1
+    private int      size;
+
+    public IntMap() {
+        this(16);
+    }
+
+    /** A map that holds {@code expected} entries before it has to grow. */
+    public IntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys   = new int[capacity];
+        values = new Object[capacity];
+        mask   = capacity - 1;
+    }
+
+    /** Home slot of {@code key}: Fibonacci hashing, so runs of IDs spread out. */
+    static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Slot holding key, or the empty slot where it would go
+    private int find(int key) {
+        int i = slot(key, mask);
+        while (values[i] != null && keys[i] != key) i = (i + 1) & mask;
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) values[find(key)];
+    }
+
+    public boolean containsKey(int key) {
+        return values[find(key)] != null;
+    }
+
+    /** Maps {@code key} to {@code value}; returns the previous value, or {@code null}. */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) throw new NullPointerException("IntMap values must not be null");
+        int i = find(key);
+        V old = (V) values[i];
+        if (old == null) {
+            if ((size + 1) * 2 > values.length) {
+                grow();
+                i = find(key);
+            }
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+        return old;
+    }
+
+    /** Removes {@code key}; returns its value, or {@code null} if it was absent. */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = find(key);
+        V old = (V) values[i];
+        if (old == null) return null;
+        // Pull back every later entry of the run whose home slot is at or before the hole
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i]   = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        values[i] = null;
+        size--;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryVisitor<? super V> visitor) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) visitor.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    /** Live view of the values; iterating it allocates only the iterator. */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterator<V>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < values.length && values[from] == null) from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public V next() {
+                        if (next >= values.length) throw new NoSuchElementException();
+                        V v = (V) values[next];
+                        next = advance(next + 1);
+                        return v;
+                    }
+                };
+            }
+        };
+    }
+
+    /** Boxed copy, for callers outside the hot path that want a {@link Map}. */
+    public Map<Integer, V> toMap() {
+        Map<Integer, V> copy = new HashMap<>(size * 2);
+        forEach(copy::put);
+        return copy;
+    }
+
+    private void grow() {
+        int[]    oldKeys   = keys;
+        Object[] oldValues = values;
+        keys   = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        mask   = keys.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int j = find(oldKeys[i]);
+            keys[j]   = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Fixed-memory, log-linear latency histogram in the style of HdrHistogram.
+ *
+ * <p>Values below {@code 2^precisionBits} each get their own bucket. Above
+ * that, every power-of-two range is split into {@code 2^(precisionBits-1)}
+ * equal buckets, so any recorded value is reported within a relative error
+ * of {@code 1 / 2^(precisionBits-1)} (about 3% at the default of 6 bits).
+ * Memory is one {@code long[]} sized by the precision and the largest
+ * trackable value; it never grows with the number of samples.</p>
+ *
+ * <p>Not thread-safe; callers synchronise (see {@link MetricsEngine}).</p>
+ */
+public class LatencyHistogram {
+
+    public static final int DEFAULT_PRECISION_BITS = 6;
+    /** Largest value tracked exactly enough; larger values land in the top bucket. */
+    public static final long DEFAULT_MAX_VALUE = 1L << 40;
+
+    private final int    precisionBits;
+    private final int    subBuckets;      // 2^precisionBits
+    private final int    halfBuckets;     // 2^(precisionBits-1)
+    private final long   maxValue;
+    private final long[] counts;
+
+    private long total;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION_BITS, DEFAULT_MAX_VALUE);
+    }
+
+    /**
+     * @param precisionBits bits of the value kept exactly (2 to 16)
+     * @param maxValue      largest value expected; anything larger is clamped
+     */
+    public LatencyHistogram(int precisionBits, long maxValue) {
+        if (precisionBits < 2 || precisionBits > 16) throw new IllegalArgumentException("precisionBits 2-16");
+        this.precisionBits = precisionBits;
+        this.subBuckets    = 1 << precisionBits;
+        this.halfBuckets   = subBuckets >> 1;
+        this.maxValue      = Math.max(maxValue, subBuckets);
+        this.counts        = new long[indexOf(this.maxValue) + 1];
+    }
+
+    /** Records one value; negative values are ignored. */
+    public void record(long value) {
+        if (value < 0) return;
+        long v = Math.min(value, maxValue);
+        counts[indexOf(v)]++;
+        total++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public long getCount() { return total; }
+    public long getMax()   { return total == 0 ? 0 : max; }
+    public long getMin()   { return total == 0 ? 0 : min; }
+    /** Sum of every recorded value (unclamped). */
+    public long getSum()   { return sum; }
+
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * Returns the value at or below which {@code percentile} percent of the
+     * samples fall, reported as the upper edge of its bucket (never above
+     * the recorded maximum).
+     *
+     * @param percentile 0-100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * total);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestValueIn(i), max);
+        }
+        return max;
+    }
+
+    /** Adds every sample of {@code other} (same precision and range) to this histogram. */
+    public void add(LatencyHistogram other) {
+        if (other.counts.length != counts.length || other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Histograms have different layouts");
+        }
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum   += other.sum;
+        if (other.total > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    /** Independent copy, e.g. for handing a snapshot to another thread. */
+    public LatencyHistogram copy() {
+        LatencyHistogram c = new LatencyHistogram(precisionBits, maxValue);
+        c.add(this);
+        return c;
+    }
+
+    /** Number of buckets, i.e. the fixed memory footprint in longs. */
+    public int bucketCount() {
+        return counts.length;
+    }
+
+    private int indexOf(long v) {
+        if (v < subBuckets) return (int) v;
+        int msb   = 63 - Long.numberOfLeadingZeros(v);
+        int shift = msb - precisionBits + 1;            // >= 1
+        int sub   = (int) (v >>> shift);                // in [halfBuckets, subBuckets)
+        return subBuckets + (shift - 1) * halfBuckets + (sub - halfBuckets);
+    }
+
+    private long highestValueIn(int index) {
+        if (index < subBuckets) return index;
+        int shift = (index - subBuckets) / halfBuckets + 1;
+        long sub  = (index - subBuckets) % halfBuckets + halfBuckets;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,707 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Offline analyzer for historical {@code log.txt} files.
+ *
+ * <p>Computes the same fire, drone and overall metrics as the live
+ * {@link MetricsEngine}, but for logs of any size and using every core:</p>
+ * <ol>
+ *   <li><b>Chunk pass (parallel).</b> Each file is cut into fixed-size byte
+ *       ranges. Every chunk is read on its own, its lines are parsed with
+ *       {@link Event#parseLogLine} and grouped in one pass into compact
+ *       per-drone and per-zone tracks (primitive arrays, no per-line
+ *       Strings).</li>
+ *   <li><b>Merge.</b> The chunk tracks are concatenated per drone and per
+ *       zone in file order, so each track is the full, ordered history of
+ *       one drone or zone.</li>
+ *   <li><b>Metrics pass (parallel).</b> Drones and zones are independent, so
+ *       each track is reduced on its own and the results are summed.</li>
+ * </ol>
+ * <p>Several files are analysed one after another (each is a separate run
+ * with its own clock) and their summaries merged. The result is written as
+ * CSV or JSON.</p>
+ *
+ * <pre>
+ * Usage: java LogAnalyzer [--format csv|json] [--out file] [--threads N] [--chunk-mb N] log.txt...
+ * </pre>
+ */
+public class LogAnalyzer {
+
+    public static final int DEFAULT_CHUNK_BYTES = 32 << 20;
+    /** Longest line read past the end of a chunk; longer lines are counted as malformed. */
+    private static final int MAX_LINE = 64 << 10;
+
+    // Zone track entry kinds
+    private static final int DETECTED = 0, DISPATCHED = 1, ARRIVED = 2, EXTINGUISHED = 3;
+
+    private static final DroneMachine.DroneState[] STATES     = DroneMachine.DroneState.values();
+    private static final FireEvent.FireSeverity[]  SEVERITIES = FireEvent.FireSeverity.values();
+
+    private final ForkJoinPool pool;
+    private final int          chunkBytes;
+
+    /**
+     * @param threads    worker threads for both parallel passes
+     * @param chunkBytes size of the byte ranges read by one task
+     */
+    public LogAnalyzer(int threads, int chunkBytes) {
+        if (chunkBytes < 1) throw new IllegalArgumentException("chunkBytes must be positive");
+        this.pool       = new ForkJoinPool(Math.max(1, threads));
+        this.chunkBytes = chunkBytes;
+    }
+
+    public LogAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+    }
+
+    // ==== Entry point ====
+
+    public static void main(String[] args) throws Exception {
+        String format  = "csv";
+        String out     = null;
+        int    threads = Runtime.getRuntime().availableProcessors();
+        int    chunk   = DEFAULT_CHUNK_BYTES;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--format".equals(args[i]))        format  = args[++i].toLowerCase(Locale.ROOT);
+            else if ("--out".equals(args[i]))      out     = args[++i];
+            else if ("--threads".equals(args[i]))  threads = Integer.parseInt(args[++i]);
+            else if ("--chunk-mb".equals(args[i])) chunk   = Integer.parseInt(args[++i]) << 20;
+            else files.add(Paths.get(args[i]));
+        }
+        if (files.isEmpty() || !(format.equals("csv") || format.equals("json"))) {
+            System.err.println("Usage: java LogAnalyzer [--format csv|json] [--out file] "
+                    + "[--threads N] [--chunk-mb N] log.txt...");
+            System.exit(2);
+        }
+
+        long started = System.nanoTime();
+        LogAnalyzer analyzer = new LogAnalyzer(threads, chunk);
+        Summary summary;
+        try {
+            summary = analyzer.analyze(files);
+        } finally {
+            analyzer.close();
+        }
+        double secs = (System.nanoTime() - started) / 1e9;
+        System.err.printf("LogAnalyzer: %,d events (%,d malformed) from %d file(s), %,d bytes in %.2f s "
+                        + "(%,.0f events/s, %d threads)%n",
+                summary.events, summary.malformed, summary.files.size(), summary.bytes, secs,
+                summary.events / Math.max(secs, 1e-9), threads);
+
+        if (out == null) {
+            PrintStream stdout = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+            if (format.equals("json")) summary.writeJson(stdout); else summary.writeCsv(stdout);
+            stdout.flush();
+        } else {
+            try (Writer w = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+                if (format.equals("json")) summary.writeJson(w); else summary.writeCsv(w);
+            }
+        }
+    }
+
+    /** Analyses each file as its own run and merges the results. */
+    public Summary analyze(List<Path> files) throws IOException {
+        Summary total = new Summary();
+        for (Path f : files) total.merge(analyze(f));
+        return total;
+    }
+
+    /** Analyses one log file. */
+    public Summary analyze(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size   = ch.size();
+            int  chunks = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+
+            List<Partial> partials;
+            try {
+                partials = pool.submit(() -> IntStream.range(0, chunks).parallel()
+                        .mapToObj(i -> readChunk(ch, size, (long) i * chunkBytes,
+                                Math.min(size, (long) (i + 1) * chunkBytes)))
+                        .collect(Collectors.toList())).get();
+            } catch (Exception e) {
+                throw new IOException("Could not analyse " + file + ": " + e.getCause(), e);
+            }
+
+            Summary summary = reduce(partials);
+            summary.files.add(file.toString());
+            summary.bytes = size;
+            return summary;
+        }
+    }
+
+    /** Releases the worker threads. */
+    public void close() {
+        pool.shutdown();
+    }
+
+    // ==== Chunk pass ====
+
+    /** One ordered, growable list of (time, a, b) triples. */
+    static final class Track {
+        long[] times = new long[16];
+        int[]  a     = new int[16];
+        int[]  b     = new int[16];
+        int    size;
+
+        void add(long time, int x, int y) {
+            if (size == times.length) grow(size * 2);
+            times[size] = time;
+            a[size]     = x;
+            b[size]     = y;
+            size++;
+        }
+
+        void append(Track o) {
+            if (size + o.size > times.length) grow(Math.max(size + o.size, size * 2));
+            System.arraycopy(o.times, 0, times, size, o.size);
+            System.arraycopy(o.a, 0, a, size, o.size);
+            System.arraycopy(o.b, 0, b, size, o.size);
+            size += o.size;
+        }
+
+        private void grow(int n) {
+            times = Arrays.copyOf(times, n);
+            a     = Arrays.copyOf(a, n);
+            b     = Arrays.copyOf(b, n);
+        }
+    }
+
+    /** Everything one chunk contributes, before merging. */
+    static final class Partial {
+        long events, malformed;
+        long firstTime = -1, lastTime = -1;
+        long firesDetected, firesExtinguished;
+        long firstFire = Long.MAX_VALUE, lastExtinguish = Long.MIN_VALUE;
+        /** Per drone: (time, state ordinal, zone). */
+        final Map<Integer, Track> drones = new HashMap<>();
+        /** Per zone: (time, kind, severity ordinal or -1). */
+        final Map<Integer, Track> zones  = new HashMap<>();
+    }
+
+    /** Reads and groups the lines that start in [start, end). */
+    private static Partial readChunk(FileChannel ch, long fileSize, long start, long end) {
+        Partial p = new Partial();
+        long readFrom = Math.max(0, start - 1);
+        int  length   = (int) (Math.min(fileSize, end + MAX_LINE) - readFrom);
+        byte[] buf = new byte[length];
+        try {
+            ByteBuffer bb = ByteBuffer.wrap(buf);
+            while (bb.hasRemaining()) {
+                if (ch.read(bb, readFrom + bb.position()) < 0) break;
+            }
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+
+        int limit = (int) (end - readFrom);     // lines must start before here
+        int pos   = (int) (start - readFrom);
+        if (start > 0 && buf[0] != '\n') {
+            // Started mid-line: that line belongs to the previous chunk
+            while (pos < length && buf[pos - 1] != '\n') pos++;
+        }
+        while (pos < limit) {
+            int eol = pos;
+            while (eol < length && buf[eol] != '\n') eol++;
+            if (eol == length && readFrom + length < fileSize) {
+                p.malformed++;                   // longer than MAX_LINE
+                break;
+            }
+            if (eol > pos) addLine(p, buf, pos, eol - pos);
+            pos = eol + 1;
+        }
+        return p;
+    }
+
+    private static void addLine(Partial p, byte[] buf, int off, int len) {
+        Event e;
+        try {
+            e = Event.parseLogLine(buf, off, len);
+        } catch (IllegalArgumentException bad) {
+            p.malformed++;
+            return;
+        }
+        long t = e.getTime() * 1000L;
+        p.events++;
+        if (p.firstTime < 0) p.firstTime = t;
+        p.lastTime = t;
+
+        EventEntity entity = e.getEntity();
+        Track drone = entity.isDrone() ? p.drones.computeIfAbsent(entity.getId(), k -> new Track()) : null;
+        switch (e.getCode()) {
+            case FIRE_DETECTED:
+                p.firesDetected++;
+                p.firstFire = Math.min(p.firstFire, t);
+                zone(p, e.getZone()).add(t, DETECTED,
+                        e.getSeverity() == null ? -1 : e.getSeverity().ordinal());
+                break;
+            case FIRE_EXTINGUISHED:
+                p.firesExtinguished++;
+                p.lastExtinguish = Math.max(p.lastExtinguish, t);
+                zone(p, e.getZone()).add(t, EXTINGUISHED, -1);
+                break;
+            case STATE_CHANGE:
+                if (drone == null) break;
+                drone.add(t, e.getState().ordinal(), e.getZone());
+                if (e.getZone() == Event.NO_ZONE) break;
+                if (e.getState() == DroneMachine.DroneState.ONROUTE) zone(p, e.getZone()).add(t, DISPATCHED, -1);
+                if (e.getState() == DroneMachine.DroneState.EXTINGUISHING) zone(p, e.getZone()).add(t, ARRIVED, -1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static Track zone(Partial p, int zone) {
+        return p.zones.computeIfAbsent(zone, k -> new Track());
+    }
+
+    // ==== Merge and metrics pass ====
+
+    private Summary reduce(List<Partial> partials) throws IOException {
+        Summary s = new Summary();
+        Map<Integer, Track> drones = new TreeMap<>();
+        Map<Integer, Track> zones  = new TreeMap<>();
+        long logStart = -1, logEnd = -1, firstFire = Long.MAX_VALUE, lastOut = Long.MIN_VALUE;
+        for (Partial p : partials) {              // in file order
+            s.events            += p.events;
+            s.malformed         += p.malformed;
+            s.firesDetected     += p.firesDetected;
+            s.firesExtinguished += p.firesExtinguished;
+            if (p.firstTime >= 0) {
+                if (logStart < 0) logStart = p.firstTime;
+                logEnd = p.lastTime;
+            }
+            firstFire = Math.min(firstFire, p.firstFire);
+            lastOut   = Math.max(lastOut, p.lastExtinguish);
+            for (Map.Entry<Integer, Track> e : p.drones.entrySet()) {
+                drones.computeIfAbsent(e.getKey(), k -> new Track()).append(e.getValue());
+            }
+            for (Map.Entry<Integer, Track> e : p.zones.entrySet()) {
+                zones.computeIfAbsent(e.getKey(), k -> new Track()).append(e.getValue());
+            }
+        }
+        if (logStart < 0) return s;
+        long start = logStart, end = logEnd;
+        s.simulationMs      = end - start;
+        s.firstFireToLastMs = (s.firesExtinguished > 0 ? lastOut : end) - (s.firesDetected > 0 ? firstFire : start);
+
+        List<DroneResult> droneResults;
+        List<ZoneResult>  zoneResults;
+        try {
+            droneResults = pool.submit(() -> drones.entrySet().parallelStream()
+                    .map(e -> droneMetrics(e.getKey(), e.getValue(), start, end))
+                    .collect(Collectors.toList())).get();
+            zoneResults = pool.submit(() -> zones.entrySet().parallelStream()
+                    .map(e -> zoneMetrics(e.getKey(), e.getValue()))
+                    .collect(Collectors.toList())).get();
+        } catch (Exception e) {
+            throw new IOException("Metrics pass failed: " + e.getCause(), e);
+        }
+        for (DroneResult d : droneResults) s.addDrone(d);
+        for (ZoneResult z : zoneResults) s.addZone(z);
+        return s;
+    }
+
+    /** Replays one drone's state changes, like MetricsEngine.changeState. */
+    private static DroneResult droneMetrics(int id, Track t, long logStart, long logEnd) {
+        DroneResult d = new DroneResult(id);
+        DroneMachine.DroneState state = DroneMachine.DroneState.IDLE;
+        long since = logStart;
+        for (int i = 0; i < t.size; i++) {
+            long now = t.times[i];
+            long dur = now - since;
+            DroneMachine.DroneState next = STATES[t.a[i]];
+            if (state == DroneMachine.DroneState.ONROUTE && next == DroneMachine.DroneState.EXTINGUISHING) {
+                d.dispatchToArrival.record(dur);
+            }
+            switch (state) {
+                case ONROUTE:
+                case EXTINGUISHING:            d.flightMs   += dur; break;
+                case IDLE:                     d.idleMs     += dur; break;
+                case REFILLING_AND_RECHARGING: d.rechargeMs += dur; break;
+                default: break;
+            }
+            if (next == DroneMachine.DroneState.ONROUTE) d.missions++;
+            if (next == DroneMachine.DroneState.REFILLING_AND_RECHARGING) d.recharges++;
+            state = next;
+            since = now;
+        }
+        if (state == DroneMachine.DroneState.IDLE) d.idleMs += logEnd - since;
+        return d;
+    }
+
+    /** Matches one zone's fires to dispatches, arrivals and extinguishes, like MetricsEngine. */
+    private static ZoneResult zoneMetrics(int zone, Track t) {
+        ZoneResult z = new ZoneResult(zone);
+        // Open incidents as indexes into the track; the three queues are FIFO suffixes of each other
+        int[] open = new int[8];
+        long[] response = new long[8];
+        int head = 0, tail = 0, answered = 0, dispatched = 0;
+        for (int i = 0; i < t.size; i++) {
+            long now = t.times[i];
+            switch (t.a[i]) {
+                case DETECTED:
+                    if (tail == open.length) {
+                        // Compact to the front before growing
+                        int n = tail - head;
+                        System.arraycopy(open, head, open, 0, n);
+                        System.arraycopy(response, head, response, 0, n);
+                        answered -= head; dispatched -= head; tail = n; head = 0;
+                        if (tail == open.length) {
+                            open     = Arrays.copyOf(open, open.length * 2);
+                            response = Arrays.copyOf(response, response.length * 2);
+                        }
+                    }
+                    open[tail] = i;
+                    response[tail++] = -1;
+                    break;
+                case DISPATCHED:
+                    if (dispatched < tail) {
+                        z.record(MetricsEngine.Latency.QUEUE_WAIT, t, open[dispatched], now);
+                        dispatched++;
+                    }
+                    break;
+                case ARRIVED:
+                    if (answered < tail) {
+                        response[answered] = now - t.times[open[answered]];
+                        z.record(MetricsEngine.Latency.RESPONSE, t, open[answered], now);
+                        answered++;
+                        dispatched = Math.max(dispatched, answered);
+                    }
+                    break;
+                case EXTINGUISHED:
+                    if (head < tail) {
+                        int inc = open[head];
+                        z.record(MetricsEngine.Latency.EXTINGUISH, t, inc, now);
+                        z.completed++;
+                        z.extinguishSumMs += now - t.times[inc];
+                        if (response[head] >= 0) {
+                            z.responded++;
+                            z.responseSumMs += response[head];
+                        }
+                        head++;
+                        answered   = Math.max(answered, head);
+                        dispatched = Math.max(dispatched, head);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return z;
+    }
+
+    // ==== Results ====
+
+    static final class DroneResult {
+        final int id;
+        int  missions, recharges;
+        long flightMs, idleMs, rechargeMs;
+        final LatencyHistogram dispatchToArrival = new LatencyHistogram();
+
+        DroneResult(int id) {
+            this.id = id;
+        }
+
+        void add(DroneResult o) {
+            missions   += o.missions;
+            recharges  += o.recharges;
+            flightMs   += o.flightMs;
+            idleMs     += o.idleMs;
+            rechargeMs += o.rechargeMs;
+            dispatchToArrival.add(o.dispatchToArrival);
+        }
+    }
+
+    static final class ZoneResult {
+        final int zone;
+        long completed, responded, responseSumMs, extinguishSumMs;
+        final EnumMap<MetricsEngine.Latency, LatencyHistogram> latency = new EnumMap<>(MetricsEngine.Latency.class);
+        /** Per severity, per latency kind; only fires whose severity was logged. */
+        final LatencyHistogram[][] bySeverity =
+                new LatencyHistogram[SEVERITIES.length][MetricsEngine.Latency.values().length];
+
+        ZoneResult(int zone) {
+            this.zone = zone;
+            for (MetricsEngine.Latency k : MetricsEngine.Latency.values()) latency.put(k, new LatencyHistogram());
+        }
+
+        void record(MetricsEngine.Latency kind, Track t, int incident, long now) {
+            long ms = now - t.times[incident];
+            latency.get(kind).record(ms);
+            int sev = t.b[incident];
+            if (sev >= 0) {
+                LatencyHistogram[] row = bySeverity[sev];
+                if (row[kind.ordinal()] == null) row[kind.ordinal()] = new LatencyHistogram();
+                row[kind.ordinal()].record(ms);
+            }
+        }
+
+        void add(ZoneResult o) {
+            completed       += o.completed;
+            responded       += o.responded;
+            responseSumMs   += o.responseSumMs;
+            extinguishSumMs += o.extinguishSumMs;
+            for (MetricsEngine.Latency k : MetricsEngine.Latency.values()) latency.get(k).add(o.latency.get(k));
+            for (int s = 0; s < bySeverity.length; s++) {
+                for (int k = 0; k < bySeverity[s].length; k++) {
+                    if (o.bySeverity[s][k] == null) continue;
+                    if (bySeverity[s][k] == null) bySeverity[s][k] = new LatencyHistogram();
+                    bySeverity[s][k].add(o.bySeverity[s][k]);
+                }
+            }
+        }
+    }
+
+    /** Metrics for one or more analysed files. */
+    public static final class Summary {
+        final List<String> files = new ArrayList<>();
+        long bytes, events, malformed;
+        long simulationMs, firstFireToLastMs;
+        long firesDetected, firesExtinguished;
+        long completed, responded, responseSumMs, extinguishSumMs;
+        final EnumMap<MetricsEngine.Latency, LatencyHistogram> latency = new EnumMap<>(MetricsEngine.Latency.class);
+        final EnumMap<FireEvent.FireSeverity, EnumMap<MetricsEngine.Latency, LatencyHistogram>> bySeverity =
+                new EnumMap<>(FireEvent.FireSeverity.class);
+        final TreeMap<Integer, ZoneResult>  zones  = new TreeMap<>();
+        final TreeMap<Integer, DroneResult> drones = new TreeMap<>();
+
+        Summary() {
+            for (MetricsEngine.Latency k : MetricsEngine.Latency.values()) latency.put(k, new LatencyHistogram());
+        }
+
+        public long getEvents()            { return events; }
+        public long getMalformed()         { return malformed; }
+        public long getFiresDetected()     { return firesDetected; }
+        public long getFiresExtinguished() { return firesExtinguished; }
+        public int  getDroneCount()        { return drones.size(); }
+
+        /** Average detection-to-first-arrival time of completed incidents, in ms. */
+        public long getAverageResponseMs() {
+            return responded == 0 ? 0 : responseSumMs / responded;
+        }
+
+        /** Average detection-to-extinguished time of completed incidents, in ms. */
+        public long getAverageExtinguishMs() {
+            return completed == 0 ? 0 : extinguishSumMs / completed;
+        }
+
+        public long getTotalIdleMs() {
+            long sum = 0;
+            for (DroneResult d : drones.values()) sum += d.idleMs;
+            return sum;
+        }
+
+        /** Flight time of one drone, or -1 if it was not seen. */
+        public long getFlightMs(int droneId) {
+            DroneResult d = drones.get(droneId);
+            return d == null ? -1 : d.flightMs;
+        }
+
+        public LatencyHistogram getHistogram(MetricsEngine.Latency kind) {
+            return latency.get(kind);
+        }
+
+        void addDrone(DroneResult d) {
+            DroneResult mine = drones.get(d.id);
+            if (mine == null) drones.put(d.id, mine = new DroneResult(d.id));
+            mine.add(d);
+            latency.get(MetricsEngine.Latency.DISPATCH_TO_ARRIVAL).add(d.dispatchToArrival);
+        }
+
+        void addZone(ZoneResult z) {
+            ZoneResult mine = zones.get(z.zone);
+            if (mine == null) zones.put(z.zone, mine = new ZoneResult(z.zone));
+            mine.add(z);
+            completed       += z.completed;
+            responded       += z.responded;
+            responseSumMs   += z.responseSumMs;
+            extinguishSumMs += z.extinguishSumMs;
+            for (MetricsEngine.Latency k : MetricsEngine.Latency.values()) {
+                if (k != MetricsEngine.Latency.DISPATCH_TO_ARRIVAL) latency.get(k).add(z.latency.get(k));
+            }
+            for (int s = 0; s < z.bySeverity.length; s++) {
+                for (MetricsEngine.Latency k : MetricsEngine.Latency.values()) {
+                    LatencyHistogram h = z.bySeverity[s][k.ordinal()];
+                    if (h == null) continue;
+                    bySeverity.computeIfAbsent(SEVERITIES[s], x -> new EnumMap<>(MetricsEngine.Latency.class))
+                            .computeIfAbsent(k, x -> new LatencyHistogram()).add(h);
+                }
+            }
+        }
+
+        /** Adds another run's results (a different file) to this one. */
+        void merge(Summary o) {
+            files.addAll(o.files);
+            bytes             += o.bytes;
+            events            += o.events;
+            malformed         += o.malformed;
+            simulationMs      += o.simulationMs;
+            firstFireToLastMs += o.firstFireToLastMs;
+            firesDetected     += o.firesDetected;
+            firesExtinguished += o.firesExtinguished;
+            for (ZoneResult z : o.zones.values()) addZone(z);
+            for (DroneResult d : o.drones.values()) addDrone(d);
+        }
+
+        // ==== Output ====
+
+        /** Long-format CSV: {@code section,key,metric,value}; durations in seconds. */
+        public void writeCsv(Appendable out) throws IOException {
+            out.append("section,key,metric,value\n");
+            csv(out, "overall", "", "files", files.size());
+            csv(out, "overall", "", "events", events);
+            csv(out, "overall", "", "malformed_lines", malformed);
+            csv(out, "overall", "", "simulation_s", simulationMs / 1000.0);
+            csv(out, "overall", "", "first_fire_to_last_out_s", firstFireToLastMs / 1000.0);
+            csv(out, "overall", "", "fires_detected", firesDetected);
+            csv(out, "overall", "", "fires_extinguished", firesExtinguished);
+            csv(out, "fires", "", "completed", completed);
+            csv(out, "fires", "", "avg_response_s", getAverageResponseMs() / 1000.0);
+            csv(out, "fires", "", "avg_extinguish_s", getAverageExtinguishMs() / 1000.0);
+            for (MetricsEngine.Latency k : MetricsEngine.Latency.values()) {
+                csvPercentiles(out, "latency", k.name(), latency.get(k));
+            }
+            for (Map.Entry<FireEvent.FireSeverity, EnumMap<MetricsEngine.Latency, LatencyHistogram>> e : bySeverity.entrySet()) {
+                for (Map.Entry<MetricsEngine.Latency, LatencyHistogram> k : e.getValue().entrySet()) {
+                    csvPercentiles(out, "severity", e.getKey() + " " + k.getKey(), k.getValue());
+                }
+            }
+            for (ZoneResult z : zones.values()) {
+                String key = Event.zoneName(z.zone);
+                csv(out, "zone", key, "fires", z.completed);
+                csv(out, "zone", key, "avg_response_s",
+                        z.responded == 0 ? 0 : z.responseSumMs / z.responded / 1000.0);
+                csv(out, "zone", key, "avg_extinguish_s",
+                        z.completed == 0 ? 0 : z.extinguishSumMs / z.completed / 1000.0);
+                csvPercentiles(out, "zone", key + " RESPONSE", z.latency.get(MetricsEngine.Latency.RESPONSE));
+            }
+            for (DroneResult d : drones.values()) {
+                String key = EventEntity.drone(d.id).toString();
+                csv(out, "drone", key, "missions", d.missions);
+                csv(out, "drone", key, "flight_s", d.flightMs / 1000.0);
+                csv(out, "drone", key, "idle_s", d.idleMs / 1000.0);
+                csv(out, "drone", key, "recharges", d.recharges);
+                csv(out, "drone", key, "recharge_s", d.rechargeMs / 1000.0);
+            }
+        }
+
+        private static void csv(Appendable out, String section, String key, String metric, double value)
+                throws IOException {
+            out.append(section).append(',').append(key).append(',').append(metric).append(',')
+                    .append(number(value)).append('\n');
+        }
+
+        private static void csvPercentiles(Appendable out, String section, String key, LatencyHistogram h)
+                throws IOException {
+            if (h.getCount() == 0) return;
+            csv(out, section, key, "count", h.getCount());
+            csv(out, section, key, "p50_s", h.getValueAtPercentile(50) / 1000.0);
+            csv(out, section, key, "p90_s", h.getValueAtPercentile(90) / 1000.0);
+            csv(out, section, key, "p99_s", h.getValueAtPercentile(99) / 1000.0);
+            csv(out, section, key, "max_s", h.getMax() / 1000.0);
+        }
+
+        /** JSON object with overall, fires, latency, severity, zones and drones; durations in seconds. */
+        public void writeJson(Appendable out) throws IOException {
+            out.append("{\n  \"files\": [");
+            for (int i = 0; i < files.size(); i++) {
+                out.append(i == 0 ? "" : ", ").append('"').append(jsonEscape(files.get(i))).append('"');
+            }
+            out.append("],\n  \"overall\": {")
+                    .append("\"events\": ").append(number(events))
+                    .append(", \"malformed_lines\": ").append(number(malformed))
+                    .append(", \"simulation_s\": ").append(number(simulationMs / 1000.0))
+                    .append(", \"first_fire_to_last_out_s\": ").append(number(firstFireToLastMs / 1000.0))
+                    .append(", \"fires_detected\": ").append(number(firesDetected))
+                    .append(", \"fires_extinguished\": ").append(number(firesExtinguished)).append("},\n");
+            out.append("  \"fires\": {\"completed\": ").append(number(completed))
+                    .append(", \"avg_response_s\": ").append(number(getAverageResponseMs() / 1000.0))
+                    .append(", \"avg_extinguish_s\": ").append(number(getAverageExtinguishMs() / 1000.0))
+                    .append("},\n  \"latency\": {");
+            boolean first = true;
+            for (MetricsEngine.Latency k : MetricsEngine.Latency.values()) {
+                out.append(first ? "" : ", ").append('"').append(k.name()).append("\": ");
+                jsonPercentiles(out, latency.get(k));
+                first = false;
+            }
+            out.append("},\n  \"severity\": {");
+            first = true;
+            for (Map.Entry<FireEvent.FireSeverity, EnumMap<MetricsEngine.Latency, LatencyHistogram>> e : bySeverity.entrySet()) {
+                out.append(first ? "" : ", ").append('"').append(e.getKey().name()).append("\": {");
+                boolean firstKind = true;
+                for (Map.Entry<MetricsEngine.Latency, LatencyHistogram> k : e.getValue().entrySet()) {
+                    out.append(firstKind ? "" : ", ").append('"').append(k.getKey().name()).append("\": ");
+                    jsonPercentiles(out, k.getValue());
+                    firstKind = false;
+                }
+                out.append('}');
+                first = false;
+            }
+            out.append("},\n  \"zones\": [");
+            first = true;
+            for (ZoneResult z : zones.values()) {
+                out.append(first ? "\n" : ",\n").append("    {\"zone\": ").append(number(z.zone))
+                        .append(", \"fires\": ").append(number(z.completed))
+                        .append(", \"avg_response_s\": ")
+                        .append(number(z.responded == 0 ? 0 : z.responseSumMs / z.responded / 1000.0))
+                        .append(", \"avg_extinguish_s\": ")
+                        .append(number(z.completed == 0 ? 0 : z.extinguishSumMs / z.completed / 1000.0))
+                        .append(", \"response\": ");
+                jsonPercentiles(out, z.latency.get(MetricsEngine.Latency.RESPONSE));
+                out.append('}');
+                first = false;
+            }
+            out.append(first ? "" : "\n  ").append("],\n  \"drones\": [");
+            first = true;
+            for (DroneResult d : drones.values()) {
+                out.append(first ? "\n" : ",\n").append("    {\"drone\": ").append(number(d.id))
+                        .append(", \"missions\": ").append(number(d.missions))
+                        .append(", \"flight_s\": ").append(number(d.flightMs / 1000.0))
+                        .append(", \"idle_s\": ").append(number(d.idleMs / 1000.0))
+                        .append(", \"recharges\": ").append(number(d.recharges))
+                        .append(", \"recharge_s\": ").append(number(d.rechargeMs / 1000.0)).append('}');
+                first = false;
+            }
+            out.append(first ? "" : "\n  ").append("]\n}\n");
+        }
+
+        private static void jsonPercentiles(Appendable out, LatencyHistogram h) throws IOException {
+            out.append("{\"count\": ").append(number(h.getCount()))
+                    .append(", \"p50_s\": ").append(number(h.getValueAtPercentile(50) / 1000.0))
+                    .append(", \"p90_s\": ").append(number(h.getValueAtPercentile(90) / 1000.0))
+                    .append(", \"p99_s\": ").append(number(h.getValueAtPercentile(99) / 1000.0))
+                    .append(", \"max_s\": ").append(number(h.getMax() / 1000.0)).append('}');
+        }
+
+        private static String number(double v) {
+            if (v == Math.rint(v) && Math.abs(v) < 1e15) return Long.toString((long) v);
+            return String.format(Locale.ROOT, "%.3f", v);
+        }
+
+        private static String jsonEscape(String s) {
+            return s.replace("\\", "\\\\").replace("\"", "\\\"");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded model behind the System Log panel.
+ *
+ * <p>Lines are appended from any thread to a lock-free queue; nothing
+ * touches Swing there. The view drains the queue in one batch per frame
+ * with {@link #flush}, which moves the lines into a ring of
+ * {@link #getCapacity()} lines, the oldest dropped first. The queue is
+ * bounded by the same capacity, so a stalled Event Dispatch Thread cannot
+ * make it grow either: lines that would be dropped from the ring anyway are
+ * dropped from the queue.</p>
+ *
+ * <p>The listener runs (on the appending thread) when the queue goes from
+ * empty to non-empty, once per batch; the panel uses it to schedule one
+ * flush on the Event Dispatch Thread.</p>
+ */
+public class LogBuffer {
+
+    /** Lines kept, in the ring and waiting in the queue. */
+    public static final int DEFAULT_CAPACITY = 2000;
+
+    public enum Level {
+        INFO, WARNING, ERROR;
+
+        /**
+         * Severity of a Scheduler log message, from its wording: hard faults
+         * and load errors are errors, other faults and stuck drones warnings.
+         */
+        public static Level of(String message) {
+            if (message.contains("HARD FAULT") || message.contains("error")) return ERROR;
+            if (message.contains("FAULT") || message.contains("STUCK") || message.contains("Injecting")) return WARNING;
+            return INFO;
+        }
+    }
+
+    /** One log line. */
+    public static final class Line {
+        public final Level  level;
+        public final String text;
+
+        Line(Level level, String text) {
+            this.level = level;
+            this.text  = text;
+        }
+    }
+
+    private final int capacity;
+    private volatile Runnable listener;
+
+    // Written by any thread
+    private final Queue<Line>   inbox   = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued  = new AtomicInteger();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final AtomicLong    dropped = new AtomicLong();
+
+    // Only touched by the flushing thread
+    private final Line[] ring;
+    private int head, size;       // oldest line, lines held
+
+    public LogBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LogBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.ring = new Line[capacity];
+    }
+
+    /** Runs whenever the queue goes from empty to non-empty, on the appending thread. */
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // ==== Appending (any thread) ====
+
+    public void append(Level level, String text) {
+        inbox.add(new Line(level, text));
+        if (queued.incrementAndGet() > capacity && inbox.poll() != null) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+        if (pending.compareAndSet(false, true)) {
+            Runnable l = listener;
+            if (l != null) l.run();
+        }
+    }
+
+    // ==== Flushing (one thread, the EDT in the GUI) ====
+
+    /**
+     * Moves the queued lines into the ring and returns them, oldest first;
+     * lines appended from here on notify the listener again.
+     */
+    public List<Line> flush() {
+        pending.set(false);
+        List<Line> batch = new ArrayList<>();
+        for (Line line; (line = inbox.poll()) != null; ) {
+            queued.decrementAndGet();
+            batch.add(line);
+            if (size == capacity) {
+                ring[head] = line;
+                head = (head + 1) % capacity;
+            } else {
+                ring[(head + size++) % capacity] = line;
+            }
+        }
+        // Only the newest lines of an oversized batch are still in the ring
+        if (batch.size() > capacity) {
+            dropped.addAndGet(batch.size() - capacity);
+            return batch.subList(batch.size() - capacity, batch.size());
+        }
+        return batch;
+    }
+
+    /** Lines held at or above {@code min}, oldest first. */
+    public List<Line> lines(Level min) {
+        List<Line> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Line line = ring[(head + i) % capacity];
+            if (line.level.compareTo(min) >= 0) out.add(line);
+        }
+        return out;
+    }
+
+    /** Forgets the lines held; queued lines still arrive with the next flush. */
+    public void clear() {
+        Arrays.fill(ring, null);
+        head = size = 0;
+    }
+
+    /** Lines held in the ring. */
+    public int size() {
+        return size;
+    }
+
+    /** Lines dropped before they were shown, because more arrived than fit. */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free, multi-producer / single-consumer ring buffer.
+ *
+ * Each slot carries a sequence number that tells producers and the consumer
+ * whose turn it is: a producer claims position p with a CAS on the tail once
+ * the slot's sequence equals p, stores its element and publishes p + 1; the
+ * consumer takes the element once it sees p + 1 and hands the slot back by
+ * setting p + capacity. No thread ever blocks another, and a full buffer is
+ * reported to the producer instead of being waited on.
+ */
+public class LogRingBuffer<T> {
+
+    private final Object[]        slots;
+    private final AtomicLongArray sequences;
+    private final int             mask;
+
+    private final AtomicLong tail = new AtomicLong();  // next position to claim
+    private volatile long    head = 0;                 // next position to consume (consumer only writes)
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public LogRingBuffer(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        slots     = new Object[size];
+        sequences = new AtomicLongArray(size);
+        mask      = size - 1;
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    /**
+     * Adds an element without blocking.
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(T element) {
+        while (true) {
+            long pos = tail.get();
+            int  idx = (int) (pos & mask);
+            long seq = sequences.get(idx);
+            if (seq == pos) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[idx] = element;
+                    sequences.lazySet(idx, pos + 1);   // publish
+                    return true;
+                }
+            } else if (seq < pos) {
+                return false;                          // consumer has not freed this slot yet
+            }
+            // else another producer claimed pos first; retry with the new tail
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called from the consumer thread.
+     *
+     * @return the element, or null if nothing has been published
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long pos = head;
+        int  idx = (int) (pos & mask);
+        if (sequences.get(idx) != pos + 1) return null;
+        T element  = (T) slots[idx];
+        slots[idx] = null;
+        sequences.lazySet(idx, pos + slots.length);    // hand the slot back to producers
+        head = pos + 1;
+        return element;
+    }
+
+    /** Total number of elements ever claimed by producers. */
+    public long producedCount() {
+        return tail.get();
+    }
+
+    /** Total number of elements taken by the consumer. */
+    public long consumedCount() {
+        return head;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
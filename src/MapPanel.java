@@ -1,5 +1,9 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -8,11 +12,34 @@ import java.util.concurrent.ConcurrentHashMap;
  * This MapPanel class is the panel that contains the
  * zone map, with all the visual fire and drone information.
  *
+ * <p>The static parts of the map (grid, zone fills, borders, labels, title
+ * and legend) are rendered once into an opaque cached image, plus a copy of
+ * the grid area with every zone in the burning fill, and are only rebuilt by
+ * {@link #setZones}. Each frame blits the cache, copies in the burning
+ * zones, and draws just the fire cells and drones on top, using pooled fonts
+ * and colours.</p>
+ *
+ * <p>Updates only repaint what changed: the cells a drone left and entered,
+ * fire cells that appeared, changed or went out, and zones whose fill
+ * changed. {@link #applyChanges} takes only the drones and zones that
+ * changed, so its cost follows the change rate rather than the fleet size.
+ * Painting skips sprites outside the clip.</p>
+ *
+ * <p>The map can be zoomed with the mouse wheel and panned by dragging.
+ * Zones, drones and fire cells are indexed by {@value #TILE}x{@value #TILE}
+ * cell tiles, and a paint only visits the tiles under the clip, so its cost
+ * follows the visible area rather than the map or fleet size. Zoomed out
+ * below {@value #DETAIL_CELL_PX} pixels per cell, drones are drawn as
+ * cluster markers with a count and fires as heat tiles.</p>
+ *
  * @author Aryan Kumar Singh (101299776)
  */
 public class MapPanel extends JPanel {
     private List<ZoneRect> zones = new ArrayList<>();
-    private Map<Integer, DroneInfo> drones = new HashMap<>();
+    private Map<Integer, ZoneRect> zoneById = new HashMap<>();
+    private ZoneIndex zoneIndex = ZoneIndex.of(Scheduler.defaultZones().values()); // cell -> zone, for tooltips
+    private Map<Integer, DroneSprite> drones = new HashMap<>(); // as last drawn
+    private int updateGeneration;
     private Map<Integer, Integer> fireSeverityMap = new HashMap<>(); // zone -> total water needed
 
     // Grid properties: expands with loaded zones
@@ -29,6 +56,72 @@ public class MapPanel extends JPanel {
     // Track cells being extinguished
     private Set<Point> extinguishingCells = new HashSet<>();
 
+    // ==== Pooled styles ====
+    private static final Font  FIRE_FONT       = new Font("Arial", Font.BOLD, 12);
+    private static final Font  WATER_FONT      = new Font("Arial", Font.BOLD, 8);
+    private static final Font  ZONE_LABEL_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Font  DRONE_ID_FONT   = new Font("Arial", Font.BOLD, 10);
+    private static final Font  TITLE_FONT      = new Font("Arial", Font.BOLD, 14);
+    private static final Font  LEGEND_FONT     = new Font("Arial", Font.PLAIN, 10);
+    private static final Color ZONE_IDLE       = new Color(200, 255, 200, 50);
+    private static final Color ZONE_BURNING    = new Color(255, 200, 200, 30);
+    private static final Color CELL_EXTINGUISHING = new Color(255, 255, 0, 200);
+    private static final Color CELL_HIGH       = new Color(255, 0, 0, 220);
+    private static final Color CELL_MODERATE   = new Color(255, 100, 0, 220);
+    private static final Color CELL_LOW        = new Color(255, 200, 0, 220);
+    private static final Color DRONE_SHADOW    = new Color(0, 0, 0, 50);
+    private static final Color DRONE_EXTINGUISHING = new Color(148, 0, 211); // purple
+    private static final Color DRONE_FAULTED   = new Color(255, 191, 0);
+    private static final Color DRONE_DECOMMISSIONED = new Color(200, 50, 50);
+    private static final Color LEGEND_BACKGROUND = new Color(255, 255, 255, 220);
+    private static final BasicStroke THIN_STROKE  = new BasicStroke(1);
+    private static final BasicStroke THICK_STROKE = new BasicStroke(2);
+
+    // ==== Cached static layers ====
+    /** Largest cached layer, in pixels; bigger maps are drawn directly. */
+    private static final long MAX_CACHE_PIXELS = 16L << 20;
+    /** Space below the grid for the title and legend. */
+    private static final int LEGEND_HEIGHT = 215;
+    private static final int LEGEND_WIDTH  = 400;
+
+    /** Package-private so tests can compare cached and direct rendering. */
+    boolean cacheLayers = true;
+    private BufferedImage staticLayer;  // grid, idle zone fills, borders, labels, title, legend
+    private BufferedImage burningLayer; // the grid area again, with every zone in the burning fill
+    private Color         layerBackground;
+    private boolean       layersValid;
+
+    // ==== Zoom and level of detail ====
+    static final double MIN_ZOOM  = 0.04;  // 1 pixel per cell
+    static final double MAX_ZOOM  = 2.0;
+    private static final double ZOOM_STEP = 1.25; // per wheel notch
+    /** Pixels per cell below which drones are clustered and fires drawn as heat tiles. */
+    static final int DETAIL_CELL_PX = 12;
+    /** Pixels per cell below which grid lines are left out. */
+    private static final int GRID_CELL_PX = 4;
+    /** Smallest on-screen size of a drone cluster, in pixels. */
+    private static final int CLUSTER_PX = 32;
+    private static final int MAX_CLUSTER_RADIUS = 14;
+    /** How far a cluster marker can reach past its cluster, in pixels. */
+    private static final int CLUSTER_MARGIN_PX = MAX_CLUSTER_RADIUS + 2;
+    private static final Color CLUSTER = new Color(30, 90, 200, 210);
+    private static final Color HEAT_HIGH     = new Color(255, 0, 0, 170);
+    private static final Color HEAT_MODERATE = new Color(255, 100, 0, 150);
+    private static final Color HEAT_LOW      = new Color(255, 200, 0, 130);
+
+    private double zoom = 1.0;
+
+    // ==== Spatial index ====
+    /** Cells per side of an index tile; at most 5, so a tile's cells fit the bits of an int. */
+    static final int TILE = 4;
+    private Tile[] tiles;
+    private int tileCols, tileRows;
+    private final List<Tile> fireTiles = new ArrayList<>();      // tiles holding fire cells
+    private final List<ZoneRect> visibleZones = new ArrayList<>(); // scratch for one paint
+    private int zoneStamp;
+    private boolean[] covered = new boolean[16];                 // scratch for drawDrones
+    private final Map<Long, BufferedImage> markers = new HashMap<>(); // cluster marker sprites
+
     public MapPanel() {
         setBackground(Color.LIGHT_GRAY);
         setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
@@ -38,6 +131,55 @@ public class MapPanel extends JPanel {
         zones.add(new ZoneRect(2, 15, 0, 29, 14));
         zones.add(new ZoneRect(3, 0, 15, 14, 29));
         zones.add(new ZoneRect(4, 15, 15, 29, 29));
+        for (ZoneRect z : zones) zoneById.put(z.id, z);
+        buildTiles();
+
+        // Wheel zooms around the pointer, dragging pans the enclosing viewport
+        MouseAdapter navigation = new MouseAdapter() {
+            private Point dragFrom;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragFrom = e.getLocationOnScreen();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragFrom == null) return;
+                Point now = e.getLocationOnScreen();
+                pan(dragFrom.x - now.x, dragFrom.y - now.y);
+                dragFrom = now;
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragFrom = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAt(zoom * Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getPoint());
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    /** Names the zone under the pointer, and the water its fire needs. */
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        Zone zone = zoneAt(e.getPoint());
+        if (zone == null) return null;
+        Integer water = fireSeverityMap.get(zone.getId());
+        return "Zone " + zone.getId() + (water != null && water > 0 ? ": fire, " + water + "L needed" : "");
+    }
+
+    /** The zone under panel point {@code p}, at the current zoom. */
+    Zone zoneAt(Point p) {
+        double cellPx = CELL_SIZE_PX * zoom;
+        return zoneIndex.zoneAt((int) Math.floor(p.x / cellPx), (int) Math.floor(p.y / cellPx));
     }
 
     /**
@@ -47,6 +189,7 @@ public class MapPanel extends JPanel {
      */
     public void setZones(Map<Integer, Zone> schedulerZones) {
         zones.clear();
+        zoneById.clear();
         fireCells.clear();
         cellWaterNeeded.clear();
         extinguishingCells.clear();
@@ -55,27 +198,378 @@ public class MapPanel extends JPanel {
         int maxCol = 0;
         int maxRow = 0;
         for (Zone sz : schedulerZones.values()) {
-            zones.add(new ZoneRect(sz.getId(), sz.getXMin(), sz.getYMin(), sz.getXMax(), sz.getYMax()));
+            ZoneRect rect = new ZoneRect(sz.getId(), sz.getXMin(), sz.getYMin(), sz.getXMax(), sz.getYMax());
+            zones.add(rect);
+            zoneById.put(rect.id, rect);
             maxCol = Math.max(maxCol, sz.getXMax());
             maxRow = Math.max(maxRow, sz.getYMax());
         }
+        zoneIndex = ZoneIndex.of(schedulerZones.values());
         // Grid exactly fits the loaded zones — no fixed minimum
         gridCols = maxCol + 1;
         gridRows = maxRow + 1;
+        buildTiles();
+        invalidateLayers();
         invalidate();
         revalidate();
         repaint();
     }
 
+    // ==== Zoom and pan ====
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    /** Zooms to {@code zoom} (1 = 25 pixels per cell), keeping the middle of the view in place. */
+    public void setZoom(double zoom) {
+        Rectangle view = getVisibleRect();
+        zoomAt(zoom, new Point(view.x + view.width / 2, view.y + view.height / 2));
+    }
+
+    /** Zooms so the whole grid fits the view. */
+    public void zoomToFit() {
+        Container parent = getParent();
+        Dimension room = parent instanceof JViewport ? ((JViewport) parent).getExtentSize() : getSize();
+        if (room.width <= 0 || room.height <= 0) return;
+        double fit = Math.min((room.width - 40) / (double) (gridCols * CELL_SIZE_PX),
+                (room.height - LEGEND_HEIGHT) / (double) (gridRows * CELL_SIZE_PX));
+        zoomAt(fit, new Point(0, 0));
+    }
+
+    /**
+     * Zooms to {@code newZoom}, keeping the map point under {@code anchor}
+     * (panel coordinates) where it is on screen.
+     */
+    void zoomAt(double newZoom, Point anchor) {
+        newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, newZoom));
+        if (newZoom == zoom) return;
+        double factor = newZoom / zoom;
+        zoom = newZoom;
+        invalidateLayers();
+
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            JViewport viewport = (JViewport) parent;
+            Point from = viewport.getViewPosition();
+            setSize(getPreferredSize());   // so the new position is in range before layout
+            viewport.setViewPosition(clampView(viewport,
+                    (int) Math.round(anchor.x * factor) - (anchor.x - from.x),
+                    (int) Math.round(anchor.y * factor) - (anchor.y - from.y)));
+        }
+        revalidate();
+        repaint();
+    }
+
+    /** Scrolls the enclosing viewport by (dx, dy) pixels. */
+    private void pan(int dx, int dy) {
+        if (!(getParent() instanceof JViewport)) return;
+        JViewport viewport = (JViewport) getParent();
+        Point from = viewport.getViewPosition();
+        viewport.setViewPosition(clampView(viewport, from.x + dx, from.y + dy));
+    }
+
+    private Point clampView(JViewport viewport, int x, int y) {
+        Dimension extent = viewport.getExtentSize();
+        return new Point(Math.max(0, Math.min(x, getWidth() - extent.width)),
+                Math.max(0, Math.min(y, getHeight() - extent.height)));
+    }
+
+    /** Whether cells are big enough to draw drones and fire cells one by one. */
+    private boolean detailed() {
+        return CELL_SIZE_PX * zoom >= DETAIL_CELL_PX;
+    }
+
+    /** Cells per side of a drone cluster at the current zoom: whole tiles, at least {@value #CLUSTER_PX} pixels. */
+    private int clusterSpan() {
+        int span = TILE;
+        while (span * CELL_SIZE_PX * zoom < CLUSTER_PX) span *= 2;
+        return span;
+    }
+
+    private int gridWidth() {
+        return (int) Math.ceil(gridCols * CELL_SIZE_PX * zoom);
+    }
+
+    private int gridHeight() {
+        return (int) Math.ceil(gridRows * CELL_SIZE_PX * zoom);
+    }
+
+    /** Graphics drawing in map coordinates, {@link #CELL_SIZE_PX} pixels per cell. */
+    private Graphics2D mapGraphics(Graphics2D g2d) {
+        Graphics2D map = (Graphics2D) g2d.create();
+        if (zoom != 1) map.scale(zoom, zoom);
+        return map;
+    }
+
+    /** Map coordinates to panel pixels, rounded outwards. */
+    private Rectangle toScreen(Rectangle r) {
+        if (zoom == 1) return r;
+        int x1 = (int) Math.floor(r.x * zoom) - 1;
+        int y1 = (int) Math.floor(r.y * zoom) - 1;
+        int x2 = (int) Math.ceil((r.x + r.width) * zoom) + 1;
+        int y2 = (int) Math.ceil((r.y + r.height) * zoom) + 1;
+        return new Rectangle(x1, y1, x2 - x1, y2 - y1);
+    }
+
+    // ==== Spatial index ====
+
+    /** Re-creates the tile index for the current grid and zones, and re-files the drones. */
+    private void buildTiles() {
+        tileCols = (gridCols + TILE - 1) / TILE;
+        tileRows = (gridRows + TILE - 1) / TILE;
+        tiles = new Tile[tileCols * tileRows];
+        fireTiles.clear();
+        for (ZoneRect zone : zones) {
+            for (int ty = tileRow(zone.y1); ty <= tileRow(zone.y2); ty++) {
+                for (int tx = tileCol(zone.x1); tx <= tileCol(zone.x2); tx++) {
+                    tile(tx, ty).zones.add(zone);
+                }
+            }
+        }
+        for (DroneSprite sprite : drones.values()) addSprite(sprite);
+    }
+
+    // Cells outside the grid are filed under the nearest edge tile
+    private int tileCol(int col) {
+        return Math.max(0, Math.min(tileCols - 1, Math.floorDiv(col, TILE)));
+    }
+
+    private int tileRow(int row) {
+        return Math.max(0, Math.min(tileRows - 1, Math.floorDiv(row, TILE)));
+    }
+
+    private Tile tile(int tx, int ty) {
+        int i = ty * tileCols + tx;
+        Tile t = tiles[i];
+        if (t == null) tiles[i] = t = new Tile();
+        return t;
+    }
+
+    private Tile tileAt(int col, int row) {
+        return tile(tileCol(col), tileRow(row));
+    }
+
     /**
-     * Update drone positions and fire data from scheduler
+     * Tiles whose cells, or sprites spilling one cell out of them, can reach
+     * into {@code clip} (map coordinates), as a rectangle of tile indexes;
+     * every tile when the clip is {@code null}.
+     */
+    private Rectangle tilesIn(Rectangle clip) {
+        if (clip == null) return new Rectangle(0, 0, tileCols, tileRows);
+        int tx0 = tileCol(Math.floorDiv(clip.x, CELL_SIZE_PX) - 1);
+        int ty0 = tileRow(Math.floorDiv(clip.y, CELL_SIZE_PX) - 1);
+        int tx1 = tileCol(Math.floorDiv(clip.x + clip.width, CELL_SIZE_PX) + 1);
+        int ty1 = tileRow(Math.floorDiv(clip.y + clip.height, CELL_SIZE_PX) + 1);
+        return new Rectangle(tx0, ty0, tx1 - tx0 + 1, ty1 - ty0 + 1);
+    }
+
+    /** Zones overlapping the tiles under {@code clip}, each once; every zone when the clip is {@code null}. */
+    private List<ZoneRect> zonesIn(Rectangle clip) {
+        if (clip == null) return zones;
+        visibleZones.clear();
+        int stamp = ++zoneStamp;
+        Rectangle r = tilesIn(clip);
+        for (int ty = r.y; ty < r.y + r.height; ty++) {
+            for (int tx = r.x; tx < r.x + r.width; tx++) {
+                Tile t = tiles[ty * tileCols + tx];
+                if (t == null) continue;
+                for (ZoneRect zone : t.zones) {
+                    if (zone.stamp == stamp) continue;
+                    zone.stamp = stamp;
+                    visibleZones.add(zone);
+                }
+            }
+        }
+        return visibleZones;
+    }
+
+    private void addSprite(DroneSprite sprite) {
+        Tile t = tileAt(sprite.x, sprite.y);
+        t.drones.add(sprite);
+        t.sumX += clampCol(sprite.x);
+        t.sumY += clampRow(sprite.y);
+        if (isFaulted(sprite.state)) t.faulted++;
+        sprite.tile = t;
+    }
+
+    /** Takes the sprite out of its tile; call before changing its cell or state. */
+    private void removeSprite(DroneSprite sprite) {
+        Tile t = sprite.tile;
+        t.drones.remove(sprite);
+        t.sumX -= clampCol(sprite.x);
+        t.sumY -= clampRow(sprite.y);
+        if (isFaulted(sprite.state)) t.faulted--;
+        sprite.tile = null;
+    }
+
+    private int clampCol(int col) {
+        return Math.max(0, Math.min(gridCols - 1, col));
+    }
+
+    private int clampRow(int row) {
+        return Math.max(0, Math.min(gridRows - 1, row));
+    }
+
+    private static boolean isFaulted(String state) {
+        return "FAULTED".equals(state) || "DECOMMISSIONED".equals(state);
+    }
+
+    /**
+     * Update drone positions and fire data from scheduler, and repaint only
+     * the regions that changed since the last update
      */
     public void updateDronesAndFires(Map<Integer, DroneInfo> droneMap,
                                      Map<Integer, Integer> zoneWater) {
-        this.drones = droneMap;
-        this.fireSeverityMap = zoneWater;
+        DirtyRegions dirty = new DirtyRegions();
+
+        // Drones: diff against the sprites drawn last time
+        int generation = ++updateGeneration;
+        for (DroneInfo info : droneMap.values()) {
+            if (info == null) continue;
+            int x = info.x, y = info.y;       // read once; the Scheduler keeps updating them
+            String state = info.state;
+            DroneSprite sprite = drones.get(info.droneId);
+            if (sprite == null) {
+                sprite = new DroneSprite(info.droneId, x, y, state);
+                drones.put(info.droneId, sprite);
+                addSprite(sprite);
+                addCell(dirty, x, y);
+            } else if (sprite.x != x || sprite.y != y || !Objects.equals(sprite.state, state)) {
+                addCell(dirty, sprite.x, sprite.y);
+                addCell(dirty, x, y);
+                removeSprite(sprite);
+                sprite.x     = x;
+                sprite.y     = y;
+                sprite.state = state;
+                addSprite(sprite);
+            }
+            sprite.generation = generation;
+        }
+        for (Iterator<DroneSprite> it = drones.values().iterator(); it.hasNext(); ) {
+            DroneSprite sprite = it.next();
+            if (sprite.generation != generation) {
+                addCell(dirty, sprite.x, sprite.y);
+                removeSprite(sprite);
+                it.remove();
+            }
+        }
+
+        // Zones whose fill flips between idle and burning
+        Map<Integer, Integer> previous = fireSeverityMap;
+        this.fireSeverityMap = new HashMap<>(zoneWater);
+        for (Integer zoneId : previous.keySet()) {
+            if (isBurning(previous, zoneId) != isBurning(zoneWater, zoneId)) addZone(dirty, zoneId);
+        }
+        for (Integer zoneId : zoneWater.keySet()) {
+            if (!previous.containsKey(zoneId) && isBurning(zoneWater, zoneId)) addZone(dirty, zoneId);
+        }
+
+        // Fire cells that appeared, changed or went out
+        Map<Point, Integer> previousCells = cellWaterNeeded;
+        cellWaterNeeded = new HashMap<>();
         updateFireCells(zoneWater);
-        repaint();
+        for (Map.Entry<Point, Integer> e : previousCells.entrySet()) {
+            if (!e.getValue().equals(cellWaterNeeded.get(e.getKey()))) addCell(dirty, e.getKey().x, e.getKey().y);
+        }
+        for (Point cell : cellWaterNeeded.keySet()) {
+            if (!previousCells.containsKey(cell)) addCell(dirty, cell.x, cell.y);
+        }
+
+        repaint(dirty);
+    }
+
+    /**
+     * Applies only what changed, as pushed by the Scheduler's
+     * {@link ChangeFeed}: the drones that moved or changed state, and the
+     * water still needed in the zones whose fire changed (0 once out).
+     * Drones and zones not mentioned keep their last state, and only the
+     * changed regions are repainted.
+     */
+    public void applyChanges(Collection<DroneInfo> changedDrones,
+                             Map<Integer, Integer> changedZoneWater) {
+        DirtyRegions dirty = new DirtyRegions();
+
+        for (DroneInfo info : changedDrones) {
+            DroneSprite sprite = drones.get(info.droneId);
+            if (sprite == null) {
+                sprite = new DroneSprite(info.droneId, info.x, info.y, info.state);
+                drones.put(info.droneId, sprite);
+                addSprite(sprite);
+                addCell(dirty, info.x, info.y);
+            } else if (sprite.x != info.x || sprite.y != info.y || !Objects.equals(sprite.state, info.state)) {
+                addCell(dirty, sprite.x, sprite.y);
+                addCell(dirty, info.x, info.y);
+                removeSprite(sprite);
+                sprite.x     = info.x;
+                sprite.y     = info.y;
+                sprite.state = info.state;
+                addSprite(sprite);
+            }
+            sprite.generation = updateGeneration;
+        }
+
+        for (Map.Entry<Integer, Integer> e : changedZoneWater.entrySet()) {
+            int zoneId = e.getKey();
+            int water  = e.getValue();
+            if (isBurning(zoneId) != water > 0) addZone(dirty, zoneId);
+            if (water > 0) fireSeverityMap.put(zoneId, water);
+            else           fireSeverityMap.remove(zoneId);
+
+            List<Point> old = removeZoneFireCells(zoneId);
+            if (old != null) for (Point cell : old) addCell(dirty, cell.x, cell.y);
+            List<Point> cells = addZoneFireCells(zoneId, water);
+            if (cells != null) for (Point cell : cells) addCell(dirty, cell.x, cell.y);
+        }
+
+        repaint(dirty);
+    }
+
+    /**
+     * Marks the area a sprite in cell (x, y) can cover. Fire and drone labels
+     * spill past their cell, so one cell of margin is added on every side.
+     * Zoomed out, the cell's whole cluster is marked, plus the reach of its
+     * marker.
+     */
+    private void addCell(DirtyRegions dirty, int x, int y) {
+        if (detailed()) {
+            dirty.add((x - 1) * CELL_SIZE_PX, (y - 1) * CELL_SIZE_PX, 3 * CELL_SIZE_PX, 3 * CELL_SIZE_PX);
+            return;
+        }
+        int span   = clusterSpan();
+        int margin = (int) Math.ceil(CLUSTER_MARGIN_PX / zoom);
+        int size   = span * CELL_SIZE_PX + 2 * margin;
+        dirty.add(Math.floorDiv(clampCol(x), span) * span * CELL_SIZE_PX - margin,
+                Math.floorDiv(clampRow(y), span) * span * CELL_SIZE_PX - margin, size, size);
+    }
+
+    private void addZone(DirtyRegions dirty, int zoneId) {
+        ZoneRect zone = zoneById.get(zoneId);
+        if (zone == null) return;
+        dirty.add(zone.x1 * CELL_SIZE_PX, zone.y1 * CELL_SIZE_PX,
+                (zone.x2 - zone.x1 + 1) * CELL_SIZE_PX, (zone.y2 - zone.y1 + 1) * CELL_SIZE_PX);
+    }
+
+    /**
+     * Repaints the changed regions. Swing's RepaintManager merges every
+     * request for a component into one bounding box, so a few scattered
+     * changes would still repaint most of the map; on the EDT those are
+     * painted one by one instead. Many regions, or regions that nearly fill
+     * their bounding box anyway, go through one ordinary repaint. Regions
+     * are kept in map coordinates and scaled to the zoom here.
+     */
+    private void repaint(DirtyRegions dirty) {
+        if (dirty.isEmpty()) return;
+        if (dirty.isSparse() && paintsSeparately()) {
+            for (Rectangle r : dirty.regions) paintImmediately(toScreen(r));
+        } else {
+            repaint(toScreen(dirty.getBounds()));
+        }
+    }
+
+    /** Whether regions can be painted synchronously right now. */
+    boolean paintsSeparately() {
+        return isShowing() && SwingUtilities.isEventDispatchThread();
     }
 
     /**
@@ -84,29 +578,67 @@ public class MapPanel extends JPanel {
     private void updateFireCells(Map<Integer, Integer> zoneWater) {
         fireCells.clear();
         cellWaterNeeded.clear();
+        for (Tile t : fireTiles) {
+            t.fires.clear();
+            t.heat = 0;
+            t.listed = false;
+        }
+        fireTiles.clear();
 
         for (Map.Entry<Integer, Integer> entry : zoneWater.entrySet()) {
-            int zoneId = entry.getKey();
-            int totalWater = entry.getValue();
-
-            if (totalWater > 0) {
-                ZoneRect zone = getZoneById(zoneId);
-                if (zone != null) {
-                    int numFireCells = (int) Math.ceil(totalWater / 5.0);
-                    List<Point> cells = generateCenterFireCells(zone, numFireCells);
-                    fireCells.put(zoneId, cells);
-
-                    int waterPerCell = totalWater / numFireCells;
-                    int remainder = totalWater % numFireCells;
-
-                    for (int i = 0; i < cells.size(); i++) {
-                        Point cell = cells.get(i);
-                        int cellWater = waterPerCell + (i < remainder ? 1 : 0);
-                        cellWaterNeeded.put(cell, cellWater);
-                    }
+            addZoneFireCells(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /** Spreads a zone's water over fire cells at its center; returns the cells, or null if none. */
+    private List<Point> addZoneFireCells(int zoneId, int totalWater) {
+        if (totalWater <= 0) return null;
+        ZoneRect zone = getZoneById(zoneId);
+        if (zone == null) return null;
+
+        int numFireCells = (int) Math.ceil(totalWater / 5.0);
+        List<Point> cells = generateCenterFireCells(zone, numFireCells);
+        fireCells.put(zoneId, cells);
+
+        int waterPerCell = totalWater / numFireCells;
+        int remainder = totalWater % numFireCells;
+
+        for (int i = 0; i < cells.size(); i++) {
+            Point cell = cells.get(i);
+            int cellWater = waterPerCell + (i < remainder ? 1 : 0);
+            Integer previous = cellWaterNeeded.put(cell, cellWater);
+            Tile t = tileAt(cell.x, cell.y);
+            if (previous == null) {
+                if (!t.listed) {
+                    t.listed = true;
+                    fireTiles.add(t);
                 }
+                t.fires.add(cell);
+                t.heat += cellWater;
+            } else {
+                t.heat += cellWater - previous;  // small zones clamp cells together
             }
         }
+        return cells;
+    }
+
+    /**
+     * Takes a zone's fire cells off the map; returns them, or null if it had
+     * none. Zones do not overlap, so no other zone shares the cells. Their
+     * tiles stay in {@code fireTiles}, possibly empty, until the next full
+     * update.
+     */
+    private List<Point> removeZoneFireCells(int zoneId) {
+        List<Point> cells = fireCells.remove(zoneId);
+        if (cells == null) return null;
+        for (Point cell : cells) {
+            Integer water = cellWaterNeeded.remove(cell);
+            if (water == null) continue;                  // clamped duplicate, already removed
+            Tile t = tileAt(cell.x, cell.y);
+            t.fires.remove(cell);
+            t.heat -= water;
+        }
+        return cells;
     }
 
     /**
@@ -136,7 +668,9 @@ public class MapPanel extends JPanel {
      */
     public void markCellExtinguishing(int x, int y) {
         extinguishingCells.add(new Point(x, y));
-        repaint();
+        DirtyRegions dirty = new DirtyRegions();
+        addCell(dirty, x, y);
+        repaint(dirty);
     }
 
     /**
@@ -145,24 +679,35 @@ public class MapPanel extends JPanel {
     public void markCellExtinguished(int x, int y) {
         Point cell = new Point(x, y);
         extinguishingCells.remove(cell);
-        cellWaterNeeded.remove(cell);
+        Integer water = cellWaterNeeded.remove(cell);
+        if (water != null) {
+            Tile t = tileAt(x, y);
+            t.fires.remove(cell);
+            t.heat -= water;
+        }
 
         for (List<Point> cells : fireCells.values()) {
             cells.remove(cell);
         }
-        repaint();
+        DirtyRegions dirty = new DirtyRegions();
+        addCell(dirty, x, y);
+        repaint(dirty);
     }
 
     /**
      * Get the background color for a zone based on fire status
      */
     private Color getZoneBackgroundColor(int zoneId) {
-        Integer waterNeeded = fireSeverityMap.get(zoneId);
-        if (waterNeeded == null || waterNeeded == 0) {
-            return new Color(200, 255, 200, 50);
-        } else {
-            return new Color(255, 200, 200, 30);
-        }
+        return isBurning(zoneId) ? ZONE_BURNING : ZONE_IDLE;
+    }
+
+    private boolean isBurning(int zoneId) {
+        return isBurning(fireSeverityMap, zoneId);
+    }
+
+    private static boolean isBurning(Map<Integer, Integer> zoneWater, int zoneId) {
+        Integer waterNeeded = zoneWater.get(zoneId);
+        return waterNeeded != null && waterNeeded != 0;
     }
 
     @Override
@@ -170,134 +715,385 @@ public class MapPanel extends JPanel {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
 
-        drawGrid(g2d);
-        drawZoneBackgrounds(g2d);
-        drawFireCells(g2d);
-        drawZoneBorders(g2d);
-        drawDrones(g2d);
-        drawTitleAndLegend(g2d);
+        if (cacheLayers && (!layersValid || !getBackground().equals(layerBackground))) buildLayers();
+        boolean cached = cacheLayers && staticLayer != null;
+        if (cached) {
+            g2d.drawImage(staticLayer, 0, 0, null);
+            drawBurningZones(g2d);
+        }
+
+        Graphics2D map = mapGraphics(g2d);
+        Rectangle clip = map.getClipBounds();
+        if (!cached) {   // the same layers, in the same order, as the cache
+            List<ZoneRect> visible = zonesIn(clip);
+            drawGrid(map, clip);
+            drawZoneBackgrounds(map, visible);
+            drawZoneBorders(map, visible);
+            drawTitleAndLegend(g2d);
+        }
+        drawFires(map, clip);
+        // Fire cells never reach a border, but can cover a small zone's label
+        if (detailed()) {
+            for (Integer zoneId : fireCells.keySet()) {
+                ZoneRect zone = zoneById.get(zoneId);
+                if (zone != null) drawZoneLabel(map, zone);
+            }
+            drawDrones(map, clip);
+        }
+        map.dispose();
+
+        if (!detailed()) drawClusters(g2d);
+    }
+
+    // ==== Layer cache ====
+
+    /** Drops the cached layers; they are rebuilt on the next paint. */
+    private void invalidateLayers() {
+        layersValid  = false;
+        staticLayer  = null;
+        burningLayer = null;
+    }
+
+    /**
+     * Renders the static layers onto the panel background, at the current
+     * zoom, so they are opaque and each frame's blit is a plain copy. Leaves
+     * them {@code null} (direct drawing) when the map is too large to cache.
+     */
+    private void buildLayers() {
+        layersValid     = true;
+        layerBackground = getBackground();
+        staticLayer     = null;
+        burningLayer    = null;
+        int gridW = gridWidth() + 1;
+        int gridH = gridHeight() + 1;
+        int w = Math.max(gridW + 1, LEGEND_WIDTH);
+        int h = gridH + LEGEND_HEIGHT;
+        if ((long) w * h > MAX_CACHE_PIXELS) return;
+
+        staticLayer  = newLayer(w, h);
+        burningLayer = newLayer(gridW + 1, gridH);
+        for (BufferedImage layer : new BufferedImage[]{staticLayer, burningLayer}) {
+            Graphics2D g = layer.createGraphics();
+            g.setColor(layerBackground);
+            g.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+            Graphics2D map = mapGraphics(g);
+            drawGrid(map, null);
+            Color fill = layer == staticLayer ? ZONE_IDLE : ZONE_BURNING;
+            for (ZoneRect zone : zones) fillZone(map, zone, fill);
+            drawZoneBorders(map, zones);
+            map.dispose();
+            if (layer == staticLayer) drawTitleAndLegend(g);
+            g.dispose();
+        }
     }
 
-    private void drawGrid(Graphics2D g2d) {
+    private BufferedImage newLayer(int w, int h) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        return gc != null
+                ? gc.createCompatibleImage(w, h, Transparency.OPAQUE)
+                : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /** Swaps each burning zone's idle fill for the burning one, copied from its layer. */
+    private void drawBurningZones(Graphics2D g2d) {
+        Rectangle clip = g2d.getClipBounds();
+        for (Map.Entry<Integer, Integer> e : fireSeverityMap.entrySet()) {
+            if (e.getValue() == null || e.getValue() == 0) continue;
+            ZoneRect zone = zoneById.get(e.getKey());
+            if (zone == null) continue;
+            int x1 = (int) Math.round(zone.x1 * CELL_SIZE_PX * zoom);
+            int y1 = (int) Math.round(zone.y1 * CELL_SIZE_PX * zoom);
+            int x2 = Math.min((int) Math.round((zone.x2 + 1) * CELL_SIZE_PX * zoom), burningLayer.getWidth());
+            int y2 = Math.min((int) Math.round((zone.y2 + 1) * CELL_SIZE_PX * zoom), burningLayer.getHeight());
+            if (clip != null && !clip.intersects(x1, y1, x2 - x1, y2 - y1)) continue;
+            g2d.drawImage(burningLayer, x1, y1, x2, y2, x1, y1, x2, y2, null);
+        }
+    }
+
+    /** Grid lines crossing the clip; none once cells are too small for them to show. */
+    private void drawGrid(Graphics2D g2d, Rectangle clip) {
+        if (CELL_SIZE_PX * zoom < GRID_CELL_PX) return;
+        int c0 = 0, c1 = gridCols, r0 = 0, r1 = gridRows;
+        if (clip != null) {
+            c0 = Math.max(c0, Math.floorDiv(clip.x, CELL_SIZE_PX));
+            c1 = Math.min(c1, Math.floorDiv(clip.x + clip.width, CELL_SIZE_PX) + 1);
+            r0 = Math.max(r0, Math.floorDiv(clip.y, CELL_SIZE_PX));
+            r1 = Math.min(r1, Math.floorDiv(clip.y + clip.height, CELL_SIZE_PX) + 1);
+        }
         g2d.setColor(Color.GRAY);
-        for (int x = 0; x <= gridCols * CELL_SIZE_PX; x += CELL_SIZE_PX) {
-            g2d.drawLine(x, 0, x, gridRows * CELL_SIZE_PX);
+        for (int c = c0; c <= c1; c++) {
+            g2d.drawLine(c * CELL_SIZE_PX, r0 * CELL_SIZE_PX, c * CELL_SIZE_PX, r1 * CELL_SIZE_PX);
         }
-        for (int y = 0; y <= gridRows * CELL_SIZE_PX; y += CELL_SIZE_PX) {
-            g2d.drawLine(0, y, gridCols * CELL_SIZE_PX, y);
+        for (int r = r0; r <= r1; r++) {
+            g2d.drawLine(c0 * CELL_SIZE_PX, r * CELL_SIZE_PX, c1 * CELL_SIZE_PX, r * CELL_SIZE_PX);
         }
     }
 
-    private void drawZoneBackgrounds(Graphics2D g2d) {
-        for (ZoneRect zone : zones) {
-            int x1 = zone.x1 * CELL_SIZE_PX;
-            int y1 = zone.y1 * CELL_SIZE_PX;
-            int width = (zone.x2 - zone.x1 + 1) * CELL_SIZE_PX;
-            int height = (zone.y2 - zone.y1 + 1) * CELL_SIZE_PX;
+    private void drawZoneBackgrounds(Graphics2D g2d, List<ZoneRect> visible) {
+        for (ZoneRect zone : visible) {
+            fillZone(g2d, zone, getZoneBackgroundColor(zone.id));
+        }
+    }
+
+    private void fillZone(Graphics2D g2d, ZoneRect zone, Color color) {
+        int x1 = zone.x1 * CELL_SIZE_PX;
+        int y1 = zone.y1 * CELL_SIZE_PX;
+        int width = (zone.x2 - zone.x1 + 1) * CELL_SIZE_PX;
+        int height = (zone.y2 - zone.y1 + 1) * CELL_SIZE_PX;
+
+        g2d.setColor(color);
+        g2d.fillRect(x1, y1, width, height);
+    }
 
-            g2d.setColor(getZoneBackgroundColor(zone.id));
-            g2d.fillRect(x1, y1, width, height);
+    private void drawFires(Graphics2D g2d, Rectangle clip) {
+        if (detailed()) drawFireCells(g2d, clip);
+        else drawHeatTiles(g2d, clip);
+    }
+
+    private void drawFireCells(Graphics2D g2d, Rectangle clip) {
+        Rectangle r = tilesIn(clip);
+        for (int ty = r.y; ty < r.y + r.height; ty++) {
+            for (int tx = r.x; tx < r.x + r.width; tx++) {
+                Tile t = tiles[ty * tileCols + tx];
+                if (t == null) continue;
+                for (Point cell : t.fires) drawFireCell(g2d, clip, cell);
+            }
         }
     }
 
-    private void drawFireCells(Graphics2D g2d) {
-        for (Map.Entry<Point, Integer> entry : cellWaterNeeded.entrySet()) {
-            Point cell = entry.getKey();
-            int waterNeeded = entry.getValue();
+    private void drawFireCell(Graphics2D g2d, Rectangle clip, Point cell) {
+        int waterNeeded = cellWaterNeeded.get(cell);
 
-            int x = cell.x * CELL_SIZE_PX;
-            int y = cell.y * CELL_SIZE_PX;
+        int x = cell.x * CELL_SIZE_PX;
+        int y = cell.y * CELL_SIZE_PX;
+        if (!inClip(clip, x, y)) return;
 
-            if (extinguishingCells.contains(cell)) {
-                g2d.setColor(new Color(255, 255, 0, 200));
+        if (extinguishingCells.contains(cell)) {
+            g2d.setColor(CELL_EXTINGUISHING);
+        } else {
+            if (waterNeeded >= 4) {
+                g2d.setColor(CELL_HIGH);
+            } else if (waterNeeded >= 2) {
+                g2d.setColor(CELL_MODERATE);
             } else {
-                if (waterNeeded >= 4) {
-                    g2d.setColor(new Color(255, 0, 0, 220));
-                } else if (waterNeeded >= 2) {
-                    g2d.setColor(new Color(255, 100, 0, 220));
-                } else {
-                    g2d.setColor(new Color(255, 200, 0, 220));
-                }
+                g2d.setColor(CELL_LOW);
             }
+        }
 
-            g2d.fillRect(x + 2, y + 2, CELL_SIZE_PX - 4, CELL_SIZE_PX - 4);
+        g2d.fillRect(x + 2, y + 2, CELL_SIZE_PX - 4, CELL_SIZE_PX - 4);
 
-            g2d.setColor(Color.WHITE);
-            g2d.setFont(new Font("Arial", Font.BOLD, 12));
-            g2d.drawString("🔥", x + 6, y + 18);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(FIRE_FONT);
+        g2d.drawString("🔥", x + 6, y + 18);
 
-            g2d.setColor(Color.BLACK);
-            g2d.setFont(new Font("Arial", Font.BOLD, 8));
-            g2d.drawString(waterNeeded + "L", x + 8, y + 28);
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(WATER_FONT);
+        g2d.drawString(waterNeeded + "L", x + 8, y + 28);
+    }
+
+    /** Zoomed out: each tile with fire cells, shaded by the water they need. */
+    private void drawHeatTiles(Graphics2D g2d, Rectangle clip) {
+        Rectangle r = tilesIn(clip);
+        int size = TILE * CELL_SIZE_PX;
+        for (int ty = r.y; ty < r.y + r.height; ty++) {
+            for (int tx = r.x; tx < r.x + r.width; tx++) {
+                Tile t = tiles[ty * tileCols + tx];
+                if (t == null || t.heat <= 0) continue;
+                g2d.setColor(t.heat >= 16 ? HEAT_HIGH : t.heat >= 6 ? HEAT_MODERATE : HEAT_LOW);
+                g2d.fillRect(tx * size, ty * size, size, size);
+            }
         }
     }
 
-    private void drawZoneBorders(Graphics2D g2d) {
+    private void drawZoneBorders(Graphics2D g2d, List<ZoneRect> visible) {
         g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(2));
+        g2d.setStroke(THICK_STROKE);
 
-        for (ZoneRect zone : zones) {
+        boolean labels = detailed();
+        for (ZoneRect zone : visible) {
             int x1 = zone.x1 * CELL_SIZE_PX;
             int y1 = zone.y1 * CELL_SIZE_PX;
             int width = (zone.x2 - zone.x1 + 1) * CELL_SIZE_PX;
             int height = (zone.y2 - zone.y1 + 1) * CELL_SIZE_PX;
 
             g2d.drawRect(x1, y1, width, height);
-
-            g2d.setFont(new Font("Arial", Font.BOLD, 12));
-            g2d.setColor(Color.BLACK);
-            g2d.drawString("Zone " + zone.id, x1 + 5, y1 + 15);
+            if (labels) drawZoneLabel(g2d, zone);
         }
+        g2d.setStroke(THIN_STROKE);
+    }
+
+    private void drawZoneLabel(Graphics2D g2d, ZoneRect zone) {
+        g2d.setFont(ZONE_LABEL_FONT);
+        g2d.setColor(Color.BLACK);
+        g2d.drawString("Zone " + zone.id, zone.x1 * CELL_SIZE_PX + 5, zone.y1 * CELL_SIZE_PX + 15);
     }
 
-    private void drawDrones(Graphics2D g2d) {
-        if (drones != null && !drones.isEmpty()) {
-            for (DroneInfo drone : drones.values()) {
-                if (drone != null) {
-                    int x = drone.x * CELL_SIZE_PX + CELL_SIZE_PX / 2;
-                    int y = drone.y * CELL_SIZE_PX + CELL_SIZE_PX / 2;
+    /** Whether the sprite for the cell at pixel (x, y) can reach into the clip. */
+    private boolean inClip(Rectangle clip, int x, int y) {
+        return clip == null || clip.intersects(x - CELL_SIZE_PX, y - CELL_SIZE_PX, 3 * CELL_SIZE_PX, 3 * CELL_SIZE_PX);
+    }
 
-                    g2d.setColor(new Color(0, 0, 0, 50));
-                    g2d.fillOval(x - 8, y - 8, 20, 20);
+    /**
+     * Drones under the clip. Drones sharing a cell are drawn on the same
+     * spot, so of those only the one drawn last, which covers the others, is
+     * drawn at all.
+     */
+    private void drawDrones(Graphics2D g2d, Rectangle clip) {
+        Rectangle r = tilesIn(clip);
+        for (int ty = r.y; ty < r.y + r.height; ty++) {
+            for (int tx = r.x; tx < r.x + r.width; tx++) {
+                Tile t = tiles[ty * tileCols + tx];
+                if (t == null || t.drones.isEmpty()) continue;
+                List<DroneSprite> list = t.drones;
+                if (covered.length < list.size()) covered = new boolean[list.size() * 2];
 
-                    Color droneColor;
-                    switch (drone.state) {
-                        case "ONROUTE":        droneColor = Color.BLUE;              break;
-                        case "EXTINGUISHING":  droneColor = new Color(148, 0, 211);  break; // purple
-                        case "REFILLING":      droneColor = Color.CYAN;  break;
-                        case "FAULTED":        droneColor = new Color(255, 191, 0); break;
-                        case "DECOMMISSIONED": droneColor = new Color(200, 50, 50); break;
-                        default:               droneColor = Color.BLACK;
+                // Back to front, one bit per cell of the tile; cells off the grid are always drawn
+                int seen = 0;
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    DroneSprite drone = list.get(i);
+                    int cx = drone.x - tx * TILE, cy = drone.y - ty * TILE;
+                    if (cx < 0 || cx >= TILE || cy < 0 || cy >= TILE) {
+                        covered[i] = false;
+                        continue;
                     }
+                    int bit = 1 << (cy * TILE + cx);
+                    covered[i] = (seen & bit) != 0;
+                    seen |= bit;
+                }
+                for (int i = 0; i < list.size(); i++) {
+                    DroneSprite drone = list.get(i);
+                    if (!covered[i] && inClip(clip, drone.x * CELL_SIZE_PX, drone.y * CELL_SIZE_PX)) drawDrone(g2d, drone);
+                }
+            }
+        }
+    }
+
+    private void drawDrone(Graphics2D g2d, DroneSprite drone) {
+        int x = drone.x * CELL_SIZE_PX + CELL_SIZE_PX / 2;
+        int y = drone.y * CELL_SIZE_PX + CELL_SIZE_PX / 2;
+
+        g2d.setColor(DRONE_SHADOW);
+        g2d.fillOval(x - 8, y - 8, 20, 20);
+
+        g2d.setColor(droneColor(drone.state));
+        g2d.fillOval(x - 8, y - 8, 16, 16);
+
+        if ("DECOMMISSIONED".equals(drone.state)) {
+            g2d.setColor(Color.WHITE);
+            g2d.setStroke(THICK_STROKE);
+            g2d.drawLine(x - 5, y - 5, x + 5, y + 5);
+            g2d.drawLine(x + 5, y - 5, x - 5, y + 5);
+            g2d.setStroke(THIN_STROKE);
+        }
+
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(DRONE_ID_FONT);
+        g2d.drawString(String.valueOf(drone.droneId), x - 4, y + 4);
+    }
+
+    private static Color droneColor(String state) {
+        if (state == null) return Color.BLACK;
+        switch (state) {
+            case "ONROUTE":        return Color.BLUE;
+            case "EXTINGUISHING":  return DRONE_EXTINGUISHING;
+            case "REFILLING":      return Color.CYAN;
+            case "FAULTED":        return DRONE_FAULTED;
+            case "DECOMMISSIONED": return DRONE_DECOMMISSIONED;
+            default:               return Color.BLACK;
+        }
+    }
 
-                    g2d.setColor(droneColor);
-                    g2d.fillOval(x - 8, y - 8, 16, 16);
+    /**
+     * Zoomed out: one marker per cluster of tiles under the clip, at the
+     * drones' centroid, sized by and labelled with their count, and amber if
+     * any of them is faulted. A lone drone is a dot in its state colour.
+     * Drawn in panel pixels so markers stay readable at any zoom.
+     */
+    private void drawClusters(Graphics2D g2d) {
+        double cellPx = CELL_SIZE_PX * zoom;
+        int span = clusterSpan();
+        int per  = span / TILE;
+        int cx0 = 0, cy0 = 0;
+        int cx1 = (tileCols + per - 1) / per - 1;
+        int cy1 = (tileRows + per - 1) / per - 1;
+        Rectangle clip = g2d.getClipBounds();
+        if (clip != null) {   // plus one cluster, which a marker's reach never exceeds
+            cx0 = Math.max(cx0, (int) Math.floor(clip.x / cellPx / span) - 1);
+            cy0 = Math.max(cy0, (int) Math.floor(clip.y / cellPx / span) - 1);
+            cx1 = Math.min(cx1, (int) Math.floor((clip.x + clip.width) / cellPx / span) + 1);
+            cy1 = Math.min(cy1, (int) Math.floor((clip.y + clip.height) / cellPx / span) + 1);
+        }
 
-                    if ("DECOMMISSIONED".equals(drone.state)) {
-                        g2d.setColor(Color.WHITE);
-                        g2d.setStroke(new BasicStroke(2));
-                        g2d.drawLine(x - 5, y - 5, x + 5, y + 5);
-                        g2d.drawLine(x + 5, y - 5, x - 5, y + 5);
-                        g2d.setStroke(new BasicStroke(1));
+        g2d.setFont(DRONE_ID_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int n = 0, faulted = 0;
+                long sumX = 0, sumY = 0;
+                DroneSprite one = null;
+                for (int ty = cy * per; ty < Math.min(tileRows, (cy + 1) * per); ty++) {
+                    for (int tx = cx * per; tx < Math.min(tileCols, (cx + 1) * per); tx++) {
+                        Tile t = tiles[ty * tileCols + tx];
+                        if (t == null || t.drones.isEmpty()) continue;
+                        n       += t.drones.size();
+                        faulted += t.faulted;
+                        sumX    += t.sumX;
+                        sumY    += t.sumY;
+                        one      = t.drones.get(0);
                     }
+                }
+                if (n == 0) continue;
 
-                    g2d.setColor(Color.WHITE);
-                    g2d.setFont(new Font("Arial", Font.BOLD, 10));
-                    g2d.drawString(String.valueOf(drone.droneId), x - 4, y + 4);
+                int x = (int) Math.round((sumX / (double) n + 0.5) * cellPx);
+                int y = (int) Math.round((sumY / (double) n + 0.5) * cellPx);
+                if (n == 1) {
+                    g2d.drawImage(marker(4, droneColor(one.state), false), x - 4, y - 4, null);
+                    continue;
                 }
+                int radius = Math.min(MAX_CLUSTER_RADIUS, 6 + 2 * (31 - Integer.numberOfLeadingZeros(n)));
+                g2d.drawImage(marker(radius, faulted > 0 ? DRONE_FAULTED : CLUSTER, true),
+                        x - radius - 1, y - radius - 1, null);
+                g2d.setColor(Color.WHITE);
+                String label = n < 1000 ? String.valueOf(n) : n / 1000 + "k";
+                g2d.drawString(label, x - fm.stringWidth(label) / 2, y + fm.getAscent() / 2 - 1);
+            }
+        }
+    }
+
+    /**
+     * A disc of {@code radius} in {@code fill}, with a one pixel white ring
+     * when {@code ring}, rendered once and reused: blitting it is several
+     * times cheaper than filling ovals for every marker.
+     */
+    private BufferedImage marker(int radius, Color fill, boolean ring) {
+        long key = (long) fill.getRGB() << 32 | radius << 1 | (ring ? 1 : 0);
+        BufferedImage sprite = markers.get(key);
+        if (sprite == null) {
+            int edge = ring ? 1 : 0;
+            sprite = new BufferedImage(2 * (radius + edge), 2 * (radius + edge), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = sprite.createGraphics();
+            if (ring) {
+                g.setColor(Color.WHITE);
+                g.fillOval(0, 0, sprite.getWidth(), sprite.getHeight());
             }
+            g.setColor(fill);
+            g.fillOval(edge, edge, 2 * radius, 2 * radius);
+            g.dispose();
+            markers.put(key, sprite);
         }
+        return sprite;
     }
 
     private void drawTitleAndLegend(Graphics2D g2d) {
-        int gridH = gridRows * CELL_SIZE_PX;
+        int gridH = gridHeight();
         g2d.setColor(Color.BLACK);
-        g2d.setFont(new Font("Arial", Font.BOLD, 14));
+        g2d.setFont(TITLE_FONT);
         int totalW = gridCols * METERS_PER_CELL;
         int totalH = gridRows * METERS_PER_CELL;
         g2d.drawString(gridCols + "x" + gridRows + " Grid (" + totalW + "m x " + totalH + "m)", 10, gridH + 20);
-        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
-        g2d.drawString("Each cell: " + METERS_PER_CELL + "m x " + METERS_PER_CELL + "m", 10, gridH + 35);
+        g2d.setFont(LEGEND_FONT);
+        g2d.drawString("Each cell: " + METERS_PER_CELL + "m x " + METERS_PER_CELL + "m    Zoom: "
+                + Math.round(zoom * 100) + "% (wheel to zoom, drag to pan)", 10, gridH + 35);
 
         drawLegend(g2d, gridH);
     }
@@ -306,15 +1102,17 @@ public class MapPanel extends JPanel {
         int legendX = 10;
         int legendY = gridH + 50;
 
-        g2d.setColor(new Color(255, 255, 255, 220));
+        g2d.setColor(LEGEND_BACKGROUND);
         g2d.fillRect(legendX, legendY, 200, 160);
         g2d.setColor(Color.BLACK);
+        g2d.setStroke(THICK_STROKE);
         g2d.drawRect(legendX, legendY, 200, 160);
+        g2d.setStroke(THIN_STROKE);
 
-        g2d.setFont(new Font("Arial", Font.BOLD, 12));
+        g2d.setFont(ZONE_LABEL_FONT);
         g2d.drawString("Drone States", legendX + 10, legendY + 20);
 
-        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
+        g2d.setFont(LEGEND_FONT);
 
         g2d.setColor(Color.BLACK);
         g2d.fillOval(legendX + 12, legendY + 30, 12, 12);
@@ -326,7 +1124,7 @@ public class MapPanel extends JPanel {
         g2d.setColor(Color.BLACK);
         g2d.drawString("EN ROUTE", legendX + 30, legendY + 60);
 
-        g2d.setColor(new Color(148, 0, 211));
+        g2d.setColor(DRONE_EXTINGUISHING);
         g2d.fillOval(legendX + 12, legendY + 70, 12, 12);
         g2d.setColor(Color.BLACK);
         g2d.drawString("EXTINGUISHING", legendX + 30, legendY + 80);
@@ -336,12 +1134,12 @@ public class MapPanel extends JPanel {
         g2d.setColor(Color.BLACK);
         g2d.drawString("REFILLING", legendX + 30, legendY + 100);
 
-        g2d.setColor(new Color(255, 191, 0));
+        g2d.setColor(DRONE_FAULTED);
         g2d.fillOval(legendX + 12, legendY + 110, 12, 12);
         g2d.setColor(Color.BLACK);
         g2d.drawString("SOFT FAULT", legendX + 30, legendY + 120);
 
-        g2d.setColor(new Color(200, 50, 50));
+        g2d.setColor(DRONE_DECOMMISSIONED);
         g2d.fillOval(legendX + 12, legendY + 130, 12, 12);
         g2d.setColor(Color.BLACK);
         g2d.drawString("HARD FAULT (offline)", legendX + 30, legendY + 140);
@@ -351,6 +1149,7 @@ public class MapPanel extends JPanel {
     class ZoneRect {
         int id;
         int x1, y1, x2, y2; // Grid coordinates (col/row, 0-indexed)
+        int stamp;          // last paint that collected it, see zonesIn
 
         ZoneRect(int id, int x1, int y1, int x2, int y2) {
             this.id = id;
@@ -361,16 +1160,82 @@ public class MapPanel extends JPanel {
         }
     }
 
-    private ZoneRect getZoneById(int id) {
-        for (ZoneRect zone : zones) {
-            if (zone.id == id) return zone;
+    // Regions changed by one update: kept apart while few, merged where they overlap
+    static class DirtyRegions {
+        /** Most regions painted one by one; beyond this only the bounds are kept. */
+        static final int MAX_REGIONS = 64;
+
+        final List<Rectangle> regions = new ArrayList<>();
+        private final Rectangle bounds = new Rectangle();
+        private boolean overflowed;
+
+        void add(int x, int y, int w, int h) {
+            Rectangle r = new Rectangle(x, y, w, h);
+            if (bounds.isEmpty()) bounds.setBounds(r);
+            else bounds.add(r);
+            if (overflowed) return;
+            for (Iterator<Rectangle> it = regions.iterator(); it.hasNext(); ) {
+                Rectangle other = it.next();
+                if (other.intersects(r)) {
+                    r.add(other);
+                    it.remove();
+                    it = regions.iterator();   // the grown region may now touch others
+                }
+            }
+            regions.add(r);
+            if (regions.size() > MAX_REGIONS) {
+                overflowed = true;
+                regions.clear();
+            }
+        }
+
+        boolean isEmpty() { return bounds.isEmpty(); }
+
+        Rectangle getBounds() { return new Rectangle(bounds); }
+
+        /** Whether painting the regions one by one covers well under half their bounds. */
+        boolean isSparse() {
+            if (overflowed) return false;
+            long area = 0;
+            for (Rectangle r : regions) area += (long) r.width * r.height;
+            return area * 2 < (long) bounds.width * bounds.height;
         }
-        return null;
+    }
+
+    // Drone as last drawn, so repaints match what was diffed
+    static class DroneSprite {
+        final int droneId;
+        int x, y;
+        String state;
+        int generation;
+        Tile tile;      // where it is filed, under its x, y and state
+
+        DroneSprite(int droneId, int x, int y, String state) {
+            this.droneId = droneId;
+            this.x = x;
+            this.y = y;
+            this.state = state;
+        }
+    }
+
+    // One TILE x TILE block of cells: what lies in it, and running totals for clustering
+    static final class Tile {
+        final List<ZoneRect> zones = new ArrayList<>(1);   // zones overlapping the tile
+        final List<DroneSprite> drones = new ArrayList<>(2);
+        final List<Point> fires = new ArrayList<>(0);
+        int heat;          // water needed by the tile's fire cells
+        boolean listed;    // in fireTiles
+        long sumX, sumY;   // of the drones' cells, for the cluster centroid
+        int faulted;       // drones FAULTED or DECOMMISSIONED
+    }
+
+    private ZoneRect getZoneById(int id) {
+        return zoneById.get(id);
     }
 
     @Override
     public Dimension getPreferredSize() {
-        return new Dimension(gridCols * CELL_SIZE_PX + 40,
-                gridRows * CELL_SIZE_PX + 180);
+        return new Dimension(Math.max(gridWidth() + 40, LEGEND_WIDTH),
+                gridHeight() + 180);
     }
 }
@@ -0,0 +1,233 @@
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reusable, allocation-free reader for the pipe-delimited text messages the
+ * subsystems exchange ({@code opcode|arg1|arg2|...}), scanning the received
+ * datagram bytes in place.
+ *
+ * <p>{@link #reset} trims the message as {@link String#trim} would and
+ * records where each field starts and ends; no {@code String} is built.
+ * Fields then come out as what the handlers need:</p>
+ * <ul>
+ *   <li>{@link #opcode} and {@link #word} match a field against a table of
+ *       known words byte by byte and return the table's own constant, so an
+ *       opcode can feed a {@code switch} and a drone state can be stored
+ *       without a copy;</li>
+ *   <li>{@link #intField} parses a decimal straight from the bytes, with the
+ *       same results and errors as {@link Integer#parseInt};</li>
+ *   <li>{@link #stringField} builds a {@code String}, for the free-text
+ *       fields that need one (file paths, unknown words).</li>
+ * </ul>
+ *
+ * <p>It is wire-compatible with the {@code String.split("\\|")} parsing it
+ * replaces: trailing empty fields are not counted, and
+ * {@link #stripTag} removes a {@link SchedulerChannel} correlation tag the
+ * same way the Scheduler did. One reader belongs to one receive loop; it
+ * keeps a reference to the buffer until the next reset.</p>
+ */
+public final class MessageReader {
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /** Longest correlation tag taken as one; a counter never gets near it. */
+    private static final int MAX_TAG_DIGITS = 18;
+
+    private byte[] buf;
+    private int    start, end;            // trimmed message, [start, end)
+    private int[]  from = new int[16];    // field i is [from[i], to[i])
+    private int[]  to   = new int[16];
+    private int    count;
+    private long   tag = -1;
+
+    // ==== Scanning ====
+
+    /** Points the reader at {@code len} bytes of {@code buf} from {@code off}, trimmed, and splits them on '|'. */
+    public MessageReader reset(byte[] buf, int off, int len) {
+        this.buf = buf;
+        int s = off, e = off + len;
+        while (s < e && (buf[s] & 0xFF) <= ' ') s++;
+        while (e > s && (buf[e - 1] & 0xFF) <= ' ') e--;
+        start = s;
+        end   = e;
+        tag   = -1;
+        split();
+        return this;
+    }
+
+    /** {@link #reset} over a whole string, for callers and tests that have one. */
+    public MessageReader reset(String message) {
+        byte[] bytes = message.getBytes(CHARSET);
+        return reset(bytes, 0, bytes.length);
+    }
+
+    private void split() {
+        count = 0;
+        int f = start;
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '|') {
+                addField(f, i);
+                f = i + 1;
+            }
+        }
+        addField(f, end);
+        // Like String.split: trailing empty fields go, unless the message has no '|' at all
+        if (count > 1) {
+            while (count > 0 && from[count - 1] == to[count - 1]) count--;
+        }
+    }
+
+    private void addField(int s, int e) {
+        if (count == from.length) {
+            from = Arrays.copyOf(from, count * 2);
+            to   = Arrays.copyOf(to, count * 2);
+        }
+        from[count] = s;
+        to[count]   = e;
+        count++;
+    }
+
+    /**
+     * Removes a trailing correlation tag ({@code |#<digits>}) if the message
+     * has one, as the Scheduler does before routing a request.
+     *
+     * @return whether a tag was removed; see {@link #tag()}
+     */
+    public boolean stripTag() {
+        for (int i = end - 1; i > start; i--) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') continue;
+            int digits = end - 1 - i;
+            if (b != '#' || buf[i - 1] != '|' || digits == 0 || digits > MAX_TAG_DIGITS) return false;
+            long t = 0;
+            for (int d = i + 1; d < end; d++) t = t * 10 + (buf[d] - '0');
+            tag = t;
+            end = i - 1;
+            // The tag was the last field; without it, trailing empty fields go as split would drop them
+            count--;
+            if (count > 1) {
+                while (count > 0 && from[count - 1] == to[count - 1]) count--;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /** The tag {@link #stripTag} removed, or -1. */
+    public long tag() {
+        return tag;
+    }
+
+    // ==== Fields ====
+
+    /** Number of fields, counted as {@code String.split("\\|").length} would. */
+    public int fieldCount() {
+        return count;
+    }
+
+    /**
+     * Field 0 matched against {@code opcodes}.
+     *
+     * @return the matching element of {@code opcodes} itself, or
+     *         {@code null} if none matches
+     */
+    public String opcode(String[] opcodes) {
+        return count == 0 ? null : word(0, opcodes);
+    }
+
+    /**
+     * Field {@code i} matched against {@code words}, byte for byte (the
+     * words must be ASCII).
+     *
+     * @return the matching element of {@code words} itself, or {@code null}
+     */
+    public String word(int i, String[] words) {
+        check(i);
+        for (String w : words) {
+            if (is(i, w)) return w;
+        }
+        return null;
+    }
+
+    /** Field {@code i} as a known word if it is one, else as a new string. */
+    public String wordOrString(int i, String[] words) {
+        String w = word(i, words);
+        return w != null ? w : stringField(i);
+    }
+
+    /** Whether field {@code i} is exactly the ASCII string {@code s}. */
+    public boolean is(int i, String s) {
+        check(i);
+        int n = to[i] - from[i];
+        if (n != s.length()) return false;
+        for (int k = 0; k < n; k++) {
+            if (buf[from[i] + k] != s.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Field {@code i} as a decimal int: an optional sign then digits, as
+     * {@link Integer#parseInt} accepts, ignoring surrounding spaces.
+     *
+     * @throws NumberFormatException if it is not one, or overflows an int
+     */
+    public int intField(int i) {
+        check(i);
+        int s = from[i], e = to[i];
+        while (s < e && buf[s] == ' ') s++;
+        while (e > s && buf[e - 1] == ' ') e--;
+        if (s == e) throw badInt(i);
+        boolean negative = buf[s] == '-';
+        if (negative || buf[s] == '+') {
+            if (++s == e) throw badInt(i);
+        }
+        // Accumulate negatively, so Integer.MIN_VALUE parses too
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multMin = limit / 10;
+        int value = 0;
+        for (int k = s; k < e; k++) {
+            int digit = buf[k] - '0';
+            if (digit < 0 || digit > 9) throw badInt(i);
+            if (value < multMin) throw badInt(i);
+            value *= 10;
+            if (value < limit + digit) throw badInt(i);
+            value -= digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /** Whether field {@code i} starts with a decimal digit. */
+    public boolean startsWithDigit(int i) {
+        check(i);
+        return from[i] < to[i] && buf[from[i]] >= '0' && buf[from[i]] <= '9';
+    }
+
+    /** Field {@code i} as a new string. */
+    public String stringField(int i) {
+        check(i);
+        return new String(buf, from[i], to[i] - from[i], CHARSET);
+    }
+
+    /** Everything from the start of field {@code i} to the end, pipes included, as a new string. */
+    public String rest(int i) {
+        check(i);
+        return new String(buf, from[i], end - from[i], CHARSET).trim();
+    }
+
+    /** The whole (trimmed, untagged) message as a new string, e.g. for logging. */
+    @Override
+    public String toString() {
+        return buf == null ? "" : new String(buf, start, end - start, CHARSET);
+    }
+
+    private void check(int i) {
+        if (i < 0 || i >= count) {
+            throw new ArrayIndexOutOfBoundsException("Index " + i + " out of bounds for length " + count);
+        }
+    }
+
+    private NumberFormatException badInt(int i) {
+        return new NumberFormatException("For input string: \"" + stringField(i) + "\"");
+    }
+}
@@ -0,0 +1,195 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Reusable encoder for outbound pipe-delimited text messages, the
+ * counterpart of {@link MessageReader}: fields are written as bytes into one
+ * direct buffer and sent with {@link DatagramChannel#send}, so a steady
+ * stream of sends allocates nothing.
+ *
+ * <pre>
+ *   writer.begin("locationUpdate").field(droneId).field(x).field(y).field(state)
+ *         .send(channel, scheduler);
+ * </pre>
+ *
+ * <p>{@code DatagramSocket.send} builds a socket address for every packet
+ * even when the packet is reused, so the sends go through a channel
+ * instead. The writer keeps the socket address of each destination port it
+ * has sent to and reuses it while the destination stays the same.</p>
+ *
+ * <p>A writer is not thread-safe: give each sending thread its own, e.g.
+ * through a {@code ThreadLocal}. Text is ASCII on the wire; a field that is
+ * not is encoded like {@code String.getBytes()}, which allocates.</p>
+ */
+public final class MessageWriter {
+
+    /** Initial buffer size; the receive loops read datagrams of up to this size. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Destinations remembered before the cache is emptied. */
+    private static final int MAX_TARGETS = 1024;
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    private ByteBuffer buf;
+    private int        len;
+    private final IntMap<InetSocketAddress> targets = new IntMap<>();  // by port
+
+    public MessageWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MessageWriter(int capacity) {
+        buf = ByteBuffer.allocateDirect(capacity);
+    }
+
+    // ==== Encoding ====
+
+    /** Starts a new message with {@code opcode} (or any leading text). */
+    public MessageWriter begin(String opcode) {
+        len = 0;
+        return text(opcode);
+    }
+
+    /** Starts a new message that is just a number, e.g. a getTime reply. */
+    public MessageWriter begin(long value) {
+        len = 0;
+        return number(value);
+    }
+
+    /** Appends {@code |value}. */
+    public MessageWriter field(long value) {
+        put((byte) '|');
+        return number(value);
+    }
+
+    /** Appends {@code |text}. */
+    public MessageWriter field(String text) {
+        put((byte) '|');
+        return text(text);
+    }
+
+    /** Appends a correlation tag ({@code |#tag}), unless {@code tag} is negative. */
+    public MessageWriter tag(long tag) {
+        if (tag < 0) return this;
+        put((byte) '|');
+        put((byte) '#');
+        return number(tag);
+    }
+
+    private MessageWriter text(String s) {
+        int n = s.length();
+        ensure(n);
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                // Not ASCII: encode the rest as String.getBytes() would
+                byte[] rest = s.substring(i).getBytes(CHARSET);
+                ensure(rest.length);
+                for (byte b : rest) buf.put(len++, b);
+                return this;
+            }
+            buf.put(len++, (byte) c);
+        }
+        return this;
+    }
+
+    private MessageWriter number(long v) {
+        ensure(20);
+        len = putDecimal(buf, len, v);
+        return this;
+    }
+
+    /** Writes {@code v} in decimal at {@code at}; returns the index after it. */
+    static int putDecimal(ByteBuffer out, int at, long v) {
+        // Work on the negative, which holds every long including MIN_VALUE
+        if (v < 0) out.put(at++, (byte) '-');
+        else v = -v;
+        int digits = 1;
+        for (long p = v; p <= -10; p /= 10) digits++;
+        for (int i = at + digits - 1; i >= at; i--) {
+            out.put(i, (byte) ('0' - v % 10));
+            v /= 10;
+        }
+        return at + digits;
+    }
+
+    private void put(byte b) {
+        ensure(1);
+        buf.put(len++, b);
+    }
+
+    private void ensure(int more) {
+        if (len + more <= buf.capacity()) return;
+        ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(buf.capacity() * 2, len + more));
+        for (int i = 0; i < len; i++) bigger.put(i, buf.get(i));
+        buf = bigger;
+    }
+
+    // ==== Sending ====
+
+    /**
+     * Opens a datagram channel bound to {@code port} (0 for any free port),
+     * failing with the {@link SocketException} a {@code DatagramSocket}
+     * constructor would.
+     */
+    public static DatagramChannel openChannel(int port) throws SocketException {
+        DatagramChannel ch = null;
+        try {
+            ch = DatagramChannel.open();
+            ch.bind(new InetSocketAddress(port));
+            return ch;
+        } catch (IOException e) {
+            if (ch != null) {
+                try { ch.close(); } catch (IOException ignored) { }
+            }
+            if (e instanceof SocketException) throw (SocketException) e;
+            SocketException wrapped = new SocketException(e.getMessage());
+            wrapped.initCause(e);
+            throw wrapped;
+        }
+    }
+
+    /** Sends the message to {@code addr:port}. */
+    public void send(DatagramChannel channel, InetAddress addr, int port) throws IOException {
+        send(channel, target(addr, port));
+    }
+
+    /** Sends the message to {@code to}, which the caller keeps for repeated sends. */
+    public void send(DatagramChannel channel, InetSocketAddress to) throws IOException {
+        buf.limit(len).position(0);
+        try {
+            channel.send(buf, to);
+        } finally {
+            buf.clear();
+        }
+    }
+
+    private InetSocketAddress target(InetAddress addr, int port) {
+        InetSocketAddress to = targets.get(port);
+        if (to == null || !to.getAddress().equals(addr)) {
+            if (targets.size() >= MAX_TARGETS) targets.clear();
+            to = new InetSocketAddress(addr, port);
+            targets.put(port, to);
+        }
+        return to;
+    }
+
+    /** Bytes in the current message. */
+    public int length() {
+        return len;
+    }
+
+    /** The current message as text, e.g. for logging; allocates. */
+    @Override
+    public String toString() {
+        byte[] copy = new byte[len];
+        for (int i = 0; i < len; i++) copy[i] = buf.get(i);
+        return new String(copy, CHARSET);
+    }
+}
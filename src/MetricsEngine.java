@@ -0,0 +1,517 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Performance metrics for the EventLogger, kept up to date as each event
+ * arrives instead of being recomputed from log.txt.
+ *
+ * <p>Every event costs O(1): open incidents are held in per-zone FIFO queues,
+ * each drone keeps its current state and running time totals, and fleet-wide
+ * sums are maintained alongside. Answering {@link #print()} therefore does
+ * not depend on how long the log is; the per-incident and per-drone tables
+ * print at most {@link #MAX_TABLE_ROWS} rows, while the totals and averages
+ * always cover everything.</p>
+ *
+ * <p>The metrics are the ones the logger has always reported:</p>
+ * <ul>
+ *   <li><b>Response time</b> — from {@code FIRE_DETECTED} to the first drone
+ *       entering {@code EXTINGUISHING} for that zone.</li>
+ *   <li><b>Extinguish duration</b> — from {@code FIRE_DETECTED} to the matching
+ *       {@code FIRE_EXTINGUISHED}.</li>
+ *   <li><b>Per drone</b> — missions, flight time ({@code ONROUTE} +
+ *       {@code EXTINGUISHING}), idle time, recharge count and recharge time.</li>
+ * </ul>
+ *
+ * <p>Latencies are also kept as {@link LatencyHistogram}s, so tail behaviour
+ * (p50/p90/p99/max) is visible and not only the averages. Each
+ * {@link Latency} kind has an overall histogram, one per fire severity
+ * (the second field of {@code FIRE_DETECTED}) and a coarser one per zone.
+ * Histograms are fixed-size, so memory grows only with the number of
+ * zones and severities, never with the number of events.</p>
+ *
+ * <p>Events arrive as typed {@link Event}s, so every check here is an enum
+ * or int comparison; zones and drones are keyed by their numeric IDs.</p>
+ */
+public class MetricsEngine {
+
+    /** Most rows printed for the incident and drone tables. */
+    public static final int MAX_TABLE_ROWS = 50;
+
+    /**
+     * Per-zone histograms use 4 bits of precision (within 12.5%) and stop at
+     * about 50 days, so each zone costs roughly 2 KB per latency kind.
+     */
+    private static final int  ZONE_PRECISION_BITS = 4;
+    private static final long ZONE_MAX_MS         = 1L << 32;
+
+    private static final String DRONE_PREFIX = "Drone ";
+
+    /** The latencies tracked as histograms. */
+    public enum Latency {
+        /** {@code FIRE_DETECTED} to the first drone {@code EXTINGUISHING} there. */
+        RESPONSE("Response"),
+        /** {@code FIRE_DETECTED} to {@code FIRE_EXTINGUISHED}. */
+        EXTINGUISH("Extinguish"),
+        /** A drone going {@code ONROUTE} to it reaching the zone ({@code EXTINGUISHING}). */
+        DISPATCH_TO_ARRIVAL("Dispatch→arrival"),
+        /** {@code FIRE_DETECTED} to the first drone going {@code ONROUTE} to it. */
+        QUEUE_WAIT("Queue wait");
+
+        final String label;
+
+        Latency(String label) {
+            this.label = label;
+        }
+    }
+
+    /** One histogram per {@link Latency} kind. */
+    private static class LatencySet {
+        final LatencyHistogram[] byKind = new LatencyHistogram[Latency.values().length];
+
+        LatencySet(int precisionBits, long maxMs) {
+            for (int i = 0; i < byKind.length; i++) byKind[i] = new LatencyHistogram(precisionBits, maxMs);
+        }
+
+        LatencyHistogram get(Latency kind) {
+            return byKind[kind.ordinal()];
+        }
+    }
+
+    /** One fire, from detection until it is put out. */
+    private static class Incident {
+        final int                    zone;
+        final FireEvent.FireSeverity severity;
+        final long                   detectedAt;
+        long responseMs = -1;
+        long durationMs;
+
+        Incident(int zone, FireEvent.FireSeverity severity, long detectedAt) {
+            this.zone       = zone;
+            this.severity   = severity;
+            this.detectedAt = detectedAt;
+        }
+    }
+
+    /** Fires still burning in one zone, oldest first. */
+    private static class ZoneIncidents {
+        final ArrayDeque<Incident> open         = new ArrayDeque<>();
+        /** Open incidents no drone has reached yet; always a suffix of {@code open}. */
+        final ArrayDeque<Incident> unanswered   = new ArrayDeque<>();
+        /** Open incidents no drone has set out for yet; always a suffix of {@code unanswered}. */
+        final ArrayDeque<Incident> undispatched = new ArrayDeque<>();
+        /** Created on the first latency recorded for this zone. */
+        LatencySet latency;
+
+        /** The incident a drone arriving now is answering. */
+        Incident current() {
+            return unanswered.isEmpty() ? open.peekFirst() : unanswered.peekFirst();
+        }
+    }
+
+    /** Running totals for one drone. */
+    private static class DroneStats {
+        DroneMachine.DroneState state = DroneMachine.DroneState.IDLE;
+        long   stateStart;
+        long   flightMs, idleMs, rechargeMs;
+        int    missions, recharges;
+
+        DroneStats(long stateStart) {
+            this.stateStart = stateStart;
+        }
+    }
+
+    // ==== Incidents ====
+    private final Map<Integer, ZoneIncidents> zones = new HashMap<>();
+    /** Most recently completed incidents, for the printed table. */
+    private final ArrayDeque<Incident> recentIncidents = new ArrayDeque<>();
+    private long completedIncidents;
+    private long respondedIncidents;
+    private long responseSumMs;
+    private long extinguishSumMs;
+
+    // ==== Latency histograms ====
+    private final LatencySet overall = new LatencySet(
+            LatencyHistogram.DEFAULT_PRECISION_BITS, LatencyHistogram.DEFAULT_MAX_VALUE);
+    private final EnumMap<FireEvent.FireSeverity, LatencySet> bySeverity = new EnumMap<>(FireEvent.FireSeverity.class);
+
+    // ==== Drones ====
+    private final TreeMap<Integer, DroneStats> drones = new TreeMap<>();
+    /** Idle time of drones that have left IDLE at least once, summed over the fleet. */
+    private long fleetIdleMs;
+    /** Drones currently IDLE and the sum of the times they became idle. */
+    private int  idleDrones;
+    private long idleSinceSumMs;
+
+    // ==== Overall ====
+    private boolean seenEvent;
+    private long    logStart, logEnd;
+    private long    firstFire      = Long.MAX_VALUE;
+    private long    lastExtinguish = Long.MIN_VALUE;
+    private long    firesDetected, firesExtinguished;
+
+    /**
+     * Folds one event into the metrics, at its own (seconds) time.
+     *
+     * @param event a parsed, time-stamped event
+     */
+    public void record(Event event) {
+        record(event.getTime() * 1000L, event);
+    }
+
+    /**
+     * Folds one event into the metrics.
+     *
+     * @param timeMs event time in milliseconds of simulation time
+     * @param event  the event; its own time is ignored
+     */
+    public synchronized void record(long timeMs, Event event) {
+        if (!seenEvent) {
+            seenEvent = true;
+            logStart  = timeMs;
+        }
+        logEnd = timeMs;
+
+        EventEntity entity = event.getEntity();
+        int zone = event.getZone();
+        switch (event.getCode()) {
+            case FIRE_DETECTED:
+                fireDetected(zone, event.getSeverity(), timeMs);
+                break;
+            case STATE_CHANGE:
+                if (!entity.isDrone()) break;
+                DroneMachine.DroneState state = event.getState();
+                changeState(droneStats(entity.getId()), state, zone, timeMs);
+                if (zone == Event.NO_ZONE) break;
+                if (state == DroneMachine.DroneState.ONROUTE) droneDispatched(zone, timeMs);
+                if (state == DroneMachine.DroneState.EXTINGUISHING) droneArrived(zone, timeMs);
+                break;
+            case FIRE_EXTINGUISHED:
+                fireExtinguished(zone, timeMs);
+                break;
+            default:
+                // Any event from a drone makes it known to the fleet metrics
+                if (entity.isDrone()) droneStats(entity.getId());
+                break;
+        }
+    }
+
+    private void fireDetected(int zone, FireEvent.FireSeverity severity, long timeMs) {
+        firesDetected++;
+        firstFire = Math.min(firstFire, timeMs);
+        ZoneIncidents z = zones.computeIfAbsent(zone, k -> new ZoneIncidents());
+        Incident incident = new Incident(zone, severity, timeMs);
+        z.open.addLast(incident);
+        z.unanswered.addLast(incident);
+        z.undispatched.addLast(incident);
+    }
+
+    private void droneDispatched(int zone, long timeMs) {
+        ZoneIncidents z = zones.get(zone);
+        if (z == null) return;
+        Incident incident = z.undispatched.pollFirst();
+        if (incident != null) recordLatency(Latency.QUEUE_WAIT, z, incident, timeMs - incident.detectedAt);
+    }
+
+    private void droneArrived(int zone, long timeMs) {
+        ZoneIncidents z = zones.get(zone);
+        if (z == null) return;
+        Incident incident = z.unanswered.pollFirst();
+        if (incident == null) return;
+        // Arrived without a logged dispatch: it is no longer waiting either
+        if (z.undispatched.peekFirst() == incident) z.undispatched.pollFirst();
+        incident.responseMs = timeMs - incident.detectedAt;
+        recordLatency(Latency.RESPONSE, z, incident, incident.responseMs);
+    }
+
+    private void fireExtinguished(int zone, long timeMs) {
+        firesExtinguished++;
+        lastExtinguish = Math.max(lastExtinguish, timeMs);
+        ZoneIncidents z = zones.get(zone);
+        if (z == null || z.open.isEmpty()) return;
+
+        Incident incident = z.open.pollFirst();
+        // An incident put out before any drone was logged arriving is the
+        // oldest unanswered one, so it is always at the head of that queue
+        if (z.unanswered.peekFirst()   == incident) z.unanswered.pollFirst();
+        if (z.undispatched.peekFirst() == incident) z.undispatched.pollFirst();
+        incident.durationMs = timeMs - incident.detectedAt;
+        recordLatency(Latency.EXTINGUISH, z, incident, incident.durationMs);
+
+        completedIncidents++;
+        extinguishSumMs += incident.durationMs;
+        if (incident.responseMs >= 0) {
+            respondedIncidents++;
+            responseSumMs += incident.responseMs;
+        }
+        recentIncidents.addLast(incident);
+        if (recentIncidents.size() > MAX_TABLE_ROWS) recentIncidents.pollFirst();
+    }
+
+    /** Adds one sample to the overall, severity and zone histograms of {@code kind}. */
+    private void recordLatency(Latency kind, ZoneIncidents z, Incident incident, long ms) {
+        overall.get(kind).record(ms);
+        if (incident != null && incident.severity != null) {
+            bySeverity.computeIfAbsent(incident.severity, k -> new LatencySet(
+                    LatencyHistogram.DEFAULT_PRECISION_BITS, LatencyHistogram.DEFAULT_MAX_VALUE))
+                    .get(kind).record(ms);
+        }
+        if (z != null) {
+            if (z.latency == null) z.latency = new LatencySet(ZONE_PRECISION_BITS, ZONE_MAX_MS);
+            z.latency.get(kind).record(ms);
+        }
+    }
+
+    private DroneStats droneStats(int id) {
+        DroneStats drone = drones.get(id);
+        if (drone == null) {
+            // Like the old log scan, a drone counts as idle from the start of the log
+            drone = new DroneStats(logStart);
+            drones.put(id, drone);
+            idleDrones++;
+            idleSinceSumMs += logStart;
+        }
+        return drone;
+    }
+
+    private void changeState(DroneStats drone, DroneMachine.DroneState newState, int zone, long timeMs) {
+        long dur = timeMs - drone.stateStart;
+        if (drone.state == DroneMachine.DroneState.ONROUTE && newState == DroneMachine.DroneState.EXTINGUISHING) {
+            ZoneIncidents z = zones.get(zone);
+            recordLatency(Latency.DISPATCH_TO_ARRIVAL, z, z == null ? null : z.current(), dur);
+        }
+        switch (drone.state) {
+            case ONROUTE:
+            case EXTINGUISHING:
+                drone.flightMs += dur;
+                break;
+            case IDLE:
+                drone.idleMs += dur;
+                fleetIdleMs  += dur;
+                idleDrones--;
+                idleSinceSumMs -= drone.stateStart;
+                break;
+            case REFILLING_AND_RECHARGING:
+                drone.rechargeMs += dur;
+                break;
+            default:
+                break;
+        }
+        if (newState == DroneMachine.DroneState.ONROUTE) drone.missions++;
+        if (newState == DroneMachine.DroneState.REFILLING_AND_RECHARGING) drone.recharges++;
+        if (newState == DroneMachine.DroneState.IDLE) {
+            idleDrones++;
+            idleSinceSumMs += timeMs;
+        }
+        drone.state      = newState;
+        drone.stateStart = timeMs;
+    }
+
+    // ==== Queries ====
+
+    public synchronized long getFiresDetected()     { return firesDetected; }
+    public synchronized long getFiresExtinguished() { return firesExtinguished; }
+    public synchronized int  getDroneCount()        { return drones.size(); }
+
+    /** Average detection-to-first-arrival time of completed incidents, in ms. */
+    public synchronized long getAverageResponseMs() {
+        return respondedIncidents == 0 ? 0 : responseSumMs / respondedIncidents;
+    }
+
+    /** Average detection-to-extinguished time of completed incidents, in ms. */
+    public synchronized long getAverageExtinguishMs() {
+        return completedIncidents == 0 ? 0 : extinguishSumMs / completedIncidents;
+    }
+
+    /** Idle time summed over every drone, counting drones still idle up to the last event. */
+    public synchronized long getTotalIdleMs() {
+        return fleetIdleMs + idleDrones * logEnd - idleSinceSumMs;
+    }
+
+    /** Flight time of one drone, or -1 if it has not been seen. */
+    public synchronized long getFlightMs(int droneId) {
+        DroneStats d = drones.get(droneId);
+        return d == null ? -1 : d.flightMs;
+    }
+
+    /** Idle time of one drone up to the last event, or -1 if it has not been seen. */
+    public synchronized long getIdleMs(int droneId) {
+        DroneStats d = drones.get(droneId);
+        if (d == null) return -1;
+        return d.idleMs + (d.state == DroneMachine.DroneState.IDLE ? logEnd - d.stateStart : 0);
+    }
+
+    /** Copy of the overall histogram for {@code kind}. */
+    public synchronized LatencyHistogram getHistogram(Latency kind) {
+        return overall.get(kind).copy();
+    }
+
+    /** Copy of the histogram for {@code kind} and one severity, or null if none was recorded. */
+    public synchronized LatencyHistogram getHistogramForSeverity(Latency kind, FireEvent.FireSeverity severity) {
+        LatencySet set = bySeverity.get(severity);
+        return set == null ? null : set.get(kind).copy();
+    }
+
+    /** Copy of the histogram for {@code kind} and one zone ID, or null if none was recorded. */
+    public synchronized LatencyHistogram getHistogramForZone(Latency kind, int zone) {
+        ZoneIncidents z = zones.get(zone);
+        return z == null || z.latency == null ? null : z.latency.get(kind).copy();
+    }
+
+    // ==== Report ====
+
+    /**
+     * Prints the performance report to stdout. Totals and averages are
+     * already maintained, so the cost is bounded by {@link #MAX_TABLE_ROWS}.
+     */
+    public synchronized void print() {
+        System.out.println("\nPERFORMANCE METRICS:\n");
+        printFireIncidentMetrics();
+        printLatencyPercentiles();
+        printDroneMetrics();
+        printOverallMetrics();
+    }
+
+    private void printLatencyPercentiles() {
+        if (overall.get(Latency.EXTINGUISH).getCount() == 0 && overall.get(Latency.QUEUE_WAIT).getCount() == 0) return;
+        System.out.println("Latency Percentiles:");
+        System.out.printf("%-32s %-8s %-12s %-12s %-12s %-12s%n", "Latency", "Count", "p50", "p90", "p99", "Max");
+        for (Latency kind : Latency.values()) printPercentileRow(kind.label, overall.get(kind));
+        for (Map.Entry<FireEvent.FireSeverity, LatencySet> e : bySeverity.entrySet()) {
+            for (Latency kind : Latency.values()) {
+                printPercentileRow(kind.label + " [" + e.getKey() + "]", e.getValue().get(kind));
+            }
+        }
+        int rows = 0;
+        for (Map.Entry<Integer, ZoneIncidents> e : new TreeMap<>(zones).entrySet()) {
+            if (e.getValue().latency == null) continue;
+            if (rows++ == MAX_TABLE_ROWS) {
+                System.out.printf("(first %d zones shown)%n", MAX_TABLE_ROWS);
+                break;
+            }
+            String zone = Event.zoneName(e.getKey());
+            printPercentileRow(Latency.RESPONSE.label   + " [" + zone + "]", e.getValue().latency.get(Latency.RESPONSE));
+            printPercentileRow(Latency.EXTINGUISH.label + " [" + zone + "]", e.getValue().latency.get(Latency.EXTINGUISH));
+        }
+        System.out.println();
+    }
+
+    private static void printPercentileRow(String label, LatencyHistogram h) {
+        if (h.getCount() == 0) return;
+        System.out.printf("%-32s %-8d %-12s %-12s %-12s %-12s%n", label, h.getCount(),
+                formatDuration(h.getValueAtPercentile(50)),
+                formatDuration(h.getValueAtPercentile(90)),
+                formatDuration(h.getValueAtPercentile(99)),
+                formatDuration(h.getMax()));
+    }
+
+    /**
+     * Writes every non-empty histogram as CSV, one row per latency and group:
+     * {@code latency,group,key,count,p50_ms,p90_ms,p99_ms,max_ms}, where group
+     * is {@code all}, {@code severity} or {@code zone}.
+     */
+    public synchronized void exportPercentiles(Appendable out) throws IOException {
+        out.append("latency,group,key,count,p50_ms,p90_ms,p99_ms,max_ms\n");
+        for (Latency kind : Latency.values()) {
+            exportRow(out, kind, "all", "", overall.get(kind));
+            for (Map.Entry<FireEvent.FireSeverity, LatencySet> e : bySeverity.entrySet()) {
+                exportRow(out, kind, "severity", e.getKey().name(), e.getValue().get(kind));
+            }
+            for (Map.Entry<Integer, ZoneIncidents> e : new TreeMap<>(zones).entrySet()) {
+                if (e.getValue().latency != null) {
+                    exportRow(out, kind, "zone", Event.zoneName(e.getKey()), e.getValue().latency.get(kind));
+                }
+            }
+        }
+    }
+
+    private static void exportRow(Appendable out, Latency kind, String group, String key,
+                                  LatencyHistogram h) throws IOException {
+        if (h.getCount() == 0) return;
+        out.append(kind.name()).append(',').append(group).append(',').append(key)
+                .append(',').append(Long.toString(h.getCount()))
+                .append(',').append(Long.toString(h.getValueAtPercentile(50)))
+                .append(',').append(Long.toString(h.getValueAtPercentile(90)))
+                .append(',').append(Long.toString(h.getValueAtPercentile(99)))
+                .append(',').append(Long.toString(h.getMax())).append('\n');
+    }
+
+    private void printFireIncidentMetrics() {
+        System.out.println("Fire Incident Metrics:");
+        if (completedIncidents > recentIncidents.size()) {
+            System.out.printf("(last %d of %d incidents)%n", recentIncidents.size(), completedIncidents);
+        }
+        System.out.printf("%-10s %-16s %-18s%n", "Zone", "Response time", "Extinguish duration");
+        for (Incident inc : recentIncidents) {
+            System.out.printf("%-10s %-16s %-18s%n",
+                    Event.zoneName(inc.zone),
+                    inc.responseMs >= 0 ? formatDuration(inc.responseMs) : "N/A",
+                    formatDuration(inc.durationMs));
+        }
+
+        if (completedIncidents > 0) {
+            System.out.printf("%nTotal fires:             %d%n", completedIncidents);
+            System.out.printf("Avg response time:       %s%n", formatDuration(getAverageResponseMs()));
+            System.out.printf("Avg extinguish duration: %s%n%n", formatDuration(getAverageExtinguishMs()));
+        }
+    }
+
+    private void printDroneMetrics() {
+        System.out.println("Drone Performance Metrics:");
+        if (drones.size() > MAX_TABLE_ROWS) {
+            System.out.printf("(first %d of %d drones)%n", MAX_TABLE_ROWS, drones.size());
+        }
+        System.out.printf("%-10s %-12s %-12s %-12s %-10s %-12s%n",
+                "Drone", "Missions", "FlightTime", "IdleTime", "Recharges", "RechargeTime");
+
+        int rows = 0;
+        for (Map.Entry<Integer, DroneStats> e : drones.entrySet()) {
+            if (rows++ == MAX_TABLE_ROWS) break;
+            DroneStats d = e.getValue();
+            System.out.printf("%-10s %-12d %-12s %-12s %-10d %-12s%n",
+                    DRONE_PREFIX + e.getKey(), d.missions,
+                    formatDuration(d.flightMs),
+                    formatDuration(getIdleMs(e.getKey())),
+                    d.recharges,
+                    formatDuration(d.rechargeMs));
+        }
+
+        if (!drones.isEmpty()) {
+            System.out.printf("%nAvg drone idle time: %s%n%n", formatDuration(getTotalIdleMs() / drones.size()));
+        }
+    }
+
+    private void printOverallMetrics() {
+        long start = seenEvent ? logStart : 0;
+        long end   = seenEvent ? logEnd   : 0;
+        long first = firesDetected     > 0 ? firstFire      : start;
+        long last  = firesExtinguished > 0 ? lastExtinguish : end;
+
+        System.out.println("Overall Simulation Metrics:");
+        System.out.println("Total simulation time:  " + formatDuration(end - start));
+        System.out.println("First fire → last out:  " + formatDuration(last - first));
+        System.out.println("Total fires detected:   " + firesDetected);
+        System.out.println("Total fires extinguished: " + firesExtinguished);
+    }
+
+    /**
+     * Formats a millisecond duration as a human-readable string, e.g.
+     * {@code "12s"}, {@code "3m 20s"} or {@code "1h 03m 20s"}.
+     *
+     * @param ms duration in milliseconds
+     * @return formatted duration string
+     */
+    static String formatDuration(long ms) {
+        long totalSeconds = ms / 1000;
+        if (totalSeconds < 60) return totalSeconds + "s";
+        long seconds = totalSeconds % 60;
+        long totalMinutes = totalSeconds / 60;
+        if (totalMinutes < 60) return String.format("%dm %02ds", totalMinutes, seconds);
+        long minutes = totalMinutes % 60;
+        long hours   = totalMinutes / 60;
+        return String.format("%dh %02dm %02ds", hours, minutes, seconds);
+    }
+}
@@ -0,0 +1,192 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Local HTTP endpoint that serves live metrics in the Prometheus text
+ * exposition format, so long soak runs can be watched (or scraped) without
+ * stopping them.
+ *
+ * <p>Only {@code GET /metrics} is served, on the loopback interface. Each
+ * request calls the collector given to the constructor, which writes the
+ * current values into an {@link Exposition}; nothing is cached between
+ * scrapes. Requests are handled on one daemon thread, so a slow scraper
+ * never competes with the subsystem's own threads for more than that.</p>
+ */
+public class MetricsHttpServer implements AutoCloseable {
+
+    /** Prometheus text format content type. */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+
+    /**
+     * Starts serving {@code /metrics} on {@code port} (0 picks a free port).
+     *
+     * @param port      TCP port on the loopback interface
+     * @param collector writes the current metrics for each scrape
+     * @throws IOException if the port cannot be bound
+     */
+    public MetricsHttpServer(int port, Consumer<Exposition> collector) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> handle(exchange, collector));
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "MetricsHttpServer-" + port);
+            t.setDaemon(true);
+            return t;
+        }));
+        server.start();
+    }
+
+    /**
+     * Starts a server, or prints a warning and returns {@code null} if the
+     * port is taken, so a second instance on one machine still runs.
+     */
+    public static MetricsHttpServer startOrWarn(String owner, int port, Consumer<Exposition> collector) {
+        try {
+            MetricsHttpServer s = new MetricsHttpServer(port, collector);
+            System.out.printf("%s: metrics at http://localhost:%d/metrics%n", owner, s.getPort());
+            return s;
+        } catch (IOException e) {
+            System.err.printf("%s: metrics endpoint not started on port %d: %s%n", owner, port, e.getMessage());
+            return null;
+        }
+    }
+
+    /** The bound port. */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private static void handle(HttpExchange exchange, Consumer<Exposition> collector) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            Exposition out = new Exposition();
+            byte[] body;
+            try {
+                collector.accept(out);
+                body = out.toString().getBytes(StandardCharsets.UTF_8);
+            } catch (RuntimeException e) {
+                body = ("# collector failed: " + e + "\n").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(500, body.length);
+                try (OutputStream os = exchange.getResponseBody()) { os.write(body); }
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) { os.write(body); }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /** Stops serving; in-flight scrapes get up to one second to finish. */
+    @Override
+    public void close() {
+        server.stop(1);
+    }
+
+    // ==== Exposition format ====
+
+    /**
+     * Builder for one scrape's worth of Prometheus text. Declare a metric
+     * with {@link #counter} or {@link #gauge} (the HELP/TYPE lines are
+     * written once per name), then add samples with {@link #sample}.
+     * Label values are escaped; names are used as given.
+     */
+    public static class Exposition {
+        private final StringBuilder text     = new StringBuilder(4096);
+        private final Set<String>   declared = new HashSet<>();
+
+        public Exposition counter(String name, String help) {
+            return declare(name, help, "counter");
+        }
+
+        public Exposition gauge(String name, String help) {
+            return declare(name, help, "gauge");
+        }
+
+        /**
+         * Adds one sample.
+         *
+         * @param labels alternating label names and values
+         */
+        public Exposition sample(String name, double value, String... labels) {
+            text.append(name);
+            if (labels.length > 0) {
+                text.append('{');
+                for (int i = 0; i + 1 < labels.length; i += 2) {
+                    if (i > 0) text.append(',');
+                    text.append(labels[i]).append("=\"");
+                    escape(labels[i + 1]);
+                    text.append('"');
+                }
+                text.append('}');
+            }
+            text.append(' ');
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) text.append((long) value);
+            else text.append(value);
+            text.append('\n');
+            return this;
+        }
+
+        /**
+         * Writes a latency histogram as a Prometheus summary in seconds:
+         * p50/p90/p99 quantiles plus {@code _sum} and {@code _count}. Declare
+         * it first with {@link #summary(String, String)}.
+         *
+         * @param h      the histogram, in milliseconds
+         * @param labels alternating label names and values
+         */
+        public Exposition summary(String name, LatencyHistogram h, String... labels) {
+            String[] withQuantile = new String[labels.length + 2];
+            System.arraycopy(labels, 0, withQuantile, 0, labels.length);
+            withQuantile[labels.length] = "quantile";
+            for (double q : new double[]{0.5, 0.9, 0.99}) {
+                withQuantile[labels.length + 1] = Double.toString(q);
+                sample(name, h.getValueAtPercentile(q * 100) / 1000.0, withQuantile);
+            }
+            sample(name + "_sum", h.getSum() / 1000.0, labels);
+            sample(name + "_count", h.getCount(), labels);
+            return this;
+        }
+
+        public Exposition summary(String name, String help) {
+            return declare(name, help, "summary");
+        }
+
+        private Exposition declare(String name, String help, String type) {
+            if (declared.add(name)) {
+                text.append("# HELP ").append(name).append(' ').append(help.replace("\n", " ")).append('\n');
+                text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            }
+            return this;
+        }
+
+        private void escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\\' || c == '"') text.append('\\').append(c);
+                else if (c == '\n') text.append("\\n");
+                else text.append(c);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
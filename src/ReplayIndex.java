@@ -0,0 +1,362 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Time index over a finished run's {@code log.txt}, for the replay viewer.
+ *
+ * <p>The log is read once into compact per-event arrays (the deltas). While
+ * they are applied in order, a full copy of the state is kept every
+ * {@code snapshotSeconds} of simulation time. {@link #stateAt} starts from
+ * the last snapshot at or before the requested time and applies only the
+ * deltas after it, so seeking anywhere in a multi-hour run costs at most
+ * one snapshot interval of events, not a replay from the start.</p>
+ *
+ * <p>The log has drone states and fires but no positions, water or
+ * battery, so positions are reconstructed: a drone with a zone in its
+ * state change is at that zone's centre, a returning or refilling drone at
+ * base, and a flying drone (ONROUTE, RETURNING) moves in a straight line
+ * from where it was to where it is going, arriving when its next state
+ * change is logged. A zone's fire needs the water of the severities
+ * detected there since it was last extinguished.</p>
+ */
+public class ReplayIndex {
+
+    /** Simulation seconds between two snapshots, unless given. */
+    public static final int DEFAULT_SNAPSHOT_SECONDS = 60;
+
+    private static final DroneMachine.DroneState[] STATES     = DroneMachine.DroneState.values();
+    private static final FireEvent.FireSeverity[]  SEVERITIES = FireEvent.FireSeverity.values();
+
+    // Delta kinds
+    private static final byte STATE_CHANGE = 0, FIRE_DETECTED = 1, FIRE_EXTINGUISHED = 2;
+
+    private final Map<Integer, Zone> zones;
+    private final int snapshotSeconds;
+
+    // One entry per delta, in log order
+    private long[] times    = new long[1024];
+    private byte[] kinds    = new byte[1024];
+    private int[]  drones   = new int[1024];   // drone ID, or -1
+    private byte[] values   = new byte[1024];  // state or severity ordinal, or -1
+    private int[]  zoneIds  = new int[1024];   // zone, or Event.NO_ZONE
+    private long[] arrivals = new long[1024];  // next state change of the same drone, or -1
+    private int    size;
+    private long   malformed;
+
+    private final List<Snapshot> snapshots = new ArrayList<>();
+
+    /** A full copy of the state once the first {@code next} deltas are applied. */
+    private static final class Snapshot {
+        final int   next;
+        final State state;
+
+        Snapshot(int next, State state) {
+            this.next  = next;
+            this.state = state;
+        }
+    }
+
+    private ReplayIndex(Map<Integer, Zone> zones, int snapshotSeconds) {
+        if (snapshotSeconds < 1) throw new IllegalArgumentException("snapshotSeconds must be positive");
+        this.zones = zones;
+        this.snapshotSeconds = snapshotSeconds;
+    }
+
+    /**
+     * Reads {@code log.txt} and builds its index.
+     *
+     * @param zones           zones of the run, to place drones and fires
+     * @param snapshotSeconds simulation seconds between two snapshots
+     */
+    public static ReplayIndex load(Path log, Map<Integer, Zone> zones, int snapshotSeconds) throws IOException {
+        ReplayIndex index = new ReplayIndex(zones, snapshotSeconds);
+        try (InputStream in = Files.newInputStream(log)) {
+            byte[] buf = new byte[64 * 1024];
+            int start = 0, end = 0;
+            for (int n; (n = in.read(buf, end, buf.length - end)) > 0; ) {
+                end += n;
+                int lineStart = start;
+                for (int i = start; i < end; i++) {
+                    if (buf[i] != '\n') continue;
+                    index.addLine(buf, lineStart, i - lineStart);
+                    lineStart = i + 1;
+                }
+                // Keep the partial last line at the front, growing for very long lines
+                int rest = end - lineStart;
+                if (rest == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+                System.arraycopy(buf, lineStart, buf, 0, rest);
+                start = 0;
+                end = rest;
+            }
+            if (end > 0) index.addLine(buf, 0, end);
+        }
+        index.build();
+        return index;
+    }
+
+    /** Builds the index from events already parsed, in log order. */
+    public static ReplayIndex of(List<Event> events, Map<Integer, Zone> zones, int snapshotSeconds) {
+        ReplayIndex index = new ReplayIndex(zones, snapshotSeconds);
+        for (Event e : events) index.add(e);
+        index.build();
+        return index;
+    }
+
+    private void addLine(byte[] buf, int off, int len) {
+        while (len > 0 && buf[off + len - 1] <= ' ') len--;
+        if (len == 0) return;
+        try {
+            add(Event.parseLogLine(buf, off, len));
+        } catch (IllegalArgumentException e) {
+            malformed++;
+        }
+    }
+
+    private void add(Event e) {
+        byte kind;
+        int drone = -1, value = -1;
+        switch (e.getCode()) {
+            case STATE_CHANGE:
+                if (!e.getEntity().isDrone()) return;
+                kind  = STATE_CHANGE;
+                drone = e.getEntity().getId();
+                value = e.getState().ordinal();
+                break;
+            case FIRE_DETECTED:
+                kind  = FIRE_DETECTED;
+                value = e.getSeverity() == null ? -1 : e.getSeverity().ordinal();
+                break;
+            case FIRE_EXTINGUISHED:
+                kind  = FIRE_EXTINGUISHED;
+                break;
+            default:
+                return;
+        }
+        if (size == times.length) {
+            int n = size * 2;
+            times    = Arrays.copyOf(times, n);
+            kinds    = Arrays.copyOf(kinds, n);
+            drones   = Arrays.copyOf(drones, n);
+            values   = Arrays.copyOf(values, n);
+            zoneIds  = Arrays.copyOf(zoneIds, n);
+            arrivals = Arrays.copyOf(arrivals, n);
+        }
+        // Logs from several subsystems can be slightly out of order; keep time monotonic
+        times[size]   = size > 0 ? Math.max(e.getTime(), times[size - 1]) : e.getTime();
+        kinds[size]   = kind;
+        drones[size]  = drone;
+        values[size]  = (byte) value;
+        zoneIds[size] = e.getZone();
+        size++;
+    }
+
+    /** Links each state change to the drone's next one, and takes the snapshots. */
+    private void build() {
+        Map<Integer, Long> next = new HashMap<>();
+        for (int i = size - 1; i >= 0; i--) {
+            if (kinds[i] != STATE_CHANGE) continue;
+            Long t = next.put(drones[i], times[i]);
+            arrivals[i] = t == null ? -1 : t;
+        }
+
+        State state = new State(getStartTime());
+        long due = getStartTime();
+        for (int i = 0; i < size; i++) {
+            if (times[i] >= due) {
+                // Everything before this event is in the snapshot
+                snapshots.add(new Snapshot(i, state.copy()));
+                due = times[i] - Math.floorMod(times[i] - getStartTime(), snapshotSeconds) + snapshotSeconds;
+            }
+            apply(state, i);
+        }
+    }
+
+    private void apply(State state, int i) {
+        long t = times[i];
+        switch (kinds[i]) {
+            case STATE_CHANGE: {
+                Track track = state.drones.computeIfAbsent(drones[i], id -> new Track());
+                int x = track.x(t), y = track.y(t);
+                DroneMachine.DroneState st = STATES[values[i]];
+                Zone zone = zones.get(zoneIds[i]);
+                int toX = x, toY = y;
+                if (zone != null) {
+                    toX = zone.getCenterX();
+                    toY = zone.getCenterY();
+                } else if (st == DroneMachine.DroneState.RETURNING
+                        || st == DroneMachine.DroneState.REFILLING_AND_RECHARGING) {
+                    toX = toY = 0;                               // base
+                }
+                boolean flying = st == DroneMachine.DroneState.ONROUTE || st == DroneMachine.DroneState.RETURNING;
+                track.state = st;
+                track.fromX = flying ? x : toX;
+                track.fromY = flying ? y : toY;
+                track.toX   = toX;
+                track.toY   = toY;
+                track.since = t;
+                track.until = flying ? arrivals[i] : t;
+                break;
+            }
+            case FIRE_DETECTED: {
+                int[] fires = state.fires.computeIfAbsent(zoneIds[i], z -> new int[SEVERITIES.length]);
+                fires[values[i] < 0 ? FireEvent.FireSeverity.LOW.ordinal() : values[i]]++;
+                break;
+            }
+            case FIRE_EXTINGUISHED:
+                state.fires.remove(zoneIds[i]);
+                break;
+        }
+    }
+
+    // ==== Queries ====
+
+    /** Reconstructs the state at simulation second {@code time}, from the nearest snapshot. */
+    public State stateAt(long time) {
+        int lo = 0, hi = snapshots.size() - 1, at = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            Snapshot s = snapshots.get(mid);
+            if (times[s.next] <= time) {
+                at = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        State state;
+        int i;
+        if (at < 0) {
+            state = new State(time);
+            i = 0;
+        } else {
+            state = snapshots.get(at).state.copy();
+            i = snapshots.get(at).next;
+        }
+        for (; i < size && times[i] <= time; i++) apply(state, i);
+        state.time = time;
+        return state;
+    }
+
+    /** Simulation second of the first event, or 0 for an empty log. */
+    public long getStartTime() {
+        return size == 0 ? 0 : times[0];
+    }
+
+    /** Simulation second of the last event, or 0 for an empty log. */
+    public long getEndTime() {
+        return size == 0 ? 0 : times[size - 1];
+    }
+
+    /** Drone state changes and fire events indexed. */
+    public int getEventCount() {
+        return size;
+    }
+
+    public int getSnapshotCount() {
+        return snapshots.size();
+    }
+
+    /** Lines that were not valid event lines. */
+    public long getMalformed() {
+        return malformed;
+    }
+
+    // ==== State ====
+
+    /** Where one drone was going, and since when. */
+    private static final class Track {
+        DroneMachine.DroneState state = DroneMachine.DroneState.IDLE;
+        int  fromX, fromY, toX, toY;
+        long since, until = -1;      // arrival; until <= since means already there
+
+        int x(long t) { return lerp(fromX, toX, t); }
+        int y(long t) { return lerp(fromY, toY, t); }
+
+        private int lerp(int from, int to, long t) {
+            if (until <= since || t >= until) return to;
+            return (int) Math.round(from + (to - from) * (double) (t - since) / (until - since));
+        }
+
+        Track copy() {
+            Track c = new Track();
+            c.state = state;
+            c.fromX = fromX; c.fromY = fromY; c.toX = toX; c.toY = toY;
+            c.since = since; c.until = until;
+            return c;
+        }
+    }
+
+    /** The drones and fires at one simulation second. */
+    public static final class State {
+        private long time;
+        private final Map<Integer, Track> drones = new TreeMap<>();
+        private final Map<Integer, int[]> fires  = new HashMap<>();   // zone -> fires per severity ordinal
+
+        State(long time) {
+            this.time = time;
+        }
+
+        State copy() {
+            State c = new State(time);
+            for (Map.Entry<Integer, Track> e : drones.entrySet()) c.drones.put(e.getKey(), e.getValue().copy());
+            for (Map.Entry<Integer, int[]> e : fires.entrySet()) c.fires.put(e.getKey(), e.getValue().clone());
+            return c;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * The drones as the GUI shows them, by ID. Water and battery are
+         * not in the log and are 0.
+         */
+        public Map<Integer, DroneInfo> getDrones() {
+            Map<Integer, DroneInfo> out = new TreeMap<>();
+            for (Map.Entry<Integer, Track> e : drones.entrySet()) {
+                Track t = e.getValue();
+                DroneInfo d = new DroneInfo(e.getKey(), t.x(time), t.y(time), 0, null, 0, 0);
+                d.state = t.state == DroneMachine.DroneState.REFILLING_AND_RECHARGING ? "REFILLING" : t.state.name();
+                out.put(e.getKey(), d);
+            }
+            return out;
+        }
+
+        /** Zone ID → water its burning fires need, as the map shows them. */
+        public Map<Integer, Integer> getFiresPerZone() {
+            Map<Integer, Integer> out = new HashMap<>();
+            for (Map.Entry<Integer, int[]> e : fires.entrySet()) {
+                int[] n = e.getValue();
+                out.put(e.getKey(), n[FireEvent.FireSeverity.LOW.ordinal()] * FireEvent.LOW_SEVERE_WATER
+                        + n[FireEvent.FireSeverity.MODERATE.ordinal()] * FireEvent.MEDIUM_SEVERE_WATER
+                        + n[FireEvent.FireSeverity.HIGH.ordinal()] * FireEvent.HIGH_SEVERE_WATER);
+            }
+            return out;
+        }
+
+        /** Burning fires as {high, moderate, low}, like the live fire count. */
+        public int[] getFireCounts() {
+            int[] counts = new int[3];
+            for (int[] n : fires.values()) {
+                counts[0] += n[FireEvent.FireSeverity.HIGH.ordinal()];
+                counts[1] += n[FireEvent.FireSeverity.MODERATE.ordinal()];
+                counts[2] += n[FireEvent.FireSeverity.LOW.ordinal()];
+            }
+            return counts;
+        }
+
+        /** Drones known at this time. */
+        public Collection<Integer> getDroneIds() {
+            return drones.keySet();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+import javax.swing.*;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entry point for replaying a finished run from its event log.
+ *
+ * Usage:   java ReplayMain [--zones file] [--snapshot-every N] [log.txt]
+ *
+ * --zones          zone CSV the run used (default: the Scheduler's four default zones)
+ * --snapshot-every simulation seconds between two snapshots of the index (default 60)
+ * log.txt          event log written by the EventLogger (default log.txt)
+ */
+public class ReplayMain {
+    public static void main(String[] args) throws Exception {
+        String logFile = EventLogger.LOG_FILE;
+        String zoneFile = null;
+        int snapshotSeconds = ReplayIndex.DEFAULT_SNAPSHOT_SECONDS;
+        for (int i = 0; i < args.length; i++) {
+            if ("--zones".equals(args[i])) zoneFile = args[++i];
+            else if ("--snapshot-every".equals(args[i])) snapshotSeconds = Integer.parseInt(args[++i]);
+            else logFile = args[i];
+        }
+
+        Map<Integer, Zone> zones = Scheduler.defaultZones();
+        if (zoneFile != null) {
+            zones = new HashMap<>();
+            List<String> errors = Scheduler.readZoneFile(zoneFile, zones);
+            if (!errors.isEmpty()) {
+                System.err.println("Zone file errors: " + errors);
+                System.exit(1);
+            }
+        }
+
+        long start = System.nanoTime();
+        ReplayIndex replay = ReplayIndex.load(Path.of(logFile), zones, snapshotSeconds);
+        System.out.printf("Indexed %,d events from %s in %d ms (%d snapshots)%n",
+                replay.getEventCount(), logFile, (System.nanoTime() - start) / 1_000_000,
+                replay.getSnapshotCount());
+
+        Map<Integer, Zone> runZones = zones;
+        String name = Path.of(logFile).getFileName().toString();
+        SwingUtilities.invokeLater(() -> {
+            DroneSwarmFrame frame = new DroneSwarmFrame(replay, runZones, name);
+            frame.setVisible(true);
+        });
+    }
+}
@@ -1,6 +1,12 @@
 import java.io.*;
 import java.net.*;
+import java.nio.channels.DatagramChannel;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -18,6 +24,10 @@ public class Scheduler implements Runnable {
 
     // ========= CONSTANTS =======
     public static final int PORT = 6000;
+    /** Default port of the Prometheus {@code /metrics} endpoint (see {@link #writeMetrics}). */
+    public static final int METRICS_PORT = 9100;
+    /** Most distinct message types counted before the rest are grouped as "other". */
+    private static final int MAX_MESSAGE_TYPES = 64;
     private static final int BUFFER_SIZE = 1024;
     private static final int FULL_BATTERY_LEVEL = 100;
 
@@ -32,25 +42,56 @@ public class Scheduler implements Runnable {
     private Deque<FireEvent> moderateFireEventQueue;
     private Deque<FireEvent> highFireEventQueue;
 
+    // ======== WIRE VOCABULARY ========
+    /** Requests the Scheduler routes; matched against each datagram in place. */
+    private static final String[] OPCODES = {
+            "locationUpdate", "batteryUpdate", "getTime", "isZoneActive",
+            "missionCompleted", "droneRefilling", "droneRefillComplete",
+            "receiveFireEvent", "receiveFireEventBatch", "rescheduleFireEvent",
+            "registerDrone", "startClock", "injectFaultEvent", "loadZones",
+            "droneFaulted", "droneHardFault", "droneRecovered"
+    };
+
+    /** Drone states, event types and severities, so fields holding them need no copy. */
+    private static final String[] WORDS = {
+            "ONROUTE", "EXTINGUISHING", "RETURNING", "IDLE", "REFILLING_AND_RECHARGING",
+            "FAULTED", "DECOMMISSIONED", "FIRE", "HIGH", "MODERATE", "LOW"
+    };
+
     // ========= DRONE REGISTRY =======
     /**
      * droneId → lightweight record; replaces direct DroneSubsystem references.
+     * The registries are keyed by plain ints so dispatch does not box IDs.
      */
-    private final Map<Integer, DroneInfo> droneRegistry;
+    private final IntMap<DroneInfo> droneRegistry;
 
     /**
      * Litres of water already committed (pushed) to each zone.
      */
-    private final Map<Integer, Integer> assignedWaterPerZone;
+    private final IntIntMap assignedWaterPerZone;
+
+    /**
+     * Fires waiting in the priority queues per zone, and the litres they
+     * still need, kept up to date as fires are queued and dequeued.
+     */
+    private final IntIntMap queuedFiresPerZone = new IntIntMap();
+    private final IntIntMap queuedWaterPerZone = new IntIntMap();
 
     /**
      * Zone definitions used to compute centre coordinates for dispatch.
+     * Replaced whole by a reload, with a version one higher, and read
+     * without taking the Scheduler lock.
      */
-    private final Map<Integer, Zone> zones;
-    private final Map<Integer, Deque<FireEvent>> pendingFiresByZone = new HashMap<>();
+    private final AtomicReference<ZoneTable> zoneTable =
+            new AtomicReference<>(ZoneTable.of(defaultZones(), 0));
+    private final IntMap<Deque<FireEvent>> pendingFiresByZone = new IntMap<>();
 
-    /** Incremented every time zones are successfully replaced; GUI polls this. */
-    private volatile int zonesVersion = 0;
+    /** Reads and validates zone files sent with loadZones, off the receive thread. */
+    private final ExecutorService zoneLoader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Scheduler-ZoneLoader");
+        t.setDaemon(true);
+        return t;
+    });
 
     // ======= COUNTERS & STATE ============
     private final SimulationClock clock;
@@ -62,48 +103,70 @@ public class Scheduler implements Runnable {
 
 
     // =========== NETWORKING =======
+    /** Bound to {@link #PORT}; sends go through the channel, the receive loop reads its socket view. */
+    private final DatagramChannel channel;
     private final DatagramSocket socket;
+    /** Each sending thread encodes into its own reusable buffer. */
+    private final ThreadLocal<MessageWriter> writer = ThreadLocal.withInitial(MessageWriter::new);
     private volatile boolean running = true;
 
+    /** Correlation tag (n of "|#n") of the request being dispatched, echoed on its replies; -1 if none. */
+    private long        replyTag = -1;
+    private InetAddress replyAddr;
+    private int         replyPort;
+
     /** Callback that mirrors key log messages to the GUI System Log panel. */
     private volatile Consumer<String> logCallback = null;
     private InetAddress loggerAddress;
+    /** Packs logEvent calls into sequenced batches for the EventLogger. */
+    private EventBatcher eventBatcher;
+
+    /** Whether log messages are also printed to the console. */
+    private volatile boolean consoleLog = true;
 
     public void setLogCallback(Consumer<String> cb) { this.logCallback = cb; }
 
-    /** Prints to console and forwards to the GUI log (if wired). */
+    public void setConsoleLog(boolean enabled) { this.consoleLog = enabled; }
+
+    /** Prints to console (unless turned off) and forwards to the GUI log or log file (if wired). */
     private void log(String msg) {
-        System.out.print(msg);
+        if (consoleLog) System.out.print(msg);
         if (logCallback != null) logCallback.accept(msg.trim());
     }
 
-    public void logEvent(String msg) {
-        byte[] event = (clock.getSimulationTimeSeconds() + "," + msg).getBytes();
-        try {
-            socket.send(new DatagramPacket(event, event.length, loggerAddress, EventLogger.DEFAULT_PORT));
-        } catch (IOException e) {
-            if (!socket.isClosed()) System.err.println("Scheduler logEvent error: " + e.getMessage());
-        }
+    /** Sends an event to the EventLogger, stamped with the current simulation time. */
+    public void logEvent(Event event) {
+        eventBatcher.add(clock.getSimulationTimeSeconds(), event);
     }
 
 
-    private final Map<Integer, FireEvent> droneActiveMission = new HashMap<>();
+    private final IntMap<FireEvent> droneActiveMission = new IntMap<>();
+
+    // ==== Live metrics ====
+    /** Datagrams received and sent, by message type. */
+    private final Map<String, LongAdder> datagramsIn  = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> datagramsOut = new ConcurrentHashMap<>();
+    /** Simulation time from a fire being detected to a drone being assigned to it. */
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+    private long missionsDispatched = 0;
+
+    // ==== GUI change feed ====
+    /** Changes pushed to the GUI as they happen, instead of it polling. */
+    private final ChangeFeed changeFeed = new ChangeFeed();
+    /** Zones whose fire water changed since the last {@link #publishFireChanges} (values unused). */
+    private final IntIntMap changedFireZones = new IntIntMap();
 
     public Scheduler() throws SocketException, UnknownHostException {
         highFireEventQueue = new LinkedList<>();
         moderateFireEventQueue = new LinkedList<>();
         lowFireEventQueue = new LinkedList<>();
-        droneRegistry = new HashMap<>();
-        assignedWaterPerZone = new HashMap<>();
-        zones = new HashMap<>();
+        droneRegistry = new IntMap<>();
+        assignedWaterPerZone = new IntIntMap();
         clock = SimulationClock.getInstance();
-        socket = new DatagramSocket(PORT);
+        channel = MessageWriter.openChannel(PORT);
+        socket = channel.socket();
         loggerAddress = InetAddress.getLocalHost();
-
-        zones.put(1, new Zone(1, 0, 14, 0, 14));
-        zones.put(2, new Zone(2, 15, 29, 0, 14));
-        zones.put(3, new Zone(3, 0, 14, 15, 29));
-        zones.put(4, new Zone(4, 15, 29, 15, 29));
+        eventBatcher = new EventBatcher(EventBatcher.sourceName("Scheduler"), loggerAddress, EventLogger.DEFAULT_PORT);
 
         System.out.println("Scheduler: Listening on UDP port " + PORT);
     }
@@ -112,17 +175,13 @@ public class Scheduler implements Runnable {
         highFireEventQueue = new LinkedList<>();
         moderateFireEventQueue = new LinkedList<>();
         lowFireEventQueue = new LinkedList<>();
-        droneRegistry = new HashMap<>();
-        assignedWaterPerZone = new HashMap<>();
-        zones = new HashMap<>();
+        droneRegistry = new IntMap<>();
+        assignedWaterPerZone = new IntIntMap();
         clock = SimulationClock.getInstance();
-        socket = new DatagramSocket(PORT);
+        channel = MessageWriter.openChannel(PORT);
+        socket = channel.socket();
         this.loggerAddress = InetAddress.getByName(loggerHost);
-
-        zones.put(1, new Zone(1, 0, 14, 0, 14));
-        zones.put(2, new Zone(2, 15, 29, 0, 14));
-        zones.put(3, new Zone(3, 0, 14, 15, 29));
-        zones.put(4, new Zone(4, 15, 29, 15, 29));
+        eventBatcher = new EventBatcher(EventBatcher.sourceName("Scheduler"), loggerAddress, EventLogger.DEFAULT_PORT);
 
         System.out.println("Scheduler: Listening on UDP port " + PORT);
     }
@@ -130,60 +189,88 @@ public class Scheduler implements Runnable {
 
     @Override
     public void run() {
-        logEvent("Scheduler,STARTED");
+        logEvent(Event.of(EventEntity.SCHEDULER, EventCode.STARTED));
         byte[] buf = new byte[BUFFER_SIZE];
+        DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+        MessageReader reader = new MessageReader();
         while (running) {
             try {
-                DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+                pkt.setLength(buf.length);
                 socket.receive(pkt);
-                String msg = new String(pkt.getData(), 0, pkt.getLength()).trim();
-                dispatch(msg, pkt.getAddress(), pkt.getPort());
+                dispatch(reader.reset(pkt.getData(), pkt.getOffset(), pkt.getLength()),
+                        pkt.getAddress(), pkt.getPort());
             } catch (SocketException e) {
                 if (running) System.err.println("Scheduler socket error: " + e.getMessage());
             } catch (Exception e) {
                 System.err.println("Scheduler dispatch error: " + e.getMessage());
             }
         }
-        logEvent("Scheduler,ENDED");
+        logEvent(Event.of(EventEntity.SCHEDULER, EventCode.ENDED));
+        eventBatcher.close();
     }
 
     /**
      * Routes an incoming UDP message to the correct existing method.
      * Format: methodName|arg1|arg2|...
      */
-    private synchronized void dispatch(String message, InetAddress addr, int port)
+    private synchronized void dispatch(MessageReader message, InetAddress addr, int port)
             throws Exception {
-        String[] parts = message.split("\\|");
-        switch (parts[0]) {
+        try {
+            route(message, addr, port);
+        } finally {
+            publishFireChanges();
+        }
+    }
+
+    private void route(MessageReader m, InetAddress addr, int port) throws Exception {
+        // Requests from a SchedulerChannel end in a correlation tag (|#n).
+        // Strip it here; sendReply echoes it on replies to the same sender.
+        replyTag = -1;
+        if (m.stripTag()) {
+            replyTag  = m.tag();
+            replyAddr = addr;
+            replyPort = port;
+        }
+        // Known opcodes come back as the constants in OPCODES, so nothing is copied
+        String op = m.opcode(OPCODES);
+        if (op == null) {
+            String unknown = m.fieldCount() == 0 ? "" : m.stringField(0);
+            countDatagram(datagramsIn, unknown);
+            System.err.println("Scheduler: unknown message: " + unknown);
+            return;
+        }
+        countDatagram(datagramsIn, op);
+        switch (op) {
             case "startClock": {
-                int speed = Integer.parseInt(parts[2]);
+                int speed = m.intField(2);
                 clock.setClockSpeedMultiplier(speed);
                 clock.setSimulationStartTime(0, 0, 0);  // always reset to 0 for new run
                 if (!clock.isRunning()) {
                     new Thread(clock, "SimulationClock").start();
                 }
                 sendReply("ACK", addr, port);
-                System.out.printf("Scheduler: Clock started at %s (x%d)%n",
-                        clock.getFormattedTime(), speed);
+                log(String.format("Scheduler: Clock started at %s (x%d)%n",
+                        clock.getFormattedTime(), speed));
                 break;
             }
 
             case "registerDrone": {
                 // registerDrone|droneId|x|y|water|listenPort
-                int droneId = Integer.parseInt(parts[1]);
-                int x = Integer.parseInt(parts[2]);
-                int y = Integer.parseInt(parts[3]);
-                int water = Integer.parseInt(parts[4]);
-                int listenPort = Integer.parseInt(parts[5]);
-                int battery = Integer.parseInt(parts[6]);
+                int droneId = m.intField(1);
+                int x = m.intField(2);
+                int y = m.intField(3);
+                int water = m.intField(4);
+                int listenPort = m.intField(5);
+                int battery = m.intField(6);
 
                 // Remove any stale entry for this droneId from a previous run
                 droneRegistry.remove(droneId);
 
                 DroneInfo info = new DroneInfo(droneId, x, y, water, addr, listenPort, battery);
                 droneRegistry.put(droneId, info);
-                System.out.printf("Scheduler: Drone %d registered at %s:%d%n",
-                        droneId, addr.getHostAddress(), listenPort);
+                changeFeed.droneChanged(info);
+                log(String.format("Scheduler: Drone %d registered at %s:%d%n",
+                        droneId, addr.getHostAddress(), listenPort));
                 sendReply("ACK", addr, port);
                 tryDispatch();
                 break;
@@ -192,30 +279,43 @@ public class Scheduler implements Runnable {
             case "receiveFireEvent": {
                 // receiveFireEvent|zoneId|eventType|severity|secondsFromStart
                 FireEvent event = new FireEvent(
-                        Integer.parseInt(parts[1]),
-                        parts[2],
-                        parts[3],
-                        Integer.parseInt(parts[4]));
+                        m.intField(1),
+                        m.wordOrString(2, WORDS),
+                        m.wordOrString(3, WORDS),
+                        m.intField(4));
                 receiveFireEvent(event);
                 sendReply("ACK", addr, port);
                 break;
             }
 
+            case "receiveFireEventBatch": {
+                // receiveFireEventBatch|secondsFromStart|zoneId|severity|zoneId|severity|...
+                // Every fire due at the same sim-time, sent by FireIncidentSubsystem in one packet.
+                int secondsFromStart = m.intField(1);
+                List<FireEvent> batch = new ArrayList<>((m.fieldCount() - 2) / 2);
+                for (int i = 2; i + 1 < m.fieldCount(); i += 2) {
+                    batch.add(new FireEvent(m.intField(i), "FIRE",
+                            m.wordOrString(i + 1, WORDS), secondsFromStart));
+                }
+                receiveFireEventBatch(batch);
+                sendReply("ACK", addr, port);
+                break;
+            }
+
             case "injectFaultEvent": {
                 // injectFaultEvent|droneId|faultType
                 // Sent by FireIncidentSubsystem when a fault row is reached in the CSV.
                 // We forward INJECT_FAULT directly to the target drone.
-                int       droneId = Integer.parseInt(parts[1]);
-                FaultType fault   = FaultType.from(parts[2]);
+                int       droneId = m.intField(1);
+                FaultType fault   = FaultType.from(m.stringField(2));
                 DroneInfo drone   = droneRegistry.get(droneId);
 
                 if (drone != null) {
                     log(String.format("Scheduler [%s]: Injecting %s into Drone %d%n",
                             clock.getFormattedTime(), fault, droneId));
-                    logEvent("Scheduler,DRONE_FAULT,Drone " + droneId);
-                    String injectMsg = "INJECT_FAULT|" + droneId + "|" + fault.name();
-                    byte[] data = injectMsg.getBytes();
-                    socket.send(new DatagramPacket(data, data.length, drone.address, drone.port));
+                    logEvent(Event.droneFault(droneId));
+                    send(out("INJECT_FAULT").field(droneId).field(fault.name()), "INJECT_FAULT",
+                            drone.address, drone.port);
                 } else {
                     System.err.printf("Scheduler: injectFaultEvent — unknown droneId %d%n", droneId);
                 }
@@ -227,23 +327,23 @@ public class Scheduler implements Runnable {
             case "missionCompleted": {
                 // missionCompleted|droneId|zoneId|waterUsed
                 missionCompleted(
-                        Integer.parseInt(parts[1]),
-                        Integer.parseInt(parts[2]),
-                        Integer.parseInt(parts[3]));
+                        m.intField(1),
+                        m.intField(2),
+                        m.intField(3));
                 sendReply("ACK", addr, port);
                 break;
             }
 
             // Drone heading back to base
             case "droneRefilling": {
-                droneRefilling(Integer.parseInt(parts[1]));
+                droneRefilling(m.intField(1));
                 sendReply("ACK", addr, port);
                 break;
             }
 
             // Drone refill complete, ready for missions
             case "droneRefillComplete": {
-                droneRefillComplete(Integer.parseInt(parts[1]));
+                droneRefillComplete(m.intField(1));
                 sendReply("ACK", addr, port);
                 break;
             }
@@ -251,31 +351,37 @@ public class Scheduler implements Runnable {
             // Continuous position report from drone
             case "locationUpdate": {
                 // locationUpdate|droneId|x|y|state
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneInfo info = droneRegistry.get(droneId);
                 if (info != null) {
-                    int newX = Integer.parseInt(parts[2]);
-                    int newY = Integer.parseInt(parts[3]);
-                    String newState = parts[4];
+                    int newX = m.intField(2);
+                    int newY = m.intField(3);
+                    String newState = m.wordOrString(4, WORDS);
                     // Log meaningful mid-flight state transitions
                     if ("FAULTED".equals(newState) && !"FAULTED".equals(info.state)) {
                         log(String.format("Scheduler [%s]: Drone %d STUCK at (%d,%d) — pausing%n",
                                 clock.getFormattedTime(), droneId, newX, newY));
                     }
-                    info.x     = newX;
-                    info.y     = newY;
-                    info.state = newState;
+                    if (info.x != newX || info.y != newY || !newState.equals(info.state)) {
+                        info.x     = newX;
+                        info.y     = newY;
+                        info.state = newState;
+                        changeFeed.droneChanged(info);
+                    }
                 }
                 sendReply("ACK", addr, port);
                 break;
             }
             case "batteryUpdate": {
                 // batteryUpdate|droneId|battery
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneInfo info = droneRegistry.get(droneId);
                 if (info != null) {
-                    int battery = Integer.parseInt(parts[2]);
-                    info.batteryLevel     = battery;
+                    int battery = m.intField(2);
+                    if (info.batteryLevel != battery) {
+                        info.batteryLevel = battery;
+                        changeFeed.droneChanged(info);
+                    }
                 }
                 sendReply("ACK", addr, port);
                 break;
@@ -284,12 +390,12 @@ public class Scheduler implements Runnable {
             // Drone returns an interrupted mission for re-queuing
             // rescheduleFireEvent|zoneId|eventType|severity|waterRemaining|secondsFromStart
             case "rescheduleFireEvent": {
-                int waterRemaining = Integer.parseInt(parts[4]);
-                int secondsFromStart = Integer.parseInt(parts[5]);
+                int waterRemaining = m.intField(4);
+                int secondsFromStart = m.intField(5);
                 FireEvent event = new FireEvent(
-                        Integer.parseInt(parts[1]),
-                        parts[2],
-                        parts[3],
+                        m.intField(1),
+                        m.wordOrString(2, WORDS),
+                        m.wordOrString(3, WORDS),
                         secondsFromStart);
                 // Restore the exact water still needed so another drone picks up the right amount
                 int deficit = event.getWaterRemaining() - waterRemaining;
@@ -303,38 +409,47 @@ public class Scheduler implements Runnable {
 
             // FireIncidentSubsystem clock query
             case "getTime": {
-                sendReply(String.valueOf(clock.getSimulationTimeSeconds()), addr, port);
+                sendReply(writer.get().begin(clock.getSimulationTimeSeconds()), "REPLY", addr, port);
                 break;
             }
 
             case "isZoneActive": {
-                int zoneId = Integer.parseInt(parts[1]);
+                int zoneId = m.intField(1);
                 sendReply(isZoneActive(zoneId) ? "true" : "false", addr, port);
                 break;
             }
 
             case "loadZones": {
-                String filePath = parts[1];
-                try {
-                    List<String> errors = loadZonesFromFile(filePath);
-                    if (errors.isEmpty()) {
-                        sendReply("ACK", addr, port);
-                        log("Scheduler: Zones loaded from " + filePath);
-                    } else {
-                        sendReply("ERR|" + String.join(";", errors), addr, port);
-                        log("Scheduler: Zone load errors: " + errors);
+                // Reading a large file must not hold up the receive loop;
+                // the reply goes out from the loader once the zones are swapped in
+                String filePath = m.stringField(1);
+                long tag = replyTag >= 0 && port == replyPort && addr.equals(replyAddr) ? replyTag : -1;
+                zoneLoader.execute(() -> {
+                    try {
+                        List<String> errors = loadZonesFromFile(filePath);
+                        if (errors.isEmpty()) {
+                            send(out("ACK").tag(tag), "ACK", addr, port);
+                            log("Scheduler: Zones loaded from " + filePath);
+                        } else {
+                            send(out("ERR").field(String.join(";", errors)).tag(tag), "ERR", addr, port);
+                            log("Scheduler: Zone load errors: " + errors);
+                        }
+                    } catch (Exception e) {
+                        try {
+                            send(out("ERR").field(String.valueOf(e.getMessage())).tag(tag), "ERR", addr, port);
+                        } catch (IOException ignored) {
+                            // socket closed by stop()
+                        }
                     }
-                } catch (Exception e) {
-                    sendReply("ERR|" + e.getMessage(), addr, port);
-                }
+                });
                 break;
             }
 
             // Soft fault
             case "droneFaulted": {
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneInfo drone = droneRegistry.get(droneId);
-                if (drone != null) drone.state = "FAULTED";
+                setDroneState(drone, "FAULTED");
 
                 log(String.format("Scheduler [%s]: Drone %d SOFT FAULT — re-queuing mission%n",
                         clock.getFormattedTime(), droneId));
@@ -351,13 +466,13 @@ public class Scheduler implements Runnable {
 
             // Hard fault
             case "droneHardFault": {
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneInfo drone = droneRegistry.get(droneId);
 
                 log(String.format("Scheduler [%s]: Drone %d HARD FAULT — decommissioning%n",
                         clock.getFormattedTime(), droneId));
 
-                if (drone != null) drone.state = "DECOMMISSIONED";
+                setDroneState(drone, "DECOMMISSIONED");
 
                 activeMissionCount = Math.max(0, activeMissionCount - 1);
                 retrieveAndRescheduleLostMission(droneId);
@@ -365,7 +480,7 @@ public class Scheduler implements Runnable {
                 // Tell DroneSubsystem to shut this drone down permanently.
                 // DECOMMISSION|droneId so DroneSubsystem can route it.
                 if (drone != null) {
-                    sendReply("DECOMMISSION|" + droneId, drone.address, drone.port);
+                    sendReply(out("DECOMMISSION").field(droneId), "DECOMMISSION", drone.address, drone.port);
                 }
 
                 sendReply("ACK", addr, port);
@@ -376,9 +491,9 @@ public class Scheduler implements Runnable {
 
             // Soft fault recovery
             case "droneRecovered": {
-                int droneId = Integer.parseInt(parts[1]);
+                int droneId = m.intField(1);
                 DroneInfo drone = droneRegistry.get(droneId);
-                if (drone != null) drone.state = "IDLE";
+                setDroneState(drone, "IDLE");
                 log(String.format("Scheduler [%s]: Drone %d recovered — IDLE%n",
                         clock.getFormattedTime(), droneId));
                 // If the fault fired during extinguishing, the mission was abandoned
@@ -390,7 +505,7 @@ public class Scheduler implements Runnable {
             }
 
             default:
-                System.err.println("Scheduler: unknown message: " + parts[0]);
+                System.err.println("Scheduler: unknown message: " + op);
         }
     }
 
@@ -404,12 +519,10 @@ public class Scheduler implements Runnable {
     private void retrieveAndRescheduleLostMission(int droneId) {
         FireEvent lost = droneActiveMission.remove(droneId);
         if (lost != null) {
-            System.out.printf("Scheduler: Re-queuing lost mission from Drone %d"
-                    + " (Zone %d)%n", droneId, lost.getZoneId());
-            assignedWaterPerZone.computeIfPresent(
-                    lost.getZoneId(),
-                    (k, v) -> (v - lost.getWaterRemaining() <= 0)
-                            ? null : v - lost.getWaterRemaining());
+            log(String.format("Scheduler: Re-queuing lost mission from Drone %d"
+                    + " (Zone %d)%n", droneId, lost.getZoneId()));
+            assignedWaterPerZone.subtract(lost.getZoneId(), lost.getWaterRemaining());
+            fireChanged(lost.getZoneId());
             rescheduleUnfinishedFireEvent(lost);
         }
     }
@@ -425,7 +538,7 @@ public class Scheduler implements Runnable {
             FireEvent mission = peekHighestPriorityEvent();
             if (mission == null) break;  // no pending fires
 
-            Zone zone = zones.get(mission.getZoneId());
+            Zone zone = zoneTable.get().get(mission.getZoneId());
             if (zone == null) break;
 
             int droneId = getClosestIdleDroneWithWater(
@@ -440,9 +553,13 @@ public class Scheduler implements Runnable {
                     mission.getWaterRemaining());
             int remainingWater = mission.getWaterRemaining() - waterToAssign;
 
-            assignedWaterPerZone.merge(mission.getZoneId(), waterToAssign, Integer::sum);
-            drone.state = "ONROUTE";
+            assignedWaterPerZone.add(mission.getZoneId(), waterToAssign);
+            fireChanged(mission.getZoneId());
+            setDroneState(drone, "ONROUTE");
             activeMissionCount++;
+            missionsDispatched++;
+            dispatchLatency.record(
+                    (clock.getSimulationTimeSeconds() - mission.getSecondsFromStart()) * 1000L);
 
             FireEvent droneMission;
             if (remainingWater > 0) {
@@ -477,20 +594,18 @@ public class Scheduler implements Runnable {
      */
     private void pushMissionToDrone(DroneInfo drone, FireEvent mission, int targetX, int targetY) {
         try {
-            String msg = "ASSIGN_MISSION|"
-                    + drone.droneId                  + "|"
-                    + mission.getZoneId()             + "|"
-                    + mission.getEventType()          + "|"
-                    + mission.getSeverity().name()    + "|"
-                    + mission.getWaterRemaining()     + "|"
-                    + mission.getSecondsFromStart()   + "|"
-                    + targetX                         + "|"
-                    + targetY;
-            byte[] data = msg.getBytes();
-            socket.send(new DatagramPacket(
-                    data, data.length, drone.address, drone.port));
-            System.out.printf("Scheduler: Pushed mission to Drone %d at %s:%d%n",
-                    drone.droneId, drone.address.getHostAddress(), drone.port);
+            MessageWriter msg = out("ASSIGN_MISSION")
+                    .field(drone.droneId)
+                    .field(mission.getZoneId())
+                    .field(mission.getEventType())
+                    .field(mission.getSeverity().name())
+                    .field(mission.getWaterRemaining())
+                    .field(mission.getSecondsFromStart())
+                    .field(targetX)
+                    .field(targetY);
+            send(msg, "ASSIGN_MISSION", drone.address, drone.port);
+            log(String.format("Scheduler: Pushed mission to Drone %d at %s:%d%n",
+                    drone.droneId, drone.address.getHostAddress(), drone.port));
         } catch (Exception e) {
             System.err.printf("Scheduler: failed to push to Drone %d: %s%n",
                     drone.droneId, e.getMessage());
@@ -507,7 +622,8 @@ public class Scheduler implements Runnable {
             if (drone.waterRemaining <= 0) continue;
 
             double dist = distance(drone.x, drone.y, targetX, targetY);
-            if (dist < bestDist) {
+            // Ties go to the lowest ID, whatever order the registry iterates in
+            if (dist < bestDist || (dist == bestDist && drone.droneId < bestId)) {
                 bestDist = dist;
                 bestId = drone.droneId;
             }
@@ -536,38 +652,67 @@ public class Scheduler implements Runnable {
 
         if (zoneAlreadyBurning) {
             // Hold it until the current fire is resolved
-            pendingFiresByZone
-                    .computeIfAbsent(zoneId, k -> new LinkedList<>())
-                    .add(event);
-            System.out.printf("Scheduler [%s]: Zone %d already has an active fire " +
-                    "— queuing new event%n", clock.getFormattedTime(), zoneId);
+            Deque<FireEvent> held = pendingFiresByZone.get(zoneId);
+            if (held == null) pendingFiresByZone.put(zoneId, held = new LinkedList<>());
+            held.add(event);
+            log(String.format("Scheduler [%s]: Zone %d already has an active fire " +
+                    "— queuing new event%n", clock.getFormattedTime(), zoneId));
             return;
         }
 
+        queueNewFire(event);
+        tryDispatch();
+        publishFireChanges();
+    }
+
+    /**
+     * Enqueues every fire in a same-instant batch and then runs a single
+     * tryDispatch, so the last fire in a storm is not held back behind the
+     * round trips of the ones before it.
+     *
+     * Fires for a zone that is already burning (including one earlier in the
+     * same batch) are dropped, matching the duplicate check the
+     * FireIncidentSubsystem makes before sending a single event.
+     *
+     * @param batch fires that share the same secondsFromStart
+     * @return number of fires that were queued
+     */
+    public synchronized int receiveFireEventBatch(List<FireEvent> batch) {
+        int accepted = 0;
+        for (FireEvent event : batch) {
+            if (isZoneActive(event.getZoneId())) {
+                log(String.format("Scheduler [%s]: Zone %d already has an active fire " +
+                        "— dropping batched duplicate%n", clock.getFormattedTime(), event.getZoneId()));
+                continue;
+            }
+            allDronesReturnedHome = false;
+            queueNewFire(event);
+            accepted++;
+        }
+        if (accepted > 0) tryDispatch();
+        publishFireChanges();
+        return accepted;
+    }
+
+    /** Adds a newly detected fire to its priority queue and records it. */
+    private void queueNewFire(FireEvent event) {
         log(String.format("Scheduler [%s]: Fire at Zone %d (severity=%s)%n",
                 clock.getFormattedTime(), event.getZoneId(), event.getSeverity()));
         enqueue(event);
-        logEvent("Scheduler,FIRE_DETECTED,ZONE " + event.getZoneId());
+        fireChanged(event.getZoneId());
+        logEvent(Event.fireDetected(event.getZoneId(), event.getSeverity()));
         if (currentState == SchedulerState.IDLE) {
             currentState = SchedulerState.DISPATCHING;
         }
-        tryDispatch();
     }
 
     /** Returns true if this zone has a fire currently queued or being serviced. */
     private boolean isZoneActive(int zoneId) {
-        // Check the priority queues
-        for (FireEvent e : highFireEventQueue)
-            if (e.getZoneId() == zoneId) return true;
-        for (FireEvent e : moderateFireEventQueue)
-            if (e.getZoneId() == zoneId) return true;
-        for (FireEvent e : lowFireEventQueue)
-            if (e.getZoneId() == zoneId) return true;
-        // Check currently assigned missions
-        return assignedWaterPerZone.containsKey(zoneId);
+        return queuedFiresPerZone.containsKey(zoneId) || assignedWaterPerZone.containsKey(zoneId);
     }
 
     private void enqueue(FireEvent event) {
+        countQueued(event);
         switch (event.getSeverity()) {
             case HIGH:
                 highFireEventQueue.add(event);
@@ -585,9 +730,10 @@ public class Scheduler implements Runnable {
         Deque<FireEvent> pending = pendingFiresByZone.get(zoneId);
         if (pending != null && !pending.isEmpty()) {
             FireEvent next = pending.poll();
-            System.out.printf("Scheduler [%s]: Zone %d clear — releasing held fire event%n",
-                    clock.getFormattedTime(), zoneId);
+            log(String.format("Scheduler [%s]: Zone %d clear — releasing held fire event%n",
+                    clock.getFormattedTime(), zoneId));
             enqueue(next);
+            fireChanged(zoneId);
             if (currentState == SchedulerState.IDLE)
                 currentState = SchedulerState.DISPATCHING;
         }
@@ -607,16 +753,28 @@ public class Scheduler implements Runnable {
      * Destructive poll of the highest-priority queued event.
      */
     private FireEvent retrieveHighestPriorityEvent() {
-        if (!highFireEventQueue.isEmpty()) return highFireEventQueue.pollFirst();
-        if (!moderateFireEventQueue.isEmpty()) return moderateFireEventQueue.pollFirst();
-        if (!lowFireEventQueue.isEmpty()) return lowFireEventQueue.pollFirst();
-        return null;
+        FireEvent event;
+        if (!highFireEventQueue.isEmpty()) event = highFireEventQueue.pollFirst();
+        else if (!moderateFireEventQueue.isEmpty()) event = moderateFireEventQueue.pollFirst();
+        else if (!lowFireEventQueue.isEmpty()) event = lowFireEventQueue.pollFirst();
+        else return null;
+        queuedFiresPerZone.subtract(event.getZoneId(), 1);
+        queuedWaterPerZone.subtract(event.getZoneId(), event.getWaterRemaining());
+        return event;
+    }
+
+    /** Adds a fire about to be queued to the per-zone totals; every insertion goes through here. */
+    private void countQueued(FireEvent event) {
+        queuedFiresPerZone.add(event.getZoneId(), 1);
+        queuedWaterPerZone.add(event.getZoneId(), event.getWaterRemaining());
     }
 
     /**
      * Re-inserts a partially-serviced event at the front of its priority queue.
      */
     public synchronized void rescheduleUnfinishedFireEvent(FireEvent event) {
+        fireChanged(event.getZoneId());
+        countQueued(event);
         switch (event.getSeverity()) {
             case HIGH:
                 highFireEventQueue.addFirst(event);
@@ -644,10 +802,10 @@ public class Scheduler implements Runnable {
                 clock.getFormattedTime(), droneId, zoneId, waterUsed));
 
         // Reduce or remove the committed water entry for this zone
-        assignedWaterPerZone.computeIfPresent(zoneId,
-                (k, v) -> (v - waterUsed <= 0) ? null : v - waterUsed);
+        assignedWaterPerZone.subtract(zoneId, waterUsed);
+        fireChanged(zoneId);
 
-        if (!isZoneActive(zoneId)) logEvent("Scheduler,FIRE_EXTINGUISHED,ZONE " + zoneId);
+        if (!isZoneActive(zoneId)) logEvent(Event.fireExtinguished(zoneId));
 
         // Update the drone record
         DroneInfo info = droneRegistry.get(droneId);
@@ -660,6 +818,7 @@ public class Scheduler implements Runnable {
             } else {
                 info.state = "RETURNING";
             }
+            changeFeed.droneChanged(info);
         }
 
         activeMissionCount--;
@@ -667,13 +826,14 @@ public class Scheduler implements Runnable {
         tryDispatch();
         releasePendingFireForZone(zoneId);
         checkAndSendDronesHome();
+        publishFireChanges();
     }
 
     public synchronized void droneRefilling(int droneId) {
         log(String.format("Scheduler [%s]: Drone %d returning to base — refilling%n",
                 clock.getFormattedTime(), droneId));
         DroneInfo info = droneRegistry.get(droneId);
-        if (info != null) info.state = "REFILLING";
+        setDroneState(info, "REFILLING");
         refillingCount++;
         currentState = SchedulerState.REFILLING;
     }
@@ -686,11 +846,13 @@ public class Scheduler implements Runnable {
             info.state = "IDLE";
             info.waterRemaining = 15;
             info.batteryLevel = 100;
+            changeFeed.droneChanged(info);
         }
         refillingCount = Math.max(0, refillingCount - 1);
         updateSchedulerState(0);
         tryDispatch();
         checkAndSendDronesHome();
+        publishFireChanges();
     }
 
     /**
@@ -716,10 +878,9 @@ public class Scheduler implements Runnable {
         for (DroneInfo drone : droneRegistry.values()) {
             if ("IDLE".equals(drone.state) && (drone.x != 0 || drone.y != 0)) {
                 try {
-                    String msg = "RETURN_TO_BASE|" + drone.droneId;
-                    byte[] data = msg.getBytes();
-                    socket.send(new DatagramPacket(data, data.length, drone.address, drone.port));
-                    drone.state = "RETURNING";
+                    send(out("RETURN_TO_BASE").field(drone.droneId), "RETURN_TO_BASE",
+                            drone.address, drone.port);
+                    setDroneState(drone, "RETURNING");
                     log(String.format("Scheduler [%s]: Drone %d returning to base%n",
                             clock.getFormattedTime(), drone.droneId));
                 } catch (Exception e) {
@@ -749,6 +910,49 @@ public class Scheduler implements Runnable {
         }
     }
 
+    // =========== GUI CHANGE FEED =========
+
+    /** Feed of drone, fire and zone changes for the GUI; see {@link ChangeFeed}. */
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /** Sets a drone's state, if the drone is known, and publishes the change. */
+    private void setDroneState(DroneInfo drone, String state) {
+        if (drone == null || state.equals(drone.state)) return;
+        drone.state = state;
+        changeFeed.droneChanged(drone);
+    }
+
+    /** Notes that the water still needed in a zone changed, for the next {@link #publishFireChanges}. */
+    private void fireChanged(int zoneId) {
+        changedFireZones.put(zoneId, 0);
+    }
+
+    /**
+     * Publishes the water still needed in every zone whose fire changed
+     * since the last call, from the per-zone totals, with the queue depths.
+     * Called once the Scheduler finishes handling a message. Skipped while
+     * the feed is not taking changes (no GUI, or a resync is due): the
+     * consumer then reads the full state anyway.
+     */
+    private void publishFireChanges() {
+        if (changedFireZones.isEmpty()) return;
+        if (!changeFeed.isAccepting()) {
+            changedFireZones.clear();
+            return;
+        }
+        Map<Integer, Integer> water = new HashMap<>();
+        changedFireZones.forEach((zoneId, unused) -> water.put(zoneId,
+                queuedWaterPerZone.get(zoneId, 0) + assignedWaterPerZone.get(zoneId, 0)));
+        changedFireZones.clear();
+        changeFeed.firesChanged(water, new int[]{
+                highFireEventQueue.size(),
+                moderateFireEventQueue.size(),
+                lowFireEventQueue.size()
+        });
+    }
+
     // =========== ACCESSORS FOR GUI & TESTING =========
 
     /**
@@ -772,17 +976,11 @@ public class Scheduler implements Runnable {
     }
 
     public synchronized GuiSnapshot getGuiSnapshot() {
-        Map<Integer, DroneInfo> dronesCopy = new HashMap<>(droneRegistry);
+        Map<Integer, DroneInfo> dronesCopy = droneRegistry.toMap();
 
         Map<Integer, Integer> fires = new HashMap<>();
-        for (FireEvent e : highFireEventQueue)
-            fires.merge(e.getZoneId(), e.getWaterRemaining(), Integer::sum);
-        for (FireEvent e : moderateFireEventQueue)
-            fires.merge(e.getZoneId(), e.getWaterRemaining(), Integer::sum);
-        for (FireEvent e : lowFireEventQueue)
-            fires.merge(e.getZoneId(), e.getWaterRemaining(), Integer::sum);
-        for (Map.Entry<Integer, Integer> entry : assignedWaterPerZone.entrySet())
-            fires.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        queuedFiresPerZone.forEach((zoneId, count) -> fires.put(zoneId, queuedWaterPerZone.get(zoneId, 0)));
+        assignedWaterPerZone.forEach((zoneId, litres) -> fires.merge(zoneId, litres, Integer::sum));
 
         int[] counts = {
                 highFireEventQueue.size(),
@@ -797,8 +995,14 @@ public class Scheduler implements Runnable {
         return currentState;
     }
 
+    /** Copy of the registered drones, safe to iterate without holding the Scheduler's lock. */
+    public synchronized List<DroneInfo> getDroneList() {
+        return new ArrayList<>(droneRegistry.values());
+    }
+
+    /** Copy of the registry by drone ID; the records themselves are shared. */
     public synchronized Map<Integer, DroneInfo> getDroneRegistry() {
-        return Collections.unmodifiableMap(droneRegistry);
+        return Collections.unmodifiableMap(droneRegistry.toMap());
     }
 
     public synchronized int[] getFireCountsBySeverity() {
@@ -811,29 +1015,109 @@ public class Scheduler implements Runnable {
 
     public synchronized Map<Integer, Integer> getActiveFiresPerZone() {
         Map<Integer, Integer> total = new HashMap<>();
-        for (FireEvent e : highFireEventQueue)
-            total.merge(e.getZoneId(), e.getWaterRemaining(), Integer::sum);
-        for (FireEvent e : moderateFireEventQueue)
-            total.merge(e.getZoneId(), e.getWaterRemaining(), Integer::sum);
-        for (FireEvent e : lowFireEventQueue)
-            total.merge(e.getZoneId(), e.getWaterRemaining(), Integer::sum);
-        for (Map.Entry<Integer, Integer> entry : assignedWaterPerZone.entrySet())
-            total.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        queuedFiresPerZone.forEach((zoneId, count) -> total.put(zoneId, queuedWaterPerZone.get(zoneId, 0)));
+        assignedWaterPerZone.forEach((zoneId, litres) -> total.merge(zoneId, litres, Integer::sum));
         return total;
     }
 
 
-    private void sendReply(String message, InetAddress addr, int port)
-            throws Exception {
-        byte[] data = message.getBytes();
-        socket.send(new DatagramPacket(data, data.length, addr, port));
+    /** This thread's writer, started on a new message with {@code opcode}. */
+    private MessageWriter out(String opcode) {
+        return writer.get().begin(opcode);
+    }
+
+    /** Sends a one-word reply ("ACK", "true", ...), tagged if it answers the tagged request. */
+    private void sendReply(String message, InetAddress addr, int port) throws IOException {
+        sendReply(out(message), typeOf(message), addr, port);
+    }
+
+    private void sendReply(MessageWriter message, String type, InetAddress addr, int port)
+            throws IOException {
+        if (replyTag >= 0 && port == replyPort && addr.equals(replyAddr)) {
+            message.tag(replyTag);
+        }
+        send(message, type, addr, port);
+    }
+
+    /** Sends one datagram and counts it under {@code type}. */
+    private void send(MessageWriter message, String type, InetAddress addr, int port) throws IOException {
+        message.send(channel, addr, port);
+        countDatagram(datagramsOut, type);
+    }
+
+    /** Metrics label of a one-word message; plain values (getTime, isZoneActive replies) are grouped. */
+    private static String typeOf(String message) {
+        return message.isEmpty() || !Character.isLetter(message.charAt(0))
+                || message.equals("true") || message.equals("false") ? "REPLY" : message;
+    }
+
+    private static void countDatagram(Map<String, LongAdder> counts, String type) {
+        LongAdder c = counts.get(type);
+        if (c == null) {
+            if (counts.size() >= MAX_MESSAGE_TYPES) type = "other";
+            c = counts.computeIfAbsent(type, k -> new LongAdder());
+        }
+        c.increment();
+    }
+
+    // =========== LIVE METRICS =========
+
+    /**
+     * Writes the Scheduler's live metrics for a {@link MetricsHttpServer}
+     * scrape: queue depth per severity, active missions, drones per state,
+     * datagrams in/out per message type and the detection-to-dispatch
+     * latency (simulation time).
+     */
+    public synchronized void writeMetrics(MetricsHttpServer.Exposition out) {
+        int[] counts = getFireCountsBySeverity();
+        out.gauge("scheduler_queue_depth", "Fires waiting for a drone, by severity");
+        out.sample("scheduler_queue_depth", counts[0], "severity", "HIGH");
+        out.sample("scheduler_queue_depth", counts[1], "severity", "MODERATE");
+        out.sample("scheduler_queue_depth", counts[2], "severity", "LOW");
+
+        out.gauge("scheduler_active_missions", "Drones currently assigned to a fire");
+        out.sample("scheduler_active_missions", activeMissionCount);
+        out.counter("scheduler_missions_dispatched_total", "Missions pushed to drones");
+        out.sample("scheduler_missions_dispatched_total", missionsDispatched);
+
+        Map<String, Integer> perState = new TreeMap<>();
+        for (DroneMachine.DroneState st : DroneMachine.DroneState.values()) perState.put(st.name(), 0);
+        for (DroneInfo d : droneRegistry.values()) perState.merge(d.state, 1, Integer::sum);
+        out.gauge("scheduler_drones", "Registered drones, by last known state");
+        for (Map.Entry<String, Integer> e : perState.entrySet()) {
+            out.sample("scheduler_drones", e.getValue(), "state", e.getKey());
+        }
+
+        out.counter("scheduler_datagrams_received_total", "UDP datagrams received, by message type");
+        for (Map.Entry<String, LongAdder> e : new TreeMap<>(datagramsIn).entrySet()) {
+            out.sample("scheduler_datagrams_received_total", e.getValue().sum(), "type", e.getKey());
+        }
+        out.counter("scheduler_datagrams_sent_total", "UDP datagrams sent, by message type");
+        for (Map.Entry<String, LongAdder> e : new TreeMap<>(datagramsOut).entrySet()) {
+            out.sample("scheduler_datagrams_sent_total", e.getValue().sum(), "type", e.getKey());
+        }
+
+        out.summary("scheduler_dispatch_latency_seconds",
+                "Simulation time from fire detection to a drone being assigned");
+        out.summary("scheduler_dispatch_latency_seconds", dispatchLatency);
+    }
+
+    public Map<Integer, Zone> getZones() {
+        return zoneTable.get().getZones();
+    }
+
+    /** The zone holding grid cell (x, y), or {@code null} if it is off the map. */
+    public Zone getZoneAt(int x, int y) {
+        return zoneTable.get().zoneAt(x, y);
     }
 
-    public synchronized Map<Integer, Zone> getZones() {
-        return Collections.unmodifiableMap(zones);
+    /** The zones, index and version currently published, as one consistent table. */
+    public ZoneTable getZoneTable() {
+        return zoneTable.get();
     }
 
-    public int getZonesVersion() { return zonesVersion; }
+    /** Incremented every time zones are successfully replaced. */
+    public int getZonesVersion() { return zoneTable.get().getVersion(); }
 
     /**
      * Number of real-world metres represented by one grid cell.
@@ -856,11 +1140,43 @@ public class Scheduler implements Runnable {
      *   - Width and height must each be at least 90 m (3 grid cells)
      *   - No duplicate zone IDs
      *
+     * The file is read, validated and indexed without the Scheduler lock,
+     * so dispatch carries on against the old zones meanwhile; the new table
+     * then replaces them in one atomic swap. Missions already under way keep
+     * the centre they were sent to.
+     *
      * @return list of validation/parse error messages; empty on success.
      */
-    public synchronized List<String> loadZonesFromFile(String filePath) throws IOException {
-        List<String> errors = new ArrayList<>();
+    public List<String> loadZonesFromFile(String filePath) throws IOException {
         Map<Integer, Zone> newZones = new HashMap<>();
+        List<String> errors = readZoneFile(filePath, newZones);
+        if (!errors.isEmpty()) return errors;
+
+        ZoneTable loaded = ZoneTable.of(newZones, 0);
+        ZoneTable table  = zoneTable.updateAndGet(old -> loaded.withVersion(old.getVersion() + 1));
+        changeFeed.zonesReloaded();
+        log(String.format("Scheduler: Loaded %d zones from %s%n", table.size(), filePath));
+        return errors;
+    }
+
+    /** The four 15x15-cell zones a Scheduler starts with. */
+    static Map<Integer, Zone> defaultZones() {
+        Map<Integer, Zone> zones = new HashMap<>();
+        zones.put(1, new Zone(1, 0, 14, 0, 14));
+        zones.put(2, new Zone(2, 15, 29, 0, 14));
+        zones.put(3, new Zone(3, 0, 14, 15, 29));
+        zones.put(4, new Zone(4, 15, 29, 15, 29));
+        return zones;
+    }
+
+    /**
+     * Reads and validates a zone CSV (see {@link #loadZonesFromFile}) into
+     * {@code newZones} without touching any Scheduler, e.g. for a replay.
+     *
+     * @return list of validation/parse error messages; empty on success.
+     */
+    static List<String> readZoneFile(String filePath, Map<Integer, Zone> newZones) throws IOException {
+        List<String> errors = new ArrayList<>();
 
         // Extract every non-negative integer from each line regardless of delimiter/parens.
         java.util.regex.Pattern numPat = java.util.regex.Pattern.compile("\\d+");
@@ -924,52 +1240,17 @@ public class Scheduler implements Runnable {
 
         // ── Coverage validation ───────────────────────────────────────────────
         // Zones must tile the bounding rectangle exactly: no gaps, no overlaps.
-        int bxMin = Integer.MAX_VALUE, bxMax = 0;
-        int byMin = Integer.MAX_VALUE, byMax = 0;
-        for (Zone z : newZones.values()) {
-            bxMin = Math.min(bxMin, z.getXMin());  bxMax = Math.max(bxMax, z.getXMax());
-            byMin = Math.min(byMin, z.getYMin());  byMax = Math.max(byMax, z.getYMax());
-        }
-        int gridW = bxMax - bxMin + 1;
-        int gridH = byMax - byMin + 1;
-        boolean[][] covered = new boolean[gridW][gridH];
-
-        for (Zone z : newZones.values()) {
-            for (int x = z.getXMin(); x <= z.getXMax(); x++) {
-                for (int y = z.getYMin(); y <= z.getYMax(); y++) {
-                    int cx = x - bxMin, cy = y - byMin;
-                    if (covered[cx][cy]) {
-                        errors.add(String.format(
-                                "Zones overlap at cell (%d,%d) = (%dm,%dm)",
-                                x, y, x * METERS_PER_CELL, y * METERS_PER_CELL));
-                        return errors;
-                    }
-                    covered[cx][cy] = true;
-                }
-            }
-        }
-        for (int x = 0; x < gridW; x++) {
-            for (int y = 0; y < gridH; y++) {
-                if (!covered[x][y]) {
-                    int gx = x + bxMin, gy = y + byMin;
-                    errors.add(String.format(
-                            "Gap in zone coverage at cell (%d,%d) = (%dm,%dm)",
-                            gx, gy, gx * METERS_PER_CELL, gy * METERS_PER_CELL));
-                    return errors;
-                }
-            }
-        }
+        // A sweep over the zone edges, so the cost follows the zone count, not the map area.
+        String coverage = ZoneIndex.coverageError(newZones.values(), METERS_PER_CELL);
+        if (coverage != null) errors.add(coverage);
         // ─────────────────────────────────────────────────────────────────────
 
-        zones.clear();
-        zones.putAll(newZones);
-        zonesVersion++;
-        System.out.println("Scheduler: Loaded " + zones.size() + " zones from " + filePath);
         return errors;
     }
 
     public void stop() {
         running = false;
+        zoneLoader.shutdownNow();
         if (socket != null && !socket.isClosed()) {
             socket.close();
         }
@@ -982,6 +1263,7 @@ public class Scheduler implements Runnable {
         DroneInfo info = new DroneInfo(droneId, 0, 0, water,
                 InetAddress.getByName("localhost"), 60000 + droneId, 100);
         droneRegistry.put(droneId, info);
+        changeFeed.droneChanged(info);
     }
 
     /** Returns a copy of a drone's current record, or null if unknown. */
@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.net.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request/reply channel to the Scheduler that many threads can share.
+ *
+ * Every request is tagged with a correlation ID appended as a last field
+ * ("getTime|#42"); the Scheduler echoes the tag on its reply ("315|#42").
+ * A single receiver thread matches replies to waiting requests by tag, so
+ * concurrent callers on the one socket can never read each other's ACKs.
+ *
+ * Replies without a tag (an older Scheduler, or a test stub) are handed to
+ * the oldest outstanding request, which is what the old one-socket,
+ * one-caller code did.
+ */
+public class SchedulerChannel implements AutoCloseable {
+
+    /** Separator placed between a message and its correlation tag. */
+    public static final String TAG_PREFIX = "|#";
+
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Longest request, in bytes, that still fits the Scheduler's 1024-byte
+     * receive buffer once the tag is appended (prefix plus up to 11 digits
+     * and sign for an int tag).
+     */
+    public static final int MAX_PAYLOAD =
+            BUFFER_SIZE - TAG_PREFIX.length() - String.valueOf(Integer.MIN_VALUE).length();
+
+    private final DatagramSocket socket;
+    private final InetAddress    schedulerAddr;
+    private final int            schedulerPort;
+    private final int            timeoutMs;
+    private final int            maxRetries;
+
+    private final AtomicInteger nextTag = new AtomicInteger(1);
+    /** Outstanding requests by tag; ordered so untagged replies go to the oldest. */
+    private final ConcurrentSkipListMap<Integer, CompletableFuture<String>> pending =
+            new ConcurrentSkipListMap<>();
+    private final Thread receiver;
+
+    public SchedulerChannel(InetAddress schedulerAddr, int schedulerPort,
+                            int timeoutMs, int maxRetries) throws SocketException {
+        this.schedulerAddr = schedulerAddr;
+        this.schedulerPort = schedulerPort;
+        this.timeoutMs     = timeoutMs;
+        this.maxRetries    = maxRetries;
+        this.socket        = new DatagramSocket();
+        this.receiver      = new Thread(this::receiveLoop, "SchedulerChannel-Receiver");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    /**
+     * Sends a request and waits for its reply, retrying on timeout.
+     *
+     * @param message request in the usual methodName|arg|... form
+     * @return reply text with the correlation tag removed
+     * @throws Exception if no reply arrives after all retries
+     */
+    public String request(String message) throws Exception {
+        int tag = nextTag.getAndIncrement();
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        pending.put(tag, reply);
+        try {
+            byte[]         data = (message + TAG_PREFIX + tag).getBytes();
+            DatagramPacket pkt  = new DatagramPacket(data, data.length, schedulerAddr, schedulerPort);
+            for (int attempt = 1; attempt <= maxRetries; attempt++) {
+                socket.send(pkt);
+                try {
+                    return reply.get(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    System.err.printf("SchedulerChannel: timeout (attempt %d/%d) for '%s'%n",
+                            attempt, maxRetries, message.split("\\|")[0]);
+                }
+            }
+            throw new Exception("No response after " + maxRetries + " attempts");
+        } finally {
+            pending.remove(tag);
+        }
+    }
+
+    /** Fire-and-forget send to any address (used for EventLogger packets). */
+    public void send(byte[] data, InetAddress addr, int port) throws IOException {
+        socket.send(new DatagramPacket(data, data.length, addr, port));
+    }
+
+    /** Number of requests currently waiting for a reply. */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void receiveLoop() {
+        byte[] buf = new byte[BUFFER_SIZE];
+        DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+        while (!socket.isClosed()) {
+            try {
+                pkt.setLength(buf.length);
+                socket.receive(pkt);
+                String msg = new String(pkt.getData(), 0, pkt.getLength()).trim();
+
+                CompletableFuture<String> waiter;
+                int cut = msg.lastIndexOf(TAG_PREFIX);
+                int tag = cut < 0 ? -1 : parseTag(msg, cut + TAG_PREFIX.length());
+                if (tag >= 0) {
+                    waiter = pending.get(tag);
+                    msg    = msg.substring(0, cut);
+                } else {
+                    Map.Entry<Integer, CompletableFuture<String>> oldest = pending.firstEntry();
+                    waiter = oldest == null ? null : oldest.getValue();
+                }
+                // A late reply to a request that already gave up is simply dropped
+                if (waiter != null) waiter.complete(msg);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.err.println("SchedulerChannel receive error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Parses the digits after the tag prefix, or returns -1 if they are not a tag. */
+    private static int parseTag(String msg, int from) {
+        if (from >= msg.length()) return -1;
+        int tag = 0;
+        for (int i = from; i < msg.length(); i++) {
+            char c = msg.charAt(i);
+            if (c < '0' || c > '9' || tag > (Integer.MAX_VALUE - 9) / 10) return -1;
+            tag = tag * 10 + (c - '0');
+        }
+        return tag;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        for (CompletableFuture<String> waiter : pending.values()) {
+            waiter.completeExceptionally(new SocketException("Channel closed"));
+        }
+    }
+}
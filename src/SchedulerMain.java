@@ -1,28 +1,73 @@
 import javax.swing.*;
 import java.io.*;
+import java.nio.file.Path;
 
 /**
  * Entry point for the Scheduler process. Start this first.
  *
- * Usage:   java SchedulerMain [clockSpeed]
+ * Usage:   java SchedulerMain [clockSpeed] [--metrics-port N] [--headless] [--log-file path] [--quiet]
  * Example: java SchedulerMain 60   (1 simulation minute in one real second)
+ *
+ * --metrics-port port of the Prometheus /metrics endpoint (default 9100, 0 to disable)
+ * --headless     run only the Scheduler core and its UDP loop, without the GUI
+ *                (the default when there is no display)
+ * --log-file     also append the Scheduler's log messages to this file
+ * --quiet        do not print log messages to the console
  */
 public class SchedulerMain {
     public static void main(String[] args) throws Exception {
+        int metricsPort = Scheduler.METRICS_PORT;
+        boolean headless = false, quiet = false;
+        String logFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--metrics-port".equals(args[i])) metricsPort = Integer.parseInt(args[++i]);
+            else if ("--headless".equals(args[i])) headless = true;
+            else if ("--log-file".equals(args[i])) logFile = args[++i];
+            else if ("--quiet".equals(args[i])) quiet = true;
+        }
+        // Only asks whether a display is configured; does not start the toolkit
+        if (!headless && java.awt.GraphicsEnvironment.isHeadless()) {
+            System.out.println("No display available — running headless");
+            headless = true;
+        }
+
         Scheduler scheduler = new Scheduler();
+        scheduler.setConsoleLog(!quiet);
+        AsyncLogWriter logWriter = null;
+        if (logFile != null) {
+            logWriter = new AsyncLogWriter(Path.of(logFile));
+            scheduler.setLogCallback(logWriter::append);
+        }
         new Thread(scheduler, "Scheduler").start();
 
-        System.out.println("Scheduler running on port " + Scheduler.PORT);
+        System.out.println("Scheduler running on port " + Scheduler.PORT + (headless ? " (headless)" : ""));
+        if (metricsPort > 0) MetricsHttpServer.startOrWarn("Scheduler", metricsPort, scheduler::writeMetrics);
 
+        if (headless) {
+            // No GUI keeps the process alive; stop cleanly on Ctrl-C or kill
+            AsyncLogWriter writer = logWriter;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                scheduler.stop();
+                if (writer != null) writer.close();
+            }, "Scheduler shutdown"));
+        } else {
+            launchGui(scheduler, logWriter);
+        }
+    }
 
+    /** Opens the control window; the only place Swing is touched. */
+    private static void launchGui(Scheduler scheduler, AsyncLogWriter logWriter) {
         // Launch GUI on the Swing event thread, then wire the log callback
         SwingUtilities.invokeLater(() -> {
             DroneSwarmFrame frame = new DroneSwarmFrame(scheduler);
             frame.setVisible(true);
-            // Route scheduler log messages to the System Log panel (already on EDT)
-            scheduler.setLogCallback(msg ->
-                    SwingUtilities.invokeLater(() ->
-                            frame.getStatusPanel().logMessage(msg)));
+            // Route scheduler log messages to the System Log panel; it queues
+            // them and adds them to the view once per frame
+            StatusPanel statusPanel = frame.getStatusPanel();
+            scheduler.setLogCallback(logWriter == null ? statusPanel::logMessage : msg -> {
+                logWriter.append(msg);
+                statusPanel.logMessage(msg);
+            });
         });
     }
 }
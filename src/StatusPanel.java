@@ -1,17 +1,36 @@
-
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
 import java.awt.*;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 /**
  * This StatusPanel class is the panel that contains the 
  * log information about whats happening in a textual form.
  *
+ * <p>Messages can be logged from any thread. They are queued in a
+ * {@link LogBuffer} and added to the text area in one batch per frame,
+ * which keeps only the last {@link LogBuffer#DEFAULT_CAPACITY} lines. The
+ * combo box above the log hides lines below a severity.</p>
+ *
  * @author Aryan Kumar Singh (101299776)
  */
 
 public class StatusPanel extends JPanel {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    /** Shortest time between two flushes of the queued messages, in ms. */
+    private static final int FRAME_MS = 100;
+
     private JTextArea statusArea;
     private JScrollPane scrollPane;
+    private JComboBox<String> levelFilter;
+    private final LogBuffer log = new LogBuffer();
+    private final Timer flushTimer;
+    private LogBuffer.Level minLevel = LogBuffer.Level.INFO;
 
     public StatusPanel() {
         setLayout(new BorderLayout());
@@ -25,20 +44,87 @@ public class StatusPanel extends JPanel {
         scrollPane = new JScrollPane(statusArea);
         add(scrollPane, BorderLayout.CENTER);
 
+        // Severity filter
+        levelFilter = new JComboBox<>(new String[]{"All messages", "Warnings and errors", "Errors only"});
+        levelFilter.addActionListener(e -> setMinLevel(LogBuffer.Level.values()[levelFilter.getSelectedIndex()]));
+        add(levelFilter, BorderLayout.NORTH);
+
         // Add clear button
         JButton clearButton = new JButton("Clear Log");
-        clearButton.addActionListener(e -> statusArea.setText(""));
+        clearButton.addActionListener(e -> {
+            log.clear();
+            statusArea.setText("");
+        });
         add(clearButton, BorderLayout.SOUTH);
 
+        // The first message after a flush schedules the next one, a frame later
+        flushTimer = new Timer(FRAME_MS, e -> flush());
+        flushTimer.setRepeats(false);
+        log.setListener(() -> SwingUtilities.invokeLater(() -> {
+            if (!flushTimer.isRunning()) flushTimer.start();
+        }));
+
         logMessage("System initialized");
         logMessage("Waiting for input file...");
     }
 
+    /**
+     * Logs a message, at the severity its wording implies; safe to call
+     * from any thread
+     */
     public void logMessage(String message) {
+        logMessage(LogBuffer.Level.of(message), message);
+    }
+
+    /**
+     * Logs a message at the given severity; safe to call from any thread
+     */
+    public void logMessage(LogBuffer.Level level, String message) {
         // Need to have it be set by model telling view based on actual incident reporting
-        String timestamp = java.time.LocalTime.now().format(
-                java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss"));
-        statusArea.append("[" + timestamp + "] " + message + "\n");
-        statusArea.setCaretPosition(statusArea.getDocument().getLength()); // Auto-scroll
+        String timestamp = LocalTime.now().format(TIME_FORMAT);
+        log.append(level, "[" + timestamp + "] " + message);
+    }
+
+    /**
+     * Adds the queued messages to the text area in one edit, drops the
+     * lines past the capacity from the top, and scrolls to the end
+     */
+    void flush() {
+        List<LogBuffer.Line> lines = log.flush();
+        StringBuilder text = new StringBuilder();
+        for (LogBuffer.Line line : lines) {
+            if (line.level.compareTo(minLevel) >= 0) text.append(line.text).append('\n');
+        }
+        if (text.length() == 0) return;
+        statusArea.append(text.toString());
+
+        Document doc = statusArea.getDocument();
+        Element root = doc.getDefaultRootElement();
+        int excess = root.getElementCount() - 1 - log.getCapacity();   // last element is the empty line
+        if (excess > 0) {
+            try {
+                doc.remove(0, root.getElement(excess).getStartOffset());
+            } catch (BadLocationException e) {
+                statusArea.setText("");
+            }
+        }
+        statusArea.setCaretPosition(doc.getLength()); // Auto-scroll
+    }
+
+    /**
+     * Shows only the lines at or above {@code level}, re-reading the lines held
+     */
+    void setMinLevel(LogBuffer.Level level) {
+        flush();
+        minLevel = level;
+        StringBuilder text = new StringBuilder();
+        for (LogBuffer.Line line : log.lines(level)) text.append(line.text).append('\n');
+        statusArea.setText(text.toString());
+        statusArea.setCaretPosition(statusArea.getDocument().getLength());
+    }
+
+    /** Text currently shown. */
+    String getText() {
+        return statusArea.getText();
     }
 }
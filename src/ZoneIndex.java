@@ -0,0 +1,179 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable cell → zone lookup over a set of non-overlapping zones, and the
+ * coverage check the zone loader runs before accepting them.
+ *
+ * <p>The lookup is a static R-tree packed with Sort-Tile-Recursive: zones are
+ * sorted into vertical slices by centre x, each slice by centre y, and runs
+ * of {@value #NODE} become the leaves' parents, level by level up to one
+ * root. Memory is proportional to the number of zones, not the map area,
+ * and {@link #zoneAt} visits O(log n) nodes.</p>
+ *
+ * <p>{@link #coverageError} sweeps a line across the zones from left to
+ * right, keeping the zones it crosses in a tree ordered by their top row:
+ * a zone that starts where another is still open overlaps it, and a column
+ * where the open zones do not add up to the full height has a gap. That is
+ * O(n log n) in the number of zones, again whatever the map size.</p>
+ */
+public final class ZoneIndex {
+
+    /** Children per node. */
+    static final int NODE = 16;
+
+    private static final ZoneIndex EMPTY = new ZoneIndex(new Zone[0]);
+
+    private final Zone[] leaves;                      // in packing order
+    // Bounds of every node, per level; level 0 groups the leaves, the last level is the root
+    private final int[][] minX, minY, maxX, maxY;
+
+    private ZoneIndex(Zone[] leaves) {
+        this.leaves = leaves;
+        int levels = 0;
+        for (int n = leaves.length; n > 1 || levels == 0; n = (n + NODE - 1) / NODE) levels++;
+        minX = new int[levels][];
+        minY = new int[levels][];
+        maxX = new int[levels][];
+        maxY = new int[levels][];
+
+        int children = leaves.length;
+        for (int level = 0; level < levels; level++) {
+            int nodes = (children + NODE - 1) / NODE;
+            minX[level] = new int[nodes];
+            minY[level] = new int[nodes];
+            maxX[level] = new int[nodes];
+            maxY[level] = new int[nodes];
+            for (int i = 0; i < nodes; i++) {
+                int x1 = Integer.MAX_VALUE, y1 = Integer.MAX_VALUE, x2 = Integer.MIN_VALUE, y2 = Integer.MIN_VALUE;
+                for (int c = i * NODE; c < Math.min(children, (i + 1) * NODE); c++) {
+                    if (level == 0) {
+                        Zone z = leaves[c];
+                        x1 = Math.min(x1, z.getXMin()); y1 = Math.min(y1, z.getYMin());
+                        x2 = Math.max(x2, z.getXMax()); y2 = Math.max(y2, z.getYMax());
+                    } else {
+                        x1 = Math.min(x1, minX[level - 1][c]); y1 = Math.min(y1, minY[level - 1][c]);
+                        x2 = Math.max(x2, maxX[level - 1][c]); y2 = Math.max(y2, maxY[level - 1][c]);
+                    }
+                }
+                minX[level][i] = x1; minY[level][i] = y1;
+                maxX[level][i] = x2; maxY[level][i] = y2;
+            }
+            children = nodes;
+        }
+    }
+
+    /** Packs {@code zones}, which must not overlap, into a lookup tree. */
+    public static ZoneIndex of(Collection<Zone> zones) {
+        if (zones.isEmpty()) return EMPTY;
+        Zone[] leaves = zones.toArray(new Zone[0]);
+        Arrays.sort(leaves, Comparator.comparingInt(z -> z.getXMin() + z.getXMax()));
+        int nodes  = (leaves.length + NODE - 1) / NODE;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int perSlice = slices * NODE;
+        for (int from = 0; from < leaves.length; from += perSlice) {
+            Arrays.sort(leaves, from, Math.min(leaves.length, from + perSlice),
+                    Comparator.comparingInt(z -> z.getYMin() + z.getYMax()));
+        }
+        return new ZoneIndex(leaves);
+    }
+
+    /** The zone holding cell (x, y), or {@code null} if none does. */
+    public Zone zoneAt(int x, int y) {
+        if (leaves.length == 0) return null;
+        return search(minX.length - 1, 0, x, y);
+    }
+
+    private Zone search(int level, int node, int x, int y) {
+        if (x < minX[level][node] || x > maxX[level][node] || y < minY[level][node] || y > maxY[level][node]) {
+            return null;
+        }
+        int from = node * NODE;
+        if (level == 0) {
+            for (int c = from; c < Math.min(leaves.length, from + NODE); c++) {
+                Zone z = leaves[c];
+                if (x >= z.getXMin() && x <= z.getXMax() && y >= z.getYMin() && y <= z.getYMax()) return z;
+            }
+            return null;
+        }
+        for (int c = from; c < Math.min(minX[level - 1].length, from + NODE); c++) {
+            Zone z = search(level - 1, c, x, y);
+            if (z != null) return z;
+        }
+        return null;
+    }
+
+    public int size() {
+        return leaves.length;
+    }
+
+    // ==== Coverage check ====
+
+    /**
+     * Checks that {@code zones} tile their bounding rectangle exactly, with
+     * no overlaps and no gaps.
+     *
+     * @return the first problem found, with a cell it concerns, or
+     *         {@code null} if the zones tile the rectangle
+     */
+    public static String coverageError(Collection<Zone> zones, int metresPerCell) {
+        if (zones.isEmpty()) return null;
+        int byMin = Integer.MAX_VALUE, byMax = Integer.MIN_VALUE, bxMax = Integer.MIN_VALUE;
+        // Each zone opens at its first column and closes after its last
+        long[] events = new long[zones.size() * 2];
+        Zone[] byIndex = zones.toArray(new Zone[0]);
+        for (int i = 0; i < byIndex.length; i++) {
+            Zone z = byIndex[i];
+            byMin = Math.min(byMin, z.getYMin());
+            byMax = Math.max(byMax, z.getYMax());
+            bxMax = Math.max(bxMax, z.getXMax());
+            events[2 * i]     = event(z.getXMin(), true, i);
+            events[2 * i + 1] = event(z.getXMax() + 1, false, i);
+        }
+        Arrays.sort(events);                             // by column, closes before opens
+        long height = (long) byMax - byMin + 1, covered = 0;
+        TreeMap<Integer, Zone> open = new TreeMap<>();   // by top row; pairwise disjoint
+
+        for (int e = 0; e < events.length; ) {
+            int x = (int) (events[e] >> 32);
+            for (; e < events.length && (int) (events[e] >> 32) == x; e++) {
+                Zone z = byIndex[(int) (events[e] & 0x7FFFFFFF)];
+                if ((events[e] & 0x80000000L) == 0) {
+                    open.remove(z.getYMin());
+                    covered -= z.getYMax() - z.getYMin() + 1;
+                    continue;
+                }
+                Map.Entry<Integer, Zone> above = open.floorEntry(z.getYMin());
+                Map.Entry<Integer, Zone> below = open.ceilingEntry(z.getYMin());
+                Zone other = above != null && above.getValue().getYMax() >= z.getYMin() ? above.getValue()
+                           : below != null && below.getKey() <= z.getYMax() ? below.getValue() : null;
+                if (other != null) {
+                    int y = Math.max(z.getYMin(), other.getYMin());
+                    return String.format("Zones overlap at cell (%d,%d) = (%dm,%dm)",
+                            x, y, x * metresPerCell, y * metresPerCell);
+                }
+                open.put(z.getYMin(), z);
+                covered += z.getYMax() - z.getYMin() + 1;
+            }
+            if (x <= bxMax && covered != height) {
+                // Walk down the open zones to the first row none covers
+                int y = byMin;
+                for (Zone z : open.values()) {
+                    if (z.getYMin() > y) break;
+                    y = z.getYMax() + 1;
+                }
+                return String.format("Gap in zone coverage at cell (%d,%d) = (%dm,%dm)",
+                        x, y, x * metresPerCell, y * metresPerCell);
+            }
+        }
+        return null;
+    }
+
+    /** Sort key: column, then closes (0) before opens (1), then zone index. */
+    private static long event(int x, boolean opens, int index) {
+        return ((long) x << 32) | (opens ? 0x80000000L : 0) | index;
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of zones the Scheduler dispatches against: the zones by ID,
+ * the {@link ZoneIndex} over them and the version they were published as.
+ *
+ * <p>A table is built and validated in full before anyone sees it, then
+ * published by swapping one reference, so a reader holding a table always
+ * sees a consistent map, index and version, and a reload never blocks a
+ * reader.</p>
+ */
+public final class ZoneTable {
+
+    private final Map<Integer, Zone> zones;
+    private final IntMap<Zone> byId;     // the same zones, for dispatch without boxing
+    private final ZoneIndex index;
+    private final int version;
+
+    private ZoneTable(Map<Integer, Zone> zones, IntMap<Zone> byId, ZoneIndex index, int version) {
+        this.zones   = zones;
+        this.byId    = byId;
+        this.index   = index;
+        this.version = version;
+    }
+
+    /** A table over a copy of {@code zones}, which must not overlap. */
+    public static ZoneTable of(Map<Integer, Zone> zones, int version) {
+        Map<Integer, Zone> copy = Collections.unmodifiableMap(new HashMap<>(zones));
+        IntMap<Zone> byId = new IntMap<>(copy.size());
+        for (Map.Entry<Integer, Zone> e : copy.entrySet()) byId.put(e.getKey(), e.getValue());
+        return new ZoneTable(copy, byId, ZoneIndex.of(copy.values()), version);
+    }
+
+    /** The same zones published as {@code version}; shares the map and index. */
+    public ZoneTable withVersion(int version) {
+        return version == this.version ? this : new ZoneTable(zones, byId, index, version);
+    }
+
+    public Zone get(int zoneId) {
+        return byId.get(zoneId);
+    }
+
+    /** The zone holding grid cell (x, y), or {@code null} if it is off the map. */
+    public Zone zoneAt(int x, int y) {
+        return index.zoneAt(x, y);
+    }
+
+    /** The zones by ID; unmodifiable. */
+    public Map<Integer, Zone> getZones() {
+        return zones;
+    }
+
+    public int size() {
+        return zones.size();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the lock-free ring buffer and batched file writer behind the
+ * EventLogger.
+ */
+public class AsyncLogWriterTest {
+
+    private Path tempDir;
+
+    @BeforeEach
+    void createDir() throws Exception {
+        tempDir = Files.createTempDirectory("async_log_test");
+    }
+
+    @AfterEach
+    void deleteDir() throws Exception {
+        Files.walk(tempDir).sorted(Comparator.reverseOrder()).map(Path::toFile)
+                .forEach(File::delete);
+    }
+
+    /**
+     * 1. Several producers racing on a small ring lose nothing, and each
+     *    producer's elements come out in the order it added them.
+     */
+    @Test
+    void ringKeepsEveryElementInProducerOrder() throws Exception {
+        LogRingBuffer<long[]> ring = new LogRingBuffer<>(64);
+        int producers = 4, perProducer = 50_000;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread t = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!ring.offer(element)) Thread.yield();
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (received < producers * perProducer && System.currentTimeMillis() < deadline) {
+            long[] element = ring.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) element[0];
+            assertEquals(next[producer], element[1], "Producer " + producer + " out of order");
+            next[producer]++;
+            received++;
+        }
+        for (Thread t : threads) t.join(5_000);
+
+        assertEquals(producers * perProducer, received);
+        assertNull(ring.poll(), "Nothing may be left over");
+    }
+
+    /**
+     * 2. Every appended record reaches the file in order, even when the ring
+     *    is much smaller than the burst, and sync() makes it visible without
+     *    closing the writer.
+     */
+    @Test
+    void writerPersistsBurstInOrder() throws Exception {
+        Path file = tempDir.resolve("log.txt");
+        int records = 20_000;
+        try (AsyncLogWriter writer = new AsyncLogWriter(file, 128, 1000,
+                AsyncLogWriter.FsyncPolicy.NEVER, 1000)) {
+            for (int i = 0; i < records; i++) writer.append("event " + i);
+            writer.sync();
+
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(records, lines.size(), "sync() must write everything appended before it");
+            for (int i = 0; i < records; i++) assertEquals("event " + i, lines.get(i));
+            assertEquals(records, writer.writtenCount());
+        }
+    }
+
+    /** 3. close() drains what is still queued and appends to an existing file. */
+    @Test
+    void closeDrainsQueueAndAppends() throws Exception {
+        Path file = tempDir.resolve("log.txt");
+        Files.write(file, List.of("earlier"));
+
+        AsyncLogWriter writer = new AsyncLogWriter(file, 1024, 60_000,
+                AsyncLogWriter.FsyncPolicy.EVERY_BATCH, 1000);
+        for (int i = 0; i < 500; i++) writer.append(i);
+        writer.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(501, lines.size());
+        assertEquals("earlier", lines.get(0));
+        assertEquals("499", lines.get(500));
+        assertThrows(IllegalStateException.class, () -> writer.append("late"));
+    }
+
+    /**
+     * 4. The sink sees every record, in order, on the writer thread and not
+     *    the producer's; sync() waits for it even with no text file.
+     */
+    @Test
+    void sinkRunsOnWriterThread() throws Exception {
+        List<Object> seen = Collections.synchronizedList(new ArrayList<>());
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        try (AsyncLogWriter writer = new AsyncLogWriter(null, record -> {
+                threads.add(Thread.currentThread().getName());
+                seen.add(record);
+            }, 256, 1000, AsyncLogWriter.FsyncPolicy.NEVER, 1000)) {
+            for (int i = 0; i < 10_000; i++) writer.append(i);
+            writer.sync();
+
+            assertEquals(10_000, seen.size(), "sync() must wait for the sink");
+            for (int i = 0; i < 10_000; i++) assertEquals(i, seen.get(i));
+            assertEquals(Set.of("EventLogger-Writer"), threads);
+            assertEquals(10_000, writer.writtenCount());
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir)) {
+            assertFalse(files.iterator().hasNext(), "no file without a path");
+        }
+    }
+}
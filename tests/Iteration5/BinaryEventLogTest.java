@@ -0,0 +1,214 @@
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the indexed binary event log behind EventLogger queries.
+ */
+public class BinaryEventLogTest {
+
+    private Path tempDir;
+    private Path base;
+
+    @BeforeEach
+    void createDir() throws Exception {
+        tempDir = Files.createTempDirectory("binary_log_test");
+        base    = tempDir.resolve("log.bin");
+    }
+
+    @AfterEach
+    void deleteDir() throws Exception {
+        Files.walk(tempDir).sorted(Comparator.reverseOrder()).map(Path::toFile)
+                .forEach(File::delete);
+    }
+
+    /** Writes one STATE_CHANGE per second for drones 1-20, across several segments. */
+    private static int fillLog(BinaryEventLog log) throws Exception {
+        int events = BinaryEventLog.SEGMENT_RECORDS * 2 + 1000;
+        for (int i = 0; i < events; i++) {
+            int drone = i % 20 + 1;
+            if (i % 1000 == 0) log.append(i, "Scheduler", "FIRE_DETECTED", "ZONE " + (i / 1000 % 5));
+            else log.append(i, "Drone " + drone, "STATE_CHANGE", "ONROUTE", "ZONE " + (drone % 4));
+        }
+        return events;
+    }
+
+    /** 1. Entity + time-range and code + data queries return exactly the matching events. */
+    @Test
+    void queriesReturnMatchingEvents() throws Exception {
+        try (BinaryEventLog log = BinaryEventLog.create(base)) {
+            int events = fillLog(log);
+            assertEquals(events, log.size());
+
+            List<BinaryEventLog.Record> drone17 = log.eventsFor("Drone 17", 3600, 7200);
+            assertFalse(drone17.isEmpty());
+            for (BinaryEventLog.Record r : drone17) {
+                assertEquals("Drone 17", r.entity);
+                assertTrue(r.time >= 3600 && r.time <= 7200);
+                assertArrayEquals(new String[]{"ONROUTE", "ZONE 1"}, r.data);
+            }
+            // i % 20 == 16 in [3600, 7200], minus the ones that were fire events
+            long expected = 0;
+            for (int i = 3600; i <= 7200; i++) if (i % 20 == 16 && i % 1000 != 0) expected++;
+            assertEquals(expected, drone17.size());
+
+            List<BinaryEventLog.Record> fires = log.eventsWith("FIRE_DETECTED", "ZONE 3");
+            long expectedFires = 0;
+            for (int i = 0; i < events; i += 1000) if (i / 1000 % 5 == 3) expectedFires++;
+            assertEquals(expectedFires, fires.size());
+
+            assertTrue(log.eventsFor("Drone 99", 0, Long.MAX_VALUE).isEmpty(), "Unknown names match nothing");
+        }
+    }
+
+    /** 2. A reopened log answers the same queries, with or without its saved indexes. */
+    @Test
+    void reopenedLogKeepsIndexAndDictionary() throws Exception {
+        List<BinaryEventLog.Record> before;
+        try (BinaryEventLog log = BinaryEventLog.create(base)) {
+            fillLog(log);
+            before = log.eventsFor("Drone 3", 100_000, 200_000);
+        }
+
+        try (BinaryEventLog log = BinaryEventLog.open(base)) {
+            assertEquals(before.size(), log.eventsFor("Drone 3", 100_000, 200_000).size());
+            log.append(999_999, "Drone 3", "STATE_CHANGE", "IDLE");
+            assertEquals(1, log.eventsFor("Drone 3", 999_999, 999_999).size(), "Appends after reopening");
+        }
+
+        // Simulate a log that was not closed cleanly
+        Files.delete(Paths.get(base + ".0000.idx"));
+        try (BinaryEventLog log = BinaryEventLog.open(base)) {
+            assertEquals(before.size(), log.eventsFor("Drone 3", 100_000, 200_000).size());
+        }
+    }
+
+    /** 3. The text rendering matches the log.txt line format. */
+    @Test
+    void rendersTextLogLines() throws Exception {
+        try (BinaryEventLog log = BinaryEventLog.create(base)) {
+            log.append(212, "Drone 4", "STATE_CHANGE", "ONROUTE", "ZONE 2");
+            log.append(215, "Scheduler", "STARTED");
+            StringWriter out = new StringWriter();
+            log.renderText(out);
+            assertEquals("Event log: [00:03:32, Drone 4, STATE_CHANGE, ONROUTE, ZONE 2]\n"
+                    + "Event log: [00:03:35, Scheduler, STARTED]\n", out.toString());
+        }
+    }
+
+    /**
+     * 4. Queries on another thread see every record appended so far, flushed
+     *    or not, and never a partial one, while appends carry on.
+     */
+    @Test
+    void queriesRunAlongsideAppends() throws Exception {
+        try (BinaryEventLog log = BinaryEventLog.create(base)) {
+            int events = BinaryEventLog.SEGMENT_RECORDS + 50_000;
+            Thread appender = new Thread(() -> {
+                try {
+                    for (int i = 0; i < events; i++) {
+                        log.append(i, "Drone " + (i % 4 + 1), "STATE_CHANGE", "IDLE", "ZONE " + (i % 4));
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            appender.start();
+
+            int seen = 0, queries = 0;
+            while (appender.isAlive() || queries == 0) {
+                List<BinaryEventLog.Record> drone2 = log.eventsFor("Drone 2", 0, Long.MAX_VALUE);
+                assertTrue(drone2.size() >= seen, "a later query lost records");
+                for (int k = 0; k < drone2.size(); k++) {
+                    BinaryEventLog.Record r = drone2.get(k);
+                    assertEquals(4L * k + 1, r.time);
+                    assertArrayEquals(new String[]{"IDLE", "ZONE 1"}, r.data);
+                }
+                seen = drone2.size();
+                queries++;
+            }
+            appender.join();
+
+            log.append(events, "Drone 2", "STATE_CHANGE", "IDLE");
+            assertEquals(events / 4 + 1, log.eventsFor("Drone 2", 0, Long.MAX_VALUE).size(),
+                    "Unflushed records are queried too");
+        }
+    }
+
+    /** A mix of every typed payload, as the EventLogger receives them. */
+    private static List<Event> typedEvents(int count) {
+        List<Event> events = new ArrayList<>();
+        DroneMachine.DroneState[] states = DroneMachine.DroneState.values();
+        FireEvent.FireSeverity[] severities = FireEvent.FireSeverity.values();
+        for (int i = 0; i < count; i++) {
+            Event e;
+            switch (i % 7) {
+                case 0:  e = Event.stateChange(i % 9, states[i % states.length], i % 5); break;
+                case 1:  e = Event.stateChange(i % 9, states[i % states.length], Event.NO_ZONE); break;
+                case 2:  e = Event.fireDetected(i % 5, severities[i % severities.length]); break;
+                case 3:  e = Event.fireDetected(i % 5, null); break;
+                case 4:  e = Event.fireExtinguished(i % 5); break;
+                case 5:  e = Event.droneFault(i % 9); break;
+                default: e = i % 2 == 0 ? Event.of(EventEntity.FIRE_SUBSYSTEM, EventCode.STARTED)
+                                        : Event.withText(EventEntity.FIRE_SUBSYSTEM, EventCode.STARTED, "run " + i % 3);
+            }
+            events.add(e.at(i));
+        }
+        return events;
+    }
+
+    /**
+     * 5. Typed events, stored as ordinals and ints, answer every query and
+     *    render exactly as the same events appended as text, before and
+     *    after reopening.
+     */
+    @Test
+    void typedEventsQueryLikeTextEvents() throws Exception {
+        Path textBase = tempDir.resolve("text.bin");
+        List<Event> events = typedEvents(20_000);
+        try (BinaryEventLog typed = BinaryEventLog.create(base);
+             BinaryEventLog text  = BinaryEventLog.create(textBase)) {
+            for (Event e : events) {
+                typed.append(e);
+                text.append(e.getTime(), e.getEntity().toString(), e.getCode().name(), e.dataFields());
+            }
+            assertSameAnswers(text, typed);
+        }
+        try (BinaryEventLog typed = BinaryEventLog.open(base);
+             BinaryEventLog text  = BinaryEventLog.open(textBase)) {
+            assertSameAnswers(text, typed);
+        }
+    }
+
+    private static void assertSameAnswers(BinaryEventLog expected, BinaryEventLog actual) throws Exception {
+        StringWriter a = new StringWriter(), b = new StringWriter();
+        expected.renderText(a);
+        actual.renderText(b);
+        assertEquals(a.toString(), b.toString());
+        assertFalse(actual.eventsWith("FIRE_DETECTED", "ZONE 3").isEmpty());
+
+        String[] entities = {null, "Scheduler", "Drone 4", "FireSubsystem", "Drone 99"};
+        String[] codes    = {null, "STATE_CHANGE", "FIRE_DETECTED", "FIRE_EXTINGUISHED", "DRONE_FAULT", "STARTED", "NOPE"};
+        String[] data     = {null, "ZONE 3", "ONROUTE", "HIGH", "LOW", "Drone 2", "run 1", "ZONE 77", "ZONE x"};
+        for (String entity : entities) {
+            for (String code : codes) {
+                for (String field : data) {
+                    String query = entity + "/" + code + "/" + field;
+                    assertEquals(render(expected.query(100, 15_000, entity, code, field)),
+                            render(actual.query(100, 15_000, entity, code, field)), query);
+                }
+            }
+        }
+    }
+
+    private static List<String> render(List<BinaryEventLog.Record> records) {
+        List<String> lines = new ArrayList<>();
+        for (BinaryEventLog.Record r : records) lines.add(r.toString());
+        return lines;
+    }
+}
@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the change feed the Scheduler pushes to the GUI.
+ */
+public class ChangeFeedTest {
+
+    private static DroneInfo drone(int id, int x, String state) {
+        DroneInfo d = new DroneInfo(id, x, 0, 15, null, 0, 100);
+        d.state = state;
+        return d;
+    }
+
+    /** 1. The first drain is a resync; after it changes coalesce per drone and zone, latest wins. */
+    @Test
+    void coalescesPerDroneAndZone() {
+        ChangeFeed feed = new ChangeFeed();
+        feed.droneChanged(drone(1, 0, "IDLE"));
+        ChangeFeed.Batch first = feed.drain();
+        assertTrue(first.resync);
+        assertTrue(first.drones.isEmpty(), "Covered by the resync");
+
+        DroneInfo d = drone(1, 0, "IDLE");
+        for (int x = 1; x <= 10; x++) {
+            d.x = x;
+            feed.droneChanged(d);
+        }
+        d.x = 99;                                        // after publishing: not seen
+        feed.droneChanged(drone(2, 5, "ONROUTE"));
+        feed.firesChanged(Map.of(3, 20), new int[]{1, 0, 0});
+        feed.firesChanged(Map.of(3, 0), new int[]{0, 0, 0});
+
+        ChangeFeed.Batch batch = feed.drain();
+        assertFalse(batch.resync);
+        assertEquals(2, batch.drones.size());
+        DroneInfo one = batch.drones.iterator().next();
+        assertEquals(1, one.droneId);
+        assertEquals(10, one.x);
+        assertEquals(Map.of(3, 0), batch.fires);
+        assertArrayEquals(new int[]{0, 0, 0}, batch.fireCounts);
+        assertEquals(10, feed.getCoalesced());
+
+        assertTrue(feed.drain().isEmpty(), "Drained");
+    }
+
+    /** 2. The listener runs once per batch: when the feed goes from empty to non-empty. */
+    @Test
+    void notifiesOncePerBatch() {
+        ChangeFeed feed = new ChangeFeed();
+        AtomicInteger calls = new AtomicInteger();
+        feed.setListener(calls::incrementAndGet);
+        feed.drain();
+
+        for (int i = 0; i < 100; i++) feed.droneChanged(drone(i % 7, i, "IDLE"));
+        feed.firesChanged(Map.of(1, 5), new int[]{0, 0, 1});
+        assertEquals(1, calls.get());
+
+        feed.drain();
+        assertEquals(1, calls.get(), "Nothing published, nothing to do");
+        feed.droneChanged(drone(1, 1, "IDLE"));
+        assertEquals(2, calls.get());
+    }
+
+    /** 3. Past its capacity the feed drops the changes and asks for a resync. */
+    @Test
+    void overflowFallsBackToResync() {
+        ChangeFeed feed = new ChangeFeed(8);
+        feed.drain();
+        for (int i = 1; i <= 20; i++) feed.droneChanged(drone(i, i, "IDLE"));
+        assertEquals(1, feed.getOverflows());
+        ChangeFeed.Batch batch = feed.drain();
+        assertTrue(batch.resync);
+        assertTrue(batch.drones.isEmpty());
+        assertEquals(20, feed.getPublished());
+
+        feed.zonesReloaded();
+        batch = feed.drain();
+        assertTrue(batch.resync && batch.zonesReloaded);
+        assertFalse(feed.drain().resync);
+    }
+
+    /** 4. The Scheduler publishes drone and fire changes as it handles them, and nothing when idle. */
+    @Test
+    void schedulerPublishesChanges() throws Exception {
+        Scheduler scheduler = new Scheduler();
+        try {
+            ChangeFeed feed = scheduler.getChangeFeed();
+            feed.drain();
+            scheduler.registerDroneForTest(1, 15);
+            scheduler.receiveFireEventBatch(List.of(new FireEvent(1, "FIRE_DETECTED", "LOW", 0)));
+
+            ChangeFeed.Batch batch = feed.drain();
+            assertFalse(batch.resync);
+            assertEquals(1, batch.drones.size());
+            assertEquals("ONROUTE", batch.drones.iterator().next().state);
+            int water = batch.fires.get(1);
+            assertTrue(water > 0, "Zone 1 needs water: " + batch.fires);
+            assertNotNull(batch.fireCounts);
+
+            assertTrue(feed.drain().isEmpty(), "Idle: nothing published");
+
+            scheduler.missionCompleted(1, 1, water);
+            batch = feed.drain();
+            assertEquals(Map.of(1, 0), batch.fires);
+            assertArrayEquals(new int[]{0, 0, 0}, batch.fireCounts);
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    /** 5. With no consumer the Scheduler skips publishing, and its per-zone water totals stay exact. */
+    @Test
+    void headlessSchedulerTracksQueuedWater() throws Exception {
+        Scheduler scheduler = new Scheduler();
+        scheduler.setConsoleLog(false);
+        try {
+            ChangeFeed feed = scheduler.getChangeFeed();
+            assertFalse(feed.isAccepting(), "Nothing has drained yet");
+            scheduler.registerDroneForTest(1, 15);
+            assertEquals(3, scheduler.receiveFireEventBatch(List.of(
+                    new FireEvent(1, "FIRE", "HIGH", 0),
+                    new FireEvent(2, "FIRE", "MODERATE", 0),
+                    new FireEvent(3, "FIRE", "LOW", 0))));
+            assertEquals(Map.of(1, 15, 2, 10, 3, 5), scheduler.getActiveFiresPerZone());
+            assertEquals(0, scheduler.receiveFireEventBatch(List.of(new FireEvent(2, "FIRE", "LOW", 0))),
+                    "Queued zone is still active");
+
+            ChangeFeed.Batch batch = feed.drain();
+            assertTrue(batch.resync);
+            assertTrue(batch.fires.isEmpty() && batch.drones.isEmpty(), "Nothing kept while headless");
+            assertTrue(feed.isAccepting());
+
+            scheduler.missionCompleted(1, 1, 15);
+            assertEquals(0, feed.drain().fires.get(1));
+            scheduler.rescheduleUnfinishedFireEvent(new FireEvent(4, "FIRE", "LOW", 0));
+            assertEquals(Map.of(2, 10, 3, 5, 4, 5), scheduler.getActiveFiresPerZone());
+            assertEquals(scheduler.getActiveFiresPerZone(), scheduler.getGuiSnapshot().firesPerZone);
+        } finally {
+            scheduler.stop();
+        }
+    }
+}
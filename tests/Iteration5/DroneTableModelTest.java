@@ -0,0 +1,124 @@
+import org.junit.jupiter.api.*;
+
+import javax.swing.JTable;
+import javax.swing.RowFilter;
+import javax.swing.SortOrder;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.TableRowSorter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the incremental drone status table model.
+ */
+public class DroneTableModelTest {
+
+    private static List<DroneInfo> fleet(int n) {
+        List<DroneInfo> drones = new ArrayList<>();
+        for (int i = 1; i <= n; i++) drones.add(new DroneInfo(i, i % 30, i % 17, 15, null, 0, 100));
+        return drones;
+    }
+
+    /** Records "type first last" for every event the model fires. */
+    private static List<String> listen(DroneTableModel model) {
+        List<String> events = new ArrayList<>();
+        model.addTableModelListener(e -> events.add(
+                (e.getType() == TableModelEvent.UPDATE ? "update" : e.getType() == TableModelEvent.INSERT ? "insert" : "delete")
+                        + " " + e.getFirstRow() + " " + e.getLastRow()));
+        return events;
+    }
+
+    @BeforeAll
+    static void headless() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    /** 1. Only rows whose displayed fields changed fire events; nothing changed, nothing fires. */
+    @Test
+    void firesEventsOnlyForChangedRows() {
+        DroneTableModel model = new DroneTableModel();
+        List<String> events = listen(model);
+        List<DroneInfo> drones = fleet(10);
+
+        assertEquals(10, model.update(drones));
+        assertEquals(List.of("insert 0 9"), events);
+
+        events.clear();
+        assertEquals(0, model.update(drones));
+        assertTrue(events.isEmpty(), events.toString());
+
+        drones.get(3).waterRemaining = 5;           // row 3
+        drones.get(4).state = "ONROUTE";            // row 4, next to it
+        drones.get(8).x++;                          // row 8
+        drones.get(9).batteryLevel = 40;            // row 9
+        drones.add(new DroneInfo(42, 0, 0, 15, null, 0, 100));
+        assertEquals(5, model.update(drones));
+        assertEquals(List.of("update 3 4", "update 8 9", "insert 10 10"), events);
+        assertEquals("EN ROUTE", model.getValueAt(4, DroneTableModel.COL_STATE));
+        assertEquals("(10,9)", model.getValueAt(8, DroneTableModel.COL_POSITION));
+        assertEquals(10, model.indexOf(42));
+
+        events.clear();
+        drones.remove(2);                           // drone 3 leaves
+        assertEquals(1, model.update(drones));
+        assertEquals(List.of("delete 2 2"), events);
+        assertEquals(10, model.getRowCount());
+        assertEquals(4, model.getDroneId(2));
+        assertEquals(9, model.indexOf(42));
+        assertEquals(-1, model.indexOf(3));
+    }
+
+    /** 2. A row sorter sorts and filters on top of the model, and follows its updates. */
+    @Test
+    void sortsAndFiltersWithoutRebuilding() {
+        DroneTableModel model = new DroneTableModel();
+        List<DroneInfo> drones = fleet(10_000);
+        Collections.shuffle(drones, new java.util.Random(3));
+        model.update(drones);
+
+        // JTable forwards model events to the sorter, as in DroneStatusPanel
+        TableRowSorter<DroneTableModel> sorter = new TableRowSorter<>(model);
+        sorter.setSortsOnUpdates(true);
+        new JTable(model).setRowSorter(sorter);
+        sorter.setSortKeys(List.of(new javax.swing.RowSorter.SortKey(DroneTableModel.COL_ID, SortOrder.ASCENDING)));
+        assertEquals(1, model.getValueAt(sorter.convertRowIndexToModel(0), DroneTableModel.COL_ID));
+        assertEquals(10_000, model.getValueAt(sorter.convertRowIndexToModel(9_999), DroneTableModel.COL_ID));
+
+        sorter.setSortKeys(List.of(new javax.swing.RowSorter.SortKey(DroneTableModel.COL_WATER, SortOrder.ASCENDING)));
+        drones.get(123).waterRemaining = 1;
+        model.update(drones);
+        assertEquals(drones.get(123).droneId, model.getValueAt(sorter.convertRowIndexToModel(0), DroneTableModel.COL_ID),
+                "Updated row re-sorted, numerically");
+
+        sorter.setRowFilter(RowFilter.regexFilter("^EN ROUTE$", DroneTableModel.COL_STATE));
+        assertEquals(0, sorter.getViewRowCount());
+        for (int i = 0; i < 50; i++) drones.get(i).state = "ONROUTE";
+        model.update(drones);
+        assertEquals(50, sorter.getViewRowCount());
+        assertEquals(10_000, model.getRowCount());
+
+        // A refresh where one drone moved is a single row event, however big the fleet
+        long start = System.nanoTime();
+        drones.get(7).y++;
+        assertEquals(1, model.update(drones));
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    /** 3. Applying pushed changes updates or appends only those drones and deletes nothing. */
+    @Test
+    void appliesChangedDronesOnly() {
+        DroneTableModel model = new DroneTableModel();
+        model.update(fleet(10));
+        List<String> events = listen(model);
+
+        DroneInfo moved = new DroneInfo(5, 0, 0, 3, null, 0, 100);
+        DroneInfo added = new DroneInfo(11, 1, 1, 15, null, 0, 100);
+        assertEquals(2, model.apply(List.of(moved, added)));
+        assertEquals(List.of("update 4 4", "insert 10 10"), events);
+        assertEquals(11, model.getRowCount());
+        assertEquals(3, model.getValueAt(4, DroneTableModel.COL_WATER));
+    }
+}
@@ -0,0 +1,124 @@
+import org.junit.jupiter.api.*;
+
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for batched, sequence-numbered event ingestion between producers
+ * (EventBatcher) and the EventLogger.
+ */
+public class EventBatcherTest {
+
+    private static byte[] batch(String source, long epoch, long seq, String... events) {
+        StringBuilder sb = new StringBuilder(EventBatcher.MAGIC).append(',').append(source)
+                .append(',').append(epoch).append(',').append(seq).append('\n');
+        for (String e : events) sb.append(e).append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 1. Events are packed into MTU-sized datagrams whose sequence numbers
+     *    count up from zero, with every event delivered once and in order.
+     */
+    @Test
+    void eventsArePackedIntoSequencedDatagrams() throws Exception {
+        try (DatagramSocket listener = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+             EventBatcher batcher = new EventBatcher("Test", InetAddress.getLoopbackAddress(),
+                     listener.getLocalPort())) {
+            listener.setSoTimeout(2000);
+            int events = 500;
+            for (int i = 0; i < events; i++) batcher.add(i, "Drone " + (i % 7) + ",STATE_CHANGE,ONROUTE,ZONE 1");
+            batcher.flush();
+
+            List<String> lines = new ArrayList<>();
+            byte[] buf = new byte[65535];
+            for (long seq = 0; seq < batcher.sentCount(); seq++) {
+                DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+                listener.receive(pkt);
+                assertTrue(pkt.getLength() <= EventBatcher.MAX_DATAGRAM, "Batch larger than one MTU");
+                String[] rows = new String(pkt.getData(), 0, pkt.getLength(), StandardCharsets.UTF_8).split("\n");
+                assertTrue(rows[0].startsWith(EventBatcher.MAGIC + ",Test,"));
+                assertTrue(rows[0].endsWith("," + seq), "Sequence numbers must count up");
+                lines.addAll(Arrays.asList(rows).subList(1, rows.length));
+            }
+            assertTrue(batcher.sentCount() < events / 10, "Many events must share a datagram");
+            assertEquals(events, lines.size());
+            for (int i = 0; i < events; i++) assertTrue(lines.get(i).startsWith(i + ","));
+        }
+    }
+
+    /**
+     * 2. The logger counts gaps as lost, late arrivals as reordered (no
+     *    longer lost), and starts afresh when a source restarts.
+     */
+    @Test
+    void loggerCountsLostAndReorderedBatches() throws Exception {
+        EventLogger logger = new EventLogger();
+        logger.setTextLogEnabled(false);
+        try {
+            String e = "5,Scheduler,FIRE_DETECTED,ZONE 1";
+            for (long seq : new long[]{0, 1, 3, 2, 6}) {
+                byte[] b = batch("Scheduler@1", 77, seq, e, e);
+                assertEquals(2, logger.handlePacket(b, b.length));
+            }
+            EventLogger.SourceStats stats = logger.getSourceStats().get("Scheduler@1");
+            assertEquals(5, stats.getBatches());
+            assertEquals(10, stats.getEvents());
+            assertEquals(2, stats.getLost(), "Batches 4 and 5 never arrived");
+            assertEquals(1, stats.getReordered(), "Batch 2 arrived after 3");
+
+            // Restarted producer: new epoch, sequence starts again at 0
+            byte[] b = batch("Scheduler@1", 78, 0, e);
+            logger.handlePacket(b, b.length);
+            assertEquals(2, logger.getSourceStats().get("Scheduler@1").getLost());
+            assertEquals(11, logger.getMetrics().getFiresDetected());
+        } finally {
+            logger.close();
+        }
+    }
+
+    /** 3. Single-event packets still work, including ones past the old 100-byte limit. */
+    @Test
+    void legacyPacketsStillAccepted() throws Exception {
+        EventLogger logger = new EventLogger();
+        logger.setTextLogEnabled(false);
+        try {
+            String longName = "generator[" + "x".repeat(200) + "]";
+            byte[] b = ("3,FireSubsystem,GENERATOR_STARTED," + longName).getBytes(StandardCharsets.UTF_8);
+            assertEquals(1, logger.handlePacket(b, b.length));
+            byte[] bad = "not-a-time,Scheduler,STARTED".getBytes(StandardCharsets.UTF_8);
+            assertEquals(0, logger.handlePacket(bad, bad.length), "Malformed events are skipped");
+            assertEquals(1, logger.getEventsLogged());
+            assertTrue(logger.getSourceStats().isEmpty());
+        } finally {
+            logger.close();
+        }
+    }
+
+    /** 4. A batch with an unparsable header is skipped, and the logger keeps going. */
+    @Test
+    void malformedBatchHeaderIsSkipped() throws Exception {
+        EventLogger logger = new EventLogger();
+        logger.setTextLogEnabled(false);
+        try {
+            String e = "5,Scheduler,FIRE_DETECTED,ZONE 1";
+            for (String header : new String[]{
+                    EventBatcher.MAGIC + ",Scheduler@1,not-an-epoch,0",
+                    EventBatcher.MAGIC + ",Scheduler@1,77,",
+                    EventBatcher.MAGIC + ",Scheduler@1"}) {
+                byte[] b = (header + "\n" + e).getBytes(StandardCharsets.UTF_8);
+                assertEquals(0, logger.handlePacket(b, b.length), header);
+            }
+            assertTrue(logger.getSourceStats().isEmpty());
+
+            byte[] b = batch("Scheduler@1", 77, 0, e);
+            assertEquals(1, logger.handlePacket(b, b.length));
+            assertEquals(1, logger.getEventsLogged());
+        } finally {
+            logger.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the typed event schema shared by the producers and the
+ * EventLogger.
+ */
+public class EventTest {
+
+    private static String wire(Event e, long time) {
+        ByteBuffer buf = ByteBuffer.allocate(256);
+        e.writeTo(buf, time);
+        return new String(buf.array(), 0, buf.position(), StandardCharsets.UTF_8);
+    }
+
+    /** 1. Typed events keep the old wire text and parse back to equal values. */
+    @Test
+    void wireFormatRoundTrips() {
+        Event[] events = {
+                Event.stateChange(4, DroneMachine.DroneState.ONROUTE, 2),
+                Event.stateChange(4, DroneMachine.DroneState.IDLE, Event.NO_ZONE),
+                Event.fireDetected(12, FireEvent.FireSeverity.HIGH),
+                Event.fireExtinguished(12),
+                Event.droneFault(7),
+                Event.of(EventEntity.SCHEDULER, EventCode.STARTED),
+                Event.withText(EventEntity.FIRE_SUBSYSTEM, EventCode.PROCESSING_FILE, "fire_events.csv"),
+        };
+        String[] expected = {
+                "212,Drone 4,STATE_CHANGE,ONROUTE,ZONE 2\n",
+                "212,Drone 4,STATE_CHANGE,IDLE\n",
+                "212,Scheduler,FIRE_DETECTED,ZONE 12,HIGH\n",
+                "212,Scheduler,FIRE_EXTINGUISHED,ZONE 12\n",
+                "212,Scheduler,DRONE_FAULT,Drone 7\n",
+                "212,Scheduler,STARTED\n",
+                "212,FireSubsystem,PROCESSING_FILE,fire_events.csv\n",
+        };
+        for (int i = 0; i < events.length; i++) {
+            String line = wire(events[i], 212);
+            assertEquals(expected[i], line);
+            assertEquals(expected[i].substring(4).trim(), events[i].toWire());
+
+            Event back = Event.parse(line);
+            assertEquals(212, back.getTime());
+            assertSame(events[i].getEntity(), back.getEntity());
+            assertSame(events[i].getCode(), back.getCode());
+            assertSame(events[i].getState(), back.getState());
+            assertSame(events[i].getSeverity(), back.getSeverity());
+            assertSame(events[i].getSubject(), back.getSubject());
+            assertEquals(events[i].getZone(), back.getZone());
+            assertEquals(events[i].getText(), back.getText());
+        }
+        assertEquals("Event log: [00:03:32, Drone 4, STATE_CHANGE, ONROUTE, ZONE 2]",
+                Event.parse("212,Drone 4,STATE_CHANGE,ONROUTE,ZONE 2").toString());
+    }
+
+    /** 2. Entities are interned, so == identifies them. */
+    @Test
+    void entitiesAreInterned() {
+        assertSame(EventEntity.drone(3), EventEntity.drone(3));
+        assertSame(EventEntity.drone(5000), EventEntity.of("Drone 5000"));
+        assertSame(EventEntity.SCHEDULER, EventEntity.of("Scheduler"));
+        assertEquals(5000, EventEntity.of("Drone 5000").getId());
+        assertNull(EventEntity.of("Drone x"));
+        assertNull(EventEntity.of("Satellite"));
+    }
+
+    /** 3. Lines that do not fit the schema are rejected. */
+    @Test
+    void malformedEventsRejected() {
+        for (String bad : new String[]{
+                "x,Scheduler,STARTED",
+                "5,Scheduler",
+                "5,Nobody,STARTED",
+                "5,Scheduler,NOT_A_CODE",
+                "5,Drone 1,STATE_CHANGE,FLYING",
+                "5,Drone 1,STATE_CHANGE,ONROUTE,2",
+                "5,Scheduler,FIRE_DETECTED,ZONE 1,EXTREME",
+                "5,Scheduler,FIRE_EXTINGUISHED",
+                "5,Scheduler,DRONE_FAULT,Scheduler"}) {
+            assertThrows(IllegalArgumentException.class, () -> Event.parse(bad), bad);
+        }
+        assertNull(Event.parse(" 5,Scheduler,FIRE_DETECTED,ZONE 1 \n").getSeverity(),
+                "Severity is optional and whitespace is trimmed");
+    }
+}
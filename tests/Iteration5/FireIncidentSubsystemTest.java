@@ -238,4 +238,38 @@ public class FireIncidentSubsystemTest {
         assertFalse(mock.received("injectFaultEvent|"),
                 "Unknown event type must not produce an injectFaultEvent");
     }
+
+    /**
+     * 8. A batch of simultaneous fires exactly 1024 bytes long is split so
+     *    every packet, with its correlation tag, still fits the Scheduler's
+     *    1024-byte receive buffer, and no fire or tag is cut off.
+     */
+    @Test
+    void fullBatchIsSplitToLeaveRoomForTheTag() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("Time, ZoneID, EventType, Severity");
+        // "receiveFireEventBatch|0" + 99 x "|1xxx|HIGH" + "|10000|HIGH" = 1024 bytes
+        Set<Integer> zones = new TreeSet<>();
+        for (int zone = 1000; zone < 1099; zone++) zones.add(zone);
+        zones.add(10000);
+        for (int zone : zones) lines.add("00:00:00, " + zone + ", FIRE_EVENT, HIGH");
+        loadFile(writeCsv("t8.csv", lines.toArray(new String[0])));
+        Thread.sleep(2000);
+
+        Set<Integer> sent = new TreeSet<>();
+        int packets = 0;
+        synchronized (mock.received) {
+            for (String m : mock.received) {
+                if (!m.startsWith("receiveFireEventBatch|")) continue;
+                packets++;
+                assertTrue(m.length() < 1024, "batch filled the receive buffer: " + m.length() + " bytes");
+                assertTrue(m.matches("receiveFireEventBatch\\|\\d+(\\|\\d+\\|HIGH)+\\|#\\d+"),
+                        "batch cut short: ..." + m.substring(Math.max(0, m.length() - 40)));
+                String[] fields = m.split("\\|");
+                for (int f = 2; f + 1 < fields.length; f += 2) sent.add(Integer.parseInt(fields[f]));
+            }
+        }
+        assertEquals(2, packets, "1024 bytes of fires need two packets once tagged");
+        assertEquals(zones, sent);
+    }
 }
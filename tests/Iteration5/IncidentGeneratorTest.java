@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the synthetic load generator used by FireIncidentSubsystem
+ * generate sessions.
+ */
+public class IncidentGeneratorTest {
+
+    /**
+     * 1. The same seed produces the same stream, and times never go backwards
+     *    or past the configured duration.
+     */
+    @Test
+    void sameSeedGivesSameOrderedStream() {
+        String spec = "fireRate=20000,stuckRate=500,nozzleRate=100,duration=600,seed=42";
+        IncidentGenerator a = new IncidentGenerator(IncidentGenerator.Config.parse(spec));
+        IncidentGenerator b = new IncidentGenerator(IncidentGenerator.Config.parse(spec));
+
+        int count = 0, lastTime = 0;
+        while (a.next()) {
+            assertTrue(b.next(), "Both streams must have the same length");
+            assertEquals(a.time(), b.time());
+            assertEquals(a.id(), b.id());
+            assertEquals(a.type(), b.type());
+            assertEquals(a.severity(), b.severity());
+            assertTrue(a.time() >= lastTime, "Times must be non-decreasing");
+            assertTrue(a.time() < 600, "Events must stay inside the duration");
+            lastTime = a.time();
+            count++;
+        }
+        assertFalse(b.next());
+        assertTrue(count > 0);
+    }
+
+    /**
+     * 2. Over a long run the event rate, the fire/fault split and the zone
+     *    hotspot weights come out close to the configuration.
+     */
+    @Test
+    void ratesAndWeightsMatchConfig() {
+        IncidentGenerator gen = new IncidentGenerator(IncidentGenerator.Config.parse(
+                "fireRate=36000,stuckRate=3600,nozzleRate=360,duration=3600,"
+                        + "zones=1:6;2:2;3:1;4:1,severity=1:0:0,drones=5-8,seed=7"));
+
+        int fires = 0, stuck = 0, nozzle = 0;
+        int[] perZone = new int[5];
+        while (gen.next()) {
+            switch (gen.type()) {
+                case IncidentTimeline.TYPE_FIRE:
+                    fires++;
+                    perZone[gen.id()]++;
+                    assertEquals(FireEvent.FireSeverity.HIGH, gen.severity(), "Only HIGH has weight");
+                    assertEquals(FaultType.NONE, gen.fault());
+                    break;
+                case IncidentTimeline.TYPE_DRONE_STUCK:
+                    stuck++;
+                    assertEquals(FaultType.DRONE_STUCK, gen.fault());
+                    assertTrue(gen.id() >= 5 && gen.id() <= 8, "Faults must target the drone range");
+                    break;
+                default:
+                    nozzle++;
+                    assertEquals(FaultType.NOZZLE_FAULT, gen.fault());
+                    assertTrue(gen.id() >= 5 && gen.id() <= 8, "Faults must target the drone range");
+            }
+        }
+
+        assertEquals(36000, fires, 36000 * 0.03);
+        assertEquals(3600, stuck, 3600 * 0.10);
+        assertEquals(360, nozzle, 360 * 0.25);
+        assertEquals(0.6, perZone[1] / (double) fires, 0.02, "Hotspot zone 1 carries 6/10 of fires");
+        assertEquals(0.2, perZone[2] / (double) fires, 0.02);
+        assertEquals(0.1, perZone[3] / (double) fires, 0.02);
+    }
+
+    /** 3. Malformed specs are rejected. */
+    @Test
+    void badSpecIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> IncidentGenerator.Config.parse("fireRate=-1"));
+        assertThrows(IllegalArgumentException.class, () -> IncidentGenerator.Config.parse("colour=red"));
+        assertThrows(IllegalArgumentException.class, () -> IncidentGenerator.Config.parse("drones=9-3"));
+        assertThrows(IllegalArgumentException.class, () -> IncidentGenerator.Config.parse("zones=1:0;2:0"));
+    }
+}
@@ -0,0 +1,179 @@
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for compiling incident CSVs into the binary IncidentTimeline and
+ * reading them back through the memory-mapped cursor.
+ */
+public class IncidentTimelineTest {
+
+    private Path tempDir;
+
+    @BeforeEach
+    void createDir() throws Exception {
+        tempDir = Files.createTempDirectory("timeline_test");
+    }
+
+    @AfterEach
+    void deleteDir() throws Exception {
+        Files.walk(tempDir).sorted(Comparator.reverseOrder()).map(Path::toFile)
+                .forEach(File::delete);
+    }
+
+    private Path writeCsv(String fileName, List<String> lines) throws Exception {
+        Path f = tempDir.resolve(fileName);
+        Files.write(f, lines);
+        return f;
+    }
+
+    /**
+     * 1. Fire and fault rows are compiled with their time, ID, type and
+     *    severity; unknown, short and negative-ID rows are skipped.
+     */
+    @Test
+    void rowsAreCompiledWithTypeAndSeverity() throws Exception {
+        Path csv = writeCsv("t1.csv", List.of(
+                "Time, ZoneID, EventType, Severity",
+                "00:00:05, 1, FIRE_EVENT, HIGH",
+                "00:01:00, 2, FIRE, moderate",
+                "00:02:00, 3, DRONE_STUCK, NONE",
+                "00:03:00, 4, BANANA, HIGH",
+                "00:04:00, 5",
+                "01:00:00, 2, NOZZLE_FAULT,",
+                "02:00:00, -7, FIRE, HIGH"));
+
+        try (IncidentTimeline timeline = IncidentTimeline.load(csv.toString())) {
+            assertEquals(4, timeline.size(), "Unknown, short and negative-ID rows must be skipped");
+            IncidentTimeline.Cursor c = timeline.cursor();
+
+            assertTrue(c.next());
+            assertEquals(5, c.time());
+            assertEquals(1, c.id());
+            assertEquals(IncidentTimeline.TYPE_FIRE, c.type());
+            assertEquals(FireEvent.FireSeverity.HIGH, c.severity());
+
+            assertTrue(c.next());
+            assertEquals(FireEvent.FireSeverity.MODERATE, c.severity());
+
+            assertTrue(c.next());
+            assertEquals(FaultType.DRONE_STUCK, c.fault());
+            assertNull(c.severity(), "Fault rows carry no severity");
+
+            assertTrue(c.next());
+            assertEquals(3600, c.time());
+            assertEquals(FaultType.NOZZLE_FAULT, c.fault());
+
+            assertFalse(c.next());
+        }
+    }
+
+    /**
+     * 2. An out-of-order file larger than one sort run comes back sorted by
+     *    time, with rows that share a time kept in file order.
+     */
+    @Test
+    void unsortedFileIsSortedStably() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("Time, ZoneID, EventType, Severity");
+        int rows = 150_000;
+        for (int i = 0; i < rows; i++) {
+            int t = (rows - i) % 500;   // descending, with many rows per second
+            lines.add(SimulationClock.formatTime(t) + ", " + i + ", FIRE, LOW");
+        }
+        Path csv = writeCsv("t2.csv", lines);
+
+        try (IncidentTimeline timeline = IncidentTimeline.load(csv.toString())) {
+            assertEquals(rows, timeline.size());
+            IncidentTimeline.Cursor c = timeline.cursor();
+            int lastTime = -1, lastId = -1;
+            while (c.next()) {
+                assertTrue(c.time() >= lastTime, "Records must be in time order");
+                if (c.time() == lastTime) {
+                    assertTrue(c.id() > lastId, "Same-time rows must keep file order");
+                }
+                lastTime = c.time();
+                lastId   = c.id();
+            }
+        }
+    }
+
+    /**
+     * 3. The compiled file is reused while the CSV is unchanged and rebuilt
+     *    once the CSV is modified.
+     */
+    @Test
+    void compiledFileIsReusedUntilCsvChanges() throws Exception {
+        Path csv = writeCsv("t3.csv", List.of(
+                "Time, ZoneID, EventType, Severity",
+                "00:00:00, 1, FIRE, LOW"));
+        Path compiled = Paths.get(csv + IncidentTimeline.EXTENSION);
+
+        IncidentTimeline.load(csv.toString()).close();
+        FileTime firstBuild = Files.getLastModifiedTime(compiled);
+
+        Thread.sleep(20);
+        IncidentTimeline.load(csv.toString()).close();
+        assertEquals(firstBuild, Files.getLastModifiedTime(compiled),
+                "An up-to-date timeline must not be recompiled");
+
+        Files.write(csv, List.of(
+                "Time, ZoneID, EventType, Severity",
+                "00:00:00, 1, FIRE, LOW",
+                "00:00:10, 2, FIRE, HIGH"));
+        try (IncidentTimeline timeline = IncidentTimeline.load(csv.toString())) {
+            assertEquals(2, timeline.size(), "A modified CSV must be recompiled");
+        }
+    }
+
+    /**
+     * 4. Sessions that load the same stale CSV at once each read a complete
+     *    timeline, although every one of them recompiles it.
+     */
+    @Test
+    void concurrentLoadsOfAStaleCsvReadCompleteTimelines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("Time, ZoneID, EventType, Severity");
+        for (int i = 0; i < 20_000; i++) {
+            lines.add(String.format("00:00:%02d, %d, FIRE, LOW", i % 60, i));
+        }
+        Path csv = writeCsv("t4.csv", lines);
+
+        int sessions = 4;
+        CyclicBarrier start = new CyclicBarrier(sessions);
+        ExecutorService pool = Executors.newFixedThreadPool(sessions);
+        try {
+            for (int round = 0; round < 10; round++) {
+                // A new modification time makes the compiled file stale for every session
+                Files.setLastModifiedTime(csv, FileTime.fromMillis(1_000_000L * (round + 1)));
+                List<Future<Long>> reads = new ArrayList<>();
+                for (int s = 0; s < sessions; s++) {
+                    reads.add(pool.submit(() -> {
+                        start.await();
+                        try (IncidentTimeline timeline = IncidentTimeline.load(csv.toString())) {
+                            IncidentTimeline.Cursor c = timeline.cursor();
+                            long rows = 0;
+                            while (c.next()) {
+                                c.id();
+                                rows++;
+                            }
+                            return rows;
+                        }
+                    }));
+                }
+                for (Future<Long> read : reads) assertEquals(20_000L, read.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        try (DirectoryStream<Path> left = Files.newDirectoryStream(tempDir, "*.tmp")) {
+            assertFalse(left.iterator().hasNext(), "Temporary files must be cleaned up");
+        }
+    }
+}
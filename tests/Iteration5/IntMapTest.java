@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the int-keyed open-addressing maps behind the Scheduler's
+ * registries, checked against {@link HashMap} under random operations.
+ */
+public class IntMapTest {
+
+    /**
+     * 1. IntMap agrees with a HashMap through random puts and removes over
+     *    a small key range, so probe runs collide, wrap and get shifted back
+     *    on removal, and through several resizes.
+     */
+    @Test
+    public void intMapMatchesHashMapUnderRandomOperations() {
+        Random rnd = new Random(3);
+        IntMap<String> map = new IntMap<>(2);
+        Map<Integer, String> ref = new HashMap<>();
+
+        for (int op = 0; op < 200_000; op++) {
+            int key = rnd.nextInt(2_000) - 1_000;
+            switch (rnd.nextInt(3)) {
+                case 0:
+                    assertEquals(ref.put(key, "v" + op), map.put(key, "v" + op));
+                    break;
+                case 1:
+                    assertEquals(ref.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(ref.get(key), map.get(key));
+                    assertEquals(ref.containsKey(key), map.containsKey(key));
+            }
+            assertEquals(ref.size(), map.size());
+        }
+        assertEquals(ref, map.toMap());
+        assertEquals(ref.size(), map.values().size());
+        assertTrue(map.values().containsAll(ref.values()));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+
+    /**
+     * 2. IntIntMap's add and subtract do what the Scheduler's merge and
+     *    computeIfPresent did: add starts absent keys at 0, subtract leaves
+     *    absent keys alone and removes a key once it reaches zero.
+     */
+    @Test
+    public void intIntMapAddAndSubtractMatchMergeAndComputeIfPresent() {
+        Random rnd = new Random(4);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> ref = new HashMap<>();
+
+        for (int op = 0; op < 200_000; op++) {
+            int key = rnd.nextInt(500);
+            int amount = 1 + rnd.nextInt(15);
+            switch (rnd.nextInt(4)) {
+                case 0:
+                    assertEquals((int) ref.merge(key, amount, Integer::sum), map.add(key, amount));
+                    break;
+                case 1:
+                    Integer left = ref.computeIfPresent(key, (k, v) -> v - amount <= 0 ? null : v - amount);
+                    assertEquals(left == null ? 0 : left, map.subtract(key, amount));
+                    break;
+                case 2:
+                    assertEquals(ref.remove(key) != null, map.remove(key));
+                    break;
+                default:
+                    assertEquals(ref.getOrDefault(key, -1), map.get(key, -1));
+            }
+            assertEquals(ref.size(), map.size());
+        }
+        assertEquals(ref, map.toMap());
+
+        map.put(7, 0);
+        assertTrue(map.containsKey(7), "0 is a value like any other");
+        assertEquals(0, map.get(7, -1));
+    }
+
+    /** 3. Dispatch ties still go to the lowest drone ID, as with the HashMap registry. */
+    @Test
+    public void dispatchTieGoesToLowestDroneId() throws Exception {
+        Scheduler scheduler = new Scheduler();
+        try {
+            scheduler.setConsoleLog(false);
+            for (int id = 40; id >= 1; id--) scheduler.registerDroneForTest(id, 15);
+
+            scheduler.receiveFireEvent(new FireEvent(1, "FIRE", "LOW", 0));
+
+            assertEquals("ONROUTE", scheduler.getDroneInfo(1).state);
+            for (int id = 2; id <= 40; id++) assertEquals("IDLE", scheduler.getDroneInfo(id).state);
+        } finally {
+            scheduler.stop();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the log-linear latency histograms and their use in the
+ * EventLogger metrics.
+ */
+public class LatencyHistogramTest {
+
+    /** 1. Percentiles stay within the bucket error of the exact sorted values. */
+    @Test
+    void percentilesWithinPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        long[] values = new long[100_000];
+        Random rnd = new Random(42);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.abs(rnd.nextGaussian() * 60_000) + rnd.nextInt(5_000_000) / 100;
+            h.record(values[i]);
+        }
+        java.util.Arrays.sort(values);
+        double error = 1.0 / (1 << (LatencyHistogram.DEFAULT_PRECISION_BITS - 1));
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long got   = h.getValueAtPercentile(p);
+            assertTrue(got >= exact && got <= exact + exact * error + 1,
+                    "p" + p + ": exact " + exact + " histogram " + got);
+        }
+        assertEquals(values[values.length - 1], h.getMax());
+        assertEquals(values[0], h.getMin());
+        assertEquals(values.length, h.getCount());
+    }
+
+    /** 2. Memory is fixed: recording more samples never grows the bucket array. */
+    @Test
+    void fixedMemoryAndMerge() {
+        LatencyHistogram a = new LatencyHistogram();
+        int buckets = a.bucketCount();
+        for (long v = 0; v < 1_000_000; v += 7) a.record(v);
+        a.record(Long.MAX_VALUE);                        // clamped into the top bucket
+        assertEquals(buckets, a.bucketCount());
+        assertEquals(Long.MAX_VALUE, a.getMax());
+
+        LatencyHistogram b = new LatencyHistogram();
+        b.record(5);
+        b.add(a);
+        assertEquals(a.getCount() + 1, b.getCount());
+        assertEquals(0, b.getMin());
+        assertThrows(IllegalArgumentException.class, () -> b.add(new LatencyHistogram(4, 1L << 32)));
+    }
+
+    /**
+     * 3. The metrics keep response, extinguish, queue-wait and
+     *    dispatch-to-arrival histograms, broken down by severity and zone.
+     */
+    @Test
+    void metricsBreakDownBySeverityAndZone() throws Exception {
+        MetricsEngine m = new MetricsEngine();
+        m.record(0,       Event.fireDetected(1, FireEvent.FireSeverity.HIGH));
+        m.record(5_000,   Event.stateChange(1, DroneMachine.DroneState.ONROUTE, 1));        // wait 5 s
+        m.record(25_000,  Event.stateChange(1, DroneMachine.DroneState.EXTINGUISHING, 1));  // travel 20 s, response 25 s
+        m.record(60_000,  Event.fireExtinguished(1));                                       // 60 s
+        m.record(60_000,  Event.fireDetected(2, FireEvent.FireSeverity.LOW));
+        m.record(100_000, Event.stateChange(1, DroneMachine.DroneState.ONROUTE, 2));        // wait 40 s
+        m.record(110_000, Event.stateChange(1, DroneMachine.DroneState.EXTINGUISHING, 2));  // travel 10 s, response 50 s
+        m.record(200_000, Event.fireExtinguished(2));                                       // 140 s
+
+        LatencyHistogram response = m.getHistogram(MetricsEngine.Latency.RESPONSE);
+        assertEquals(2, response.getCount());
+        assertEquals(50_000, response.getMax());
+        assertEquals(25_000, m.getHistogramForSeverity(MetricsEngine.Latency.RESPONSE, FireEvent.FireSeverity.HIGH).getMax());
+        assertEquals(140_000, m.getHistogramForSeverity(MetricsEngine.Latency.EXTINGUISH, FireEvent.FireSeverity.LOW).getMax());
+        assertEquals(40_000, m.getHistogramForSeverity(MetricsEngine.Latency.QUEUE_WAIT, FireEvent.FireSeverity.LOW).getMax());
+        assertEquals(10_000, m.getHistogramForZone(MetricsEngine.Latency.DISPATCH_TO_ARRIVAL, 2).getMax());
+        assertEquals(2, m.getHistogram(MetricsEngine.Latency.DISPATCH_TO_ARRIVAL).getCount());
+        assertNull(m.getHistogramForSeverity(MetricsEngine.Latency.RESPONSE, FireEvent.FireSeverity.MODERATE));
+
+        StringBuilder csv = new StringBuilder();
+        m.exportPercentiles(csv);
+        assertTrue(csv.toString().contains("\nEXTINGUISH,zone,ZONE 1,1,"), csv.toString());
+        assertTrue(csv.toString().contains("\nQUEUE_WAIT,severity,HIGH,1,5000,5000,5000,5000\n"), csv.toString());
+    }
+}
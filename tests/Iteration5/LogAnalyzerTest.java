@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the parallel offline log analyzer.
+ */
+public class LogAnalyzerTest {
+
+    @TempDir
+    Path dir;
+
+    /** Writes a random but plausible run to {@code file} and feeds the same events to {@code metrics}. */
+    private static void writeRun(Path file, MetricsEngine metrics, long seed, int events) throws Exception {
+        Random rnd = new Random(seed);
+        DroneMachine.DroneState[] states = DroneMachine.DroneState.values();
+        FireEvent.FireSeverity[] severities = FireEvent.FireSeverity.values();
+        long time = 0;
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < events; i++) {
+                time += rnd.nextInt(4);
+                int zone = 1 + rnd.nextInt(6);
+                Event e;
+                switch (rnd.nextInt(6)) {
+                    case 0:  e = Event.fireDetected(zone, rnd.nextBoolean() ? severities[rnd.nextInt(3)] : null); break;
+                    case 1:  e = Event.fireExtinguished(zone); break;
+                    case 2:  e = Event.of(EventEntity.drone(rnd.nextInt(8)), EventCode.STARTED); break;
+                    default:
+                        DroneMachine.DroneState s = states[rnd.nextInt(states.length)];
+                        e = Event.stateChange(rnd.nextInt(8), s, rnd.nextInt(4) == 0 ? Event.NO_ZONE : zone);
+                        break;
+                }
+                e = e.at(time);
+                w.write(e.toString());
+                w.write('\n');
+                metrics.record(e);
+            }
+            w.write("Event log: [not a time, Scheduler, STARTED]\n");
+        }
+    }
+
+    private static void assertSameMetrics(MetricsEngine expected, LogAnalyzer.Summary got) {
+        assertEquals(expected.getFiresDetected(), got.getFiresDetected());
+        assertEquals(expected.getFiresExtinguished(), got.getFiresExtinguished());
+        assertEquals(expected.getAverageResponseMs(), got.getAverageResponseMs());
+        assertEquals(expected.getAverageExtinguishMs(), got.getAverageExtinguishMs());
+        assertEquals(expected.getDroneCount(), got.getDroneCount());
+        assertEquals(expected.getTotalIdleMs(), got.getTotalIdleMs());
+        for (int d = 0; d < 8; d++) assertEquals(expected.getFlightMs(d), got.getFlightMs(d), "Drone " + d);
+        for (MetricsEngine.Latency k : MetricsEngine.Latency.values()) {
+            LatencyHistogram a = expected.getHistogram(k), b = got.getHistogram(k);
+            assertEquals(a.getCount(), b.getCount(), k.name());
+            assertEquals(a.getMax(), b.getMax(), k.name());
+            assertEquals(a.getValueAtPercentile(90), b.getValueAtPercentile(90), k.name());
+        }
+    }
+
+    /** 1. Small chunks on several threads give the live MetricsEngine's results. */
+    @Test
+    void chunkedAnalysisMatchesLiveMetrics() throws Exception {
+        Path log = dir.resolve("log.txt");
+        MetricsEngine metrics = new MetricsEngine();
+        writeRun(log, metrics, 7, 20_000);
+
+        LogAnalyzer whole   = new LogAnalyzer(1, Integer.MAX_VALUE);
+        LogAnalyzer chunked = new LogAnalyzer(4, 1000);         // lines straddle most chunk edges
+        try {
+            LogAnalyzer.Summary a = whole.analyze(log);
+            LogAnalyzer.Summary b = chunked.analyze(log);
+            assertEquals(20_000, a.getEvents());
+            assertEquals(1, a.getMalformed());
+            assertEquals(a.getEvents(), b.getEvents());
+            assertEquals(a.getMalformed(), b.getMalformed());
+            assertSameMetrics(metrics, a);
+            assertSameMetrics(metrics, b);
+
+            StringBuilder csvA = new StringBuilder(), csvB = new StringBuilder();
+            a.writeCsv(csvA);
+            b.writeCsv(csvB);
+            assertEquals(csvA.toString(), csvB.toString());
+        } finally {
+            whole.close();
+            chunked.close();
+        }
+    }
+
+    /** 2. Several files are summed, and both output formats carry the metrics. */
+    @Test
+    void multipleFilesAndOutputFormats() throws Exception {
+        Path first = dir.resolve("run1.txt"), second = dir.resolve("run2.txt");
+        MetricsEngine m1 = new MetricsEngine(), m2 = new MetricsEngine();
+        writeRun(first, m1, 1, 2_000);
+        writeRun(second, m2, 2, 3_000);
+
+        LogAnalyzer analyzer = new LogAnalyzer(2, 4096);
+        LogAnalyzer.Summary s;
+        try {
+            s = analyzer.analyze(List.of(first, second));
+        } finally {
+            analyzer.close();
+        }
+        assertEquals(5_000, s.getEvents());
+        assertEquals(m1.getFiresDetected() + m2.getFiresDetected(), s.getFiresDetected());
+        assertEquals(m1.getTotalIdleMs() + m2.getTotalIdleMs(), s.getTotalIdleMs());
+        assertEquals(m1.getHistogram(MetricsEngine.Latency.EXTINGUISH).getCount()
+                + m2.getHistogram(MetricsEngine.Latency.EXTINGUISH).getCount(),
+                s.getHistogram(MetricsEngine.Latency.EXTINGUISH).getCount());
+
+        StringBuilder csv = new StringBuilder(), json = new StringBuilder();
+        s.writeCsv(csv);
+        s.writeJson(json);
+        assertTrue(csv.toString().startsWith("section,key,metric,value\noverall,,files,2\n"), csv.toString());
+        assertTrue(csv.toString().contains("\ndrone,Drone 3,missions,"), csv.toString());
+        assertTrue(json.toString().contains("\"fires_detected\": " + s.getFiresDetected()), json.toString());
+        assertTrue(json.toString().trim().endsWith("]\n}"), json.toString());
+    }
+}
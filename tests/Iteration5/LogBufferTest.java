@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the bounded System Log model and the panel that shows it.
+ */
+public class LogBufferTest {
+
+    @BeforeAll
+    static void headless() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    private static List<String> texts(List<LogBuffer.Line> lines) {
+        return lines.stream().map(l -> l.text).collect(java.util.stream.Collectors.toList());
+    }
+
+    /** 1. The ring keeps the newest lines; the listener runs once per batch. */
+    @Test
+    void keepsNewestLinesAndNotifiesOncePerBatch() {
+        LogBuffer log = new LogBuffer(3);
+        AtomicInteger calls = new AtomicInteger();
+        log.setListener(calls::incrementAndGet);
+
+        log.append(LogBuffer.Level.INFO, "a");
+        log.append(LogBuffer.Level.WARNING, "b");
+        assertEquals(1, calls.get());
+        assertEquals(List.of("a", "b"), texts(log.flush()));
+
+        for (String s : new String[]{"c", "d", "e"}) log.append(LogBuffer.Level.INFO, s);
+        assertEquals(2, calls.get());
+        assertEquals(List.of("c", "d", "e"), texts(log.flush()));
+        assertEquals(List.of("c", "d", "e"), texts(log.lines(LogBuffer.Level.INFO)));
+        assertEquals(0, log.getDropped());
+
+        // More than fit while nobody flushes: the queue stays bounded
+        for (int i = 0; i < 1000; i++) log.append(i % 10 == 0 ? LogBuffer.Level.ERROR : LogBuffer.Level.INFO, "x" + i);
+        assertEquals(997, log.getDropped());
+        assertEquals(List.of("x997", "x998", "x999"), texts(log.flush()));
+        assertEquals(3, log.size());
+        assertTrue(log.lines(LogBuffer.Level.ERROR).isEmpty());
+        assertTrue(log.flush().isEmpty());
+    }
+
+    /** 2. Messages are classified by wording, and appends from many threads all arrive. */
+    @Test
+    void classifiesAndAcceptsConcurrentAppends() throws Exception {
+        assertEquals(LogBuffer.Level.ERROR, LogBuffer.Level.of("Scheduler [00:01:00]: Drone 3 HARD FAULT — decommissioning"));
+        assertEquals(LogBuffer.Level.WARNING, LogBuffer.Level.of("Scheduler [00:01:00]: Drone 3 SOFT FAULT — re-queuing mission"));
+        assertEquals(LogBuffer.Level.ERROR, LogBuffer.Level.of("Scheduler: Zone load errors: [overlap]"));
+        assertEquals(LogBuffer.Level.INFO, LogBuffer.Level.of("Scheduler [00:01:00]: Fire at Zone 2 (severity=HIGH)"));
+
+        LogBuffer log = new LogBuffer(10_000);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) log.append(LogBuffer.Level.INFO, id + ":" + i);
+            });
+            threads[t].start();
+        }
+        int flushed = 0;
+        while (true) {
+            boolean alive = false;
+            for (Thread t : threads) alive |= t.isAlive();
+            flushed += log.flush().size();
+            if (!alive) break;
+        }
+        flushed += log.flush().size();
+        assertEquals(8000, flushed);
+        assertEquals(8000, log.size());
+    }
+
+    /** 3. The panel shows a bounded number of lines, filters by severity, and refilters what it holds. */
+    @Test
+    void panelTrimsAndFilters() {
+        StatusPanel panel = new StatusPanel();
+        panel.flush();
+        assertTrue(panel.getText().contains("System initialized"));
+
+        for (int i = 0; i < LogBuffer.DEFAULT_CAPACITY + 500; i++) panel.logMessage("Fire " + i);
+        panel.logMessage("Drone 4 SOFT FAULT — re-queuing mission");
+        panel.flush();
+        String[] lines = panel.getText().split("\n");
+        assertEquals(LogBuffer.DEFAULT_CAPACITY, lines.length);
+        assertTrue(lines[lines.length - 1].endsWith("SOFT FAULT — re-queuing mission"));
+        assertTrue(lines[0].endsWith("Fire 501"), lines[0]);
+
+        panel.setMinLevel(LogBuffer.Level.WARNING);
+        assertEquals(1, panel.getText().split("\n").length);
+        panel.logMessage("Fire again");
+        panel.logMessage("Drone 5 HARD FAULT — decommissioning");
+        panel.flush();
+        assertEquals(2, panel.getText().split("\n").length);
+
+        panel.setMinLevel(LogBuffer.Level.INFO);
+        assertEquals(LogBuffer.DEFAULT_CAPACITY, panel.getText().split("\n").length);
+    }
+}
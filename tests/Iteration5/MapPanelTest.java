@@ -0,0 +1,313 @@
+import org.junit.jupiter.api.*;
+
+import javax.swing.JScrollPane;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rendering tests for the zone map. They paint off-screen, so they also run
+ * headless.
+ */
+public class MapPanelTest {
+
+    @BeforeAll
+    static void headless() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    private static MapPanel panel(boolean cached) {
+        MapPanel p = new MapPanel();
+        p.cacheLayers = cached;
+        Map<Integer, Zone> zones = new HashMap<>();
+        zones.put(1, new Zone(1, 0, 9, 0, 7));
+        zones.put(2, new Zone(2, 10, 19, 0, 7));
+        zones.put(3, new Zone(3, 0, 19, 8, 15));
+        p.setZones(zones);
+        p.setSize(p.getPreferredSize());
+        return p;
+    }
+
+    private static void update(MapPanel p, int step) {
+        Map<Integer, DroneInfo> drones = new HashMap<>();
+        for (int i = 1; i <= 6; i++) {
+            DroneInfo d = new DroneInfo(i, (i * 3 + step) % 20, (i * 2 + step) % 16, 15, null, 0, 100);
+            d.state = new String[]{"IDLE", "ONROUTE", "EXTINGUISHING", "REFILLING", "FAULTED", "DECOMMISSIONED"}[i - 1];
+            drones.put(i, d);
+        }
+        Map<Integer, Integer> fires = new HashMap<>();
+        fires.put(2, 12 - step);
+        if (step > 0) fires.put(3, 3);
+        p.updateDronesAndFires(drones, fires);
+    }
+
+    private static BufferedImage render(MapPanel p) {
+        BufferedImage img = new BufferedImage(p.getWidth(), p.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = img.createGraphics();
+        p.paint(g);
+        g.dispose();
+        return img;
+    }
+
+    private static void assertSameImage(BufferedImage a, BufferedImage b) {
+        assertEquals(a.getWidth(), b.getWidth());
+        assertEquals(a.getHeight(), b.getHeight());
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                int p = a.getRGB(x, y), q = b.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int d = Math.abs(((p >>> shift) & 0xFF) - ((q >>> shift) & 0xFF));
+                    // Blending a pre-composited layer can round differently by a unit or two
+                    assertTrue(d <= 2, "Pixel differs at " + x + "," + y
+                            + ": " + Integer.toHexString(p) + " vs " + Integer.toHexString(q));
+                }
+            }
+        }
+    }
+
+    /** 1. Blitting the cached layers looks the same as drawing every layer each frame. */
+    @Test
+    void cachedLayersMatchDirectRendering() {
+        MapPanel cached = panel(true), direct = panel(false);
+        for (int step = 0; step < 3; step++) {
+            update(cached, step);
+            update(direct, step);
+            assertSameImage(render(direct), render(cached));
+        }
+
+        // New zones invalidate the cache
+        Map<Integer, Zone> zones = new HashMap<>();
+        zones.put(7, new Zone(7, 0, 4, 0, 4));
+        cached.setZones(zones);
+        direct.setZones(zones);
+        cached.setSize(cached.getPreferredSize());
+        direct.setSize(direct.getPreferredSize());
+        assertSameImage(render(direct), render(cached));
+    }
+
+    /** Panel that records the regions it asks Swing to repaint. */
+    private static class RecordingPanel extends MapPanel {
+        final java.util.List<Rectangle> requested = new java.util.ArrayList<>();
+
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {
+            if (requested != null) requested.add(new Rectangle(x, y, width, height)); // null during construction
+        }
+    }
+
+    /**
+     * 2. Updates repaint only the changed cells, and repainting just those
+     *    regions over the previous frame gives the full new frame.
+     */
+    @Test
+    void updatesRepaintOnlyChangedRegions() {
+        RecordingPanel p = new RecordingPanel();
+        p.setSize(p.getPreferredSize());
+        update(p, 0);
+        BufferedImage frame = render(p);
+
+        p.requested.clear();
+        update(p, 0);
+        assertTrue(p.requested.isEmpty(), "Nothing changed, nothing to repaint: " + p.requested);
+
+        Map<Integer, DroneInfo> drones = new HashMap<>();
+        for (int i = 1; i <= 6; i++) {
+            DroneInfo d = new DroneInfo(i, (i * 3) % 20, (i * 2) % 16, 15, null, 0, 100);
+            d.state = new String[]{"IDLE", "ONROUTE", "EXTINGUISHING", "REFILLING", "FAULTED", "DECOMMISSIONED"}[i - 1];
+            drones.put(i, d);
+        }
+        drones.get(2).x++;                               // one drone moves one cell
+        drones.remove(6);                                // one leaves
+        Map<Integer, Integer> fires = new HashMap<>();
+        fires.put(2, 12);
+        p.updateDronesAndFires(drones, fires);
+        assertEquals(1, p.requested.size());
+        // Cells (6,4) -> (7,4) and (18,12), each with one cell of margin
+        assertEquals(new Rectangle(125, 75, 375, 275), p.requested.get(0));
+        repaintOnto(frame, p, p.requested.get(0));
+        assertSameImage(render(p), frame);
+
+        p.requested.clear();
+        fires = new HashMap<>(fires);
+        fires.put(4, 3);                                 // another zone catches fire
+        p.updateDronesAndFires(drones, fires);
+        assertEquals(1, p.requested.size());
+        assertEquals(new Rectangle(375, 375, 375, 375), p.requested.get(0), "Zone 4 only");
+        repaintOnto(frame, p, p.requested.get(0));
+        assertSameImage(render(p), frame);
+    }
+
+    /** A 40x40-cell map of 10x10 zones, 300 drones, and fires in five zones. */
+    private static void bigMap(MapPanel p, Map<Integer, DroneInfo> drones, Map<Integer, Integer> fires) {
+        Map<Integer, Zone> zones = new HashMap<>();
+        for (int i = 0; i < 16; i++) {
+            int x = (i % 4) * 10, y = (i / 4) * 10;
+            zones.put(i + 1, new Zone(i + 1, x, x + 9, y, y + 9));
+        }
+        p.setZones(zones);
+        java.util.Random rnd = new java.util.Random(5);
+        for (int i = 1; i <= 300; i++) {
+            DroneInfo d = new DroneInfo(i, rnd.nextInt(40), rnd.nextInt(40), 15, null, 0, 100);
+            d.state = i % 50 == 0 ? "FAULTED" : i % 3 == 0 ? "ONROUTE" : "IDLE";
+            drones.put(i, d);
+        }
+        for (int z = 2; z <= 16; z += 3) fires.put(z, 4 * z);
+        p.updateDronesAndFires(drones, fires);
+    }
+
+    /**
+     * 3. Zoomed in and zoomed out (clustered), cached and direct rendering
+     *    agree, a viewport-sized paint matches the full frame there, and
+     *    repainting the dirty regions keeps the frame up to date.
+     */
+    @Test
+    void zoomedRenderingCullsAndClusters() {
+        for (double zoom : new double[]{2.0, 0.2}) {
+            RecordingPanel cached = new RecordingPanel();
+            MapPanel direct = new MapPanel();
+            direct.cacheLayers = false;
+            Map<Integer, DroneInfo> drones = new HashMap<>();
+            Map<Integer, Integer> fires = new HashMap<>();
+            bigMap(cached, drones, fires);
+            bigMap(direct, new HashMap<>(), new HashMap<>());
+            for (MapPanel p : new MapPanel[]{cached, direct}) {
+                p.setZoom(zoom);
+                p.setSize(p.getPreferredSize());
+            }
+            assertEquals(Math.max(40 * 25 * zoom + 40, 400), cached.getPreferredSize().width, 1.0);
+            BufferedImage frame = render(cached);
+            assertSameImage(render(direct), frame);
+
+            // Only a viewport's worth painted, over the panel background
+            Rectangle view = new Rectangle(frame.getWidth() / 3, frame.getHeight() / 4, frame.getWidth() / 2, frame.getHeight() / 3);
+            BufferedImage part = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            repaintOnto(part, direct, view);
+            assertSameImage(frame.getSubimage(view.x, view.y, view.width, view.height),
+                    part.getSubimage(view.x, view.y, view.width, view.height));
+
+            // Drones move, one faults, a fire goes out: the dirty regions bring the frame up to date
+            cached.requested.clear();
+            drones.get(7).x = (drones.get(7).x + 3) % 40;
+            drones.get(8).y = (drones.get(8).y + 1) % 40;
+            drones.get(9).state = "FAULTED";
+            fires = new HashMap<>(fires);                // a new snapshot, as the Scheduler hands out
+            fires.remove(5);
+            cached.updateDronesAndFires(drones, fires);
+            assertFalse(cached.requested.isEmpty());
+            for (Rectangle dirty : cached.requested) repaintOnto(frame, cached, dirty);
+            assertSameImage(render(cached), frame);
+        }
+    }
+
+    /** 4. Zoomed out, drones are drawn as a cluster marker at their centroid. */
+    @Test
+    void zoomedOutDronesAreClustered() {
+        MapPanel p = new MapPanel();                     // 30x30 default map
+        Map<Integer, DroneInfo> drones = new HashMap<>();
+        for (int i = 1; i <= 5; i++) drones.put(i, new DroneInfo(i, 1 + i % 2, 2, 15, null, 0, 100));
+        p.updateDronesAndFires(drones, new HashMap<>());
+        p.setZoom(0.16);                                 // 4 pixels per cell
+        p.setSize(p.getPreferredSize());
+        BufferedImage img = render(p);
+        // Centroid of the cells is (1.4, 2): its centre is at (7.6, 10) pixels
+        Color c = new Color(img.getRGB(8, 10));
+        assertTrue(c.getBlue() > 150 && c.getRed() < 120, "Cluster marker at the centroid: " + c);
+    }
+
+    /** 5. Zooming in a scroll pane keeps the map point under the pointer in place. */
+    @Test
+    void zoomKeepsAnchorUnderPointer() {
+        MapPanel p = new MapPanel();
+        JScrollPane scroll = new JScrollPane(p);
+        scroll.setSize(400, 300);
+        scroll.doLayout();
+        scroll.getViewport().doLayout();
+        scroll.getViewport().setViewPosition(new Point(100, 100));
+
+        Point anchor = new Point(200, 180);              // 100, 80 into the viewport
+        p.zoomAt(2.0, anchor);
+        assertEquals(2.0, p.getZoom());
+        assertEquals(new Point(300, 280), scroll.getViewport().getViewPosition());
+
+        p.zoomAt(100, anchor);                           // clamped
+        assertEquals(MapPanel.MAX_ZOOM, p.getZoom());
+    }
+
+    /**
+     * 6. Applying only what changed, as the change feed delivers it, gives
+     *    the same map as a full update, and repainting the regions it asks
+     *    for keeps the frame up to date, zoomed in and out.
+     */
+    @Test
+    void appliedChangesMatchFullUpdate() {
+        for (double zoom : new double[]{1.0, 0.2}) {
+            Map<Integer, DroneInfo> drones = new HashMap<>();
+            Map<Integer, Integer> fires = new HashMap<>();
+            MapPanel full = new MapPanel();
+            RecordingPanel applied = new RecordingPanel();
+            bigMap(full, drones, fires);
+            bigMap(applied, new HashMap<>(), new HashMap<>());
+            for (MapPanel p : new MapPanel[]{full, applied}) {
+                p.setZoom(zoom);
+                p.setSize(p.getPreferredSize());
+            }
+            BufferedImage frame = render(applied);
+
+            java.util.Random rnd = new java.util.Random(11);
+            for (int step = 0; step < 4; step++) {
+                java.util.List<DroneInfo> changed = new java.util.ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    DroneInfo d = drones.get(1 + rnd.nextInt(300));
+                    d.x = Math.min(39, d.x + 1);
+                    d.state = step % 2 == 0 ? "EXTINGUISHING" : "IDLE";
+                    changed.add(new DroneInfo(d.droneId, d.x, d.y, 15, null, 0, 100));
+                    changed.get(changed.size() - 1).state = d.state;
+                }
+                DroneInfo newcomer = new DroneInfo(1000 + step, 3 * step, 7, 15, null, 0, 100);
+                drones.put(newcomer.droneId, newcomer);
+                changed.add(newcomer);
+
+                Map<Integer, Integer> changedFires = new HashMap<>();
+                changedFires.put(2 + 3 * step, 0);               // a fire goes out
+                changedFires.put(1 + step, 7 + step);            // one starts or shrinks
+                for (Map.Entry<Integer, Integer> e : changedFires.entrySet()) {
+                    if (e.getValue() > 0) fires.put(e.getKey(), e.getValue());
+                    else fires.remove(e.getKey());
+                }
+
+                full.updateDronesAndFires(drones, new HashMap<>(fires));
+                applied.requested.clear();
+                applied.applyChanges(changed, changedFires);
+                assertSameImage(render(full), render(applied));
+                for (Rectangle dirty : applied.requested) repaintOnto(frame, applied, dirty);
+                assertSameImage(render(applied), frame);
+            }
+        }
+    }
+
+    /** 7. The tooltip names the zone under the pointer, at any zoom. */
+    @Test
+    void tooltipNamesZoneUnderPointer() {
+        MapPanel p = panel(true);                        // 25 px cells
+        assertEquals(2, p.zoneAt(new Point(10 * 25 + 3, 7 * 25 + 24)).getId());
+        assertEquals(3, p.zoneAt(new Point(3, 8 * 25)).getId());
+        assertNull(p.zoneAt(new Point(20 * 25, 3)), "Right of the grid");
+
+        update(p, 1);                                    // zone 2 needs 11 L
+        java.awt.event.MouseEvent at = new java.awt.event.MouseEvent(p, java.awt.event.MouseEvent.MOUSE_MOVED,
+                0, 0, 10 * 25 + 3, 3, 0, false);
+        assertEquals("Zone 2: fire, 11L needed", p.getToolTipText(at));
+        p.setZoom(0.5);
+        assertEquals(1, p.zoneAt(new Point(10 * 25 / 2 - 1, 3)).getId());
+    }
+
+    private static void repaintOnto(BufferedImage frame, MapPanel p, Rectangle dirty) {
+        Graphics2D g = frame.createGraphics();
+        g.setClip(dirty);
+        p.paint(g);
+        g.dispose();
+    }
+}
@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the in-place datagram tokenizer, against the
+ * {@code trim()}/{@code split("\\|")}/{@code Integer.parseInt} parsing it
+ * replaces.
+ */
+public class MessageReaderTest {
+
+    private static final String[] CORPUS = {
+            "locationUpdate|7|12|-3|ONROUTE",
+            "  missionCompleted|2|5|15 \n",
+            "ASSIGN_MISSION|1|4|FIRE|HIGH|15|30|7|7",
+            "receiveFireEventBatch|30|1|LOW|2|HIGH",
+            "INJECT_FAULT|3|",
+            "receiveFireEventBatch|5||",
+            "|leading|empty",
+            "a||b",
+            "getTime",
+            "",
+            "|",
+            "||",
+            "loadFile|/tmp/a b|c.csv",
+    };
+
+    /** 1. Fields, field counts and ints come out as split and parseInt gave them. */
+    @Test
+    public void fieldsMatchTrimAndSplit() {
+        MessageReader m = new MessageReader();
+        for (String msg : CORPUS) {
+            String[] parts = msg.trim().split("\\|");
+            m.reset(msg);
+            assertEquals(parts.length, m.fieldCount(), msg);
+            for (int i = 0; i < parts.length; i++) {
+                assertEquals(parts[i], m.stringField(i), msg);
+                assertTrue(m.is(i, parts[i]), msg);
+                Integer expected = null;
+                try {
+                    expected = Integer.parseInt(parts[i]);
+                } catch (NumberFormatException e) {
+                    // not a number: the reader must refuse it too
+                }
+                if (expected != null) {
+                    assertEquals(expected, m.intField(i), msg);
+                } else {
+                    int field = i;
+                    assertThrows(NumberFormatException.class, () -> m.intField(field), msg);
+                }
+            }
+            assertEquals(msg.trim(), m.toString());
+        }
+
+        for (String n : new String[]{"2147483647", "-2147483648", "+42", "0", "-0"}) {
+            assertEquals(Integer.parseInt(n), m.reset("x|" + n).intField(1), n);
+        }
+        for (String n : new String[]{"2147483648", "-2147483649", "-", "+", "1-2", "99999999999"}) {
+            assertThrows(NumberFormatException.class, () -> m.reset("x|" + n).intField(1), n);
+        }
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> m.reset("getTime").intField(1));
+    }
+
+    /** 2. Opcodes and known words come back as the table's own constants; others are copied. */
+    @Test
+    public void wordsAreMatchedAgainstTheTable() {
+        String[] ops = {"getTime", "locationUpdate"};
+        String[] states = {"IDLE", "ONROUTE"};
+        MessageReader m = new MessageReader().reset("locationUpdate|7|12|3|ONROUTE");
+
+        assertSame(ops[1], m.opcode(ops));
+        assertSame(states[1], m.wordOrString(4, states));
+        assertNull(m.reset("locationUpdates|7").opcode(ops));
+        assertNull(m.reset("getTim").opcode(ops));
+        assertEquals("FAULTED", m.reset("x|FAULTED").wordOrString(1, states));
+        assertNull(m.reset("").opcode(ops));
+        assertEquals("/tmp/a b|c.csv", m.reset("loadFile| /tmp/a b|c.csv ").rest(1));
+    }
+
+    /** 3. Correlation tags are stripped where the Scheduler used to strip them, and only there. */
+    @Test
+    public void correlationTagsAreStripped() {
+        MessageReader m = new MessageReader();
+
+        assertTrue(m.reset("getTime|#42").stripTag());
+        assertEquals(42, m.tag());
+        assertEquals(1, m.fieldCount());
+        assertEquals("getTime", m.toString());
+
+        assertTrue(m.reset("locationUpdate|7|1|2|IDLE|#9\n").stripTag());
+        assertEquals(9, m.tag());
+        assertEquals(5, m.fieldCount());
+        assertTrue(m.is(4, "IDLE"));
+
+        for (String untagged : new String[]{"getTime", "a|#", "a|#1x", "a#12", "a|12", "#5", "a|#1234567890123456789"}) {
+            assertFalse(m.reset(untagged).stripTag(), untagged);
+            assertEquals(-1, m.tag(), untagged);
+            assertEquals(untagged, m.toString());
+        }
+    }
+
+    /** 4. Parsing the hot messages allocates nothing once the reader exists. */
+    @Test
+    public void parsingAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String[] ops = {"missionCompleted", "locationUpdate"};
+        String[] states = {"IDLE", "ONROUTE"};
+        byte[] datagram = new byte[64];
+        byte[] msg = "locationUpdate|17|120|-33|ONROUTE|#1234".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(msg, 0, datagram, 0, msg.length);
+        MessageReader m = new MessageReader();
+
+        long sum = 0;
+        for (int round = 0; round < 2; round++) {           // the first round warms up
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 100_000; i++) {
+                m.reset(datagram, 0, msg.length);
+                m.stripTag();
+                if (m.opcode(ops) == ops[1] && m.wordOrString(4, states) == states[1]) {
+                    sum += m.intField(1) + m.intField(2) + m.intField(3) + m.tag();
+                }
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            if (round == 1) assertTrue(allocated < 1024, allocated + " bytes allocated parsing 100,000 messages");
+        }
+        assertEquals(2 * 100_000L * (17 + 120 - 33 + 1234), sum);
+    }
+}
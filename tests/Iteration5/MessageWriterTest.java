@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the reusable outbound message encoder, against the string
+ * concatenation it replaces and through the Scheduler's reply path.
+ */
+public class MessageWriterTest {
+
+    /** 1. Messages come out byte for byte as the concatenated strings did, and read back field by field. */
+    @Test
+    public void encodesLikeStringConcatenation() {
+        MessageWriter w = new MessageWriter(4);     // small, so every message grows it
+        MessageReader m = new MessageReader();
+
+        w.begin("ASSIGN_MISSION").field(17).field(904).field("FIRE").field("HIGH")
+                .field(15).field(3600).field(-120).field(0);
+        assertEquals("ASSIGN_MISSION|17|904|FIRE|HIGH|15|3600|-120|0", w.toString());
+        m.reset(w.toString());
+        assertEquals(9, m.fieldCount());
+        assertEquals(-120, m.intField(7));
+
+        for (long v : new long[]{0, 9, 10, -1, 1_000_000_007L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(String.valueOf(v), w.begin(v).toString());
+            assertEquals("x|" + v, w.begin("x").field(v).toString());
+        }
+
+        assertEquals("ACK|#7", w.begin("ACK").tag(7).toString());
+        assertEquals("ACK", w.begin("ACK").tag(-1).toString());
+        assertTrue(m.reset(w.begin("ERR").field("bad row").tag(123).toString()).stripTag());
+        assertEquals(123, m.tag());
+        assertEquals("bad row", m.stringField(1));
+
+        String accented = "zone \u00e9";          // encoded as getBytes() encodes it
+        assertEquals(new String(("ERR|" + accented).getBytes()), w.begin("ERR").field(accented).toString());
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 500; i++) longText.append(i % 10);
+        assertEquals("ERR|" + longText, w.begin("ERR").field(longText.toString()).toString());
+        assertEquals(4 + longText.length(), w.length());
+    }
+
+    /** 2. Replies from the Scheduler arrive intact, with the request's correlation tag. */
+    @Test
+    public void schedulerRepliesCarryTheTag() throws Exception {
+        Scheduler scheduler = new Scheduler();
+        scheduler.setConsoleLog(false);
+        new Thread(scheduler, "Scheduler").start();
+        try (DatagramSocket sock = new DatagramSocket()) {
+            sock.setSoTimeout(5000);
+            assertTrue(ask(sock, "getTime|#12").matches("\\d+\\|#12"));
+            assertEquals("false|#3", ask(sock, "isZoneActive|1|#3"));
+            assertEquals("false", ask(sock, "isZoneActive|1"));
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    private static String ask(DatagramSocket sock, String request) throws Exception {
+        byte[] out = request.getBytes();
+        sock.send(new DatagramPacket(out, out.length, InetAddress.getLocalHost(), Scheduler.PORT));
+        DatagramPacket reply = new DatagramPacket(new byte[256], 256);
+        sock.receive(reply);
+        return new String(reply.getData(), 0, reply.getLength());
+    }
+
+    /** 3. Encoding and sending a steady stream of messages allocates nothing once the writer exists. */
+    @Test
+    public void sendingAllocatesNothing() throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (DatagramChannel receiver = DatagramChannel.open().bind(new InetSocketAddress(loopback, 0));
+             DatagramChannel sender = MessageWriter.openChannel(0)) {
+            int port = ((InetSocketAddress) receiver.getLocalAddress()).getPort();
+            MessageWriter w = new MessageWriter();
+
+            w.begin("locationUpdate").field(17).field(120).field(-33).field("ONROUTE").send(sender, loopback, port);
+            ByteBuffer in = ByteBuffer.allocate(256);
+            receiver.receive(in);
+            assertEquals("locationUpdate|17|120|-33|ONROUTE", new String(in.array(), 0, in.position()));
+
+            for (int round = 0; round < 2; round++) {       // the first round warms up
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < 20_000; i++) {
+                    w.begin("locationUpdate").field(17).field(i).field(-33).field("ONROUTE")
+                            .send(sender, loopback, port);
+                }
+                long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+                if (round == 1) assertTrue(allocated < 1024, allocated + " bytes allocated sending 20,000 messages");
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the incremental metrics kept by the EventLogger.
+ */
+public class MetricsEngineTest {
+
+    private MetricsEngine metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricsEngine();
+    }
+
+    private void event(long seconds, Event event) {
+        metrics.record(seconds * 1000, event);
+    }
+
+    /**
+     * 1. Response and extinguish times follow the first arrival and the
+     *    matching FIRE_EXTINGUISHED, with repeat fires in one zone matched
+     *    oldest first.
+     */
+    @Test
+    void responseAndExtinguishTimes() {
+        event(0,   Event.of(EventEntity.SCHEDULER, EventCode.STARTED));
+        event(10,  Event.fireDetected(1, null));
+        event(15,  Event.fireDetected(1, null));
+        event(40,  Event.stateChange(1, DroneMachine.DroneState.EXTINGUISHING, 1));  // first fire: 30 s
+        event(50,  Event.stateChange(2, DroneMachine.DroneState.EXTINGUISHING, 1));  // second fire: 35 s
+        event(70,  Event.stateChange(3, DroneMachine.DroneState.EXTINGUISHING, 1));  // no fire left waiting
+        event(100, Event.fireExtinguished(1));                                       // first fire: 90 s
+        event(125, Event.fireExtinguished(1));                                       // second fire: 110 s
+
+        assertEquals(2, metrics.getFiresDetected());
+        assertEquals(2, metrics.getFiresExtinguished());
+        assertEquals(32_500, metrics.getAverageResponseMs());
+        assertEquals(100_000, metrics.getAverageExtinguishMs());
+    }
+
+    /**
+     * 2. A fire put out before any drone arrival is logged gets no response
+     *    time, and a later arrival is not credited to it.
+     */
+    @Test
+    void unansweredFireIsDroppedOnExtinguish() {
+        event(0,  Event.fireDetected(2, null));
+        event(20, Event.fireExtinguished(2));
+        event(30, Event.fireDetected(2, null));
+        event(35, Event.stateChange(1, DroneMachine.DroneState.EXTINGUISHING, 2));
+        event(60, Event.fireExtinguished(2));
+
+        assertEquals(5_000, metrics.getAverageResponseMs(), "Only the second fire has a response time");
+        assertEquals(25_000, metrics.getAverageExtinguishMs());
+    }
+
+    /**
+     * 3. Flight and idle time accumulate per drone; drones still idle count
+     *    up to the last event, including the fleet-wide total.
+     */
+    @Test
+    void droneTimesAccumulate() {
+        event(0,   Event.of(EventEntity.SCHEDULER, EventCode.STARTED));
+        event(10,  Event.stateChange(1, DroneMachine.DroneState.ONROUTE, 1));
+        event(40,  Event.stateChange(1, DroneMachine.DroneState.EXTINGUISHING, 1));
+        event(60,  Event.stateChange(1, DroneMachine.DroneState.RETURNING, Event.NO_ZONE));
+        event(90,  Event.stateChange(1, DroneMachine.DroneState.IDLE, Event.NO_ZONE));
+        event(20,  Event.of(EventEntity.drone(2), EventCode.STARTED));
+        event(100, Event.of(EventEntity.SCHEDULER, EventCode.ENDED));
+
+        assertEquals(50_000, metrics.getFlightMs(1), "ONROUTE + EXTINGUISHING");
+        assertEquals(20_000, metrics.getIdleMs(1), "0-10 s before leaving, then 90-100 s");
+        assertEquals(100_000, metrics.getIdleMs(2), "Never left IDLE since the start of the log");
+        assertEquals(120_000, metrics.getTotalIdleMs());
+        assertEquals(2, metrics.getDroneCount());
+        assertEquals(-1, metrics.getFlightMs(3));
+    }
+
+    /** 4. Printing a large run does not depend on the number of events. */
+    @Test
+    void largeRunStaysBounded() {
+        for (int i = 0; i < 200_000; i++) {
+            int zone = i % 500;
+            event(i * 3L,     Event.fireDetected(zone, null));
+            event(i * 3L + 1, Event.stateChange(i % 1000, DroneMachine.DroneState.EXTINGUISHING, zone));
+            event(i * 3L + 2, Event.fireExtinguished(zone));
+        }
+        assertEquals(1_000, metrics.getAverageResponseMs());
+        assertEquals(2_000, metrics.getAverageExtinguishMs());
+        assertEquals(1000, metrics.getDroneCount());
+        assertDoesNotThrow(metrics::print);
+    }
+}
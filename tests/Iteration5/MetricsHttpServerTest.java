@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.*;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Prometheus /metrics endpoint served by the Scheduler and
+ * the EventLogger.
+ */
+public class MetricsHttpServerTest {
+
+    private static String scrape(MetricsHttpServer server) throws Exception {
+        HttpURLConnection conn = (HttpURLConnection)
+                new URL("http://localhost:" + server.getPort() + "/metrics").openConnection();
+        assertEquals(200, conn.getResponseCode());
+        assertTrue(conn.getContentType().startsWith("text/plain; version=0.0.4"));
+        try (InputStream in = conn.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** 1. Labels are escaped and HELP/TYPE are written once per metric. */
+    @Test
+    void expositionFormat() {
+        MetricsHttpServer.Exposition out = new MetricsHttpServer.Exposition();
+        out.counter("x_total", "Things");
+        out.sample("x_total", 3, "name", "a\"b\\c");
+        out.counter("x_total", "Things");
+        out.sample("x_total", 1.5, "name", "d");
+        assertEquals("# HELP x_total Things\n# TYPE x_total counter\n"
+                + "x_total{name=\"a\\\"b\\\\c\"} 3\nx_total{name=\"d\"} 1.5\n", out.toString());
+    }
+
+    /** 2. The Scheduler publishes queue depth, missions, drone states and datagram counts. */
+    @Test
+    void schedulerEndpoint() throws Exception {
+        Scheduler scheduler = new Scheduler();
+        try (MetricsHttpServer server = new MetricsHttpServer(0, scheduler::writeMetrics)) {
+            scheduler.registerDroneForTest(1, 15);
+            scheduler.receiveFireEventBatch(List.of(
+                    new FireEvent(1, "FIRE_DETECTED", "HIGH", 0),
+                    new FireEvent(2, "FIRE_DETECTED", "LOW", 0),
+                    new FireEvent(3, "FIRE_DETECTED", "LOW", 0)));
+
+            String body = scrape(server);
+            assertTrue(body.contains("\nscheduler_queue_depth{severity=\"LOW\"} 2\n"), body);
+            assertTrue(body.contains("\nscheduler_queue_depth{severity=\"HIGH\"} 0\n"), body);
+            assertTrue(body.contains("\nscheduler_active_missions 1\n"), body);
+            assertTrue(body.contains("\nscheduler_drones{state=\"ONROUTE\"} 1\n"), body);
+            assertTrue(body.contains("\nscheduler_datagrams_sent_total{type=\"ASSIGN_MISSION\"} 1\n"), body);
+            assertTrue(body.contains("\nscheduler_dispatch_latency_seconds_count 1\n"), body);
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    /** 3. The EventLogger publishes ingest counters and latency summaries. */
+    @Test
+    void eventLoggerEndpoint() throws Exception {
+        EventLogger logger = new EventLogger();
+        logger.setTextLogEnabled(false);
+        try (MetricsHttpServer server = new MetricsHttpServer(0, logger::writeMetrics)) {
+            String[] events = {
+                    "0,Scheduler,FIRE_DETECTED,ZONE 1,HIGH",
+                    "30,Drone 1,STATE_CHANGE,EXTINGUISHING,ZONE 1",
+                    "90,Scheduler,FIRE_EXTINGUISHED,ZONE 1"};
+            for (String e : events) {
+                byte[] b = e.getBytes(StandardCharsets.UTF_8);
+                logger.handlePacket(b, b.length);
+            }
+
+            String body = scrape(server);
+            assertTrue(body.contains("\neventlogger_events_total 3\n"), body);
+            assertTrue(body.contains("\neventlogger_datagrams_received_total{type=\"event\"} 3\n"), body);
+            assertTrue(body.contains("# TYPE eventlogger_ingest_rate gauge\n"), body);
+            assertTrue(body.contains("\neventlogger_response_seconds{quantile=\"0.99\"} 30\n"), body);
+            assertTrue(body.contains("\neventlogger_extinguish_seconds_count 1\n"), body);
+        } finally {
+            logger.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the replay viewer's snapshot index over an event log.
+ */
+public class ReplayIndexTest {
+
+    private static final Map<Integer, Zone> ZONES = Scheduler.defaultZones();   // zone 2 centre is (22, 7)
+
+    private static List<Event> mission() {
+        return List.of(
+                Event.fireDetected(2, FireEvent.FireSeverity.HIGH).at(5),
+                Event.fireDetected(2, FireEvent.FireSeverity.LOW).at(6),
+                Event.stateChange(1, DroneMachine.DroneState.ONROUTE, 2).at(10),
+                Event.stateChange(1, DroneMachine.DroneState.EXTINGUISHING, 2).at(30),
+                Event.fireExtinguished(2).at(35),
+                Event.stateChange(1, DroneMachine.DroneState.RETURNING, Event.NO_ZONE).at(40),
+                Event.stateChange(1, DroneMachine.DroneState.REFILLING_AND_RECHARGING, Event.NO_ZONE).at(60),
+                Event.stateChange(1, DroneMachine.DroneState.IDLE, Event.NO_ZONE).at(70));
+    }
+
+    /** Drone position and state, and the fires, as the GUI would show them. */
+    private static String render(ReplayIndex.State s) {
+        StringBuilder sb = new StringBuilder();
+        for (DroneInfo d : s.getDrones().values()) {
+            sb.append(d.droneId).append('@').append(d.x).append(',').append(d.y).append(' ').append(d.state).append(' ');
+        }
+        return sb.append(new java.util.TreeMap<>(s.getFiresPerZone())).toString();
+    }
+
+    /** 1. Drones fly between zone centres and base, and fires burn until extinguished. */
+    @Test
+    void reconstructsDronesAndFires() {
+        ReplayIndex replay = ReplayIndex.of(mission(), ZONES, 15);
+        assertEquals(5, replay.getStartTime());
+        assertEquals(70, replay.getEndTime());
+
+        assertEquals("{2=20}", render(replay.stateAt(7)), "No drone yet; HIGH + LOW need 20 L");
+        assertArrayEquals(new int[]{1, 0, 1}, replay.stateAt(7).getFireCounts());
+        assertEquals("1@11,4 ONROUTE {2=20}", render(replay.stateAt(20)), "Half way to zone 2");
+        assertEquals("1@22,7 EXTINGUISHING {2=20}", render(replay.stateAt(30)));
+        assertEquals("1@22,7 EXTINGUISHING {}", render(replay.stateAt(35)));
+        assertEquals("1@11,4 RETURNING {}", render(replay.stateAt(50)));
+        assertEquals("1@0,0 REFILLING {}", render(replay.stateAt(65)));
+        assertEquals("1@0,0 IDLE {}", render(replay.stateAt(1000)));
+        assertEquals("{}", render(replay.stateAt(0)));
+    }
+
+    /** 2. Seeking from the nearest snapshot gives the same state as replaying from the start. */
+    @Test
+    void seekMatchesReplayFromStart() {
+        Random rnd = new Random(9);
+        DroneMachine.DroneState[] states = DroneMachine.DroneState.values();
+        List<Event> events = new ArrayList<>();
+        for (long t = 0; t < 6 * 3600; t += rnd.nextInt(4)) {
+            int r = rnd.nextInt(10);
+            if (r == 0) {
+                events.add(Event.fireDetected(1 + rnd.nextInt(4), FireEvent.FireSeverity.values()[rnd.nextInt(3)]).at(t));
+            } else if (r == 1) {
+                events.add(Event.fireExtinguished(1 + rnd.nextInt(4)).at(t));
+            } else {
+                int zone = rnd.nextBoolean() ? 1 + rnd.nextInt(4) : Event.NO_ZONE;
+                events.add(Event.stateChange(1 + rnd.nextInt(40), states[rnd.nextInt(states.length)], zone).at(t));
+            }
+        }
+        ReplayIndex indexed = ReplayIndex.of(events, ZONES, 60);
+        ReplayIndex fromStart = ReplayIndex.of(events, ZONES, Integer.MAX_VALUE);
+        assertEquals(6 * 60, indexed.getSnapshotCount(), "One snapshot a minute");
+        assertEquals(1, fromStart.getSnapshotCount());
+
+        for (int i = 0; i < 200; i++) {
+            long t = rnd.nextInt(6 * 3600 + 100) - 50;
+            assertEquals(render(fromStart.stateAt(t)), render(indexed.stateAt(t)), "At " + t);
+        }
+    }
+
+    /** 3. log.txt is read line by line; lines that are not events are counted and skipped. */
+    @Test
+    void loadsLogFile(@TempDir Path dir) throws Exception {
+        StringBuilder log = new StringBuilder();
+        for (Event e : mission()) log.append(e).append('\n');
+        log.append("garbage\n");
+        log.append(Event.withText(EventEntity.FIRE_SUBSYSTEM, EventCode.PROCESSING_FILE, "fires.csv").at(80)).append('\n');
+        Path file = dir.resolve("log.txt");
+        Files.writeString(file, log.toString().replace("\n", "\r\n"));
+
+        ReplayIndex replay = ReplayIndex.load(file, ZONES, 60);
+        assertEquals(8, replay.getEventCount());
+        assertEquals(1, replay.getMalformed());
+        assertEquals("1@11,4 ONROUTE {2=20}", render(replay.stateAt(20)));
+    }
+}
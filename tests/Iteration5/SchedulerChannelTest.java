@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.*;
+
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the correlated request/reply channel that FireIncidentSubsystem
+ * replay sessions share.
+ */
+public class SchedulerChannelTest {
+
+    // Stand-in for the Scheduler that answers "echo|<n>" with "<n>" after a
+    // delay that is longest for the earliest request, so replies arrive out of order.
+    private static class ReorderingPeer implements AutoCloseable {
+        final DatagramSocket socket;
+        final boolean tagReplies;
+
+        ReorderingPeer(boolean tagReplies) throws Exception {
+            this.socket     = new DatagramSocket(0);
+            this.tagReplies = tagReplies;
+            Thread t = new Thread(this::listen);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        void listen() {
+            ScheduledExecutorService replies = Executors.newSingleThreadScheduledExecutor();
+            byte[] buf = new byte[1024];
+            while (!socket.isClosed()) {
+                try {
+                    DatagramPacket pkt = new DatagramPacket(buf, buf.length);
+                    socket.receive(pkt);
+                    String msg = new String(pkt.getData(), 0, pkt.getLength());
+                    String[] parts = msg.split("\\|");
+                    String tag = parts[parts.length - 1];
+                    int n = Integer.parseInt(parts[1]);
+                    String reply = tagReplies ? parts[1] + "|" + tag : parts[1];
+                    InetAddress addr = pkt.getAddress();
+                    int port = pkt.getPort();
+                    replies.schedule(() -> {
+                        byte[] data = reply.getBytes();
+                        try {
+                            socket.send(new DatagramPacket(data, data.length, addr, port));
+                        } catch (Exception ignored) { }
+                    }, Math.max(0, 200 - n * 10), TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    if (!socket.isClosed()) e.printStackTrace();
+                }
+            }
+            replies.shutdownNow();
+        }
+
+        @Override
+        public void close() { socket.close(); }
+    }
+
+    /**
+     * 1. Concurrent callers on one channel each get their own reply, even
+     *    when the replies come back in the opposite order.
+     */
+    @Test
+    void concurrentRequestsReceiveTheirOwnReplies() throws Exception {
+        try (ReorderingPeer peer = new ReorderingPeer(true);
+             SchedulerChannel channel = new SchedulerChannel(
+                     InetAddress.getLoopbackAddress(), peer.socket.getLocalPort(), 2000, 2)) {
+            ExecutorService pool = Executors.newFixedThreadPool(16);
+            List<Future<String>> replies = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                int n = i;
+                replies.add(pool.submit(() -> channel.request("echo|" + n)));
+            }
+            for (int i = 0; i < 16; i++) {
+                assertEquals(String.valueOf(i), replies.get(i).get(5, TimeUnit.SECONDS),
+                        "Request " + i + " must receive the reply to its own tag");
+            }
+            pool.shutdown();
+            assertEquals(0, channel.pendingCount());
+        }
+    }
+
+    /**
+     * 2. A peer that does not echo tags still works for a single caller: the
+     *    untagged reply goes to the oldest outstanding request.
+     */
+    @Test
+    void untaggedReplyGoesToOldestRequest() throws Exception {
+        try (ReorderingPeer peer = new ReorderingPeer(false);
+             SchedulerChannel channel = new SchedulerChannel(
+                     InetAddress.getLoopbackAddress(), peer.socket.getLocalPort(), 2000, 2)) {
+            assertEquals("7", channel.request("echo|7"));
+        }
+    }
+
+    /**
+     * 3. The real Scheduler strips the tag before dispatching and echoes it
+     *    on the reply.
+     */
+    @Test
+    void schedulerEchoesCorrelationTag() throws Exception {
+        Scheduler scheduler = new Scheduler();
+        new Thread(scheduler, "Scheduler").start();
+        try (SchedulerChannel channel = new SchedulerChannel(
+                InetAddress.getLoopbackAddress(), Scheduler.PORT, 2000, 2)) {
+            assertEquals("false", channel.request("isZoneActive|1"));
+            assertDoesNotThrow(() -> Long.parseLong(channel.request("getTime")));
+        } finally {
+            scheduler.stop();
+        }
+    }
+}
@@ -171,4 +171,41 @@ public class SchedulerTest {
         List<String> errors = scheduler.loadZonesFromFile(f.getAbsolutePath());
         assertFalse("Overlapping zones must produce at least one error", errors.isEmpty());
     }
+
+    /**
+     * 8. A batch of same-instant fires is queued in one call and dispatched
+     *    together: every idle drone is assigned and the rest stay queued.
+     */
+    @Test
+    public void fireBatchQueuedAndDispatchedTogether() throws Exception {
+        scheduler.registerDroneForTest(1, 15);
+        scheduler.registerDroneForTest(2, 15);
+
+        int accepted = scheduler.receiveFireEventBatch(List.of(
+                fire(1, "HIGH"), fire(2, "HIGH"), fire(3, "LOW")));
+
+        assertEquals("All three fires must be accepted", 3, accepted);
+        assertEquals("ONROUTE", scheduler.getDroneInfo(1).state);
+        assertEquals("ONROUTE", scheduler.getDroneInfo(2).state);
+        assertTrue("Third fire must wait in the queue for a free drone",
+                scheduler.hasQueuedFireForZone(3));
+    }
+
+    /**
+     * 9. Fires in a batch for a zone that is already burning are dropped, not
+     *    held in the pending queue.
+     */
+    @Test
+    public void fireBatchDropsZonesAlreadyBurning() {
+        scheduler.receiveFireEvent(fire(1, "LOW"));
+
+        int accepted = scheduler.receiveFireEventBatch(List.of(
+                fire(1, "HIGH"), fire(2, "MODERATE"), fire(2, "LOW")));
+
+        assertEquals("Only the zone 2 fire is new", 1, accepted);
+        assertEquals("Batched duplicates must not be held as pending",
+                0, scheduler.pendingFireCountForZone(1));
+        assertEquals(0, scheduler.pendingFireCountForZone(2));
+        assertTrue(scheduler.hasQueuedFireForZone(2));
+    }
 }
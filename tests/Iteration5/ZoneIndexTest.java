@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cell → zone lookup tree and the sweep-line coverage check.
+ */
+public class ZoneIndexTest {
+
+    /** Cuts the rectangle into zones by random guillotine cuts, so they tile it exactly. */
+    private static void split(List<Zone> out, Random rnd, int x1, int y1, int x2, int y2, int depth) {
+        boolean vertical = rnd.nextBoolean();
+        int span = vertical ? x2 - x1 : y2 - y1;
+        if (depth == 0 || span < 2) {
+            out.add(new Zone(out.size() + 1, x1, x2, y1, y2));
+            return;
+        }
+        int cut = (vertical ? x1 : y1) + rnd.nextInt(span);
+        if (vertical) {
+            split(out, rnd, x1, y1, cut, y2, depth - 1);
+            split(out, rnd, cut + 1, y1, x2, y2, depth - 1);
+        } else {
+            split(out, rnd, x1, y1, x2, cut, depth - 1);
+            split(out, rnd, x1, cut + 1, x2, y2, depth - 1);
+        }
+    }
+
+    /** The old check: mark every cell of every zone. */
+    private static String bruteForce(List<Zone> zones) {
+        int w = 0, h = 0;
+        for (Zone z : zones) {
+            w = Math.max(w, z.getXMax() + 1);
+            h = Math.max(h, z.getYMax() + 1);
+        }
+        int[][] owner = new int[w][h];
+        for (Zone z : zones) {
+            for (int x = z.getXMin(); x <= z.getXMax(); x++) {
+                for (int y = z.getYMin(); y <= z.getYMax(); y++) {
+                    if (owner[x][y]++ > 0) return "overlap";
+                }
+            }
+        }
+        for (int[] column : owner) for (int n : column) if (n == 0) return "gap";
+        return null;
+    }
+
+    /** 1. Every cell of a random tiling finds its zone, and cells off the map find none. */
+    @Test
+    void zoneAtFindsTheZoneHoldingEachCell() {
+        Random rnd = new Random(4);
+        List<Zone> zones = new ArrayList<>();
+        split(zones, rnd, 0, 0, 199, 149, 11);
+        ZoneIndex index = ZoneIndex.of(zones);
+        assertEquals(zones.size(), index.size());
+        assertTrue(zones.size() > 500, "Several levels deep: " + zones.size());
+
+        for (Zone z : zones) {
+            for (int i = 0; i < 3; i++) {
+                int x = z.getXMin() + rnd.nextInt(z.getXMax() - z.getXMin() + 1);
+                int y = z.getYMin() + rnd.nextInt(z.getYMax() - z.getYMin() + 1);
+                assertSame(z, index.zoneAt(x, y), "Cell " + x + "," + y);
+            }
+        }
+        assertNull(index.zoneAt(-1, 0));
+        assertNull(index.zoneAt(200, 10));
+        assertNull(index.zoneAt(10, 150));
+        assertNull(ZoneIndex.of(List.of()).zoneAt(0, 0));
+    }
+
+    /** 2. The sweep finds the same overlaps and gaps as marking every cell, and names a cell. */
+    @Test
+    void sweepAgreesWithCellMarking() {
+        List<Zone> quad = new ArrayList<>(Scheduler.defaultZones().values());
+        assertNull(ZoneIndex.coverageError(quad, 100));
+
+        quad.set(1, new Zone(2, 14, 29, 0, 14));         // column 14 claimed twice
+        assertEquals("Zones overlap at cell (14,0) = (1400m,0m)", ZoneIndex.coverageError(quad, 100));
+        quad.set(1, new Zone(2, 16, 29, 0, 14));         // column 15 claimed by nobody
+        assertEquals("Gap in zone coverage at cell (15,0) = (1500m,0m)", ZoneIndex.coverageError(quad, 100));
+        quad.set(1, new Zone(2, 15, 29, 0, 13));         // row 14 of zone 2 missing
+        assertEquals("Gap in zone coverage at cell (15,14) = (1500m,1400m)", ZoneIndex.coverageError(quad, 100));
+
+        Random rnd = new Random(8);
+        for (int round = 0; round < 300; round++) {
+            List<Zone> zones = new ArrayList<>();
+            split(zones, rnd, 0, 0, 20 + rnd.nextInt(20), 20 + rnd.nextInt(20), 5);
+            if (round % 3 != 0) {
+                // Nudge one edge of one zone by a cell
+                int i = rnd.nextInt(zones.size());
+                Zone z = zones.get(i);
+                int d = rnd.nextBoolean() ? 1 : -1;
+                Zone moved = rnd.nextBoolean()
+                        ? new Zone(z.getId(), Math.max(0, Math.min(z.getXMax(), z.getXMin() + d)), z.getXMax(), z.getYMin(), z.getYMax())
+                        : new Zone(z.getId(), z.getXMin(), z.getXMax(), z.getYMin(), Math.max(z.getYMin(), z.getYMax() + d));
+                zones.set(i, moved);
+            }
+            String expected = bruteForce(zones);
+            String actual = ZoneIndex.coverageError(zones, 100);
+            if (expected == null) assertNull(actual, "Round " + round);
+            else assertTrue(actual != null && actual.toLowerCase().contains(expected), "Round " + round + ": " + actual);
+        }
+    }
+
+    /** 3. Validation and lookup cost follow the zone count, not the map area. */
+    @Test
+    void hugeMapsValidateWithoutTouchingEveryCell() {
+        // 250,000 zones of 1000x1000 cells: 2.5e11 cells, far too many to mark
+        List<Zone> zones = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            for (int j = 0; j < 500; j++) {
+                zones.add(new Zone(zones.size() + 1, i * 1000, i * 1000 + 999, j * 1000, j * 1000 + 999));
+            }
+        }
+        long start = System.nanoTime();
+        assertNull(ZoneIndex.coverageError(zones, 100));
+        ZoneIndex index = ZoneIndex.of(zones);
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+        assertEquals(500 * 123 + 456 + 1, index.zoneAt(123_456, 456_789).getId());
+
+        zones.set(1000, new Zone(1001, 2000, 2999, 0, 998));
+        assertEquals("Gap in zone coverage at cell (2000,999) = (200000m,99900m)",
+                ZoneIndex.coverageError(zones, 100));
+    }
+}
@@ -0,0 +1,154 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the immutable zone table and its hot swap into a running
+ * Scheduler.
+ */
+public class ZoneTableTest {
+
+    @TempDir
+    Path tmp;
+
+    private Scheduler scheduler;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        scheduler = new Scheduler();
+        scheduler.setConsoleLog(false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    /** A zone file of {@code cols} x {@code rows} zones, each 3x3 cells, numbered from 1 at (0,0). */
+    private File grid(String name, int cols, int rows) throws Exception {
+        File f = tmp.resolve(name).toFile();
+        int side = 3 * Scheduler.METERS_PER_CELL;
+        try (PrintWriter pw = new PrintWriter(f)) {
+            pw.println("ZoneID, ZoneStart, ZoneEnd");
+            int id = 1;
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < cols; x++) {
+                    pw.printf("%d, (%d, %d), (%d, %d)%n", id++,
+                            x * side, y * side, (x + 1) * side, (y + 1) * side);
+                }
+            }
+        }
+        return f;
+    }
+
+    /**
+     * 1. A reload publishes a new table one version up; a reader still
+     *    holding the old table keeps seeing the old zones, and a rejected
+     *    file publishes nothing.
+     */
+    @Test
+    public void reloadSwapsInANewTableAndLeavesTheOldOneIntact() throws Exception {
+        ZoneTable before = scheduler.getZoneTable();
+        assertEquals(4, before.size());
+
+        assertTrue(scheduler.loadZonesFromFile(grid("z.csv", 3, 2).getAbsolutePath()).isEmpty());
+        ZoneTable after = scheduler.getZoneTable();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(6, after.size());
+        assertEquals(5, after.zoneAt(4, 4).getId());
+        assertEquals(4, before.size(), "the table held before the swap is unchanged");
+        assertEquals(1, before.zoneAt(4, 4).getId());
+
+        File bad = tmp.resolve("bad.csv").toFile();
+        try (PrintWriter pw = new PrintWriter(bad)) {
+            pw.println("ZoneID, ZoneStart, ZoneEnd");
+            pw.println("1, (0, 0), (300, 300)");
+            pw.println("2, (600, 0), (900, 300)");
+        }
+        assertFalse(scheduler.loadZonesFromFile(bad.getAbsolutePath()).isEmpty());
+        assertSame(after, scheduler.getZoneTable());
+    }
+
+    /**
+     * 2. Dispatch keeps going while a 100,000-zone file is read and
+     *    validated: fire → assign → complete cycles run during the reload
+     *    about as fast as they do without one, where before each waited
+     *    for the reload to release the Scheduler lock.
+     */
+    @Test
+    public void dispatchIsNotStalledByAHundredThousandZoneReload() throws Exception {
+        String path = grid("big.csv", 400, 250).getAbsolutePath();
+        scheduler.registerDroneForTest(1, 1_000_000);
+
+        // Baseline with no reload running; the first half warms up
+        LatencyHistogram baseline = new LatencyHistogram();
+        for (int i = 0; i < 20_000; i++) {
+            long nanos = dispatchCycle();
+            if (i >= 10_000) baseline.record(nanos);
+        }
+
+        Thread loader = new Thread(() -> {
+            try {
+                assertTrue(scheduler.loadZonesFromFile(path).isEmpty());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, "ZoneReload");
+
+        LatencyHistogram duringReload = new LatencyHistogram();
+        loader.start();
+        while (loader.isAlive()) duringReload.record(dispatchCycle());
+        loader.join();
+
+        assertEquals(100_000, scheduler.getZones().size());
+        assertEquals(1, scheduler.getZonesVersion());
+        assertTrue(duringReload.getCount() >= 100,
+                "only " + duringReload.getCount() + " dispatch cycles ran during the reload");
+        long base = baseline.getValueAtPercentile(99);
+        long loaded = duringReload.getValueAtPercentile(99);
+        // A small factor, plus a millisecond for scheduling noise on a busy machine
+        assertTrue(loaded <= 5 * base + 1_000_000, String.format(
+                "p99 dispatch cycle %.3f ms during the reload, %.3f ms without (%d cycles, slowest %.1f ms)",
+                loaded / 1e6, base / 1e6, duringReload.getCount(), duringReload.getMax() / 1e6));
+    }
+
+    /** One fire in zone 1 dispatched to drone 1 and completed; returns its duration in nanoseconds. */
+    private long dispatchCycle() throws Exception {
+        long t = System.nanoTime();
+        scheduler.receiveFireEvent(new FireEvent(1, "FIRE", "LOW", 0));
+        assertEquals("ONROUTE", scheduler.getDroneInfo(1).state);
+        scheduler.missionCompleted(1, 1, 5);
+        return System.nanoTime() - t;
+    }
+
+    /** 3. A loadZones datagram is answered, with its correlation tag, once the zones are in. */
+    @Test
+    public void loadZonesCommandRepliesFromTheLoader() throws Exception {
+        new Thread(scheduler, "Scheduler").start();
+        String path = grid("udp.csv", 2, 2).getAbsolutePath();
+
+        try (DatagramSocket sock = new DatagramSocket()) {
+            sock.setSoTimeout(5000);
+            byte[] out = ("loadZones|" + path + SchedulerChannel.TAG_PREFIX + "7").getBytes();
+            sock.send(new DatagramPacket(out, out.length, InetAddress.getLocalHost(), Scheduler.PORT));
+            byte[] in = new byte[256];
+            DatagramPacket reply = new DatagramPacket(in, in.length);
+            sock.receive(reply);
+
+            assertEquals("ACK|#7", new String(reply.getData(), 0, reply.getLength()));
+        }
+        Map<Integer, Zone> zones = scheduler.getZones();
+        assertEquals(4, zones.size());
+        assertEquals(1, scheduler.getZonesVersion());
+        assertThrows(UnsupportedOperationException.class, () -> zones.remove(1));
+    }
+}